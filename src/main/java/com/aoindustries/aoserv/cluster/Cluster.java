@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2007-2011, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2007-2011, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -39,7 +39,7 @@ import java.util.Map;
  */
 public class Cluster implements Comparable<Cluster>, Serializable {
 
-  private static final long serialVersionUID = 2L;
+  private static final long serialVersionUID = 3L;
 
   // These are here just for generic-type-specific versions
   private static final Map<String, Dom0> emptyDom0Map = Collections.emptyMap();
@@ -86,6 +86,62 @@ public class Cluster implements Comparable<Cluster>, Serializable {
   // final SortedSet<Rack> unmodifiableRacks = Collections.unmodifiableSortedSet(racks);
   final Map<String, Dom0> unmodifiableDom0s;
   final Map<String, DomU> unmodifiableDomUs;
+  final int dom0DiskCount;
+  final int physicalVolumeCount;
+  final int domUDiskCount;
+
+  /**
+   * The resources of a cluster indexed by their ordinals.
+   */
+  static final class Ordinals {
+
+    final Dom0[] dom0s;
+    final PhysicalVolume[] physicalVolumes;
+
+    /**
+     * The number of physical volumes on each Dom0, indexed by Dom0 ordinal.
+     */
+    final int[] dom0PhysicalVolumeCounts;
+
+    /**
+     * The index of each physical volume within its Dom0, indexed by physical volume ordinal.
+     */
+    final int[] physicalVolumeIndexes;
+
+    final DomU[] domUs;
+    final DomUDisk[] domUDisks;
+
+    private Ordinals(Cluster cluster) {
+      dom0s = new Dom0[cluster.getDom0Count()];
+      physicalVolumes = new PhysicalVolume[cluster.physicalVolumeCount];
+      dom0PhysicalVolumeCounts = new int[dom0s.length];
+      physicalVolumeIndexes = new int[physicalVolumes.length];
+      for (Dom0 dom0 : cluster.unmodifiableDom0s.values()) {
+        dom0s[dom0.ordinal] = dom0;
+        int index = 0;
+        for (Dom0Disk dom0Disk : dom0.unmodifiableDom0Disks.values()) {
+          for (PhysicalVolume physicalVolume : dom0Disk.unmodifiablePhysicalVolumes.values()) {
+            physicalVolumes[physicalVolume.ordinal] = physicalVolume;
+            physicalVolumeIndexes[physicalVolume.ordinal] = index++;
+          }
+        }
+        dom0PhysicalVolumeCounts[dom0.ordinal] = index;
+      }
+      domUs = new DomU[cluster.getDomUCount()];
+      domUDisks = new DomUDisk[cluster.domUDiskCount];
+      for (DomU domU : cluster.unmodifiableDomUs.values()) {
+        domUs[domU.ordinal] = domU;
+        for (DomUDisk domUDisk : domU.unmodifiableDomUDisks.values()) {
+          domUDisks[domUDisk.ordinal] = domUDisk;
+        }
+      }
+    }
+  }
+
+  /**
+   * Built on first use.  Since all fields of {@link Ordinals} are final, concurrent builds are harmless.
+   */
+  private transient Ordinals ordinals;
 
   // final Map<String, SortedSet<DomU>> unmodifiableDomUGroups = Collections.unmodifiableMap(domUGroups);
 
@@ -96,7 +152,10 @@ public class Cluster implements Comparable<Cluster>, Serializable {
     this(
         name,
         emptyDom0Map,
-        emptyDomUMap
+        emptyDomUMap,
+        0,
+        0,
+        0
     );
   }
 
@@ -104,10 +163,20 @@ public class Cluster implements Comparable<Cluster>, Serializable {
    * Creates a cluster with the provided details.  No defensive copy of the provided objects
    * is created, and they MUST BE UNMODIFIABLE!
    */
-  private Cluster(String name, Map<String, Dom0> unmodifiableDom0s, Map<String, DomU> unmodifiableDomUs) {
+  private Cluster(
+      String name,
+      Map<String, Dom0> unmodifiableDom0s,
+      Map<String, DomU> unmodifiableDomUs,
+      int dom0DiskCount,
+      int physicalVolumeCount,
+      int domUDiskCount
+  ) {
     this.name = name;
     this.unmodifiableDom0s = unmodifiableDom0s;
     this.unmodifiableDomUs = unmodifiableDomUs;
+    this.dom0DiskCount = dom0DiskCount;
+    this.physicalVolumeCount = physicalVolumeCount;
+    this.domUDiskCount = domUDiskCount;
   }
 
   public String getName() {
@@ -171,6 +240,32 @@ public class Cluster implements Comparable<Cluster>, Serializable {
     return unmodifiableDom0s.get(hostname);
   }
 
+  /**
+   * Gets the number of Dom0s.  Every {@link Dom0#getOrdinal() Dom0 ordinal} is
+   * in the range <code>[0, getDom0Count())</code>.
+   */
+  public int getDom0Count() {
+    return unmodifiableDom0s.size();
+  }
+
+  /**
+   * Gets the number of Dom0 disks across all Dom0s.  Every
+   * {@link Dom0Disk#getOrdinal() Dom0Disk ordinal} is in the range
+   * <code>[0, getDom0DiskCount())</code>.
+   */
+  public int getDom0DiskCount() {
+    return dom0DiskCount;
+  }
+
+  /**
+   * Gets the number of physical volumes across all Dom0 disks.  Every
+   * {@link PhysicalVolume#getOrdinal() PhysicalVolume ordinal} is in the range
+   * <code>[0, getPhysicalVolumeCount())</code>.
+   */
+  public int getPhysicalVolumeCount() {
+    return physicalVolumeCount;
+  }
+
   /**
    * Adds a Dom0 to the cluster returning the reference to the new cluster object.
    */
@@ -192,6 +287,7 @@ public class Cluster implements Comparable<Cluster>, Serializable {
             new Dom0(
                 name,
                 hostname,
+                unmodifiableDom0s.size(),
                 /*rack,*/
                 ram,
                 processorType,
@@ -202,7 +298,10 @@ public class Cluster implements Comparable<Cluster>, Serializable {
                 emptyDom0DiskMap
             )
         ),
-        unmodifiableDomUs
+        unmodifiableDomUs,
+        dom0DiskCount,
+        physicalVolumeCount,
+        domUDiskCount
     );
   }
 
@@ -221,6 +320,34 @@ public class Cluster implements Comparable<Cluster>, Serializable {
     return unmodifiableDomUs.get(hostname);
   }
 
+  /**
+   * Gets the number of DomUs.  Every {@link DomU#getOrdinal() DomU ordinal} is
+   * in the range <code>[0, getDomUCount())</code>.
+   */
+  public int getDomUCount() {
+    return unmodifiableDomUs.size();
+  }
+
+  /**
+   * Gets the number of DomU disks across all DomUs.  Every
+   * {@link DomUDisk#getOrdinal() DomUDisk ordinal} is in the range
+   * <code>[0, getDomUDiskCount())</code>.
+   */
+  public int getDomUDiskCount() {
+    return domUDiskCount;
+  }
+
+  /**
+   * Gets the resources of this cluster indexed by their ordinals.
+   */
+  Ordinals getOrdinals() {
+    Ordinals o = ordinals;
+    if (o == null) {
+      ordinals = o = new Ordinals(this);
+    }
+    return o;
+  }
+
   /**
    * Adds a DomU to the cluster returning the reference to new cluster.
    */
@@ -246,6 +373,7 @@ public class Cluster implements Comparable<Cluster>, Serializable {
             new DomU(
                 name,
                 hostname,
+                unmodifiableDomUs.size(),
                 primaryRam,
                 secondaryRam,
                 minimumProcessorType,
@@ -258,7 +386,10 @@ public class Cluster implements Comparable<Cluster>, Serializable {
                 secondaryDom0Locked,
                 emptyDomUDiskMap
             )
-        )
+        ),
+        dom0DiskCount,
+        physicalVolumeCount,
+        domUDiskCount
     );
   }
 
@@ -278,6 +409,7 @@ public class Cluster implements Comparable<Cluster>, Serializable {
             new Dom0(
                 name,
                 hostname,
+                dom0.ordinal,
                 /*rack,*/
                 dom0.ram,
                 dom0.processorType,
@@ -291,14 +423,19 @@ public class Cluster implements Comparable<Cluster>, Serializable {
                     new Dom0Disk(
                         name,
                         hostname,
+                        dom0.ordinal,
                         device,
+                        dom0DiskCount,
                         diskSpeed,
                         emptyPhysicalVolumeMap
                     )
                 )
             )
         ),
-        unmodifiableDomUs
+        unmodifiableDomUs,
+        dom0DiskCount + 1,
+        physicalVolumeCount,
+        domUDiskCount
     );
   }
 
@@ -324,6 +461,7 @@ public class Cluster implements Comparable<Cluster>, Serializable {
             new Dom0(
                 name,
                 hostname,
+                dom0.ordinal,
                 /*rack,*/
                 dom0.ram,
                 dom0.processorType,
@@ -337,7 +475,9 @@ public class Cluster implements Comparable<Cluster>, Serializable {
                     new Dom0Disk(
                         name,
                         hostname,
+                        dom0.ordinal,
                         device,
+                        dom0Disk.ordinal,
                         dom0Disk.diskSpeed,
                         addToUnmodifiableMap(
                             dom0Disk.getPhysicalVolumes(),
@@ -345,8 +485,11 @@ public class Cluster implements Comparable<Cluster>, Serializable {
                             new PhysicalVolume(
                                 name,
                                 hostname,
+                                dom0.ordinal,
                                 device,
+                                dom0Disk.ordinal,
                                 partition,
+                                physicalVolumeCount,
                                 extents
                             )
                         )
@@ -354,7 +497,10 @@ public class Cluster implements Comparable<Cluster>, Serializable {
                 )
             )
         ),
-        unmodifiableDomUs
+        unmodifiableDomUs,
+        dom0DiskCount,
+        physicalVolumeCount + 1,
+        domUDiskCount
     );
   }
 
@@ -381,6 +527,7 @@ public class Cluster implements Comparable<Cluster>, Serializable {
             new DomU(
                 name,
                 hostname,
+                domU.ordinal,
                 domU.primaryRam,
                 domU.secondaryRam,
                 domU.minimumProcessorType,
@@ -397,14 +544,19 @@ public class Cluster implements Comparable<Cluster>, Serializable {
                     new DomUDisk(
                         name,
                         hostname,
+                        domU.ordinal,
                         device,
+                        domUDiskCount,
                         minimumDiskSpeed,
                         extents,
                         weight
                     )
                 )
             )
-        )
+        ),
+        dom0DiskCount,
+        physicalVolumeCount,
+        domUDiskCount + 1
     );
   }
 
@@ -27,12 +27,16 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -48,7 +52,10 @@ import java.util.TreeMap;
  * </ul>
  *
  * <p>The heap space used should be as small as possible to allow the maximum number of possible configurations
- * to be explored.</p>
+ * to be explored.  The DomU configurations are stored in a persistent vector, so a configuration derived
+ * by replacing one DomU configuration shares all but O(log n) of its storage with the configuration it
+ * is derived from.  To further reduce heap, a configuration may be converted to a {@linkplain #compact() compact}
+ * representation, which is preserved by all configurations derived from it.</p>
  *
  * <p>Everything in ClusterConfiguration is not thread-safe, if using from multiple
  * threads, external synchronization is required.</p>
@@ -59,9 +66,7 @@ import java.util.TreeMap;
  */
 public class ClusterConfiguration implements Comparable<ClusterConfiguration>, Serializable {
 
-  private static final long serialVersionUID = 1L;
-
-  private static final boolean USE_ALREADY_CONTAINS = false;
+  private static final long serialVersionUID = 2L;
 
   /**
    * Gets an unmodifiable list that combines the existing list with the new object
@@ -81,26 +86,6 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
     return new UnmodifiableArrayList<>(newArray);
   }
 
-  /**
-   * Replaces an existing entry in an unmodifiable list.  If the list only has a single
-   * entry, will use Collections.singletonList, otherwise creates a new UnmodifiableArrayList.
-   */
-  @SuppressWarnings({"unchecked"})
-  static <V extends Comparable<V>> List<V> replaceInUnmodifiableList(Class<V> clazz, List<V> existingList, int index, V newValue) {
-    int size = existingList.size();
-    assert size != 0 : "List is empty";
-    if (size == 1) {
-      assert index == 0 : "List size is 1 but index != 0: " + index;
-      return Collections.singletonList(newValue);
-    }
-    assert index >= 0 && index < size : "Index out of range: " + index;
-    V[] newArray = (V[]) Array.newInstance(clazz, size);
-    newArray = existingList.toArray(newArray);
-    newArray[index] = newValue;
-    // Arrays.sort(newArray);
-    return new UnmodifiableArrayList<>(newArray);
-  }
-
   /**
    * Gets the smallest possible List container to hold the provided collection.
    * It sorts the list and ensures it is unmodifiable.
@@ -138,17 +123,80 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
     return new UnmodifiableArrayList<>(newArray);
   }
 
-  private static int computeHashCode(Cluster cluster, List<DomUConfiguration> unmodifiableDomUConfigurations) {
-    return 31 * cluster.hashCode() + unmodifiableDomUConfigurations.hashCode();
+  /**
+   * Gets the list of DomU configurations as a {@link PersistentVector}, copying when it is not already.
+   */
+  private static PersistentVector<DomUConfiguration> toPersistentVector(List<DomUConfiguration> list) {
+    if (list instanceof PersistentVector) {
+      return (PersistentVector<DomUConfiguration>) list;
+    }
+    // Every list is either a persistent vector or compact, so this is only defensive
+    return PersistentVector.copyOf(list);
+  }
+
+  /**
+   * Adds to the list of DomU configurations, keeping the compact representation when used.
+   */
+  private static List<DomUConfiguration> addDomUConfiguration(List<DomUConfiguration> existingList, DomUConfiguration newValue) {
+    if (existingList instanceof CompactDomUConfigurationList) {
+      return ((CompactDomUConfigurationList) existingList).append(newValue);
+    }
+    return toPersistentVector(existingList).append(newValue);
+  }
+
+  /**
+   * Replaces in the list of DomU configurations, keeping the compact representation when used.
+   * Otherwise, only the nodes of the persistent vector on the path to the index are copied.
+   */
+  private static List<DomUConfiguration> replaceDomUConfiguration(List<DomUConfiguration> existingList, int index, DomUConfiguration newValue) {
+    if (existingList instanceof CompactDomUConfigurationList) {
+      return ((CompactDomUConfigurationList) existingList).replaceAt(index, newValue);
+    }
+    return toPersistentVector(existingList).replaceAt(index, newValue);
   }
 
   // These are here just for generic-type-specific versions
-  private static final List<DomUConfiguration> emptyDomUConfigurationList = Collections.emptyList();
+  private static final List<DomUConfiguration> emptyDomUConfigurationList = PersistentVector.empty();
   private static final List<DomUDiskConfiguration> emptyDomUDiskConfigurationList = Collections.emptyList();
 
   final Cluster cluster;
   final List<DomUConfiguration> unmodifiableDomUConfigurations;
-  private transient int hashCode;
+  private transient long hash64;
+
+  /**
+   * The index of the configuration of each DomU, indexed by {@linkplain DomU#getOrdinal() DomU ordinal},
+   * or <code>-1</code> when the DomU is not configured.  Since configurations are never reordered, this array
+   * is shared by all configurations derived from this one without adding a DomU, so it does not increase the
+   * heap used per configuration.  It must not be modified.
+   */
+  private transient int[] domUIndexes;
+
+  /**
+   * The allocations of the physical volumes, created when first needed by
+   * {@link #moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0)}, then derived
+   * incrementally by the configurations derived from this one.
+   */
+  private transient PhysicalVolumeAllocations physicalVolumeAllocations;
+
+  /**
+   * Builds the index of the configuration of each DomU.
+   */
+  private static int[] getDomUIndexes(Cluster cluster, List<DomUConfiguration> unmodifiableDomUConfigurations) {
+    int[] domUIndexes = new int[cluster.getDomUCount()];
+    Arrays.fill(domUIndexes, -1);
+    if (unmodifiableDomUConfigurations instanceof CompactDomUConfigurationList) {
+      // Avoid creating every DomUConfiguration
+      CompactDomUConfigurationList compact = (CompactDomUConfigurationList) unmodifiableDomUConfigurations;
+      for (int i = 0, size = compact.size(); i < size; i++) {
+        domUIndexes[compact.getDomUOrdinal(i)] = i;
+      }
+    } else {
+      for (int i = 0, size = unmodifiableDomUConfigurations.size(); i < size; i++) {
+        domUIndexes[unmodifiableDomUConfigurations.get(i).domU.ordinal] = i;
+      }
+    }
+    return domUIndexes;
+  }
 
   /**
    * Creates a new {@link ClusterConfiguration}.
@@ -161,14 +209,58 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
    * {@code unmodifiableDomUConfigurations} must be unmodifiable.
    */
   private ClusterConfiguration(Cluster cluster, List<DomUConfiguration> unmodifiableDomUConfigurations) {
+    this(
+        cluster,
+        unmodifiableDomUConfigurations,
+        Zobrist.getHash64(unmodifiableDomUConfigurations),
+        getDomUIndexes(cluster, unmodifiableDomUConfigurations),
+        null
+    );
+  }
+
+  /**
+   * {@code unmodifiableDomUConfigurations} must be unmodifiable.
+   * {@code hash64} must be the {@link Zobrist} hash of the configurations, usually derived from the hash of the
+   * configuration this one is derived from.
+   * {@code domUIndexes} must be the index of the configuration of each DomU, usually shared with the
+   * configuration this one is derived from.
+   * {@code physicalVolumeAllocations} must be the allocations of the configurations or <code>null</code> to create
+   * when first needed.
+   */
+  private ClusterConfiguration(
+      Cluster cluster,
+      List<DomUConfiguration> unmodifiableDomUConfigurations,
+      long hash64,
+      int[] domUIndexes,
+      PhysicalVolumeAllocations physicalVolumeAllocations
+  ) {
+    assert hash64 == Zobrist.getHash64(unmodifiableDomUConfigurations) : "Incorrect hash64";
+    assert Arrays.equals(domUIndexes, getDomUIndexes(cluster, unmodifiableDomUConfigurations)) : "Incorrect domUIndexes";
+    assert physicalVolumeAllocations == null
+        || physicalVolumeAllocations.equals(new PhysicalVolumeAllocations(cluster, unmodifiableDomUConfigurations))
+        : "Incorrect physicalVolumeAllocations";
     this.cluster = cluster;
     this.unmodifiableDomUConfigurations = unmodifiableDomUConfigurations;
-    this.hashCode = computeHashCode(cluster, unmodifiableDomUConfigurations);
+    this.hash64 = hash64;
+    this.domUIndexes = domUIndexes;
+    this.physicalVolumeAllocations = physicalVolumeAllocations;
   }
 
   private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
     ois.defaultReadObject();
-    this.hashCode = computeHashCode(cluster, unmodifiableDomUConfigurations);
+    this.hash64 = Zobrist.getHash64(unmodifiableDomUConfigurations);
+    this.domUIndexes = getDomUIndexes(cluster, unmodifiableDomUConfigurations);
+  }
+
+  /**
+   * Gets the allocations of the physical volumes, creating when first needed.
+   */
+  private PhysicalVolumeAllocations getPhysicalVolumeAllocations() {
+    PhysicalVolumeAllocations allocations = physicalVolumeAllocations;
+    if (allocations == null) {
+      physicalVolumeAllocations = allocations = new PhysicalVolumeAllocations(cluster, unmodifiableDomUConfigurations);
+    }
+    return allocations;
   }
 
   @Override
@@ -189,27 +281,93 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
   }
 
   /**
-   * Gets the cluster configuration for the provided DomU.  To conserve
-   * heap space at the expense of more time, this runs in O(n).
+   * Gets the {@linkplain Dom0#getOrdinal() ordinal} of the primary Dom0 of the DomU at the provided index of
+   * {@link #getDomUConfigurations()}.  When {@linkplain #isCompact() compact}, this does not create the
+   * {@link DomUConfiguration}.
+   */
+  public int getPrimaryDom0Ordinal(int index) {
+    if (unmodifiableDomUConfigurations instanceof CompactDomUConfigurationList) {
+      return ((CompactDomUConfigurationList) unmodifiableDomUConfigurations).getPrimaryDom0Ordinal(index);
+    }
+    return unmodifiableDomUConfigurations.get(index).primaryDom0.ordinal;
+  }
+
+  /**
+   * Gets the {@linkplain Dom0#getOrdinal() ordinal} of the secondary Dom0 of the DomU at the provided index of
+   * {@link #getDomUConfigurations()}.  When {@linkplain #isCompact() compact}, this does not create the
+   * {@link DomUConfiguration}.
+   */
+  public int getSecondaryDom0Ordinal(int index) {
+    if (unmodifiableDomUConfigurations instanceof CompactDomUConfigurationList) {
+      return ((CompactDomUConfigurationList) unmodifiableDomUConfigurations).getSecondaryDom0Ordinal(index);
+    }
+    return unmodifiableDomUConfigurations.get(index).secondaryDom0.ordinal;
+  }
+
+  /**
+   * Gets the cluster configuration for the provided DomU.  This runs in O(1)
+   * using an index shared between configurations.
    *
    * @return  the DomUConfiguration or null if not found
    */
   public DomUConfiguration getDomUConfiguration(DomU domU) {
-    for (DomUConfiguration domUConfiguration : unmodifiableDomUConfigurations) {
-      if (domUConfiguration.domU == domU) {
-        return domUConfiguration;
-      }
-    }
-    return null;
+    int index = indexOf(domU);
+    return index == -1 ? null : unmodifiableDomUConfigurations.get(index);
   }
 
-  private static boolean contains(List<DomUConfiguration> domUConfigurations, DomU domU) {
-    for (DomUConfiguration domUConfiguration : domUConfigurations) {
-      if (domUConfiguration.domU == domU) {
-        return true;
-      }
+  /**
+   * Gets the index of the configuration for the provided DomU or <code>-1</code> if not found.
+   * This runs in O(1).
+   */
+  private int indexOf(DomU domU) {
+    int ordinal = domU.ordinal;
+    int index = ordinal < domUIndexes.length ? domUIndexes[ordinal] : -1;
+    assert index == -1 || unmodifiableDomUConfigurations.get(index).domU == domU : this + ": DomU is not part of this cluster: " + domU;
+    return index;
+  }
+
+  /**
+   * Determines if this configuration uses the compact representation.
+   *
+   * @see  #compact()
+   */
+  public boolean isCompact() {
+    return unmodifiableDomUConfigurations instanceof CompactDomUConfigurationList;
+  }
+
+  /**
+   * Gets a configuration equal to this one that uses the compact representation.  Instead of a tree of small objects,
+   * the compact representation stores the Dom0 and disk mappings as arrays of the
+   * {@linkplain Cluster#getDom0Count() ordinals} of the resources, one array element per DomU, with the disk mappings
+   * of each DomU packed into a single <code>long[]</code>.  All configurations derived from a compact configuration,
+   * such as by {@link #liveMigrate(com.aoindustries.aoserv.cluster.DomU)} and
+   * {@link #moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0)}, are also
+   * compact, so an entire search may be performed in this representation by starting it from a compact configuration.
+   * The arrays are split into chunks of 32 DomUs held in a persistent vector, so a derived configuration copies only
+   * the changed arrays of one chunk and the path to it, sharing everything else with its parent.
+   *
+   * <p>This greatly reduces the heap used per configuration at the expense of more time:
+   * {@link #getDomUConfigurations()} creates new {@link DomUConfiguration} objects on every access.
+   * {@link #getPrimaryDom0Ordinal(int)} and {@link #getSecondaryDom0Ordinal(int)} read the Dom0s without creating
+   * them, which analysis uses to decode only the DomUs on the Dom0 being analyzed.  A full analysis still creates
+   * each {@link DomUConfiguration} once.</p>
+   *
+   * @return  this configuration when already compact
+   *
+   * @throws  IllegalArgumentException  when any extent does not fit in 32 bits or any disk is mapped to more than
+   *                                    65535 physical volumes
+   */
+  public ClusterConfiguration compact() {
+    if (isCompact()) {
+      return this;
     }
-    return false;
+    return new ClusterConfiguration(
+        cluster,
+        new CompactDomUConfigurationList(cluster, unmodifiableDomUConfigurations),
+        hash64,
+        domUIndexes,
+        physicalVolumeAllocations
+    );
   }
 
   /**
@@ -217,23 +375,33 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
    */
   public ClusterConfiguration addDomUConfiguration(DomU domU, Dom0 primaryDom0, Dom0 secondaryDom0) {
     // Make sure DomU not already added
-    assert !contains(unmodifiableDomUConfigurations, domU) : this + ": DomU already exists in this configuration: " + domU;
+    assert indexOf(domU) == -1 : this + ": DomU already exists in this configuration: " + domU;
 
     assert domU.clusterName.equals(cluster.name) : this + ": DomU is not part of this cluster: " + domU;
     assert primaryDom0.clusterName.equals(cluster.name) : this + ": primaryDom0 is not part of this cluster: " + primaryDom0;
     assert secondaryDom0.clusterName.equals(cluster.name) : this + ": secondaryDom0 is not part of this cluster: " + secondaryDom0;
+    DomUConfiguration newDomUConfiguration = new DomUConfiguration(
+        domU,
+        primaryDom0,
+        secondaryDom0,
+        emptyDomUDiskConfigurationList
+    );
+    int ordinal = domU.ordinal;
+    if (ordinal >= domUIndexes.length) {
+      throw new IllegalArgumentException(this + ": DomU is not part of this cluster: " + domU);
+    }
+    int[] newDomUIndexes = domUIndexes.clone();
+    newDomUIndexes[ordinal] = unmodifiableDomUConfigurations.size();
     return new ClusterConfiguration(
         cluster,
-        addToUnmodifiableList(
-            DomUConfiguration.class,
+        addDomUConfiguration(
             unmodifiableDomUConfigurations,
-            new DomUConfiguration(
-                domU,
-                primaryDom0,
-                secondaryDom0,
-                emptyDomUDiskConfigurationList
-            )
-        )
+            newDomUConfiguration
+        ),
+        hash64 ^ newDomUConfiguration.hash64,
+        newDomUIndexes,
+        // No disks are mapped yet
+        physicalVolumeAllocations
     );
   }
 
@@ -270,16 +438,9 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
     assert domUDisk.clusterName.equals(domU.clusterName) : this + ": DomUDisk.clusterName != DomU.clusterName: " + domUDisk.clusterName + " != " + domU.clusterName;
     assert domUDisk.domUHostname.equals(domU.hostname) : this + ": DomUDisk.domUHostname != DomU.hostname: " + domUDisk.domUHostname + " != " + domU.hostname;
 
-    DomUConfiguration domUConfiguration = null;
-    int unmodifiableDomUConfigurationsIndex = 0;
-    for (int len = unmodifiableDomUConfigurations.size(); unmodifiableDomUConfigurationsIndex < len; unmodifiableDomUConfigurationsIndex++) {
-      DomUConfiguration domUConfigurationTmp = unmodifiableDomUConfigurations.get(unmodifiableDomUConfigurationsIndex);
-      if (domUConfigurationTmp.domU == domU) {
-        domUConfiguration = domUConfigurationTmp;
-        break;
-      }
-    }
-    assert domUConfiguration != null : this + ": DomUConfiguration not found: " + domU;
+    int unmodifiableDomUConfigurationsIndex = indexOf(domU);
+    assert unmodifiableDomUConfigurationsIndex != -1 : this + ": DomUConfiguration not found: " + domU;
+    DomUConfiguration domUConfiguration = unmodifiableDomUConfigurations.get(unmodifiableDomUConfigurationsIndex);
 
     // Make sure DomUDisk not already added
     assert !contains(domUConfiguration.unmodifiableDomUDiskConfigurations, domUDisk) : domUConfiguration + ": DomUDisk already exists in this configuration: " + domUDisk;
@@ -292,27 +453,30 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
     assert allDom0Match(primaryPvCopy, domUConfiguration.primaryDom0);
     assert allDom0Match(secondaryPvCopy, domUConfiguration.secondaryDom0);
 
+    DomUConfiguration newDomUConfiguration = new DomUConfiguration(
+        domUConfiguration.domU,
+        domUConfiguration.primaryDom0,
+        domUConfiguration.secondaryDom0,
+        addToUnmodifiableList(
+            DomUDiskConfiguration.class,
+            domUConfiguration.unmodifiableDomUDiskConfigurations,
+            new DomUDiskConfiguration(
+                domUDisk,
+                primaryPvCopy,
+                secondaryPvCopy
+            )
+        )
+    );
     return new ClusterConfiguration(
         cluster,
-        replaceInUnmodifiableList(
-            DomUConfiguration.class,
+        replaceDomUConfiguration(
             unmodifiableDomUConfigurations,
             unmodifiableDomUConfigurationsIndex,
-            new DomUConfiguration(
-                domUConfiguration.domU,
-                domUConfiguration.primaryDom0,
-                domUConfiguration.secondaryDom0,
-                addToUnmodifiableList(
-                    DomUDiskConfiguration.class,
-                    domUConfiguration.unmodifiableDomUDiskConfigurations,
-                    new DomUDiskConfiguration(
-                        domUDisk,
-                        primaryPvCopy,
-                        secondaryPvCopy
-                    )
-                )
-            )
-        )
+            newDomUConfiguration
+        ),
+        hash64 ^ domUConfiguration.hash64 ^ newDomUConfiguration.hash64,
+        domUIndexes,
+        physicalVolumeAllocations == null ? null : physicalVolumeAllocations.replace(domUConfiguration, newDomUConfiguration)
     );
   }
 
@@ -321,16 +485,9 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
    */
   public ClusterConfiguration liveMigrate(DomU domU) {
     // Find existing configuration
-    DomUConfiguration domUConfiguration = null;
-    int unmodifiableDomUConfigurationsIndex = 0;
-    for (int len = unmodifiableDomUConfigurations.size(); unmodifiableDomUConfigurationsIndex < len; unmodifiableDomUConfigurationsIndex++) {
-      DomUConfiguration domUConfigurationTmp = unmodifiableDomUConfigurations.get(unmodifiableDomUConfigurationsIndex);
-      if (domUConfigurationTmp.domU == domU) {
-        domUConfiguration = domUConfigurationTmp;
-        break;
-      }
-    }
-    assert domUConfiguration != null : this + ": DomUConfiguration not found: " + domU;
+    int unmodifiableDomUConfigurationsIndex = indexOf(domU);
+    assert unmodifiableDomUConfigurationsIndex != -1 : this + ": DomUConfiguration not found: " + domU;
+    DomUConfiguration domUConfiguration = unmodifiableDomUConfigurations.get(unmodifiableDomUConfigurationsIndex);
 
     List<DomUDiskConfiguration> oldDomUDiskConfigurations = domUConfiguration.unmodifiableDomUDiskConfigurations;
     List<DomUDiskConfiguration> newDomUDiskConfigurations;
@@ -360,19 +517,23 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
       }
       newDomUDiskConfigurations = new UnmodifiableArrayList<>(array);
     }
+    DomUConfiguration newDomUConfiguration = new DomUConfiguration(
+        domU,
+        domUConfiguration.secondaryDom0,
+        domUConfiguration.primaryDom0,
+        newDomUDiskConfigurations
+    );
     return new ClusterConfiguration(
         cluster,
-        replaceInUnmodifiableList(
-            DomUConfiguration.class,
+        replaceDomUConfiguration(
             unmodifiableDomUConfigurations,
             unmodifiableDomUConfigurationsIndex,
-            new DomUConfiguration(
-                domU,
-                domUConfiguration.secondaryDom0,
-                domUConfiguration.primaryDom0,
-                newDomUDiskConfigurations
-            )
-        )
+            newDomUConfiguration
+        ),
+        hash64 ^ domUConfiguration.hash64 ^ newDomUConfiguration.hash64,
+        domUIndexes,
+        // The same physical volumes remain allocated
+        physicalVolumeAllocations
     );
   }
 
@@ -399,51 +560,232 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
    *   </li>
    * </ol>
    *
-   * <p>In the future, a more advanced configuration could try to reduce the combinations while (hopefully) not losing any possible solution by:</p>
+   * <p>A more advanced configuration, {@link SecondaryMappingStrategy#CANONICAL}, reduces the combinations while not
+   * losing any possible solution.  It maps in the same way, but skips a starting Dom0Disk when the Dom0Disks from it
+   * are indistinguishable from those already used by an earlier mapping.  The configurations skipped differ from
+   * those returned only by the exchange of indistinguishable disks.</p>
+   *
+   * <p>The mappings are found immediately, but each configuration is only constructed as it is accessed, so a
+   * caller that rejects most of the results does not pay to construct them.  Each access constructs a new
+   * instance.</p>
+   *
+   * @return  the new configuration(s)
+   *
+   * @see  #moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0, com.aoindustries.aoserv.cluster.SecondaryMappingStrategy)
+   */
+  public List<ClusterConfiguration> moveSecondary(DomU domU, Dom0 newSecondaryDom0) {
+    return moveSecondary(domU, newSecondaryDom0, SecondaryMappingStrategy.WHOLE_VOLUMES, null);
+  }
+
+  /**
+   * A free segment of a physical volume, used while mapping extents in moveSecondary.
+   */
+  private static final class FreeSegment {
+
+    private final PhysicalVolume physicalVolume;
+    private final long firstPhysicalExtent;
+    private final long extents;
+
+    private FreeSegment(PhysicalVolume physicalVolume, long firstPhysicalExtent, long extents) {
+      this.physicalVolume = physicalVolume;
+      this.firstPhysicalExtent = firstPhysicalExtent;
+      this.extents = extents;
+    }
+  }
+
+  /**
+   * The number of fields in the shape of a mapping for each physical volume configuration: the speed of the disk,
+   * the size of the physical volume, whether the physical volume was already allocated, the first logical extent,
+   * the first physical extent, and the extents.
+   */
+  private static final int MAPPING_SHAPE_FIELDS = 6;
+
+  /**
+   * Marks the start of the fields of each Dom0Disk in the shape of a mapping, so mappings split differently across
+   * disks remain distinct.
+   */
+  private static final long MAPPING_SHAPE_DOM0_DISK = Long.MIN_VALUE;
+
+  /**
+   * The shape of a mapping, used to avoid allocation to exactly equal resources in exactly equal ways.  For each
+   * Dom0Disk in the order allocated, this contains {@link #MAPPING_SHAPE_DOM0_DISK} followed by the
+   * {@link #MAPPING_SHAPE_FIELDS} of each physical volume configuration on the disk.
+   */
+  private static final class MappingShape {
+
+    private final long[] values;
+    private final int hash;
+
+    private MappingShape(long[] values, int length) {
+      this.values = Arrays.copyOf(values, length);
+      this.hash = Arrays.hashCode(this.values);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return (obj instanceof MappingShape) && Arrays.equals(values, ((MappingShape) obj).values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Determines if two disks are indistinguishable to both the mapping and the analysis: the same speed and allocated
+   * weight, with physical volumes of the same partitions, sizes, and allocation.
+   */
+  private static boolean isEquivalent(PhysicalVolumeAllocations allocations, Dom0Disk dom0Disk1, Dom0Disk dom0Disk2) {
+    if (
+        dom0Disk1.diskSpeed != dom0Disk2.diskSpeed
+            || allocations.getAllocatedWeight(dom0Disk1) != allocations.getAllocatedWeight(dom0Disk2)
+    ) {
+      return false;
+    }
+    Map<Short, PhysicalVolume> physicalVolumes2 = dom0Disk2.unmodifiablePhysicalVolumes;
+    if (dom0Disk1.unmodifiablePhysicalVolumes.size() != physicalVolumes2.size()) {
+      return false;
+    }
+    for (PhysicalVolume physicalVolume1 : dom0Disk1.unmodifiablePhysicalVolumes.values()) {
+      PhysicalVolume physicalVolume2 = physicalVolumes2.get(physicalVolume1.partition);
+      if (
+          physicalVolume2 == null
+              || physicalVolume1.extents != physicalVolume2.extents
+              || allocations.isAllocated(physicalVolume1) != allocations.isAllocated(physicalVolume2)
+      ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the equivalence class of each disk, which is the index of the first {@linkplain #isEquivalent(com.aoindustries.aoserv.cluster.PhysicalVolumeAllocations, com.aoindustries.aoserv.cluster.Dom0Disk, com.aoindustries.aoserv.cluster.Dom0Disk) equivalent}
+   * disk.
+   */
+  private static int[] getEquivalenceClasses(PhysicalVolumeAllocations allocations, List<Dom0Disk> dom0Disks) {
+    int size = dom0Disks.size();
+    int[] classes = new int[size];
+    for (int i = 0; i < size; i++) {
+      Dom0Disk dom0Disk = dom0Disks.get(i);
+      int equivalenceClass = i;
+      for (int j = 0; j < i; j++) {
+        if (classes[j] == j && isEquivalent(allocations, dom0Disks.get(j), dom0Disk)) {
+          equivalenceClass = j;
+          break;
+        }
+      }
+      classes[i] = equivalenceClass;
+    }
+    return classes;
+  }
+
+  /**
+   * Used by assertions.
+   */
+  private static boolean isSortedByDevice(List<DomUDiskConfiguration> domUDiskConfigurations) {
+    for (int i = 1, size = domUDiskConfigurations.size(); i < size; i++) {
+      if (domUDiskConfigurations.get(i - 1).domUDisk.device.compareTo(domUDiskConfigurations.get(i).domUDisk.device) >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Grows the shape of a mapping to at least the given length.
+   */
+  private static long[] ensureCapacity(long[] shape, int length) {
+    if (length > shape.length) {
+      return Arrays.copyOf(shape, Math.max(length, shape.length * 2));
+    }
+    return shape;
+  }
+
+  /**
+   * Moves the secondary to another machine, mapping the extents onto the free space selected by the given strategy.
+   * With {@link SecondaryMappingStrategy#WHOLE_VOLUMES}, the mapping is as described in
+   * {@link #moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0)}.
+   * With {@link SecondaryMappingStrategy#FREE_EXTENTS}, the free segments of partially allocated physical volumes
+   * are also used, in order by first physical extent within each physical volume.
+   *
+   * <p>With {@link SecondaryMappingStrategy#CANONICAL}, the unallocated physical volumes are used as with
+   * {@link SecondaryMappingStrategy#WHOLE_VOLUMES}, enumerating only one mapping of each class of symmetric
+   * mappings:</p>
    *
    * <ol>
-   *   <li>Always allocating DomUDisks of the same min speed, extents, and weight in order by device</li>
-   *   <li>Always allocating to the physical volumes in order by speed, device, partition</li>
-   *   <li>Always allocating from the first unused physical volumes on a single Dom0Disk</li>
-   *   <li>Always consuming as many of the physical volumes in a single Dom0Disk as possible</li>
-   *   <li>Not returning multiple results onto different Dom0Disk that have the same speed, size, and overall allocation</li>
+   *   <li>The DomUDisks are mapped in order by device, so DomUDisks of equal speed, extents, and weight are always
+   *       mapped in the same order.</li>
+   *   <li>Each mapping fills from the first unused physical volumes of a single starting Dom0Disk, continuing onto
+   *       the following Dom0Disks only once it is full.</li>
+   *   <li>A Dom0Disk is not used as a starting point when the Dom0Disks from it are, one for one, indistinguishable
+   *       from the Dom0Disks used by the mapping from an earlier starting point.  Dom0Disks are indistinguishable
+   *       with the same speed and allocated weight, and physical volumes of the same partitions, sizes, and
+   *       allocation.  The skipped mapping would only differ by the exchange of indistinguishable disks, so no
+   *       multiple results are returned onto equivalent Dom0Disks.</li>
    * </ol>
    *
+   * <p>Each skipped starting point is reported as a duplicate without being mapped.</p>
+   *
+   * <p>With every strategy, mappings of the same shape are only returned once.  Each physical volume configuration
+   * is compared by the speed of its disk, the size and prior allocation of its physical volume, and its extents,
+   * while mappings split differently across disks remain distinct.</p>
+   *
    * @return  the new configuration(s)
    */
-  @SuppressWarnings("UseOfSystemOutOrSystemErr")
-  public Iterable<ClusterConfiguration> moveSecondary(DomU domU, Dom0 newSecondaryDom0) {
+  public List<ClusterConfiguration> moveSecondary(DomU domU, Dom0 newSecondaryDom0, SecondaryMappingStrategy strategy) {
+    return moveSecondary(domU, newSecondaryDom0, strategy, null);
+  }
+
+  /**
+   * Moves the secondary to another machine, reporting the number of mappings found to the provided metrics.
+   *
+   * @param  metrics  when not <code>null</code>, called once with the number of mappings returned and suppressed
+   *
+   * @see  #moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0, com.aoindustries.aoserv.cluster.SecondaryMappingStrategy)
+   */
+  public List<ClusterConfiguration> moveSecondary(DomU domU, Dom0 newSecondaryDom0, SecondaryMappingStrategy strategy, MoveSecondaryMetrics metrics) {
+    return moveSecondary(domU, newSecondaryDom0, strategy, metrics, true);
+  }
+
+  /**
+   * Moves the secondary to another machine, optionally returning mappings of the same shape.
+   *
+   * @param  deduplicate  when <code>false</code>, every mapping enumerated by the strategy is returned, even when of
+   *                      the same shape as another
+   */
+  List<ClusterConfiguration> moveSecondary(DomU domU, Dom0 newSecondaryDom0, SecondaryMappingStrategy strategy, MoveSecondaryMetrics metrics, boolean deduplicate) {
     // Find existing configuration
-    DomUConfiguration domUConfiguration = null;
-    int unmodifiableDomUConfigurationsIndex = 0;
-    for (int len = unmodifiableDomUConfigurations.size(); unmodifiableDomUConfigurationsIndex < len; unmodifiableDomUConfigurationsIndex++) {
-      DomUConfiguration domUConfigurationTmp = unmodifiableDomUConfigurations.get(unmodifiableDomUConfigurationsIndex);
-      if (domUConfigurationTmp.domU == domU) {
-        domUConfiguration = domUConfigurationTmp;
-        break;
-      }
-    }
-    assert domUConfiguration != null : this + ": DomUConfiguration not found: " + domU;
+    int unmodifiableDomUConfigurationsIndex = indexOf(domU);
+    assert unmodifiableDomUConfigurationsIndex != -1 : this + ": DomUConfiguration not found: " + domU;
+    DomUConfiguration domUConfiguration = unmodifiableDomUConfigurations.get(unmodifiableDomUConfigurationsIndex);
 
     Map<String, DomUDisk> domUDisks = domU.getDomUDisks();
     Iterator<Map.Entry<String, DomUDisk>> domUDisksIter = domUDisks.entrySet().iterator();
     if (!domUDisksIter.hasNext()) {
       // Short-cut if domU has no disks
       List<DomUDiskConfiguration> newDomUDiskConfigurations = Collections.emptyList();
+      DomUConfiguration newDomUConfiguration = new DomUConfiguration(
+          domU,
+          domUConfiguration.primaryDom0,
+          newSecondaryDom0,
+          newDomUDiskConfigurations
+      );
+      if (metrics != null) {
+        metrics.moveSecondary(1, 0);
+      }
       return Collections.singletonList(
           new ClusterConfiguration(
               cluster,
-              replaceInUnmodifiableList(
-                  DomUConfiguration.class,
+              replaceDomUConfiguration(
                   unmodifiableDomUConfigurations,
                   unmodifiableDomUConfigurationsIndex,
-                  new DomUConfiguration(
-                      domU,
-                      domUConfiguration.primaryDom0,
-                      newSecondaryDom0,
-                      newDomUDiskConfigurations
-                  )
-              )
+                  newDomUConfiguration
+              ),
+              hash64 ^ domUConfiguration.hash64 ^ newDomUConfiguration.hash64,
+              domUIndexes,
+              physicalVolumeAllocations
           )
       );
     }
@@ -459,73 +801,107 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
       }
     }
 
-    // Find all unallocated physical volumes
-    SortedMap<Dom0Disk, List<PhysicalVolume>> unallocatedDom0Disks = new TreeMap<>(); // Natural sort of Dom0Disk is by speed then device
+    // Find all free physical volumes, in time proportional to the number of volumes and segments on the Dom0
+    PhysicalVolumeAllocations allocations = getPhysicalVolumeAllocations();
+    boolean freeExtents = strategy == SecondaryMappingStrategy.FREE_EXTENTS;
+    boolean canonical = strategy == SecondaryMappingStrategy.CANONICAL;
+    SortedMap<Dom0Disk, List<FreeSegment>> unallocatedDom0Disks = new TreeMap<>(); // Natural sort of Dom0Disk is by speed then device
+    List<PhysicalVolume> unallocatedPhysicalVolumes = new ArrayList<>();
     for (Dom0Disk dom0Disk : newSecondaryDom0.unmodifiableDom0Disks.values()) {
+      unallocatedPhysicalVolumes.clear();
       for (PhysicalVolume physicalVolume : dom0Disk.unmodifiablePhysicalVolumes.values()) {
-        // Find if allocated
-        boolean allocated = false;
-        ALLOCATED: for (DomUConfiguration duc : unmodifiableDomUConfigurations) {
-          if (duc.primaryDom0 == newSecondaryDom0) {
-            // Primary matches
-            for (DomUDiskConfiguration dudc : duc.unmodifiableDomUDiskConfigurations) {
-              for (PhysicalVolumeConfiguration pvc : dudc.primaryPhysicalVolumeConfigurations) {
-                if (pvc.physicalVolume == physicalVolume) {
-                  allocated = true;
-                  break ALLOCATED;
-                }
-              }
-            }
-          } else if (duc.secondaryDom0 == newSecondaryDom0) {
-            // Secondary matches
-            for (DomUDiskConfiguration dudc : duc.unmodifiableDomUDiskConfigurations) {
-              for (PhysicalVolumeConfiguration pvc : dudc.secondaryPhysicalVolumeConfigurations) {
-                if (pvc.physicalVolume == physicalVolume) {
-                  allocated = true;
-                  break ALLOCATED;
-                }
-              }
+        if (freeExtents || !allocations.isAllocated(physicalVolume)) {
+          unallocatedPhysicalVolumes.add(physicalVolume);
+        }
+      }
+      if (!unallocatedPhysicalVolumes.isEmpty()) {
+        // Sort by partition number
+        Collections.sort(unallocatedPhysicalVolumes);
+        List<FreeSegment> freeSegments = new ArrayList<>();
+        for (PhysicalVolume physicalVolume : unallocatedPhysicalVolumes) {
+          if (freeExtents) {
+            long[] free = allocations.getFreeExtents(physicalVolume);
+            for (int i = 0; i < free.length; i += 2) {
+              freeSegments.add(new FreeSegment(physicalVolume, free[i], free[i + 1]));
             }
+          } else {
+            freeSegments.add(new FreeSegment(physicalVolume, 0, physicalVolume.extents));
           }
         }
-        if (!allocated) {
-          // SortedMap<Dom0Disk, SortedSet<PhysicalVolume>> unallocatedPhysicalVolumes = new TreeMap<>(); // Natural sort of Dom0Disk is by speed then device
-          List<PhysicalVolume> unallocatedPhysicalVolumes = unallocatedDom0Disks.get(dom0Disk);
-          if (unallocatedPhysicalVolumes == null) {
-            unallocatedDom0Disks.put(dom0Disk, unallocatedPhysicalVolumes = new ArrayList<>());
-          }
-          unallocatedPhysicalVolumes.add(physicalVolume);
+        if (!freeSegments.isEmpty()) {
+          unallocatedDom0Disks.put(dom0Disk, freeSegments);
         }
       }
     }
-    // Sort by partition number
-    for (List<PhysicalVolume> sortMe : unallocatedDom0Disks.values()) {
-      Collections.sort(sortMe);
-    }
 
     int size = unallocatedDom0Disks.size();
     if (size == 0) {
       // No free physical volumes
+      if (metrics != null) {
+        metrics.moveSecondary(0, 0);
+      }
       return Collections.emptyList();
     }
-    List<ClusterConfiguration> mappedConfigurations = new ArrayList<>();
-    int alreadyContainsCount = 0;
+    List<DomUConfiguration> mappedDomUConfigurations = new ArrayList<>();
+    // The shapes already mapped, only used when more than one starting point
+    Set<MappingShape> mappedShapes = (deduplicate && size > 1) ? new HashSet<>() : null;
+    int duplicateCount = 0;
     // Reused on inner loop
     List<DomUDiskConfiguration> newDomUDiskConfigurations = new ArrayList<>();
     List<PhysicalVolumeConfiguration> secondaryPhysicalVolumeConfigurations = new ArrayList<>();
+    long[] shape = new long[64];
     // Work through each Dom0Disk as a starting point
     List<Dom0Disk> unallocatedDom0DisksList = new ArrayList<>(unallocatedDom0Disks.keySet());
+    // The equivalence class of each disk, along with the first disk and number of disks of each mapping, only used
+    // when canonical with more than one starting point
+    int[] equivalenceClasses;
+    int[] mappedStartDiskIndexes;
+    int[] mappedDiskCounts;
+    if (canonical && size > 1) {
+      assert isSortedByDevice(domUConfiguration.unmodifiableDomUDiskConfigurations);
+      equivalenceClasses = getEquivalenceClasses(allocations, unallocatedDom0DisksList);
+      mappedStartDiskIndexes = new int[size];
+      mappedDiskCounts = new int[size];
+    } else {
+      equivalenceClasses = null;
+      mappedStartDiskIndexes = null;
+      mappedDiskCounts = null;
+    }
+    int mappedCount = 0;
     START_DISK:
     for (int startDiskIndex = 0; startDiskIndex < size; startDiskIndex++) {
+      if (equivalenceClasses != null) {
+        // Skip when the disks from here are indistinguishable from those of an earlier mapping
+        MAPPED:
+        for (int i = 0; i < mappedCount; i++) {
+          int mappedStartDiskIndex = mappedStartDiskIndexes[i];
+          int mappedDiskCount = mappedDiskCounts[i];
+          if (startDiskIndex + mappedDiskCount > size) {
+            continue;
+          }
+          for (int j = 0; j < mappedDiskCount; j++) {
+            if (equivalenceClasses[startDiskIndex + j] != equivalenceClasses[mappedStartDiskIndex + j]) {
+              continue MAPPED;
+            }
+          }
+          duplicateCount++;
+          continue START_DISK;
+        }
+      }
       // These are all used to iterate through the physical volumes during allocation
       int currentDiskIndex = startDiskIndex;
       Dom0Disk currentDom0Disk = unallocatedDom0DisksList.get(currentDiskIndex);
       assert currentDom0Disk != null : "dom0Disk is null";
-      List<PhysicalVolume> currentPhysicalVolumes = unallocatedDom0Disks.get(currentDom0Disk);
-      assert currentPhysicalVolumes != null : "physicalVolumes is null";
-      int currentPhysicalVolumeIndex = 0;
-      PhysicalVolume currentPhysicalVolume = currentPhysicalVolumes.get(currentPhysicalVolumeIndex);
-      long currentPhysicalVolumeExtentsRemaing = currentPhysicalVolume.extents;
+      // The index of the disk of the last physical volume configuration
+      int lastDiskIndex = currentDiskIndex;
+      int shapeLength = 0;
+      // The disk of the last physical volume configuration added to the shape
+      Dom0Disk shapeDom0Disk = null;
+      List<FreeSegment> currentFreeSegments = unallocatedDom0Disks.get(currentDom0Disk);
+      assert currentFreeSegments != null : "freeSegments is null";
+      int currentFreeSegmentIndex = 0;
+      FreeSegment currentFreeSegment = currentFreeSegments.get(currentFreeSegmentIndex);
+      long currentFreeSegmentExtentsRemaing = currentFreeSegment.extents;
 
       // Allocate all the extents of the free physical volumes in order on each Dom0Disk in order until VM mapped
       newDomUDiskConfigurations.clear();
@@ -542,39 +918,53 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
 
         while (true) {
           // Add to domUDisk
-          long allocatingExtents = currentPhysicalVolumeExtentsRemaing < domUDiskAllocationRemaining ? currentPhysicalVolumeExtentsRemaing : domUDiskAllocationRemaining;
-          secondaryPhysicalVolumeConfigurations.add(
-              PhysicalVolumeConfiguration.newInstance(
-                  currentPhysicalVolume,
-                  domUDisk.extents - domUDiskAllocationRemaining,
-                  currentPhysicalVolume.extents - currentPhysicalVolumeExtentsRemaing,
-                  allocatingExtents
-              )
+          long allocatingExtents = currentFreeSegmentExtentsRemaing < domUDiskAllocationRemaining ? currentFreeSegmentExtentsRemaing : domUDiskAllocationRemaining;
+          PhysicalVolumeConfiguration pvc = PhysicalVolumeConfiguration.newInstance(
+              currentFreeSegment.physicalVolume,
+              domUDisk.extents - domUDiskAllocationRemaining,
+              currentFreeSegment.firstPhysicalExtent + currentFreeSegment.extents - currentFreeSegmentExtentsRemaing,
+              allocatingExtents
           );
+          secondaryPhysicalVolumeConfigurations.add(pvc);
+          lastDiskIndex = currentDiskIndex;
+          if (mappedShapes != null) {
+            shape = ensureCapacity(shape, shapeLength + 1 + MAPPING_SHAPE_FIELDS);
+            if (currentDom0Disk != shapeDom0Disk) {
+              shapeDom0Disk = currentDom0Disk;
+              shape[shapeLength++] = MAPPING_SHAPE_DOM0_DISK;
+            }
+            PhysicalVolume physicalVolume = pvc.physicalVolume;
+            shape[shapeLength++] = shapeDom0Disk.diskSpeed;
+            shape[shapeLength++] = physicalVolume.extents;
+            shape[shapeLength++] = allocations.isAllocated(physicalVolume) ? 1 : 0;
+            shape[shapeLength++] = pvc.getFirstLogicalExtent();
+            shape[shapeLength++] = pvc.getFirstPhysicalExtent();
+            shape[shapeLength++] = pvc.getExtents();
+          }
           domUDiskAllocationRemaining -= allocatingExtents;
           assert domUDiskAllocationRemaining >= 0 : "domUDiskAllocationRemaining<0: " + domUDiskAllocationRemaining;
 
           // Update iteration of physical volumes
-          currentPhysicalVolumeExtentsRemaing -= allocatingExtents;
-          assert currentPhysicalVolumeExtentsRemaing >= 0 : "currentPhysicalVolumeExtentsRemaing<0: " + currentPhysicalVolumeExtentsRemaing;
+          currentFreeSegmentExtentsRemaing -= allocatingExtents;
+          assert currentFreeSegmentExtentsRemaing >= 0 : "currentFreeSegmentExtentsRemaing<0: " + currentFreeSegmentExtentsRemaing;
           boolean hasMorePhysicalExtents;
-          if (currentPhysicalVolumeExtentsRemaing == 0) {
-            // Update to point to the next physical volume
-            currentPhysicalVolumeIndex++;
-            if (currentPhysicalVolumeIndex < currentPhysicalVolumes.size()) {
-              currentPhysicalVolume = currentPhysicalVolumes.get(currentPhysicalVolumeIndex);
-              currentPhysicalVolumeExtentsRemaing = currentPhysicalVolume.extents;
+          if (currentFreeSegmentExtentsRemaing == 0) {
+            // Update to point to the next free segment
+            currentFreeSegmentIndex++;
+            if (currentFreeSegmentIndex < currentFreeSegments.size()) {
+              currentFreeSegment = currentFreeSegments.get(currentFreeSegmentIndex);
+              currentFreeSegmentExtentsRemaing = currentFreeSegment.extents;
               hasMorePhysicalExtents = true;
             } else {
               currentDiskIndex++;
               if (currentDiskIndex < unallocatedDom0DisksList.size()) {
                 currentDom0Disk = unallocatedDom0DisksList.get(currentDiskIndex);
                 assert currentDom0Disk != null : "dom0Disk is null";
-                currentPhysicalVolumes = unallocatedDom0Disks.get(currentDom0Disk);
-                assert currentPhysicalVolumes != null : "physicalVolumes is null";
-                currentPhysicalVolumeIndex = 0;
-                currentPhysicalVolume = currentPhysicalVolumes.get(currentPhysicalVolumeIndex);
-                currentPhysicalVolumeExtentsRemaing = currentPhysicalVolume.extents;
+                currentFreeSegments = unallocatedDom0Disks.get(currentDom0Disk);
+                assert currentFreeSegments != null : "freeSegments is null";
+                currentFreeSegmentIndex = 0;
+                currentFreeSegment = currentFreeSegments.get(currentFreeSegmentIndex);
+                currentFreeSegmentExtentsRemaing = currentFreeSegment.extents;
                 hasMorePhysicalExtents = true;
               } else {
                 hasMorePhysicalExtents = false;
@@ -607,103 +997,73 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
           }
         }
       }
-      // avoid allocation to exactly equal resources in exactly equal ways
-      boolean alreadyContains = false;
-      if (USE_ALREADY_CONTAINS) {
-        for (ClusterConfiguration alreadyMappedConfig : mappedConfigurations) {
-          DomUConfiguration alreadyMappedDomUConfig = alreadyMappedConfig.getDomUConfigurations().get(unmodifiableDomUConfigurationsIndex);
-          assert alreadyMappedDomUConfig.getDomU() == domU : "alreadyMappedDomUConfig.domU != domU";
-          List<DomUDiskConfiguration> alreadyMappedDiskConfigs = alreadyMappedDomUConfig.getDomUDiskConfigurations();
-          int mappedSize = alreadyMappedDiskConfigs.size();
-          if (mappedSize == newDomUDiskConfigurations.size()) {
-            alreadyContains = true;
-            for (int c = 0; c < mappedSize; c++) {
-              DomUDiskConfiguration alreadyMappedDiskConfig = alreadyMappedDiskConfigs.get(c);
-              DomUDiskConfiguration newDiskConfig = newDomUDiskConfigurations.get(c);
-              assert alreadyMappedDiskConfig.domUDisk == newDiskConfig.domUDisk : "alreadyMappedDiskConfig.domUDisk != newDiskConfig.domUDisk";
-              List<PhysicalVolumeConfiguration> alreadyMappedPvConfigs = alreadyMappedDiskConfig.secondaryPhysicalVolumeConfigurations;
-              List<PhysicalVolumeConfiguration> newPvConfigs = newDiskConfig.secondaryPhysicalVolumeConfigurations;
-              int pvSize = alreadyMappedPvConfigs.size();
-              if (pvSize == newPvConfigs.size()) {
-                for (int pvIndex = 0; pvIndex < pvSize; pvIndex++) {
-                  // TODO: Also consider total extents mapped (interaction with other VMs)?
-                  // TODO: Consider match by total extents and those of other VMs?
-                  // TODO: Or, just randomize the order???
-                  PhysicalVolumeConfiguration alreadyMappedPvConfig = alreadyMappedPvConfigs.get(pvIndex);
-                  PhysicalVolumeConfiguration newPvConfig = newPvConfigs.get(pvIndex);
-                  if (
-                      alreadyMappedPvConfig.getFirstLogicalExtent() != newPvConfig.getFirstLogicalExtent()
-                          || alreadyMappedPvConfig.getFirstPhysicalExtent() != newPvConfig.getFirstPhysicalExtent()
-                          || alreadyMappedPvConfig.getExtents() != newPvConfig.getExtents()
-                  ) {
-                    alreadyContains = false;
-                    break;
-                  }
-                }
-              } else {
-                alreadyContains = false;
-                break;
-              }
-            }
-            if (alreadyContains) {
-              break;
-            }
-          }
-        }
+      if (equivalenceClasses != null) {
+        mappedStartDiskIndexes[mappedCount] = startDiskIndex;
+        mappedDiskCounts[mappedCount] = lastDiskIndex - startDiskIndex + 1;
+        mappedCount++;
       }
-      // If mapping complete add to results
-      if (alreadyContains) {
-        alreadyContainsCount++;
+      // avoid allocation to exactly equal resources in exactly equal ways
+      if (mappedShapes != null && !mappedShapes.add(new MappingShape(shape, shapeLength))) {
+        duplicateCount++;
       } else {
-        mappedConfigurations.add(
-            new ClusterConfiguration(
-                cluster,
-                replaceInUnmodifiableList(
-                    DomUConfiguration.class,
-                    unmodifiableDomUConfigurations,
-                    unmodifiableDomUConfigurationsIndex,
-                    new DomUConfiguration(
-                        domU,
-                        domUConfiguration.primaryDom0,
-                        newSecondaryDom0,
-                        getUnmodifiableCopy(DomUDiskConfiguration.class, newDomUDiskConfigurations)
-                    )
-                )
+        mappedDomUConfigurations.add(
+            new DomUConfiguration(
+                domU,
+                domUConfiguration.primaryDom0,
+                newSecondaryDom0,
+                getUnmodifiableCopy(DomUDiskConfiguration.class, newDomUDiskConfigurations)
             )
         );
       }
     }
 
-    if (USE_ALREADY_CONTAINS) {
-      synchronized (mappedConfigurationsStatsLock) {
-        totalMapped += mappedConfigurations.size();
-        totalAlreadyContains += alreadyContainsCount;
-        mappedCount++;
-        long currentTime = System.currentTimeMillis();
-        long timeSince = currentTime - lastDisplayTime;
-        if (timeSince < 0 || timeSince >= 60000) {
-          System.out.println(
-              "        totalMapped:" + totalMapped
-                  + " totalAlreadyContains:" + totalAlreadyContains
-                  + " mappedCount:" + mappedCount
-                  + " averageMapped:" + ((float) totalMapped / (float) mappedCount)
-                  + " averageAlreadyContains:" + ((float) totalAlreadyContains / (float) mappedCount)
-          );
-          // mappedCount = 0;
-          // totalMapped = 0;
-          // totalAlreadyContains = 0;
-          lastDisplayTime = currentTime;
-        }
-      }
+    if (metrics != null) {
+      metrics.moveSecondary(mappedDomUConfigurations.size(), duplicateCount);
     }
-    return mappedConfigurations;
+    return new MovedSecondaryList(unmodifiableDomUConfigurationsIndex, mappedDomUConfigurations, allocations);
   }
 
-  private static final Object mappedConfigurationsStatsLock = new Object();
-  private static long mappedCount;
-  private static long totalMapped;
-  private static long totalAlreadyContains;
-  private static long lastDisplayTime = System.currentTimeMillis();
+  /**
+   * The results of moveSecondary, constructing each configuration as it is accessed.
+   */
+  private final class MovedSecondaryList extends AbstractList<ClusterConfiguration> implements RandomAccess {
+
+    private final int unmodifiableDomUConfigurationsIndex;
+    private final List<DomUConfiguration> newDomUConfigurations;
+    private final PhysicalVolumeAllocations allocations;
+
+    private MovedSecondaryList(
+        int unmodifiableDomUConfigurationsIndex,
+        List<DomUConfiguration> newDomUConfigurations,
+        PhysicalVolumeAllocations allocations
+    ) {
+      this.unmodifiableDomUConfigurationsIndex = unmodifiableDomUConfigurationsIndex;
+      this.newDomUConfigurations = newDomUConfigurations;
+      this.allocations = allocations;
+    }
+
+    @Override
+    public ClusterConfiguration get(int index) {
+      DomUConfiguration domUConfiguration = unmodifiableDomUConfigurations.get(unmodifiableDomUConfigurationsIndex);
+      DomUConfiguration newDomUConfiguration = newDomUConfigurations.get(index);
+      return new ClusterConfiguration(
+          cluster,
+          replaceDomUConfiguration(
+              unmodifiableDomUConfigurations,
+              unmodifiableDomUConfigurationsIndex,
+              newDomUConfiguration
+          ),
+          hash64 ^ domUConfiguration.hash64 ^ newDomUConfiguration.hash64,
+          domUIndexes,
+          allocations.replace(domUConfiguration, newDomUConfiguration)
+      );
+    }
+
+    @Override
+    public int size() {
+      return newDomUConfigurations.size();
+    }
+  }
 
   /**
    * Performs a deep field-by-field comparison to see if two configurations are identical in every way.
@@ -727,13 +1087,20 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
     if (other == null) {
       return false;
     }
-    if (hashCode != other.hashCode) {
-      // hashCode is precomputed so this is a quick check
+    if (hash64 != other.hash64) {
+      // hash64 is precomputed so this is a quick check
       return false;
     }
     if (cluster != other.cluster) {
       return false;
     }
+    if (
+        unmodifiableDomUConfigurations instanceof CompactDomUConfigurationList
+            && other.unmodifiableDomUConfigurations instanceof CompactDomUConfigurationList
+    ) {
+      // Compare the packed arrays without creating any DomUConfiguration
+      return unmodifiableDomUConfigurations.equals(other.unmodifiableDomUConfigurations);
+    }
     {
       int size = unmodifiableDomUConfigurations.size();
       if (size != other.unmodifiableDomUConfigurations.size()) {
@@ -752,7 +1119,20 @@ public class ClusterConfiguration implements Comparable<ClusterConfiguration>, S
 
   @Override
   public int hashCode() {
-    return hashCode;
+    return Zobrist.fold(hash64);
+  }
+
+  /**
+   * Gets the 64-bit Zobrist hash of this configuration.  Each DomU configuration contributes the XOR of a
+   * pseudo-random key for its mapping onto primary and secondary Dom0 and physical volumes, so configurations
+   * derived by {@link #liveMigrate(com.aoindustries.aoserv.cluster.DomU)} and
+   * {@link #moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0)} have
+   * their hash computed from this one in time proportional to the number of disks changed.
+   *
+   * <p>The keys are derived from the names of the resources, so this is stable between runs.</p>
+   */
+  public long getHash64() {
+    return hash64;
   }
 
   /**
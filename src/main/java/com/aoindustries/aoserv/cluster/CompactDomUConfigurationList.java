@@ -0,0 +1,407 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The compact representation of the DomU configurations of a {@link ClusterConfiguration}.  Rather than
+ * a tree of small objects, the configurations are stored as parallel arrays of ordinals, with the disk
+ * mappings of each DomU packed into a single <code>long[]</code>.  {@link DomUConfiguration} objects are
+ * created on each call to {@link #get(int)}, trading time for heap.  The Dom0s of each DomU may be read
+ * without creating its configuration.
+ *
+ * <p>The arrays are split into chunks of {@link #CHUNK_SIZE} DomUs, held in a {@link PersistentVector}.
+ * Replacing a configuration copies only the arrays that changed within its chunk, along with the path to
+ * that chunk, so a move is O(chunk + log n) instead of O(n).  All other chunks are shared with the list it is
+ * derived from.  The arrays are never modified once populated.</p>
+ *
+ * <p>The packed disk mappings of one DomU consist of the following for each disk, in order:</p>
+ *
+ * <ol>
+ *   <li>One header: the {@linkplain DomUDisk#getOrdinal() DomUDisk ordinal} in the high 32 bits,
+ *       the number of primary volumes in the next 16 bits, and the number of secondary volumes in the low 16 bits.</li>
+ *   <li>Two longs per primary then secondary volume: the {@linkplain PhysicalVolume#getOrdinal() PhysicalVolume ordinal}
+ *       and extents, then the first logical extent and first physical extent, each pair packed as high and low 32 bits.</li>
+ * </ol>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class CompactDomUConfigurationList extends AbstractList<DomUConfiguration>
+    implements RandomAccess, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int CHUNK_BITS = 5;
+
+  /**
+   * The number of DomUs per chunk.
+   */
+  static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private static final long MAX_COUNT = 0xFFFF;
+  private static final long MAX_UNSIGNED_INT = 0xFFFFFFFFL;
+
+  /**
+   * The configurations of up to {@link #CHUNK_SIZE} consecutive DomUs.  None of the arrays are modified once
+   * populated.
+   */
+  private static final class Chunk implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] domUs;
+    private final int[] primaryDom0s;
+    private final int[] secondaryDom0s;
+    private final long[][] disks;
+
+    private Chunk(int[] domUs, int[] primaryDom0s, int[] secondaryDom0s, long[][] disks) {
+      this.domUs = domUs;
+      this.primaryDom0s = primaryDom0s;
+      this.secondaryDom0s = secondaryDom0s;
+      this.disks = disks;
+    }
+
+    private Chunk(int size) {
+      this(new int[size], new int[size], new int[size], new long[size][]);
+    }
+
+    private void set(int index, DomUConfiguration domUConfiguration) {
+      domUs[index] = domUConfiguration.domU.ordinal;
+      primaryDom0s[index] = domUConfiguration.primaryDom0.ordinal;
+      secondaryDom0s[index] = domUConfiguration.secondaryDom0.ordinal;
+      disks[index] = encode(domUConfiguration.unmodifiableDomUDiskConfigurations);
+    }
+
+    /**
+     * Gets a new chunk with the provided configuration appended.
+     */
+    private Chunk append(DomUConfiguration domUConfiguration) {
+      int size = domUs.length;
+      Chunk chunk = new Chunk(
+          Arrays.copyOf(domUs, size + 1),
+          Arrays.copyOf(primaryDom0s, size + 1),
+          Arrays.copyOf(secondaryDom0s, size + 1),
+          Arrays.copyOf(disks, size + 1)
+      );
+      chunk.set(size, domUConfiguration);
+      return chunk;
+    }
+
+    /**
+     * Gets a new chunk with the configuration at the provided index replaced.  Only the arrays that change are copied.
+     */
+    private Chunk replaceAt(int index, DomUConfiguration domUConfiguration) {
+      assert domUs[index] == domUConfiguration.domU.ordinal : "Replacing configuration of a different DomU";
+      int[] newPrimaryDom0s = primaryDom0s;
+      int primaryOrdinal = domUConfiguration.primaryDom0.ordinal;
+      if (newPrimaryDom0s[index] != primaryOrdinal) {
+        newPrimaryDom0s = newPrimaryDom0s.clone();
+        newPrimaryDom0s[index] = primaryOrdinal;
+      }
+      int[] newSecondaryDom0s = secondaryDom0s;
+      int secondaryOrdinal = domUConfiguration.secondaryDom0.ordinal;
+      if (newSecondaryDom0s[index] != secondaryOrdinal) {
+        newSecondaryDom0s = newSecondaryDom0s.clone();
+        newSecondaryDom0s[index] = secondaryOrdinal;
+      }
+      long[][] newDisks = disks;
+      long[] encoded = encode(domUConfiguration.unmodifiableDomUDiskConfigurations);
+      if (!Arrays.equals(newDisks[index], encoded)) {
+        newDisks = newDisks.clone();
+        newDisks[index] = encoded;
+      }
+      return new Chunk(domUs, newPrimaryDom0s, newSecondaryDom0s, newDisks);
+    }
+
+    private boolean equals(Chunk other) {
+      if (
+          !Arrays.equals(domUs, other.domUs)
+              || !Arrays.equals(primaryDom0s, other.primaryDom0s)
+              || !Arrays.equals(secondaryDom0s, other.secondaryDom0s)
+      ) {
+        return false;
+      }
+      long[][] otherDisks = other.disks;
+      for (int i = 0, size = disks.length; i < size; i++) {
+        long[] encoded = disks[i];
+        long[] otherEncoded = otherDisks[i];
+        if (encoded != otherEncoded && !Arrays.equals(encoded, otherEncoded)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private final Cluster cluster;
+  private final int size;
+  private final PersistentVector<Chunk> chunks;
+
+  /**
+   * Creates an empty list.
+   */
+  CompactDomUConfigurationList(Cluster cluster) {
+    this(cluster, 0, PersistentVector.empty());
+  }
+
+  /**
+   * Creates a list containing the provided configurations, in order.
+   */
+  CompactDomUConfigurationList(Cluster cluster, List<DomUConfiguration> domUConfigurations) {
+    this.cluster = cluster;
+    this.size = domUConfigurations.size();
+    PersistentVector<Chunk> newChunks = PersistentVector.empty();
+    for (int start = 0; start < size; start += CHUNK_SIZE) {
+      int chunkSize = Math.min(CHUNK_SIZE, size - start);
+      Chunk chunk = new Chunk(chunkSize);
+      for (int i = 0; i < chunkSize; i++) {
+        chunk.set(i, domUConfigurations.get(start + i));
+      }
+      newChunks = newChunks.append(chunk);
+    }
+    this.chunks = newChunks;
+  }
+
+  /**
+   * None of the provided chunks may be modified once passed.
+   */
+  private CompactDomUConfigurationList(Cluster cluster, int size, PersistentVector<Chunk> chunks) {
+    this.cluster = cluster;
+    this.size = size;
+    this.chunks = chunks;
+  }
+
+  private static int getEncodedLength(List<DomUDiskConfiguration> domUDiskConfigurations) {
+    int length = 0;
+    for (DomUDiskConfiguration domUDiskConfiguration : domUDiskConfigurations) {
+      length += 1 + 2 * (
+          domUDiskConfiguration.primaryPhysicalVolumeConfigurations.size()
+              + domUDiskConfiguration.secondaryPhysicalVolumeConfigurations.size()
+      );
+    }
+    return length;
+  }
+
+  private static int encode(List<PhysicalVolumeConfiguration> physicalVolumeConfigurations, long[] encoded, int pos) {
+    for (PhysicalVolumeConfiguration pvc : physicalVolumeConfigurations) {
+      long extents = pvc.getExtents();
+      long firstLogicalExtent = pvc.getFirstLogicalExtent();
+      long firstPhysicalExtent = pvc.getFirstPhysicalExtent();
+      if (
+          extents > MAX_UNSIGNED_INT
+              || firstLogicalExtent > MAX_UNSIGNED_INT
+              || firstPhysicalExtent > MAX_UNSIGNED_INT
+      ) {
+        throw new IllegalArgumentException("Extents too large for compact representation: " + pvc);
+      }
+      encoded[pos++] = ((long) pvc.physicalVolume.ordinal << 32) | extents;
+      encoded[pos++] = (firstLogicalExtent << 32) | firstPhysicalExtent;
+    }
+    return pos;
+  }
+
+  private static long[] encode(List<DomUDiskConfiguration> domUDiskConfigurations) {
+    long[] encoded = new long[getEncodedLength(domUDiskConfigurations)];
+    int pos = 0;
+    for (DomUDiskConfiguration domUDiskConfiguration : domUDiskConfigurations) {
+      long primaryCount = domUDiskConfiguration.primaryPhysicalVolumeConfigurations.size();
+      long secondaryCount = domUDiskConfiguration.secondaryPhysicalVolumeConfigurations.size();
+      if (primaryCount > MAX_COUNT || secondaryCount > MAX_COUNT) {
+        throw new IllegalArgumentException("Too many physical volumes for compact representation: " + domUDiskConfiguration);
+      }
+      encoded[pos++] = ((long) domUDiskConfiguration.domUDisk.ordinal << 32) | (primaryCount << 16) | secondaryCount;
+      pos = encode(domUDiskConfiguration.primaryPhysicalVolumeConfigurations, encoded, pos);
+      pos = encode(domUDiskConfiguration.secondaryPhysicalVolumeConfigurations, encoded, pos);
+    }
+    assert pos == encoded.length : "pos != encoded.length: " + pos + " != " + encoded.length;
+    return encoded;
+  }
+
+  private static List<PhysicalVolumeConfiguration> decode(PhysicalVolume[] physicalVolumes, long[] encoded, int pos, int count) {
+    if (count == 0) {
+      return Collections.emptyList();
+    }
+    PhysicalVolumeConfiguration[] array = new PhysicalVolumeConfiguration[count];
+    for (int i = 0; i < count; i++) {
+      long ordinalAndExtents = encoded[pos++];
+      long logicalAndPhysical = encoded[pos++];
+      array[i] = PhysicalVolumeConfiguration.newInstance(
+          physicalVolumes[(int) (ordinalAndExtents >>> 32)],
+          logicalAndPhysical >>> 32,
+          logicalAndPhysical & MAX_UNSIGNED_INT,
+          ordinalAndExtents & MAX_UNSIGNED_INT
+      );
+    }
+    return count == 1 ? Collections.singletonList(array[0]) : new UnmodifiableArrayList<>(array);
+  }
+
+  private static List<DomUDiskConfiguration> decode(Cluster.Ordinals ordinals, long[] encoded) {
+    int length = encoded.length;
+    if (length == 0) {
+      return Collections.emptyList();
+    }
+    DomUDiskConfiguration[] array = new DomUDiskConfiguration[length];
+    int count = 0;
+    int pos = 0;
+    while (pos < length) {
+      long header = encoded[pos++];
+      int primaryCount = (int) ((header >>> 16) & MAX_COUNT);
+      int secondaryCount = (int) (header & MAX_COUNT);
+      List<PhysicalVolumeConfiguration> primary = decode(ordinals.physicalVolumes, encoded, pos, primaryCount);
+      pos += 2 * primaryCount;
+      List<PhysicalVolumeConfiguration> secondary = decode(ordinals.physicalVolumes, encoded, pos, secondaryCount);
+      pos += 2 * secondaryCount;
+      array[count++] = new DomUDiskConfiguration(ordinals.domUDisks[(int) (header >>> 32)], primary, secondary);
+    }
+    if (count == 1) {
+      return Collections.singletonList(array[0]);
+    }
+    return new UnmodifiableArrayList<>(Arrays.copyOf(array, count));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public DomUConfiguration get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+    Chunk chunk = chunks.get(index >>> CHUNK_BITS);
+    int i = index & CHUNK_MASK;
+    Cluster.Ordinals ordinals = cluster.getOrdinals();
+    return new DomUConfiguration(
+        ordinals.domUs[chunk.domUs[i]],
+        ordinals.dom0s[chunk.primaryDom0s[i]],
+        ordinals.dom0s[chunk.secondaryDom0s[i]],
+        decode(ordinals, chunk.disks[i])
+    );
+  }
+
+  /**
+   * Gets the {@linkplain DomU#getOrdinal() ordinal} of the DomU at the provided index.
+   */
+  int getDomUOrdinal(int index) {
+    return chunks.get(index >>> CHUNK_BITS).domUs[index & CHUNK_MASK];
+  }
+
+  /**
+   * Gets the {@linkplain Dom0#getOrdinal() ordinal} of the primary Dom0 at the provided index.
+   */
+  int getPrimaryDom0Ordinal(int index) {
+    return chunks.get(index >>> CHUNK_BITS).primaryDom0s[index & CHUNK_MASK];
+  }
+
+  /**
+   * Gets the {@linkplain Dom0#getOrdinal() ordinal} of the secondary Dom0 at the provided index.
+   */
+  int getSecondaryDom0Ordinal(int index) {
+    return chunks.get(index >>> CHUNK_BITS).secondaryDom0s[index & CHUNK_MASK];
+  }
+
+  /**
+   * Gets a new list with the provided configuration appended.  Only the last chunk is copied.
+   */
+  CompactDomUConfigurationList append(DomUConfiguration domUConfiguration) {
+    PersistentVector<Chunk> newChunks;
+    if ((size & CHUNK_MASK) == 0) {
+      Chunk chunk = new Chunk(1);
+      chunk.set(0, domUConfiguration);
+      newChunks = chunks.append(chunk);
+    } else {
+      int last = size >>> CHUNK_BITS;
+      newChunks = chunks.replaceAt(last, chunks.get(last).append(domUConfiguration));
+    }
+    return new CompactDomUConfigurationList(cluster, size + 1, newChunks);
+  }
+
+  /**
+   * Gets a new list with the configuration at the provided index replaced.  Only the arrays
+   * that change within the chunk are copied.
+   */
+  CompactDomUConfigurationList replaceAt(int index, DomUConfiguration domUConfiguration) {
+    int chunkIndex = index >>> CHUNK_BITS;
+    Chunk chunk = chunks.get(chunkIndex);
+    Chunk newChunk = chunk.replaceAt(index & CHUNK_MASK, domUConfiguration);
+    if (
+        newChunk.primaryDom0s == chunk.primaryDom0s
+            && newChunk.secondaryDom0s == chunk.secondaryDom0s
+            && newChunk.disks == chunk.disks
+    ) {
+      return this;
+    }
+    return new CompactDomUConfigurationList(cluster, size, chunks.replaceAt(chunkIndex, newChunk));
+  }
+
+  /**
+   * Determines if the chunk containing the provided index is shared with the other list.
+   */
+  boolean isChunkShared(CompactDomUConfigurationList other, int index) {
+    int chunkIndex = index >>> CHUNK_BITS;
+    return chunks.get(chunkIndex) == other.chunks.get(chunkIndex);
+  }
+
+  /**
+   * Compares the packed arrays directly when the other list is also compact, skipping shared chunks.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj instanceof CompactDomUConfigurationList) {
+      CompactDomUConfigurationList other = (CompactDomUConfigurationList) obj;
+      if (cluster != other.cluster) {
+        return super.equals(obj);
+      }
+      if (size != other.size) {
+        return false;
+      }
+      for (int i = 0, chunkCount = chunks.size(); i < chunkCount; i++) {
+        Chunk chunk = chunks.get(i);
+        Chunk otherChunk = other.chunks.get(i);
+        if (chunk != otherChunk && !chunk.equals(otherChunk)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return super.equals(obj);
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode();
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2007-2011, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2007-2011, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,6 +23,8 @@
 
 package com.aoindustries.aoserv.cluster;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Map;
@@ -34,10 +36,11 @@ import java.util.Map;
  */
 public class Dom0 implements Comparable<Dom0>, Serializable {
 
-  private static final long serialVersionUID = 2L;
+  private static final long serialVersionUID = 3L;
 
   final String clusterName;
   final String hostname;
+  final int ordinal;
   // final Rack rack;
   final int ram;
   final ProcessorType processorType;
@@ -47,6 +50,11 @@ public class Dom0 implements Comparable<Dom0>, Serializable {
   final boolean supportsHvm;
   final Map<String, Dom0Disk> unmodifiableDom0Disks;
 
+  /**
+   * The key for {@link Zobrist} hashing, derived from the names.
+   */
+  transient long zobristKey;
+
   private static boolean hasNull(Collection<?> collection) {
     for (Object elem : collection) {
       if (elem == null) {
@@ -64,6 +72,7 @@ public class Dom0 implements Comparable<Dom0>, Serializable {
   Dom0(
       String clusterName,
       String hostname,
+      int ordinal,
       /*Rack rack,*/
       int ram,
       ProcessorType processorType,
@@ -78,6 +87,7 @@ public class Dom0 implements Comparable<Dom0>, Serializable {
     assert !hasNull(unmodifiableDom0Disks.values()) : "null value in unmodifiableDom0Disks";
     this.clusterName = clusterName;
     this.hostname = hostname;
+    this.ordinal = ordinal;
     // if (rack.getCluster() != cluster) {
     //   throw new IllegalArgumentException(this+": cluster != rack.cluster");
     //
@@ -89,6 +99,16 @@ public class Dom0 implements Comparable<Dom0>, Serializable {
     this.processorCores = processorCores;
     this.supportsHvm = supportsHvm;
     this.unmodifiableDom0Disks = unmodifiableDom0Disks;
+    this.zobristKey = computeZobristKey();
+  }
+
+  private long computeZobristKey() {
+    return Zobrist.mix(Zobrist.combine(Zobrist.combine(Zobrist.DOM0_SEED, clusterName), hostname));
+  }
+
+  private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
+    ois.defaultReadObject();
+    this.zobristKey = computeZobristKey();
   }
 
   public String getClusterName() {
@@ -99,6 +119,13 @@ public class Dom0 implements Comparable<Dom0>, Serializable {
     return hostname;
   }
 
+  /**
+   * Gets the dense index of this Dom0 within its cluster, assigned in the order added.
+   */
+  public int getOrdinal() {
+    return ordinal;
+  }
+
   /*public Rack getRack() {
     return rack;
   }*/
@@ -34,11 +34,13 @@ import java.util.Map;
  */
 public class Dom0Disk implements Comparable<Dom0Disk>, Serializable {
 
-  private static final long serialVersionUID = 2L;
+  private static final long serialVersionUID = 3L;
 
   final String clusterName;
   final String dom0Hostname;
+  final int dom0Ordinal;
   final String device;
+  final int ordinal;
   final int diskSpeed;
   final Map<Short, PhysicalVolume> unmodifiablePhysicalVolumes;
 
@@ -50,13 +52,17 @@ public class Dom0Disk implements Comparable<Dom0Disk>, Serializable {
   Dom0Disk(
       String clusterName,
       String dom0Hostname,
+      int dom0Ordinal,
       String device,
+      int ordinal,
       int diskSpeed,
       Map<Short, PhysicalVolume> unmodifiablePhysicalVolumes
   ) {
     this.clusterName = clusterName;
     this.dom0Hostname = dom0Hostname;
+    this.dom0Ordinal = dom0Ordinal;
     this.device = device;
+    this.ordinal = ordinal;
     this.diskSpeed = diskSpeed;
     this.unmodifiablePhysicalVolumes = unmodifiablePhysicalVolumes;
   }
@@ -69,6 +75,13 @@ public class Dom0Disk implements Comparable<Dom0Disk>, Serializable {
     return dom0Hostname;
   }
 
+  /**
+   * Gets the {@linkplain Dom0#getOrdinal() ordinal} of the Dom0 this is part of.
+   */
+  public int getDom0Ordinal() {
+    return dom0Ordinal;
+  }
+
   /**
    * Gets the per-Dom0 unique device name.
    */
@@ -76,6 +89,13 @@ public class Dom0Disk implements Comparable<Dom0Disk>, Serializable {
     return device;
   }
 
+  /**
+   * Gets the dense index of this disk among all Dom0 disks of its cluster, assigned in the order added.
+   */
+  public int getOrdinal() {
+    return ordinal;
+  }
+
   public int getDiskSpeed() {
     return diskSpeed;
   }
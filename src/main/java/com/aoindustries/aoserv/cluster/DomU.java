@@ -23,6 +23,8 @@
 
 package com.aoindustries.aoserv.cluster;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Map;
 
@@ -33,10 +35,11 @@ import java.util.Map;
  */
 public class DomU implements Comparable<DomU>, Serializable {
 
-  private static final long serialVersionUID = 2L;
+  private static final long serialVersionUID = 3L;
 
   final String clusterName;
   final String hostname;
+  final int ordinal;
   final int primaryRam;
   final int secondaryRam;
   final ProcessorType minimumProcessorType;
@@ -49,6 +52,11 @@ public class DomU implements Comparable<DomU>, Serializable {
   final boolean primaryDom0Locked;
   final boolean secondaryDom0Locked;
 
+  /**
+   * The key for {@link Zobrist} hashing, derived from the names.
+   */
+  transient long zobristKey;
+
   /**
    * {@code unmodifiableDomUDisks} MUST BE UNMODIFIABLE.
    *
@@ -57,6 +65,7 @@ public class DomU implements Comparable<DomU>, Serializable {
   DomU(
       String clusterName,
       String hostname,
+      int ordinal,
       int primaryRam,
       int secondaryRam,
       ProcessorType minimumProcessorType,
@@ -90,6 +99,7 @@ public class DomU implements Comparable<DomU>, Serializable {
 
     this.clusterName = clusterName;
     this.hostname = hostname;
+    this.ordinal = ordinal;
     this.primaryRam = primaryRam;
     this.secondaryRam = secondaryRam;
     this.minimumProcessorType = minimumProcessorType;
@@ -101,6 +111,16 @@ public class DomU implements Comparable<DomU>, Serializable {
     this.primaryDom0Locked = primaryDom0Locked;
     this.secondaryDom0Locked = secondaryDom0Locked;
     this.unmodifiableDomUDisks = unmodifiableDomUDisks;
+    this.zobristKey = computeZobristKey();
+  }
+
+  private long computeZobristKey() {
+    return Zobrist.mix(Zobrist.combine(Zobrist.combine(Zobrist.DOMU_SEED, clusterName), hostname));
+  }
+
+  private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
+    ois.defaultReadObject();
+    this.zobristKey = computeZobristKey();
   }
 
   public String getClusterName() {
@@ -114,6 +134,13 @@ public class DomU implements Comparable<DomU>, Serializable {
     return hostname;
   }
 
+  /**
+   * Gets the dense index of this DomU within its cluster, assigned in the order added.
+   */
+  public int getOrdinal() {
+    return ordinal;
+  }
+
   /**
    * Gets the amount of RAM needed in primary mode (in MB).
    */
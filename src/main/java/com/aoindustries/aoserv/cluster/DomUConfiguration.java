@@ -23,6 +23,8 @@
 
 package com.aoindustries.aoserv.cluster;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Iterator;
 import java.util.List;
@@ -41,6 +43,11 @@ public class DomUConfiguration implements Comparable<DomUConfiguration>, Seriali
   final Dom0 secondaryDom0;
   final List<DomUDiskConfiguration> unmodifiableDomUDiskConfigurations;
 
+  /**
+   * The precomputed {@link Zobrist} hash.
+   */
+  transient long hash64;
+
   /**
    * {@code unmodifiableDomUDiskConfigurations} MUST BE UNMODIFIABLE.
    */
@@ -62,6 +69,12 @@ public class DomUConfiguration implements Comparable<DomUConfiguration>, Seriali
     this.secondaryDom0 = secondaryDom0;
 
     this.unmodifiableDomUDiskConfigurations = unmodifiableDomUDiskConfigurations;
+    this.hash64 = Zobrist.getHash64(domU, primaryDom0, secondaryDom0, unmodifiableDomUDiskConfigurations);
+  }
+
+  private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
+    ois.defaultReadObject();
+    this.hash64 = Zobrist.getHash64(domU, primaryDom0, secondaryDom0, unmodifiableDomUDiskConfigurations);
   }
 
   @Override
@@ -117,6 +130,10 @@ public class DomUConfiguration implements Comparable<DomUConfiguration>, Seriali
     if (other == null) {
       return false;
     }
+    if (hash64 != other.hash64) {
+      // hash64 is precomputed so this is a quick check
+      return false;
+    }
     if (domU != other.domU) {
       return false;
     }
@@ -144,11 +161,15 @@ public class DomUConfiguration implements Comparable<DomUConfiguration>, Seriali
 
   @Override
   public int hashCode() {
-    return
-        73 * domU.hashCode()
-            + 37 * primaryDom0.hashCode()
-            + 31 * secondaryDom0.hashCode()
-            + unmodifiableDomUDiskConfigurations.hashCode();
+    return Zobrist.fold(hash64);
+  }
+
+  /**
+   * Gets the 64-bit Zobrist hash of this configuration, which is its contribution to
+   * {@link ClusterConfiguration#getHash64()}.
+   */
+  public long getHash64() {
+    return hash64;
   }
 
   @Override
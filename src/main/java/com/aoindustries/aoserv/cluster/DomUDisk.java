@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2007-2011, 2020, 2022  AO Industries, Inc.
+ * Copyright (C) 2007-2011, 2020, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,6 +23,8 @@
 
 package com.aoindustries.aoserv.cluster;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -32,7 +34,7 @@ import java.io.Serializable;
  */
 public class DomUDisk implements Comparable<DomUDisk>, Serializable {
 
-  private static final long serialVersionUID = 2L;
+  private static final long serialVersionUID = 3L;
 
   /**
    * This is the standard size of the extents in bytes.
@@ -41,15 +43,24 @@ public class DomUDisk implements Comparable<DomUDisk>, Serializable {
 
   final String clusterName;
   final String domUHostname;
+  final int domUOrdinal;
   final String device;
+  final int ordinal;
   final int minimumDiskSpeed;
   final long extents;
   final short weight;
 
+  /**
+   * The key for {@link Zobrist} hashing, derived from the names.
+   */
+  transient long zobristKey;
+
   DomUDisk(
       String clusterName,
       String domUHostname,
+      int domUOrdinal,
       String device,
+      int ordinal,
       int minimumDiskSpeed,
       long extents,
       short weight
@@ -66,10 +77,22 @@ public class DomUDisk implements Comparable<DomUDisk>, Serializable {
 
     this.clusterName = clusterName;
     this.domUHostname = domUHostname;
+    this.domUOrdinal = domUOrdinal;
     this.device = device;
+    this.ordinal = ordinal;
     this.minimumDiskSpeed = minimumDiskSpeed;
     this.extents = extents;
     this.weight = weight;
+    this.zobristKey = computeZobristKey();
+  }
+
+  private long computeZobristKey() {
+    return Zobrist.mix(Zobrist.combine(Zobrist.combine(Zobrist.combine(Zobrist.DOMU_DISK_SEED, clusterName), domUHostname), device));
+  }
+
+  private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
+    ois.defaultReadObject();
+    this.zobristKey = computeZobristKey();
   }
 
   public String getClusterName() {
@@ -80,6 +103,13 @@ public class DomUDisk implements Comparable<DomUDisk>, Serializable {
     return domUHostname;
   }
 
+  /**
+   * Gets the {@linkplain DomU#getOrdinal() ordinal} of the DomU this is part of.
+   */
+  public int getDomUOrdinal() {
+    return domUOrdinal;
+  }
+
   /**
    * Gets the per-DomU unique device ID (usually /dev/xvd[a-z]).
    */
@@ -87,6 +117,13 @@ public class DomUDisk implements Comparable<DomUDisk>, Serializable {
     return device;
   }
 
+  /**
+   * Gets the dense index of this disk among all DomU disks of its cluster, assigned in the order added.
+   */
+  public int getOrdinal() {
+    return ordinal;
+  }
+
   /**
    * Gets the minimum disk speed or <code>-1</code> if doesn't matter.
    */
@@ -23,6 +23,8 @@
 
 package com.aoindustries.aoserv.cluster;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.List;
 import java.util.logging.Level;
@@ -43,6 +45,11 @@ public class DomUDiskConfiguration implements Comparable<DomUDiskConfiguration>,
   final List<PhysicalVolumeConfiguration> primaryPhysicalVolumeConfigurations;
   final List<PhysicalVolumeConfiguration> secondaryPhysicalVolumeConfigurations;
 
+  /**
+   * The precomputed {@link Zobrist} hash.
+   */
+  transient long hash64;
+
   /**
    * Used by assertions.
    */
@@ -133,6 +140,12 @@ public class DomUDiskConfiguration implements Comparable<DomUDiskConfiguration>,
     this.domUDisk = domUDisk;
     this.primaryPhysicalVolumeConfigurations = primaryPhysicalVolumeConfigurations;
     this.secondaryPhysicalVolumeConfigurations = secondaryPhysicalVolumeConfigurations;
+    this.hash64 = Zobrist.getHash64(domUDisk, primaryPhysicalVolumeConfigurations, secondaryPhysicalVolumeConfigurations);
+  }
+
+  private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
+    ois.defaultReadObject();
+    this.hash64 = Zobrist.getHash64(domUDisk, primaryPhysicalVolumeConfigurations, secondaryPhysicalVolumeConfigurations);
   }
 
   @Override
@@ -180,6 +193,8 @@ public class DomUDiskConfiguration implements Comparable<DomUDiskConfiguration>,
         this == other
             || (
             other != null
+                // hash64 is precomputed so this is a quick check
+                && hash64 == other.hash64
                 && domUDisk == other.domUDisk
                 && primaryPhysicalVolumeConfigurations.equals(other.primaryPhysicalVolumeConfigurations)
                 && secondaryPhysicalVolumeConfigurations.equals(other.secondaryPhysicalVolumeConfigurations)
@@ -188,10 +203,7 @@ public class DomUDiskConfiguration implements Comparable<DomUDiskConfiguration>,
 
   @Override
   public int hashCode() {
-    return
-        127 * domUDisk.hashCode()
-            + 31 * primaryPhysicalVolumeConfigurations.hashCode()
-            + secondaryPhysicalVolumeConfigurations.hashCode();
+    return Zobrist.fold(hash64);
   }
 
   /**
@@ -0,0 +1,44 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+/**
+ * Receives the number of mappings found by each call to
+ * {@link ClusterConfiguration#moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0, com.aoindustries.aoserv.cluster.SecondaryMappingStrategy, com.aoindustries.aoserv.cluster.MoveSecondaryMetrics)}.
+ *
+ * <p>Implementations shared by multiple threads must be thread safe.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+@FunctionalInterface
+public interface MoveSecondaryMetrics {
+
+  /**
+   * Called once per move.
+   *
+   * @param  mapped      the number of configurations returned
+   * @param  duplicates  the number of mappings not returned because an equivalent mapping was already returned
+   */
+  void moveSecondary(int mapped, int duplicates);
+}
@@ -0,0 +1,163 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list stored as a 32-way trie.  Appending or replacing an element creates a new list
+ * that copies only the nodes on the path to the element, sharing all other nodes with this list.  This is
+ * O(log<sub>32</sub> n) in both time and additional heap, versus O(n) when copying an array.
+ *
+ * <p>Nodes are sized to their content, so a list of up to 32 elements is a single array, and a list of
+ * up to 1024 elements is a root of up to 32 leaves.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  private static final Object[] emptyNode = {};
+
+  private static final PersistentVector<?> empty = new PersistentVector<>(0, 0, emptyNode);
+
+  /**
+   * Gets the empty list.
+   */
+  @SuppressWarnings("unchecked")
+  static <E> PersistentVector<E> empty() {
+    return (PersistentVector<E>) empty;
+  }
+
+  /**
+   * Gets a list containing the provided elements, in order.
+   */
+  static <E> PersistentVector<E> copyOf(List<? extends E> elements) {
+    PersistentVector<E> vector = empty();
+    for (E element : elements) {
+      vector = vector.append(element);
+    }
+    return vector;
+  }
+
+  private final int size;
+
+  /**
+   * The number of bits to shift the index by to select the child of the root, zero when the root is a leaf.
+   */
+  private final int shift;
+
+  private final Object[] root;
+
+  private PersistentVector(int size, int shift, Object[] root) {
+    this.size = size;
+    this.shift = shift;
+    this.root = root;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+    Object[] node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = (Object[]) node[(index >>> level) & MASK];
+    }
+    return (E) node[index & MASK];
+  }
+
+  private static Object[] newPath(int shift, Object element) {
+    return new Object[]{shift == 0 ? element : newPath(shift - BITS, element)};
+  }
+
+  private static Object[] append(Object[] node, int shift, int index, Object element) {
+    int child = (index >>> shift) & MASK;
+    Object[] newNode;
+    if (child < node.length) {
+      assert shift > 0 : "Leaf is full";
+      newNode = node.clone();
+      newNode[child] = append((Object[]) node[child], shift - BITS, index, element);
+    } else {
+      assert child == node.length : "child != node.length: " + child + " != " + node.length;
+      newNode = Arrays.copyOf(node, child + 1);
+      newNode[child] = shift == 0 ? element : newPath(shift - BITS, element);
+    }
+    return newNode;
+  }
+
+  /**
+   * Gets a new list with the provided element appended.
+   */
+  PersistentVector<E> append(E element) {
+    if (size == (1 << (shift + BITS))) {
+      // Root is full, add a level
+      return new PersistentVector<>(
+          size + 1,
+          shift + BITS,
+          new Object[]{root, newPath(shift, element)}
+      );
+    }
+    return new PersistentVector<>(size + 1, shift, append(root, shift, size, element));
+  }
+
+  private static Object[] replace(Object[] node, int shift, int index, Object element) {
+    Object[] newNode = node.clone();
+    int child = (index >>> shift) & MASK;
+    newNode[child] = shift == 0 ? element : replace((Object[]) node[child], shift - BITS, index, element);
+    return newNode;
+  }
+
+  /**
+   * Gets a new list with the element at the provided index replaced.
+   */
+  PersistentVector<E> replaceAt(int index, E element) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+    return new PersistentVector<>(size, shift, replace(root, shift, index, element));
+  }
+
+  /**
+   * Serialization must return the shared empty instance.
+   */
+  private Object readResolve() {
+    return size == 0 ? empty : this;
+  }
+}
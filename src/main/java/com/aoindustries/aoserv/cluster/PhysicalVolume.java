@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2007-2011, 2020, 2022  AO Industries, Inc.
+ * Copyright (C) 2007-2011, 2020, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,6 +23,8 @@
 
 package com.aoindustries.aoserv.cluster;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -32,24 +34,54 @@ import java.io.Serializable;
  */
 public class PhysicalVolume implements Comparable<PhysicalVolume>, Serializable {
 
-  private static final long serialVersionUID = 2L;
+  private static final long serialVersionUID = 3L;
 
   final String clusterName;
   final String dom0Hostname;
+  final int dom0Ordinal;
   final String device;
+  final int dom0DiskOrdinal;
   final short partition;
+  final int ordinal;
   final long extents;
 
+  /**
+   * The key for {@link Zobrist} hashing, derived from the names.
+   */
+  transient long zobristKey;
+
   /**
    * See {@link Dom0Disk#addPhysicalVolume}.
    */
-  PhysicalVolume(String clusterName, String dom0Hostname, String device, short partition, long extents) {
+  PhysicalVolume(
+      String clusterName,
+      String dom0Hostname,
+      int dom0Ordinal,
+      String device,
+      int dom0DiskOrdinal,
+      short partition,
+      int ordinal,
+      long extents
+  ) {
     assert extents > 0 : "extents <= 0: " + extents;
     this.clusterName = clusterName;
     this.dom0Hostname = dom0Hostname;
+    this.dom0Ordinal = dom0Ordinal;
     this.device = device;
+    this.dom0DiskOrdinal = dom0DiskOrdinal;
     this.partition = partition;
+    this.ordinal = ordinal;
     this.extents = extents;
+    this.zobristKey = computeZobristKey();
+  }
+
+  private long computeZobristKey() {
+    return Zobrist.mix(Zobrist.combine(Zobrist.combine(Zobrist.combine(Zobrist.PHYSICAL_VOLUME_SEED, clusterName), dom0Hostname), device) + partition);
+  }
+
+  private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
+    ois.defaultReadObject();
+    this.zobristKey = computeZobristKey();
   }
 
   public String getClusterName() {
@@ -60,14 +92,35 @@ public class PhysicalVolume implements Comparable<PhysicalVolume>, Serializable
     return dom0Hostname;
   }
 
+  /**
+   * Gets the {@linkplain Dom0#getOrdinal() ordinal} of the Dom0 this is part of.
+   */
+  public int getDom0Ordinal() {
+    return dom0Ordinal;
+  }
+
   public String getDevice() {
     return device;
   }
 
+  /**
+   * Gets the {@linkplain Dom0Disk#getOrdinal() ordinal} of the Dom0Disk this is part of.
+   */
+  public int getDom0DiskOrdinal() {
+    return dom0DiskOrdinal;
+  }
+
   public short getPartition() {
     return partition;
   }
 
+  /**
+   * Gets the dense index of this physical volume among all physical volumes of its cluster, assigned in the order added.
+   */
+  public int getOrdinal() {
+    return ordinal;
+  }
+
   public long getExtents() {
     return extents;
   }
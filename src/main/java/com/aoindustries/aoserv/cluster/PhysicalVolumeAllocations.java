@@ -0,0 +1,343 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The segments of each {@link PhysicalVolume} allocated by the {@link PhysicalVolumeConfiguration} of a
+ * {@link ClusterConfiguration}.  The segments are stored in one array per Dom0, so the allocation of a
+ * physical volume is found in constant time, and the free space of a Dom0 is found in time proportional
+ * to the number of volumes and segments on that Dom0.  The allocated weight of each {@link Dom0Disk} is kept along
+ * with the segments.
+ *
+ * <p>This is immutable.  A configuration derived by replacing one DomU configuration derives its allocations
+ * by copying only the arrays of the Dom0s whose volumes are changed, sharing the rest.  The allocated weights
+ * are copied only when a mapping of a disk with non-zero weight is changed.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class PhysicalVolumeAllocations {
+
+  private static final long[] emptySegments = {};
+
+  private final Cluster.Ordinals ordinals;
+
+  /**
+   * Indexed by Dom0 ordinal, then by the index of the physical volume within its Dom0.  Each array contains
+   * pairs of first physical extent and number of extents, sorted by first physical extent.
+   */
+  private final long[][][] segments;
+
+  /**
+   * The sum of the weights of the DomUDisks on each disk, indexed by Dom0Disk ordinal.
+   */
+  private final int[] allocatedWeights;
+
+  /**
+   * Finds the allocations of all the provided configurations.
+   */
+  PhysicalVolumeAllocations(Cluster cluster, List<DomUConfiguration> domUConfigurations) {
+    ordinals = cluster.getOrdinals();
+    int[] dom0PhysicalVolumeCounts = ordinals.dom0PhysicalVolumeCounts;
+    int dom0Count = dom0PhysicalVolumeCounts.length;
+    segments = new long[dom0Count][][];
+    allocatedWeights = new int[cluster.getDom0DiskCount()];
+    for (int i = 0; i < dom0Count; i++) {
+      long[][] dom0Segments = new long[dom0PhysicalVolumeCounts[i]][];
+      Arrays.fill(dom0Segments, emptySegments);
+      segments[i] = dom0Segments;
+    }
+    for (DomUConfiguration domUConfiguration : domUConfigurations) {
+      int primaryOrdinal = domUConfiguration.primaryDom0.ordinal;
+      int secondaryOrdinal = domUConfiguration.secondaryDom0.ordinal;
+      for (DomUDiskConfiguration domUDiskConfiguration : domUConfiguration.unmodifiableDomUDiskConfigurations) {
+        adjust(segments, null, domUDiskConfiguration.primaryPhysicalVolumeConfigurations, true);
+        adjust(segments, null, domUDiskConfiguration.secondaryPhysicalVolumeConfigurations, true);
+        int weight = domUDiskConfiguration.domUDisk.weight;
+        adjustWeights(allocatedWeights, null, domUDiskConfiguration.primaryPhysicalVolumeConfigurations, primaryOrdinal, weight);
+        if (secondaryOrdinal != primaryOrdinal) {
+          adjustWeights(allocatedWeights, null, domUDiskConfiguration.secondaryPhysicalVolumeConfigurations, secondaryOrdinal, weight);
+        }
+      }
+    }
+  }
+
+  private PhysicalVolumeAllocations(Cluster.Ordinals ordinals, long[][][] segments, int[] allocatedWeights) {
+    this.ordinals = ordinals;
+    this.segments = segments;
+    this.allocatedWeights = allocatedWeights;
+  }
+
+  /**
+   * Gets a new array with the segment added in order.
+   */
+  private static long[] add(long[] pvSegments, long firstPhysicalExtent, long extents) {
+    int length = pvSegments.length;
+    int pos = 0;
+    while (pos < length && pvSegments[pos] <= firstPhysicalExtent) {
+      pos += 2;
+    }
+    long[] newSegments = new long[length + 2];
+    System.arraycopy(pvSegments, 0, newSegments, 0, pos);
+    newSegments[pos] = firstPhysicalExtent;
+    newSegments[pos + 1] = extents;
+    System.arraycopy(pvSegments, pos, newSegments, pos + 2, length - pos);
+    return newSegments;
+  }
+
+  /**
+   * Gets a new array with the segment removed.
+   */
+  private static long[] remove(long[] pvSegments, long firstPhysicalExtent, long extents) {
+    int length = pvSegments.length;
+    for (int pos = 0; pos < length; pos += 2) {
+      if (pvSegments[pos] == firstPhysicalExtent && pvSegments[pos + 1] == extents) {
+        if (length == 2) {
+          return emptySegments;
+        }
+        long[] newSegments = new long[length - 2];
+        System.arraycopy(pvSegments, 0, newSegments, 0, pos);
+        System.arraycopy(pvSegments, pos + 2, newSegments, pos, length - pos - 2);
+        return newSegments;
+      }
+    }
+    throw new AssertionError("Segment not found: " + firstPhysicalExtent + ", " + extents);
+  }
+
+  /**
+   * Adds or removes the segments of the provided physical volume configurations.  When {@code original} is not null,
+   * each per-Dom0 array of {@code newSegments} that is still shared with {@code original} is copied before being
+   * modified.
+   */
+  private void adjust(long[][][] newSegments, long[][][] original, List<PhysicalVolumeConfiguration> physicalVolumeConfigurations, boolean add) {
+    for (int i = 0, size = physicalVolumeConfigurations.size(); i < size; i++) {
+      PhysicalVolumeConfiguration pvc = physicalVolumeConfigurations.get(i);
+      PhysicalVolume physicalVolume = pvc.physicalVolume;
+      int dom0Ordinal = physicalVolume.dom0Ordinal;
+      long[][] dom0Segments = newSegments[dom0Ordinal];
+      if (original != null && dom0Segments == original[dom0Ordinal]) {
+        dom0Segments = newSegments[dom0Ordinal] = dom0Segments.clone();
+      }
+      int index = ordinals.physicalVolumeIndexes[physicalVolume.ordinal];
+      dom0Segments[index] = add
+          ? add(dom0Segments[index], pvc.getFirstPhysicalExtent(), pvc.getExtents())
+          : remove(dom0Segments[index], pvc.getFirstPhysicalExtent(), pvc.getExtents());
+    }
+  }
+
+  /**
+   * Adds the weight of a DomUDisk to each disk of the Dom0 that has at least one of the physical volumes, matching
+   * {@link com.aoindustries.aoserv.cluster.analyze.AnalyzedDom0DiskConfiguration#getAllocatedWeightResult(com.aoindustries.aoserv.cluster.analyze.ResultHandler, com.aoindustries.aoserv.cluster.analyze.AlertLevel)}.
+   * A negative weight removes it.  When {@code original} is not null, {@code weights} is copied before being modified
+   * while it is still {@code original}.
+   *
+   * @return  the weights, which is a copy when modified while still {@code original}
+   */
+  private static int[] adjustWeights(int[] weights, int[] original, List<PhysicalVolumeConfiguration> physicalVolumeConfigurations, int dom0Ordinal, int weight) {
+    if (weight == 0) {
+      return weights;
+    }
+    PHYSICAL_VOLUMES:
+    for (int i = 0, size = physicalVolumeConfigurations.size(); i < size; i++) {
+      PhysicalVolume physicalVolume = physicalVolumeConfigurations.get(i).physicalVolume;
+      if (physicalVolume.dom0Ordinal == dom0Ordinal) {
+        int dom0DiskOrdinal = physicalVolume.dom0DiskOrdinal;
+        // Each disk is only counted once per DomUDisk
+        for (int j = 0; j < i; j++) {
+          if (physicalVolumeConfigurations.get(j).physicalVolume.dom0DiskOrdinal == dom0DiskOrdinal) {
+            continue PHYSICAL_VOLUMES;
+          }
+        }
+        if (weights == original) {
+          weights = weights.clone();
+        }
+        weights[dom0DiskOrdinal] += weight;
+      }
+    }
+    return weights;
+  }
+
+  private long[] getSegments(PhysicalVolume physicalVolume) {
+    return segments[physicalVolume.dom0Ordinal][ordinals.physicalVolumeIndexes[physicalVolume.ordinal]];
+  }
+
+  /**
+   * Determines if any physical volume configuration references the provided physical volume.
+   */
+  boolean isAllocated(PhysicalVolume physicalVolume) {
+    return getSegments(physicalVolume).length != 0;
+  }
+
+  /**
+   * Gets the free space of the provided physical volume, as pairs of first physical extent and number of extents,
+   * sorted by first physical extent.  No free segment
+   * {@linkplain PhysicalVolumeConfiguration#overlaps(long, long, long, long) overlaps} any allocated segment.
+   */
+  long[] getFreeExtents(PhysicalVolume physicalVolume) {
+    long[] pvSegments = getSegments(physicalVolume);
+    int length = pvSegments.length;
+    if (length == 0) {
+      return new long[]{0, physicalVolume.extents};
+    }
+    // At most one more gap than segments
+    long[] free = new long[length + 2];
+    int count = 0;
+    long start = 0;
+    for (int pos = 0; pos < length; pos += 2) {
+      long first = pvSegments[pos];
+      if (first > start) {
+        free[count++] = start;
+        free[count++] = first - start;
+      }
+      // Allocated segments should not overlap, but this remains correct when they do
+      long end = first + pvSegments[pos + 1];
+      if (end > start) {
+        start = end;
+      }
+    }
+    if (physicalVolume.extents > start) {
+      free[count++] = start;
+      free[count++] = physicalVolume.extents - start;
+    }
+    assert !overlaps(pvSegments, free, count);
+    return count == free.length ? free : Arrays.copyOf(free, count);
+  }
+
+  /**
+   * Gets the sum of the weights of the DomUDisks with any physical volume configuration on the provided disk.  Each
+   * DomUDisk is counted once, and a DomU that is both primary and secondary on the same Dom0 only as primary.
+   */
+  int getAllocatedWeight(Dom0Disk dom0Disk) {
+    return allocatedWeights[dom0Disk.ordinal];
+  }
+
+  /**
+   * Used by assertions.
+   */
+  private static boolean overlaps(long[] pvSegments, long[] free, int count) {
+    for (int i = 0; i < pvSegments.length; i += 2) {
+      for (int j = 0; j < count; j += 2) {
+        if (PhysicalVolumeConfiguration.overlaps(pvSegments[i], pvSegments[i + 1], free[j], free[j + 1])) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the allocations after replacing one DomU configuration.  The mappings of disks at the same index that
+   * are the same instance in both configurations are skipped, so replacing only the secondary mapping does not
+   * copy the arrays of the primary Dom0.
+   *
+   * @param  oldDomUConfiguration  the configuration being replaced or <code>null</code> when adding
+   */
+  PhysicalVolumeAllocations replace(DomUConfiguration oldDomUConfiguration, DomUConfiguration newDomUConfiguration) {
+    long[][][] newSegments = segments.clone();
+    int[] newWeights = allocatedWeights;
+    List<DomUDiskConfiguration> newDisks = newDomUConfiguration.unmodifiableDomUDiskConfigurations;
+    int newSize = newDisks.size();
+    int newPrimaryOrdinal = newDomUConfiguration.primaryDom0.ordinal;
+    int newSecondaryOrdinal = newDomUConfiguration.secondaryDom0.ordinal;
+    List<DomUDiskConfiguration> oldDisks;
+    int oldSize;
+    int oldPrimaryOrdinal;
+    int oldSecondaryOrdinal;
+    if (oldDomUConfiguration == null) {
+      oldDisks = null;
+      oldSize = 0;
+      oldPrimaryOrdinal = -1;
+      oldSecondaryOrdinal = -1;
+    } else {
+      oldDisks = oldDomUConfiguration.unmodifiableDomUDiskConfigurations;
+      oldSize = oldDisks.size();
+      oldPrimaryOrdinal = oldDomUConfiguration.primaryDom0.ordinal;
+      oldSecondaryOrdinal = oldDomUConfiguration.secondaryDom0.ordinal;
+    }
+    // The weights of a mapping also change with its Dom0, and a secondary on the primary Dom0 has no weight
+    boolean samePrimary = oldPrimaryOrdinal == newPrimaryOrdinal;
+    boolean oldSecondaryWeighted = oldSecondaryOrdinal != oldPrimaryOrdinal;
+    boolean newSecondaryWeighted = newSecondaryOrdinal != newPrimaryOrdinal;
+    boolean sameSecondary = oldSecondaryOrdinal == newSecondaryOrdinal && oldSecondaryWeighted == newSecondaryWeighted;
+    for (int i = 0; i < oldSize; i++) {
+      DomUDiskConfiguration oldDisk = oldDisks.get(i);
+      DomUDiskConfiguration newDisk = i < newSize ? newDisks.get(i) : null;
+      int weight = oldDisk.domUDisk.weight;
+      boolean primaryChanged = newDisk == null || oldDisk.primaryPhysicalVolumeConfigurations != newDisk.primaryPhysicalVolumeConfigurations;
+      if (primaryChanged) {
+        adjust(newSegments, segments, oldDisk.primaryPhysicalVolumeConfigurations, false);
+      }
+      if (primaryChanged || !samePrimary) {
+        newWeights = adjustWeights(newWeights, allocatedWeights, oldDisk.primaryPhysicalVolumeConfigurations, oldPrimaryOrdinal, -weight);
+      }
+      boolean secondaryChanged = newDisk == null || oldDisk.secondaryPhysicalVolumeConfigurations != newDisk.secondaryPhysicalVolumeConfigurations;
+      if (secondaryChanged) {
+        adjust(newSegments, segments, oldDisk.secondaryPhysicalVolumeConfigurations, false);
+      }
+      if ((secondaryChanged || !sameSecondary) && oldSecondaryWeighted) {
+        newWeights = adjustWeights(newWeights, allocatedWeights, oldDisk.secondaryPhysicalVolumeConfigurations, oldSecondaryOrdinal, -weight);
+      }
+    }
+    for (int i = 0; i < newSize; i++) {
+      DomUDiskConfiguration newDisk = newDisks.get(i);
+      DomUDiskConfiguration oldDisk = i < oldSize ? oldDisks.get(i) : null;
+      int weight = newDisk.domUDisk.weight;
+      boolean primaryChanged = oldDisk == null || oldDisk.primaryPhysicalVolumeConfigurations != newDisk.primaryPhysicalVolumeConfigurations;
+      if (primaryChanged) {
+        adjust(newSegments, segments, newDisk.primaryPhysicalVolumeConfigurations, true);
+      }
+      if (primaryChanged || !samePrimary) {
+        newWeights = adjustWeights(newWeights, allocatedWeights, newDisk.primaryPhysicalVolumeConfigurations, newPrimaryOrdinal, weight);
+      }
+      boolean secondaryChanged = oldDisk == null || oldDisk.secondaryPhysicalVolumeConfigurations != newDisk.secondaryPhysicalVolumeConfigurations;
+      if (secondaryChanged) {
+        adjust(newSegments, segments, newDisk.secondaryPhysicalVolumeConfigurations, true);
+      }
+      if ((secondaryChanged || !sameSecondary) && newSecondaryWeighted) {
+        newWeights = adjustWeights(newWeights, allocatedWeights, newDisk.secondaryPhysicalVolumeConfigurations, newSecondaryOrdinal, weight);
+      }
+    }
+    return new PhysicalVolumeAllocations(ordinals, newSegments, newWeights);
+  }
+
+  /**
+   * Used by assertions.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof PhysicalVolumeAllocations)) {
+      return false;
+    }
+    PhysicalVolumeAllocations other = (PhysicalVolumeAllocations) obj;
+    return Arrays.deepEquals(segments, other.segments)
+        && Arrays.equals(allocatedWeights, other.allocatedWeights);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.deepHashCode(segments) * 31 + Arrays.hashCode(allocatedWeights);
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+/**
+ * Selects the free space onto which
+ * {@link ClusterConfiguration#moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0, com.aoindustries.aoserv.cluster.SecondaryMappingStrategy)}
+ * maps the extents of a DomU.
+ *
+ * @author  AO Industries, Inc.
+ */
+public enum SecondaryMappingStrategy {
+  /**
+   * Maps onto physical volumes that are not allocated at all, starting at the first physical extent.
+   */
+  WHOLE_VOLUMES,
+
+  /**
+   * Also maps onto the free segments of partially allocated physical volumes.  This finds mappings when no
+   * physical volume is entirely free, at the cost of a larger branch factor.
+   */
+  FREE_EXTENTS,
+
+  /**
+   * Maps onto physical volumes that are not allocated at all, like {@link #WHOLE_VOLUMES}, but does not enumerate
+   * more than one mapping onto indistinguishable disks.  The starting disks that would only repeat an earlier mapping
+   * are skipped before being mapped, without losing any solution.
+   */
+  CANONICAL
+}
@@ -0,0 +1,141 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+import java.util.List;
+
+/**
+ * Zobrist-style 64-bit hashing of cluster configurations.  Each {@link Dom0}, {@link DomU}, {@link DomUDisk}, and
+ * {@link PhysicalVolume} has a pseudo-random key derived from its names, so the key is the same for every
+ * copy of the object created as the cluster is built.  Each component of a configuration combines the keys of
+ * the resources it maps, and the hash of a configuration is the XOR of its components.  A configuration derived by
+ * replacing a single component therefore has its hash derived from the original in constant time.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class Zobrist {
+
+  /** Make no instances. */
+  private Zobrist() {
+    throw new AssertionError();
+  }
+
+  static final long DOM0_SEED = 0x6A09E667F3BCC908L;
+  static final long DOMU_SEED = 0xBB67AE8584CAA73BL;
+  static final long DOMU_DISK_SEED = 0x3C6EF372FE94F82BL;
+  static final long PHYSICAL_VOLUME_SEED = 0xA54FF53A5F1D36F1L;
+
+  /**
+   * The murmur3 64-bit finalizer.
+   */
+  static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * Combines a string into a key with 64-bit FNV-1a.
+   */
+  static long combine(long key, String value) {
+    for (int i = 0, len = value.length(); i < len; i++) {
+      key = (key ^ value.charAt(i)) * 0x100000001B3L;
+    }
+    // Separator
+    return (key ^ 0xFFFF) * 0x100000001B3L;
+  }
+
+  /**
+   * Folds a 64-bit hash into a 32-bit hash code.
+   */
+  static int fold(long hash64) {
+    return (int) (hash64 ^ (hash64 >>> 32));
+  }
+
+  static long getKey(PhysicalVolumeConfiguration pvc) {
+    return mix(
+        pvc.physicalVolume.zobristKey
+            ^ mix(pvc.getFirstLogicalExtent() * 0x9E3779B97F4A7C15L + pvc.getFirstPhysicalExtent())
+            ^ Long.rotateLeft(pvc.getExtents() * 0xC2B2AE3D27D4EB4FL, 17)
+    );
+  }
+
+  static long getKey(List<PhysicalVolumeConfiguration> physicalVolumeConfigurations) {
+    long key = 0;
+    for (int i = 0, size = physicalVolumeConfigurations.size(); i < size; i++) {
+      key ^= getKey(physicalVolumeConfigurations.get(i));
+    }
+    return key;
+  }
+
+  /**
+   * Gets the hash of one disk configuration.  The secondary mapping is rotated so swapping primary and secondary
+   * results in a different hash.
+   */
+  static long getHash64(
+      DomUDisk domUDisk,
+      List<PhysicalVolumeConfiguration> primaryPhysicalVolumeConfigurations,
+      List<PhysicalVolumeConfiguration> secondaryPhysicalVolumeConfigurations
+  ) {
+    return mix(
+        domUDisk.zobristKey
+            ^ getKey(primaryPhysicalVolumeConfigurations)
+            ^ Long.rotateLeft(getKey(secondaryPhysicalVolumeConfigurations), 32)
+    );
+  }
+
+  /**
+   * Gets the hash of one DomU configuration.
+   */
+  static long getHash64(
+      DomU domU,
+      Dom0 primaryDom0,
+      Dom0 secondaryDom0,
+      List<DomUDiskConfiguration> domUDiskConfigurations
+  ) {
+    long hash64 = mix(
+        domU.zobristKey
+            ^ Long.rotateLeft(primaryDom0.zobristKey, 21)
+            ^ Long.rotateLeft(secondaryDom0.zobristKey, 42)
+    );
+    for (int i = 0, size = domUDiskConfigurations.size(); i < size; i++) {
+      hash64 ^= domUDiskConfigurations.get(i).hash64;
+    }
+    return hash64;
+  }
+
+  /**
+   * Gets the hash of a cluster configuration.
+   */
+  static long getHash64(List<DomUConfiguration> domUConfigurations) {
+    long hash64 = 0;
+    for (int i = 0, size = domUConfigurations.size(); i < size; i++) {
+      hash64 ^= domUConfigurations.get(i).hash64;
+    }
+    return hash64;
+  }
+}
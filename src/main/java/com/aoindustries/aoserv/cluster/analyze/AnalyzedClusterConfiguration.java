@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -58,6 +58,7 @@ public class AnalyzedClusterConfiguration {
     // Analyze each Dom0
     Cluster cluster = clusterConfiguration.getCluster();
     Map<String, Dom0> clusterDom0s = cluster.getDom0s();
+    Dom0Buckets buckets = Dom0Buckets.of(clusterConfiguration);
     int size = clusterDom0s.size();
     if (size == 0) {
       analyzedDom0Configurations = Collections.emptyList();
@@ -65,14 +66,15 @@ public class AnalyzedClusterConfiguration {
       analyzedDom0Configurations = Collections.singletonList(
           new AnalyzedDom0Configuration(
               clusterConfiguration,
-              clusterDom0s.values().iterator().next()
+              clusterDom0s.values().iterator().next(),
+              buckets
           )
       );
     } else {
       AnalyzedDom0Configuration[] dom0s = new AnalyzedDom0Configuration[clusterDom0s.size()];
       int index = 0;
       for (Dom0 dom0 : clusterDom0s.values()) {
-        dom0s[index++] = new AnalyzedDom0Configuration(clusterConfiguration, dom0);
+        dom0s[index++] = new AnalyzedDom0Configuration(clusterConfiguration, dom0, buckets);
       }
       assert index == size : "index != size: " + index + " != " + size;
       analyzedDom0Configurations = new UnmodifiableArrayList<>(dom0s);
@@ -110,15 +112,30 @@ public class AnalyzedClusterConfiguration {
     return true;
   }
 
+  /**
+   * Obtains all the different results without creating any result objects.
+   * This is preferred by heuristics that only need the alert level and
+   * deviation of each result.
+   *
+   * @return true if more results are wanted, or false to receive no more results.
+   */
+  public boolean getAllResults(PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
+    for (AnalyzedDom0Configuration dom0 : getAnalyzedDom0Configurations()) {
+      if (!dom0.getAllResults(primitiveResultHandler, minimumAlertLevel)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Determines if this is optimal, meaning all results have AlertLevel of NONE.
    */
-  @SuppressWarnings({"unchecked"})
   public boolean isOptimal() {
     boolean[] isOptimal = {true};
     getAllResults(
-        (Result<?> result) -> {
-          assert result.getAlertLevel() != AlertLevel.NONE : "result.alertLevel should not be NONE";
+        (Check check, int subject, AlertLevel alertLevel, double deviation) -> {
+          assert alertLevel != AlertLevel.NONE : "alertLevel should not be NONE";
           assert isOptimal[0] : "isOptimal[0] is false, handleResult called more than once";
           isOptimal[0] = false;
           return false;
@@ -131,12 +148,11 @@ public class AnalyzedClusterConfiguration {
   /**
    * Determines if this has at least one result with AlertLevel of CRITICAL.
    */
-  @SuppressWarnings({"unchecked"})
   public boolean hasCritical() {
     boolean[] hasCritical = new boolean[1];
     getAllResults(
-        (Result<?> result) -> {
-          assert result.getAlertLevel() == AlertLevel.CRITICAL : "result.alertLevel should be CRITICAL but it is " + result.getAlertLevel();
+        (Check check, int subject, AlertLevel alertLevel, double deviation) -> {
+          assert alertLevel == AlertLevel.CRITICAL : "alertLevel should be CRITICAL but it is " + alertLevel;
           assert !hasCritical[0] : "hasCritical[0] is true, handleResult called more than once";
           hasCritical[0] = true;
           return false;
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2021, 2022, 2024, 2025  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2021, 2022, 2024, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -20,7 +20,6 @@
  * You should have received a copy of the GNU Lesser General Public License
  * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
  */
-
 package com.aoindustries.aoserv.cluster.analyze;
 
 import com.aoindustries.aoserv.cluster.ClusterConfiguration;
@@ -32,26 +31,37 @@ import com.aoindustries.aoserv.cluster.ProcessorArchitecture;
 import com.aoindustries.aoserv.cluster.ProcessorType;
 import com.aoindustries.aoserv.cluster.UnmodifiableArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Analyzes a single Dom0 to find anything that is not optimal.
  *
+ * <p>Each check is implemented once and reports to either a {@link ResultHandler} or a
+ * {@link PrimitiveResultHandler}, exactly one of which is non-null.</p>
+ *
  * @author  AO Industries, Inc.
  */
 public class AnalyzedDom0Configuration {
 
   private final ClusterConfiguration clusterConfiguration;
   private final Dom0 dom0;
+  private final Dom0Buckets buckets;
 
   /**
    * Creates a new {@link AnalyzedDom0Configuration}.
    */
   public AnalyzedDom0Configuration(ClusterConfiguration clusterConfiguration, Dom0 dom0) {
+    this(clusterConfiguration, dom0, Dom0Buckets.of(clusterConfiguration, dom0.getOrdinal()));
+  }
+
+  /**
+   * Creates a new {@link AnalyzedDom0Configuration} sharing buckets already built for the whole cluster.
+   */
+  AnalyzedDom0Configuration(ClusterConfiguration clusterConfiguration, Dom0 dom0, Dom0Buckets buckets) {
     this.clusterConfiguration = clusterConfiguration;
     this.dom0 = dom0;
+    this.buckets = buckets;
   }
 
   public ClusterConfiguration getClusterConfiguration() {
@@ -62,28 +72,49 @@ public class AnalyzedDom0Configuration {
     return dom0;
   }
 
+  /**
+   * Gets a 64-bit hash of the configurations of the DomUs that are primary or secondary on this Dom0.
+   * The results depend only on these configurations, so configurations of the cluster with the same hash
+   * for a Dom0 have, with very high probability, the same results for the Dom0.
+   *
+   * @see  DomUConfiguration#getHash64()
+   */
+  public long getHash64() {
+    long hash64 = 0;
+    for (DomUConfiguration domUConfiguration : buckets.getDomUs(dom0)) {
+      hash64 ^= domUConfiguration.getHash64();
+    }
+    return hash64;
+  }
+
   /**
    * Gets the results for primary RAM allocation.
    *
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getPrimaryRamResult(ResultHandler<? super Integer> resultHandler, AlertLevel minimumAlertLevel) {
+    return getPrimaryRamResult(resultHandler, null, minimumAlertLevel);
+  }
+
+  private boolean getPrimaryRamResult(ResultHandler<? super Integer> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
     int allocatedPrimaryRam = 0;
-    for (DomUConfiguration domUConfiguration : clusterConfiguration.getDomUConfigurations()) {
-      if (domUConfiguration.getPrimaryDom0() == dom0) {
-        allocatedPrimaryRam += domUConfiguration.getDomU().getPrimaryRam();
-      }
+    for (DomUConfiguration domUConfiguration : buckets.getPrimaryDomUs(dom0)) {
+      allocatedPrimaryRam += domUConfiguration.getDomU().getPrimaryRam();
     }
     int totalRam = dom0.getRam();
     int overcommittedRam = allocatedPrimaryRam - totalRam;
     AlertLevel alertLevel = overcommittedRam > 0 ? AlertLevel.CRITICAL : AlertLevel.NONE;
     if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
+      double deviation = (double) overcommittedRam / (double) totalRam;
+      if (primitiveResultHandler != null) {
+        return primitiveResultHandler.handleResult(Check.PRIMARY_RAM, dom0.getOrdinal(), alertLevel, deviation);
+      }
       return resultHandler.handleResult(
           new IntResult(
               "Primary RAM",
               allocatedPrimaryRam,
               totalRam,
-              ((double) overcommittedRam / (double) totalRam),
+              deviation,
               alertLevel
           )
       );
@@ -94,52 +125,72 @@ public class AnalyzedDom0Configuration {
 
   /**
    * Gets the secondary RAM allocation results.  It has a separate
-   * entry for each Dom0 that has any secondary resource on this dom0.
+   * entry for each Dom0 that has any secondary resource on this dom0,
+   * in the order first found in the configuration.
    *
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getSecondaryRamResults(ResultHandler<? super Integer> resultHandler, AlertLevel minimumAlertLevel) {
+    return getSecondaryRamResults(resultHandler, null, minimumAlertLevel);
+  }
+
+  private boolean getSecondaryRamResults(ResultHandler<? super Integer> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
     if (minimumAlertLevel.compareTo(AlertLevel.HIGH) <= 0) {
+      List<DomUConfiguration> domUConfigurations = buckets.getDomUs(dom0);
+      int size = domUConfigurations.size();
+      // Totals the primary RAM and the secondary RAM by failed Dom0 in one pass
       int allocatedPrimaryRam = 0;
-      Map<String, Integer> allocatedSecondaryRams = new HashMap<>();
-      for (DomUConfiguration domUConfiguration : clusterConfiguration.getDomUConfigurations()) {
-        if (domUConfiguration.getPrimaryDom0() == dom0) {
-          allocatedPrimaryRam += domUConfiguration.getDomU().getPrimaryRam();
-        } else if (domUConfiguration.getSecondaryDom0() == dom0) {
-          int secondaryRam = domUConfiguration.getDomU().getSecondaryRam();
+      int[] secondaryRams = buckets.getSecondaryRams();
+      for (int i = 0; i < size; i++) {
+        DomUConfiguration domUConfiguration = domUConfigurations.get(i);
+        Dom0 failedDom0 = domUConfiguration.getPrimaryDom0();
+        DomU domU = domUConfiguration.getDomU();
+        if (failedDom0 == dom0) {
+          allocatedPrimaryRam += domU.getPrimaryRam();
+        } else {
+          int secondaryRam = domU.getSecondaryRam();
           if (secondaryRam != -1) {
-            String failedHostname = domUConfiguration.getPrimaryDom0().getHostname();
-            Integer totalSecondary = allocatedSecondaryRams.get(failedHostname);
-            allocatedSecondaryRams.put(
-                failedHostname,
-                totalSecondary == null ? secondaryRam : (totalSecondary + secondaryRam)
-            );
+            int ordinal = failedDom0.getOrdinal();
+            int allocatedSecondary = secondaryRams[ordinal];
+            secondaryRams[ordinal] = allocatedSecondary == -1 ? secondaryRam : (allocatedSecondary + secondaryRam);
           }
         }
       }
       int totalRam = dom0.getRam();
       int freePrimaryRam = totalRam - allocatedPrimaryRam;
 
-      for (Map.Entry<String, Integer> entry : allocatedSecondaryRams.entrySet()) {
-        String failedHostname = entry.getKey();
-        int allocatedSecondary = entry.getValue();
-        AlertLevel alertLevel = allocatedSecondary > freePrimaryRam ? AlertLevel.HIGH : AlertLevel.NONE;
-        if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
-          if (
-              !resultHandler.handleResult(
-                  new IntResult(
-                      failedHostname,
-                      allocatedSecondary,
-                      freePrimaryRam,
-                      (double) (allocatedSecondary - freePrimaryRam) / (double) totalRam,
-                      alertLevel
-                  )
-              )
-          ) {
-            return false;
+      // Reports each failed Dom0 when first found, resetting its total for reuse
+      boolean more = true;
+      for (int i = 0; i < size; i++) {
+        Dom0 failedDom0 = domUConfigurations.get(i).getPrimaryDom0();
+        if (failedDom0 != dom0) {
+          int ordinal = failedDom0.getOrdinal();
+          int allocatedSecondary = secondaryRams[ordinal];
+          if (allocatedSecondary != -1) {
+            secondaryRams[ordinal] = -1;
+            if (more) {
+              AlertLevel alertLevel = allocatedSecondary > freePrimaryRam ? AlertLevel.HIGH : AlertLevel.NONE;
+              if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
+                double deviation = (double) (allocatedSecondary - freePrimaryRam) / (double) totalRam;
+                if (primitiveResultHandler != null) {
+                  more = primitiveResultHandler.handleResult(Check.SECONDARY_RAM, ordinal, alertLevel, deviation);
+                } else {
+                  more = resultHandler.handleResult(
+                      new IntResult(
+                          failedDom0.getHostname(),
+                          allocatedSecondary,
+                          freePrimaryRam,
+                          deviation,
+                          alertLevel
+                      )
+                  );
+                }
+              }
+            }
           }
         }
       }
+      return more;
     }
     return true;
   }
@@ -152,10 +203,14 @@ public class AnalyzedDom0Configuration {
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getProcessorTypeResults(ResultHandler<? super ProcessorType> resultHandler, AlertLevel minimumAlertLevel) {
+    return getProcessorTypeResults(resultHandler, null, minimumAlertLevel);
+  }
+
+  private boolean getProcessorTypeResults(ResultHandler<? super ProcessorType> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
     if (minimumAlertLevel.compareTo(AlertLevel.LOW) <= 0) {
       ProcessorType processorType = dom0.getProcessorType();
 
-      List<DomUConfiguration> domUConfigurations = clusterConfiguration.getDomUConfigurations();
+      List<DomUConfiguration> domUConfigurations = buckets.getDomUs(dom0);
       for (DomUConfiguration domUConfiguration : domUConfigurations) {
         DomU domU = domUConfiguration.getDomU();
         if (
@@ -178,7 +233,11 @@ public class AnalyzedDom0Configuration {
             deviation = diff;
           }
           if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
-            if (
+            if (primitiveResultHandler != null) {
+              if (!primitiveResultHandler.handleResult(Check.PROCESSOR_TYPE, domU.getOrdinal(), alertLevel, deviation)) {
+                return false;
+              }
+            } else if (
                 !resultHandler.handleResult(
                     new ObjectResult<>(
                         domU.getHostname(),
@@ -206,57 +265,49 @@ public class AnalyzedDom0Configuration {
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getProcessorArchitectureResults(ResultHandler<? super ProcessorArchitecture> resultHandler, AlertLevel minimumAlertLevel) {
+    return getProcessorArchitectureResults(resultHandler, null, minimumAlertLevel);
+  }
+
+  private boolean getProcessorArchitectureResults(ResultHandler<? super ProcessorArchitecture> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
     ProcessorArchitecture processorArchitecture = dom0.getProcessorArchitecture();
 
-    List<DomUConfiguration> domUConfigurations = clusterConfiguration.getDomUConfigurations();
+    List<DomUConfiguration> domUConfigurations = buckets.getDomUs(dom0);
     for (DomUConfiguration domUConfiguration : domUConfigurations) {
       DomU domU = domUConfiguration.getDomU();
+      AlertLevel mismatchAlertLevel;
       if (domUConfiguration.getPrimaryDom0() == dom0) {
         // Primary is CRITICAL
-        ProcessorArchitecture minProcessorArchitecture = domU.getMinimumProcessorArchitecture();
-        AlertLevel alertLevel;
-        // The further apart the architectures, the higher the deviation
-        int diff = minProcessorArchitecture.ordinal() - processorArchitecture.ordinal();
-        alertLevel = diff > 0 ? AlertLevel.CRITICAL : AlertLevel.NONE;
-        if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
-          if (
-              !resultHandler.handleResult(
-                  new ObjectResult<>(
-                      domU.getHostname(),
-                      minProcessorArchitecture,
-                      processorArchitecture,
-                      (double) diff,
-                      alertLevel
-                  )
-              )
-          ) {
-            return false;
-          }
-        }
+        mismatchAlertLevel = AlertLevel.CRITICAL;
       } else if (
           domUConfiguration.getSecondaryDom0() == dom0
               && domU.getSecondaryRam() != -1
       ) {
         // Secondary is HIGH
-        ProcessorArchitecture minProcessorArchitecture = domU.getMinimumProcessorArchitecture();
-        AlertLevel alertLevel;
-        // The further apart the architectures, the higher the deviation
-        int diff = minProcessorArchitecture.ordinal() - processorArchitecture.ordinal();
-        alertLevel = diff > 0 ? AlertLevel.HIGH : AlertLevel.NONE;
-        if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
-          if (
-              !resultHandler.handleResult(
-                  new ObjectResult<>(
-                      domU.getHostname(),
-                      minProcessorArchitecture,
-                      processorArchitecture,
-                      (double) diff,
-                      alertLevel
-                  )
-              )
-          ) {
+        mismatchAlertLevel = AlertLevel.HIGH;
+      } else {
+        continue;
+      }
+      ProcessorArchitecture minProcessorArchitecture = domU.getMinimumProcessorArchitecture();
+      // The further apart the architectures, the higher the deviation
+      int diff = minProcessorArchitecture.ordinal() - processorArchitecture.ordinal();
+      AlertLevel alertLevel = diff > 0 ? mismatchAlertLevel : AlertLevel.NONE;
+      if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
+        if (primitiveResultHandler != null) {
+          if (!primitiveResultHandler.handleResult(Check.PROCESSOR_ARCHITECTURE, domU.getOrdinal(), alertLevel, diff)) {
             return false;
           }
+        } else if (
+            !resultHandler.handleResult(
+                new ObjectResult<>(
+                    domU.getHostname(),
+                    minProcessorArchitecture,
+                    processorArchitecture,
+                    (double) diff,
+                    alertLevel
+                )
+            )
+        ) {
+          return false;
         }
       }
     }
@@ -271,10 +322,14 @@ public class AnalyzedDom0Configuration {
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getProcessorSpeedResults(ResultHandler<? super Integer> resultHandler, AlertLevel minimumAlertLevel) {
+    return getProcessorSpeedResults(resultHandler, null, minimumAlertLevel);
+  }
+
+  private boolean getProcessorSpeedResults(ResultHandler<? super Integer> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
     if (minimumAlertLevel.compareTo(AlertLevel.LOW) <= 0) {
       int processorSpeed = dom0.getProcessorSpeed();
 
-      List<DomUConfiguration> domUConfigurations = clusterConfiguration.getDomUConfigurations();
+      List<DomUConfiguration> domUConfigurations = buckets.getDomUs(dom0);
       for (DomUConfiguration domUConfiguration : domUConfigurations) {
         DomU domU = domUConfiguration.getDomU();
         if (
@@ -295,7 +350,11 @@ public class AnalyzedDom0Configuration {
             deviation = (double) (minSpeed - processorSpeed) / (double) minSpeed;
           }
           if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
-            if (
+            if (primitiveResultHandler != null) {
+              if (!primitiveResultHandler.handleResult(Check.PROCESSOR_SPEED, domU.getOrdinal(), alertLevel, deviation)) {
+                return false;
+              }
+            } else if (
                 !resultHandler.handleResult(
                     new ObjectResult<>(
                         domU.getHostname(),
@@ -323,10 +382,14 @@ public class AnalyzedDom0Configuration {
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getProcessorCoresResults(ResultHandler<? super Integer> resultHandler, AlertLevel minimumAlertLevel) {
+    return getProcessorCoresResults(resultHandler, null, minimumAlertLevel);
+  }
+
+  private boolean getProcessorCoresResults(ResultHandler<? super Integer> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
     if (minimumAlertLevel.compareTo(AlertLevel.MEDIUM) <= 0) {
       int processorCores = dom0.getProcessorCores();
 
-      List<DomUConfiguration> domUConfigurations = clusterConfiguration.getDomUConfigurations();
+      List<DomUConfiguration> domUConfigurations = buckets.getDomUs(dom0);
       for (DomUConfiguration domUConfiguration : domUConfigurations) {
         DomU domU = domUConfiguration.getDomU();
         if (
@@ -339,13 +402,18 @@ public class AnalyzedDom0Configuration {
           int minCores = domU.getProcessorCores();
           AlertLevel alertLevel = minCores != -1 && processorCores < minCores ? AlertLevel.MEDIUM : AlertLevel.NONE;
           if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
-            if (
+            double deviation = (double) (minCores - processorCores) / (double) minCores;
+            if (primitiveResultHandler != null) {
+              if (!primitiveResultHandler.handleResult(Check.PROCESSOR_CORES, domU.getOrdinal(), alertLevel, deviation)) {
+                return false;
+              }
+            } else if (
                 !resultHandler.handleResult(
                     new ObjectResult<>(
                         domU.getHostname(),
                         minCores == -1 ? null : minCores,
                         processorCores,
-                        (double) (minCores - processorCores) / (double) minCores,
+                        deviation,
                         alertLevel
                     )
                 )
@@ -365,24 +433,30 @@ public class AnalyzedDom0Configuration {
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getPrimaryProcessorWeightResult(ResultHandler<? super Integer> resultHandler, AlertLevel minimumAlertLevel) {
+    return getPrimaryProcessorWeightResult(resultHandler, null, minimumAlertLevel);
+  }
+
+  private boolean getPrimaryProcessorWeightResult(ResultHandler<? super Integer> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
     if (minimumAlertLevel.compareTo(AlertLevel.MEDIUM) <= 0) {
       int allocatedPrimaryWeight = 0;
-      for (DomUConfiguration domUConfiguration : clusterConfiguration.getDomUConfigurations()) {
-        if (domUConfiguration.getPrimaryDom0() == dom0) {
-          DomU domU = domUConfiguration.getDomU();
-          allocatedPrimaryWeight += (int) domU.getProcessorCores() * (int) domU.getProcessorWeight();
-        }
+      for (DomUConfiguration domUConfiguration : buckets.getPrimaryDomUs(dom0)) {
+        DomU domU = domUConfiguration.getDomU();
+        allocatedPrimaryWeight += (int) domU.getProcessorCores() * (int) domU.getProcessorWeight();
       }
       int totalWeight = dom0.getProcessorCores() * 1024;
       int overcommittedWeight = allocatedPrimaryWeight - totalWeight;
       AlertLevel alertLevel = overcommittedWeight > 0 ? AlertLevel.MEDIUM : AlertLevel.NONE;
       if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
+        double deviation = (double) overcommittedWeight / (double) totalWeight;
+        if (primitiveResultHandler != null) {
+          return primitiveResultHandler.handleResult(Check.PRIMARY_PROCESSOR_WEIGHT, dom0.getOrdinal(), alertLevel, deviation);
+        }
         return resultHandler.handleResult(
             new IntResult(
                 "Primary Processor Weight",
                 allocatedPrimaryWeight,
                 totalWeight,
-                ((double) overcommittedWeight / (double) totalWeight),
+                deviation,
                 alertLevel
             )
         );
@@ -399,88 +473,66 @@ public class AnalyzedDom0Configuration {
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getRequiresHvmResults(ResultHandler<? super Boolean> resultHandler, AlertLevel minimumAlertLevel) {
+    return getRequiresHvmResults(resultHandler, null, minimumAlertLevel);
+  }
+
+  private boolean getRequiresHvmResults(ResultHandler<? super Boolean> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
     boolean supportsHvm = dom0.getSupportsHvm();
-    List<DomUConfiguration> domUConfigurations = clusterConfiguration.getDomUConfigurations();
+    List<DomUConfiguration> domUConfigurations = buckets.getDomUs(dom0);
     for (DomUConfiguration domUConfiguration : domUConfigurations) {
       DomU domU = domUConfiguration.getDomU();
+      AlertLevel mismatchAlertLevel;
       if (domUConfiguration.getPrimaryDom0() == dom0) {
-        boolean requiresHvm = domU.getRequiresHvm();
-        AlertLevel alertLevel;
-        double deviation;
-        if (requiresHvm) {
-          if (supportsHvm) {
-            alertLevel = AlertLevel.NONE;
-            deviation = 0;
-          } else {
-            alertLevel = AlertLevel.CRITICAL;
-            deviation = 1;
-          }
-        } else {
-          alertLevel = AlertLevel.NONE;
-          if (supportsHvm) {
-            deviation = -1;
-          } else {
-            deviation = 0;
-          }
-        }
-        if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
-          if (
-              !resultHandler.handleResult(
-                  new BooleanResult(
-                      domU.getHostname(),
-                      requiresHvm,
-                      supportsHvm,
-                      deviation,
-                      alertLevel
-                  )
-              )
-          ) {
-            return false;
-          }
-        }
+        mismatchAlertLevel = AlertLevel.CRITICAL;
       } else if (
           domUConfiguration.getSecondaryDom0() == dom0
               && domU.getSecondaryRam() != -1
       ) {
-        boolean requiresHvm = domU.getRequiresHvm();
-        AlertLevel alertLevel;
-        double deviation;
-        if (requiresHvm) {
-          if (supportsHvm) {
-            alertLevel = AlertLevel.NONE;
-            deviation = 0;
-          } else {
-            alertLevel = AlertLevel.HIGH;
-            deviation = 1;
-          }
-        } else {
+        mismatchAlertLevel = AlertLevel.HIGH;
+      } else {
+        continue;
+      }
+      boolean requiresHvm = domU.getRequiresHvm();
+      AlertLevel alertLevel;
+      double deviation;
+      if (requiresHvm) {
+        if (supportsHvm) {
           alertLevel = AlertLevel.NONE;
-          if (supportsHvm) {
-            deviation = -1;
-          } else {
-            deviation = 0;
-          }
+          deviation = 0;
+        } else {
+          alertLevel = mismatchAlertLevel;
+          deviation = 1;
         }
-        if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
-          if (
-              !resultHandler.handleResult(
-                  new BooleanResult(
-                      domU.getHostname(),
-                      requiresHvm,
-                      supportsHvm,
-                      deviation,
-                      alertLevel
-                  )
-              )
-          ) {
+      } else {
+        alertLevel = AlertLevel.NONE;
+        if (supportsHvm) {
+          deviation = -1;
+        } else {
+          deviation = 0;
+        }
+      }
+      if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
+        if (primitiveResultHandler != null) {
+          if (!primitiveResultHandler.handleResult(Check.REQUIRES_HVM, domU.getOrdinal(), alertLevel, deviation)) {
             return false;
           }
+        } else if (
+            !resultHandler.handleResult(
+                new BooleanResult(
+                    domU.getHostname(),
+                    requiresHvm,
+                    supportsHvm,
+                    deviation,
+                    alertLevel
+                )
+            )
+        ) {
+          return false;
         }
       }
     }
     return true;
   }
-
   /**
    * Gets the unsorted, unmodifiable list of results for each disk.
    */
@@ -491,13 +543,13 @@ public class AnalyzedDom0Configuration {
       return Collections.emptyList();
     } else if (size == 1) {
       return Collections.singletonList(
-          new AnalyzedDom0DiskConfiguration(clusterConfiguration, clusterDom0Disks.values().iterator().next())
+          new AnalyzedDom0DiskConfiguration(clusterConfiguration, clusterDom0Disks.values().iterator().next(), buckets)
       );
     } else {
       AnalyzedDom0DiskConfiguration[] array = new AnalyzedDom0DiskConfiguration[size];
       int index = 0;
       for (Dom0Disk dom0Disk : clusterDom0Disks.values()) {
-        array[index++] = new AnalyzedDom0DiskConfiguration(clusterConfiguration, dom0Disk);
+        array[index++] = new AnalyzedDom0DiskConfiguration(clusterConfiguration, dom0Disk, buckets);
       }
       assert index == size : "index != size: " + index + " != " + size;
       return new UnmodifiableArrayList<>(array);
@@ -510,34 +562,47 @@ public class AnalyzedDom0Configuration {
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getAllResults(ResultHandler<Object> resultHandler, AlertLevel minimumAlertLevel) {
-    if (!getPrimaryRamResult(resultHandler, minimumAlertLevel)) {
+    return getAllResults(resultHandler, null, minimumAlertLevel);
+  }
+
+  /**
+   * See {@link AnalyzedClusterConfiguration#getAllResults(com.aoindustries.aoserv.cluster.analyze.PrimitiveResultHandler, com.aoindustries.aoserv.cluster.analyze.AlertLevel)}.
+   *
+   * @return true if more results are wanted, or false to receive no more results.
+   */
+  public boolean getAllResults(PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
+    return getAllResults(null, primitiveResultHandler, minimumAlertLevel);
+  }
+
+  private boolean getAllResults(ResultHandler<Object> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
+    if (!getPrimaryRamResult(resultHandler, primitiveResultHandler, minimumAlertLevel)) {
       return false;
     }
-    if (!getSecondaryRamResults(resultHandler, minimumAlertLevel)) {
+    if (!getSecondaryRamResults(resultHandler, primitiveResultHandler, minimumAlertLevel)) {
       return false;
     }
-    if (!getProcessorTypeResults(resultHandler, minimumAlertLevel)) {
+    if (!getProcessorTypeResults(resultHandler, primitiveResultHandler, minimumAlertLevel)) {
       return false;
     }
-    if (!getProcessorArchitectureResults(resultHandler, minimumAlertLevel)) {
+    if (!getProcessorArchitectureResults(resultHandler, primitiveResultHandler, minimumAlertLevel)) {
       return false;
     }
-    if (!getProcessorSpeedResults(resultHandler, minimumAlertLevel)) {
+    if (!getProcessorSpeedResults(resultHandler, primitiveResultHandler, minimumAlertLevel)) {
       return false;
     }
-    if (!getProcessorCoresResults(resultHandler, minimumAlertLevel)) {
+    if (!getProcessorCoresResults(resultHandler, primitiveResultHandler, minimumAlertLevel)) {
       return false;
     }
-    if (!getPrimaryProcessorWeightResult(resultHandler, minimumAlertLevel)) {
+    if (!getPrimaryProcessorWeightResult(resultHandler, primitiveResultHandler, minimumAlertLevel)) {
       return false;
     }
-    if (!getRequiresHvmResults(resultHandler, minimumAlertLevel)) {
+    if (!getRequiresHvmResults(resultHandler, primitiveResultHandler, minimumAlertLevel)) {
       return false;
     }
     // The highest alert level for disks is HIGH, avoid ArrayList creation here
     if (minimumAlertLevel.compareTo(AlertLevel.HIGH) <= 0) {
-      for (AnalyzedDom0DiskConfiguration dom0Disk : getDom0Disks()) {
-        if (!dom0Disk.getAllResults(resultHandler, minimumAlertLevel)) {
+      for (Dom0Disk dom0Disk : dom0.getDom0Disks().values()) {
+        if (!new AnalyzedDom0DiskConfiguration(clusterConfiguration, dom0Disk, buckets).getAllResults(resultHandler, primitiveResultHandler, minimumAlertLevel)) {
           return false;
         }
       }
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -25,7 +25,6 @@ package com.aoindustries.aoserv.cluster.analyze;
 
 import com.aoindustries.aoserv.cluster.ClusterConfiguration;
 import com.aoindustries.aoserv.cluster.Dom0Disk;
-import com.aoindustries.aoserv.cluster.DomUConfiguration;
 import com.aoindustries.aoserv.cluster.DomUDisk;
 import com.aoindustries.aoserv.cluster.DomUDiskConfiguration;
 import com.aoindustries.aoserv.cluster.PhysicalVolume;
@@ -41,14 +40,23 @@ public class AnalyzedDom0DiskConfiguration implements Comparable<AnalyzedDom0Dis
 
   private final ClusterConfiguration clusterConfiguration;
   private final Dom0Disk dom0Disk;
+  private final Dom0Buckets buckets;
 
   /**
    * Creates a new configuration.
    */
   public AnalyzedDom0DiskConfiguration(ClusterConfiguration clusterConfiguration, Dom0Disk dom0Disk) {
+    this(clusterConfiguration, dom0Disk, Dom0Buckets.of(clusterConfiguration, dom0Disk.getDom0Ordinal()));
+  }
+
+  /**
+   * Creates a new configuration sharing buckets already built for its Dom0.
+   */
+  AnalyzedDom0DiskConfiguration(ClusterConfiguration clusterConfiguration, Dom0Disk dom0Disk, Dom0Buckets buckets) {
     assert dom0Disk != null : "AnalyzedDom0DiskConfiguration.<init>: dom0Disk is null";
     this.clusterConfiguration = clusterConfiguration;
     this.dom0Disk = dom0Disk;
+    this.buckets = buckets;
   }
 
   public ClusterConfiguration getClusterConfiguration() {
@@ -65,56 +73,30 @@ public class AnalyzedDom0DiskConfiguration implements Comparable<AnalyzedDom0Dis
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getAllocatedWeightResult(ResultHandler<? super Integer> resultHandler, AlertLevel minimumAlertLevel) {
+    return getAllocatedWeightResult(resultHandler, null, minimumAlertLevel);
+  }
+
+  private boolean getAllocatedWeightResult(ResultHandler<? super Integer> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
     if (minimumAlertLevel.compareTo(AlertLevel.MEDIUM) <= 0) {
       // Add up all of the weights on any physical volumes on this drive.
       // Each unique DomUDisk will only be added once.
       int allocatedDiskWeight = 0;
-
-      for (DomUConfiguration domUConfiguration : clusterConfiguration.getDomUConfigurations()) {
-        // Must be either primary or secondary on this
-        if (domUConfiguration.getPrimaryDom0().getHostname().equals(dom0Disk.getDom0Hostname())) {
-          assert domUConfiguration.getPrimaryDom0().getClusterName().equals(dom0Disk.getClusterName()) : "primaryDom0.clusterName != dom0Disk.clusterName";
-          // Look only for primary matches
-          for (DomUDiskConfiguration domUDiskConfiguration : domUConfiguration.getDomUDiskConfigurations()) {
-            for (PhysicalVolumeConfiguration physicalVolumeConfiguration : domUDiskConfiguration.getPrimaryPhysicalVolumeConfigurations()) {
-              PhysicalVolume physicalVolume = physicalVolumeConfiguration.getPhysicalVolume();
-              if (physicalVolume.getDevice().equals(dom0Disk.getDevice())) {
-                assert physicalVolume.getClusterName().equals(dom0Disk.getClusterName()) : "physicalVolume.clusterName != dom0Disk.clusterName";
-                assert physicalVolume.getDom0Hostname().equals(dom0Disk.getDom0Hostname()) : "physicalVolume.dom0Hostname != dom0Disk.dom0Hostname";
-                // Found a match between DomUDisk and this Dom0Disk
-                allocatedDiskWeight += domUDiskConfiguration.getDomUDisk().getWeight();
-                break;
-              }
-            }
-          }
-        } else {
-          if (domUConfiguration.getSecondaryDom0().getHostname().equals(dom0Disk.getDom0Hostname())) {
-            assert domUConfiguration.getSecondaryDom0().getClusterName().equals(dom0Disk.getClusterName()) : "secondaryDom0.clusterName != dom0Disk.clusterName";
-            // Look only for secondary matches
-            for (DomUDiskConfiguration domUDiskConfiguration : domUConfiguration.getDomUDiskConfigurations()) {
-              for (PhysicalVolumeConfiguration physicalVolumeConfiguration : domUDiskConfiguration.getSecondaryPhysicalVolumeConfigurations()) {
-                PhysicalVolume physicalVolume = physicalVolumeConfiguration.getPhysicalVolume();
-                if (physicalVolume.getDevice().equals(dom0Disk.getDevice())) {
-                  assert physicalVolume.getClusterName().equals(dom0Disk.getClusterName()) : "physicalVolume.clusterName != dom0Disk.clusterName";
-                  assert physicalVolume.getDom0Hostname().equals(dom0Disk.getDom0Hostname()) : "physicalVolume.dom0Hostname != dom0Disk.dom0Hostname";
-                  // Found a match between DomUDisk and this Dom0Disk
-                  allocatedDiskWeight += domUDiskConfiguration.getDomUDisk().getWeight();
-                  break;
-                }
-              }
-            }
-          }
-        }
+      for (Dom0Buckets.Segment segment : buckets.getSegments(dom0Disk)) {
+        allocatedDiskWeight += segment.getDomUDiskConfiguration().getDomUDisk().getWeight();
       }
       int overcommitDiskWeight = allocatedDiskWeight - 1024;
       AlertLevel alertLevel = overcommitDiskWeight > 0 ? AlertLevel.MEDIUM : AlertLevel.NONE;
       if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
+        double deviation = (double) overcommitDiskWeight / (double) 1024;
+        if (primitiveResultHandler != null) {
+          return primitiveResultHandler.handleResult(Check.ALLOCATED_WEIGHT, dom0Disk.getOrdinal(), alertLevel, deviation);
+        }
         return resultHandler.handleResult(
             new IntResult(
                 "Allocated Weight",
                 allocatedDiskWeight,
                 1024,
-                (double) overcommitDiskWeight / (double) 1024,
+                deviation,
                 alertLevel
             )
         );
@@ -129,73 +111,63 @@ public class AnalyzedDom0DiskConfiguration implements Comparable<AnalyzedDom0Dis
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getDiskSpeedResults(ResultHandler<? super Integer> resultHandler, AlertLevel minimumAlertLevel) {
+    return getDiskSpeedResults(resultHandler, null, minimumAlertLevel);
+  }
+
+  private boolean getDiskSpeedResults(ResultHandler<? super Integer> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
     if (minimumAlertLevel.compareTo(AlertLevel.MEDIUM) <= 0) {
-      List<DomUConfiguration> domUConfigurations = clusterConfiguration.getDomUConfigurations();
-      for (int c = 0, sizeC = domUConfigurations.size(); c < sizeC; c++) {
-        DomUConfiguration domUConfiguration = domUConfigurations.get(c);
-        // Must be either primary or secondary on this
-        boolean isPrimary;
-        if (domUConfiguration.getPrimaryDom0().getHostname().equals(dom0Disk.getDom0Hostname())) {
-          assert domUConfiguration.getPrimaryDom0().getClusterName().equals(dom0Disk.getClusterName()) : "primaryDom0.clusterName != dom0Disk.clusterName";
-          isPrimary = true;
-        } else if (domUConfiguration.getSecondaryDom0().getHostname().equals(dom0Disk.getDom0Hostname())) {
-          assert domUConfiguration.getSecondaryDom0().getClusterName().equals(dom0Disk.getClusterName()) : "secondaryDom0.clusterName != dom0Disk.clusterName";
-          isPrimary = false;
-        } else {
-          continue;
-        }
-        List<DomUDiskConfiguration> domUDiskConfigurations = domUConfiguration.getDomUDiskConfigurations();
-        for (int d = 0, sizeD = domUDiskConfigurations.size(); d < sizeD; d++) {
-          DomUDiskConfiguration domUDiskConfiguration = domUDiskConfigurations.get(d);
-          DomUDisk domUDisk = domUDiskConfiguration.getDomUDisk();
-          long totalExtents = domUDisk.getExtents();
-          int minDiskSpeed = domUDisk.getMinimumDiskSpeed();
-          long tooSlowExtents = 0;
-          long extentsFound = 0;
-          List<PhysicalVolumeConfiguration> physicalVolumeConfigurations;
-          if (isPrimary) {
-            physicalVolumeConfigurations = domUDiskConfiguration.getPrimaryPhysicalVolumeConfigurations();
-          } else {
-            physicalVolumeConfigurations = domUDiskConfiguration.getSecondaryPhysicalVolumeConfigurations();
-          }
-          for (int e = 0, sizeE = physicalVolumeConfigurations.size(); e < sizeE; e++) {
-            PhysicalVolumeConfiguration physicalVolumeConfiguration = physicalVolumeConfigurations.get(e);
-            PhysicalVolume physicalVolume = physicalVolumeConfiguration.getPhysicalVolume();
-            if (physicalVolume.getDevice().equals(dom0Disk.getDevice())) {
-              assert physicalVolume.getClusterName().equals(dom0Disk.getClusterName()) : "physicalVolume.clusterName != dom0Disk.clusterName";
-              assert physicalVolume.getDom0Hostname().equals(dom0Disk.getDom0Hostname()) : "physicalVolume.dom0Hostname != dom0Disk.dom0Hostname";
-              // Found a match between DomUDisk and this Dom0Disk
-              if (minDiskSpeed == -1) {
-                break;
-              }
-              long pvExtents = physicalVolumeConfiguration.getExtents();
-              int diskSpeed = dom0Disk.getDiskSpeed();
-              if (diskSpeed < minDiskSpeed) {
-                tooSlowExtents += pvExtents;
-              }
-              extentsFound += pvExtents;
-              if (extentsFound >= totalExtents) {
-                // All extents found, can stop looking for more
-                break;
-              }
+      List<Dom0Buckets.Segment> segments = buckets.getSegments(dom0Disk);
+      for (int c = 0, sizeC = segments.size(); c < sizeC; c++) {
+        Dom0Buckets.Segment segment = segments.get(c);
+        DomUDiskConfiguration domUDiskConfiguration = segment.getDomUDiskConfiguration();
+        DomUDisk domUDisk = domUDiskConfiguration.getDomUDisk();
+        long totalExtents = domUDisk.getExtents();
+        int minDiskSpeed = domUDisk.getMinimumDiskSpeed();
+        long tooSlowExtents = 0;
+        long extentsFound = 0;
+        List<PhysicalVolumeConfiguration> physicalVolumeConfigurations = segment.getPhysicalVolumeConfigurations();
+        for (int e = 0, sizeE = physicalVolumeConfigurations.size(); e < sizeE; e++) {
+          PhysicalVolumeConfiguration physicalVolumeConfiguration = physicalVolumeConfigurations.get(e);
+          PhysicalVolume physicalVolume = physicalVolumeConfiguration.getPhysicalVolume();
+          if (physicalVolume.getDom0DiskOrdinal() == dom0Disk.getOrdinal()) {
+            assert physicalVolume.getClusterName().equals(dom0Disk.getClusterName()) : "physicalVolume.clusterName != dom0Disk.clusterName";
+            assert physicalVolume.getDom0Hostname().equals(dom0Disk.getDom0Hostname()) : "physicalVolume.dom0Hostname != dom0Disk.dom0Hostname";
+            // Found a match between DomUDisk and this Dom0Disk
+            if (minDiskSpeed == -1) {
+              break;
+            }
+            long pvExtents = physicalVolumeConfiguration.getExtents();
+            int diskSpeed = dom0Disk.getDiskSpeed();
+            if (diskSpeed < minDiskSpeed) {
+              tooSlowExtents += pvExtents;
+            }
+            extentsFound += pvExtents;
+            if (extentsFound >= totalExtents) {
+              // All extents found, can stop looking for more
+              break;
             }
           }
-          if (extentsFound > 0) {
-            AlertLevel alertLevel = minDiskSpeed != -1 && tooSlowExtents > 0 ? AlertLevel.MEDIUM : AlertLevel.NONE;
-            if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
-              if (!
-                  resultHandler.handleResult(
-                      new ObjectResult<>(
-                          domUDisk.getDomUHostname() + ":" + domUDisk.getDevice(),
-                          minDiskSpeed == -1 ? null : minDiskSpeed,
-                          null,
-                          (double) tooSlowExtents / (double) totalExtents,
-                          alertLevel
-                      )
-                  )
-              ) {
+        }
+        if (extentsFound > 0) {
+          AlertLevel alertLevel = minDiskSpeed != -1 && tooSlowExtents > 0 ? AlertLevel.MEDIUM : AlertLevel.NONE;
+          if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
+            double deviation = (double) tooSlowExtents / (double) totalExtents;
+            if (primitiveResultHandler != null) {
+              if (!primitiveResultHandler.handleResult(Check.DISK_SPEED, domUDisk.getOrdinal(), alertLevel, deviation)) {
                 return false;
               }
+            } else if (!
+                resultHandler.handleResult(
+                    new ObjectResult<>(
+                        domUDisk.getDomUHostname() + ":" + domUDisk.getDevice(),
+                        minDiskSpeed == -1 ? null : minDiskSpeed,
+                        null,
+                        deviation,
+                        alertLevel
+                    )
+                )
+            ) {
+              return false;
             }
           }
         }
@@ -238,9 +210,25 @@ public class AnalyzedDom0DiskConfiguration implements Comparable<AnalyzedDom0Dis
    * @return true if more results are wanted, or false to receive no more results.
    */
   public boolean getAllResults(ResultHandler<Object> resultHandler, AlertLevel minimumAlertLevel) {
-    if (!getAllocatedWeightResult(resultHandler, minimumAlertLevel)) {
+    return getAllResults(resultHandler, null, minimumAlertLevel);
+  }
+
+  /**
+   * See {@link AnalyzedClusterConfiguration#getAllResults(com.aoindustries.aoserv.cluster.analyze.PrimitiveResultHandler, com.aoindustries.aoserv.cluster.analyze.AlertLevel)}.
+   *
+   * @return true if more results are wanted, or false to receive no more results.
+   */
+  public boolean getAllResults(PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
+    return getAllResults(null, primitiveResultHandler, minimumAlertLevel);
+  }
+
+  /**
+   * Reports to either the result handler or the primitive result handler, exactly one of which is non-null.
+   */
+  boolean getAllResults(ResultHandler<Object> resultHandler, PrimitiveResultHandler primitiveResultHandler, AlertLevel minimumAlertLevel) {
+    if (!getAllocatedWeightResult(resultHandler, primitiveResultHandler, minimumAlertLevel)) {
       return false;
     }
-    return getDiskSpeedResults(resultHandler, minimumAlertLevel);
+    return getDiskSpeedResults(resultHandler, primitiveResultHandler, minimumAlertLevel);
   }
 }
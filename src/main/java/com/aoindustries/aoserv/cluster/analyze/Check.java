@@ -0,0 +1,83 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.analyze;
+
+/**
+ * Identifies each check performed by the analyzer, along with what the
+ * <code>subject</code> of a {@link PrimitiveResultHandler} is for the check.
+ *
+ * @author  AO Industries, Inc.
+ */
+public enum Check {
+
+  /**
+   * The subject is the ordinal of the Dom0.
+   */
+  PRIMARY_RAM,
+
+  /**
+   * The subject is the ordinal of the Dom0 that would fail.
+   */
+  SECONDARY_RAM,
+
+  /**
+   * The subject is the ordinal of the DomU.
+   */
+  PROCESSOR_TYPE,
+
+  /**
+   * The subject is the ordinal of the DomU.
+   */
+  PROCESSOR_ARCHITECTURE,
+
+  /**
+   * The subject is the ordinal of the DomU.
+   */
+  PROCESSOR_SPEED,
+
+  /**
+   * The subject is the ordinal of the DomU.
+   */
+  PROCESSOR_CORES,
+
+  /**
+   * The subject is the ordinal of the Dom0.
+   */
+  PRIMARY_PROCESSOR_WEIGHT,
+
+  /**
+   * The subject is the ordinal of the DomU.
+   */
+  REQUIRES_HVM,
+
+  /**
+   * The subject is the ordinal of the Dom0Disk.
+   */
+  ALLOCATED_WEIGHT,
+
+  /**
+   * The subject is the ordinal of the DomUDisk.
+   */
+  DISK_SPEED
+}
@@ -0,0 +1,229 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.analyze;
+
+import com.aoindustries.aoserv.cluster.Cluster;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.Dom0;
+import com.aoindustries.aoserv.cluster.Dom0Disk;
+import com.aoindustries.aoserv.cluster.DomUConfiguration;
+import com.aoindustries.aoserv.cluster.DomUDiskConfiguration;
+import com.aoindustries.aoserv.cluster.PhysicalVolumeConfiguration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Buckets the DomUs by Dom0 and the DomUDisks by Dom0Disk, built in a single pass over the
+ * DomU configurations.  Each check then visits only the resources on the Dom0 or Dom0Disk it
+ * analyzes instead of every DomU in the cluster.
+ *
+ * <p>All buckets keep the order of {@link ClusterConfiguration#getDomUConfigurations()}, so each check produces its
+ * results in configuration order.  The secondary RAM results, which were produced in the unspecified order of a
+ * hash map keyed by hostname, are now produced in the order each failed Dom0 is first found.</p>
+ *
+ * <p>This holds a scratch array reused between checks, so this, and the analyses sharing it, must not be used by
+ * multiple threads at once.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class Dom0Buckets {
+
+  /**
+   * A DomUDisk that has at least one physical volume on a Dom0Disk.
+   */
+  static final class Segment {
+
+    private final DomUDiskConfiguration domUDiskConfiguration;
+    private final boolean isPrimary;
+
+    private Segment(DomUDiskConfiguration domUDiskConfiguration, boolean isPrimary) {
+      this.domUDiskConfiguration = domUDiskConfiguration;
+      this.isPrimary = isPrimary;
+    }
+
+    DomUDiskConfiguration getDomUDiskConfiguration() {
+      return domUDiskConfiguration;
+    }
+
+    /**
+     * Gets the physical volumes for the role the DomU has on the Dom0Disk, which may include volumes on other disks.
+     */
+    List<PhysicalVolumeConfiguration> getPhysicalVolumeConfigurations() {
+      return isPrimary
+          ? domUDiskConfiguration.getPrimaryPhysicalVolumeConfigurations()
+          : domUDiskConfiguration.getSecondaryPhysicalVolumeConfigurations();
+    }
+  }
+
+  /**
+   * Indexes all Dom0s of the cluster.
+   */
+  static Dom0Buckets of(ClusterConfiguration clusterConfiguration) {
+    return new Dom0Buckets(clusterConfiguration, -1);
+  }
+
+  /**
+   * Indexes only the given Dom0, which is all that is needed to analyze it alone.
+   */
+  static Dom0Buckets of(ClusterConfiguration clusterConfiguration, int dom0Ordinal) {
+    return new Dom0Buckets(clusterConfiguration, dom0Ordinal);
+  }
+
+  /**
+   * The DomUs that are either primary or secondary on each Dom0, indexed by Dom0 ordinal.
+   */
+  private final List<DomUConfiguration>[] domUs;
+
+  /**
+   * The DomUs that are primary on each Dom0, indexed by Dom0 ordinal.
+   */
+  private final List<DomUConfiguration>[] primaryDomUs;
+
+  /**
+   * The segments on each Dom0Disk, indexed by Dom0Disk ordinal.
+   */
+  private final List<Segment>[] segments;
+
+  /**
+   * The secondary RAM allocated by failed Dom0 ordinal, created when first needed and reused by each check of secondary
+   * RAM.  Each element is <code>-1</code> when not in use.
+   */
+  private int[] secondaryRams;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Dom0Buckets(ClusterConfiguration clusterConfiguration, int onlyDom0Ordinal) {
+    Cluster cluster = clusterConfiguration.getCluster();
+    int dom0Count = cluster.getDom0Count();
+    domUs = new List[dom0Count];
+    primaryDomUs = new List[dom0Count];
+    for (int i = 0; i < dom0Count; i++) {
+      if (onlyDom0Ordinal == -1 || onlyDom0Ordinal == i) {
+        domUs[i] = new ArrayList<>();
+        primaryDomUs[i] = new ArrayList<>();
+      }
+    }
+    segments = new List[cluster.getDom0DiskCount()];
+    List<DomUConfiguration> domUConfigurations = clusterConfiguration.getDomUConfigurations();
+    for (int index = 0, size = domUConfigurations.size(); index < size; index++) {
+      // Read the Dom0s first so a compact configuration only creates the DomUs on the indexed Dom0
+      int primaryOrdinal = clusterConfiguration.getPrimaryDom0Ordinal(index);
+      int secondaryOrdinal = clusterConfiguration.getSecondaryDom0Ordinal(index);
+      // A DomU that is both primary and secondary on the same Dom0 is only analyzed as primary
+      boolean addPrimary = onlyDom0Ordinal == -1 || onlyDom0Ordinal == primaryOrdinal;
+      boolean addSecondary = secondaryOrdinal != primaryOrdinal && (onlyDom0Ordinal == -1 || onlyDom0Ordinal == secondaryOrdinal);
+      if (!addPrimary && !addSecondary) {
+        continue;
+      }
+      DomUConfiguration domUConfiguration = domUConfigurations.get(index);
+      if (addPrimary) {
+        domUs[primaryOrdinal].add(domUConfiguration);
+        primaryDomUs[primaryOrdinal].add(domUConfiguration);
+      }
+      if (addSecondary) {
+        domUs[secondaryOrdinal].add(domUConfiguration);
+      }
+      for (DomUDiskConfiguration domUDiskConfiguration : domUConfiguration.getDomUDiskConfigurations()) {
+        if (addPrimary) {
+          addSegments(domUDiskConfiguration, true, primaryOrdinal);
+        }
+        if (addSecondary) {
+          addSegments(domUDiskConfiguration, false, secondaryOrdinal);
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds a segment to each disk of the Dom0 that has at least one of the physical volumes.
+   */
+  private void addSegments(DomUDiskConfiguration domUDiskConfiguration, boolean isPrimary, int dom0Ordinal) {
+    Segment segment = null;
+    List<PhysicalVolumeConfiguration> physicalVolumeConfigurations = isPrimary
+        ? domUDiskConfiguration.getPrimaryPhysicalVolumeConfigurations()
+        : domUDiskConfiguration.getSecondaryPhysicalVolumeConfigurations();
+    for (int i = 0, size = physicalVolumeConfigurations.size(); i < size; i++) {
+      PhysicalVolumeConfiguration physicalVolumeConfiguration = physicalVolumeConfigurations.get(i);
+      if (physicalVolumeConfiguration.getPhysicalVolume().getDom0Ordinal() == dom0Ordinal) {
+        int dom0DiskOrdinal = physicalVolumeConfiguration.getPhysicalVolume().getDom0DiskOrdinal();
+        List<Segment> diskSegments = segments[dom0DiskOrdinal];
+        if (diskSegments == null) {
+          diskSegments = new ArrayList<>();
+          segments[dom0DiskOrdinal] = diskSegments;
+        }
+        // Segments for one DomUDisk are added together, so any earlier one for this disk is last
+        int diskSize = diskSegments.size();
+        if (segment == null) {
+          segment = new Segment(domUDiskConfiguration, isPrimary);
+        }
+        if (diskSize == 0 || diskSegments.get(diskSize - 1) != segment) {
+          diskSegments.add(segment);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the DomUs that are either primary or secondary on the given Dom0.
+   */
+  List<DomUConfiguration> getDomUs(Dom0 dom0) {
+    List<DomUConfiguration> list = domUs[dom0.getOrdinal()];
+    assert list != null : "Dom0 not indexed: " + dom0;
+    return list;
+  }
+
+  /**
+   * Gets the DomUs that are primary on the given Dom0.
+   */
+  List<DomUConfiguration> getPrimaryDomUs(Dom0 dom0) {
+    List<DomUConfiguration> list = primaryDomUs[dom0.getOrdinal()];
+    assert list != null : "Dom0 not indexed: " + dom0;
+    return list;
+  }
+
+  /**
+   * Gets the secondary RAM allocated by failed Dom0 ordinal.  Every element is <code>-1</code>, and must be set back to
+   * <code>-1</code> after use.
+   */
+  int[] getSecondaryRams() {
+    int[] array = secondaryRams;
+    if (array == null) {
+      array = new int[domUs.length];
+      Arrays.fill(array, -1);
+      secondaryRams = array;
+    }
+    assert Arrays.stream(array).allMatch(ram -> ram == -1) : "secondaryRams in use";
+    return array;
+  }
+
+  /**
+   * Gets the segments on the given Dom0Disk.
+   */
+  List<Segment> getSegments(Dom0Disk dom0Disk) {
+    assert domUs[dom0Disk.getDom0Ordinal()] != null : "Dom0 not indexed: " + dom0Disk.getDom0Hostname();
+    List<Segment> list = segments[dom0Disk.getOrdinal()];
+    return list == null ? Collections.emptyList() : list;
+  }
+}
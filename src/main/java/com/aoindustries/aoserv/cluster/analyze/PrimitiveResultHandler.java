@@ -0,0 +1,47 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.analyze;
+
+/**
+ * Receives results as primitives instead of as {@link Result} objects.  No labels, values, or
+ * results are created, which makes this the preferred handler for heuristics and other hot paths
+ * that only need the alert level and deviation.  Reporting should use {@link ResultHandler}.
+ *
+ * @author  AO Industries, Inc.
+ */
+@FunctionalInterface
+public interface PrimitiveResultHandler {
+
+  /**
+   * Each result is provided as it is generated instead of building into lists.
+   *
+   * @param  check       the check that produced the result
+   * @param  subject     the ordinal of the resource the result is for, see {@link Check}
+   * @param  alertLevel  see {@link Result#getAlertLevel()}
+   * @param  deviation   see {@link Result#getDeviation()}
+   *
+   * @return true if more results are wanted, or false to receive no more results.
+   */
+  boolean handleResult(Check check, int subject, AlertLevel alertLevel, double deviation);
+}
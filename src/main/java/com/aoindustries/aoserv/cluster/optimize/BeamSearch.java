@@ -0,0 +1,156 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A breadth-first beam search, keeping only the best elements of each depth.  Memory is bounded by the beam width
+ * instead of growing with the open and closed lists, and run time by the beam width times the maximum path length,
+ * at the cost of optimality: the shortest path may be pruned from the beam, and a solvable cluster may yield no path.
+ *
+ * <p>Duplicates are detected within each layer and against the two layers before it, which removes the moves that
+ * undo the previous move.  Only the configurations of those layers are retained; the configurations of the
+ * earlier elements of each kept path are released and reconstructed on demand by
+ * {@link ListElement#getClusterConfiguration()}.</p>
+ *
+ * <p>Elements of a layer all have the same path length, so they are ordered by heuristic, then by the order
+ * generated as selected by the {@linkplain ClusterOptimizer#getTieBreaking() tie-breaking}.
+ * The {@linkplain ClusterOptimizer#getWeights() weights} are not used.</p>
+ *
+ * @see  ClusterOptimizer#getBeamSearchClusterConfiguration(int, int)
+ *
+ * @author  AO Industries, Inc.
+ */
+final class BeamSearch {
+
+  private final ClusterOptimizer optimizer;
+  private final int beamWidth;
+  private final int maxPathLen;
+
+  BeamSearch(ClusterOptimizer optimizer, int beamWidth, int maxPathLen) {
+    this.optimizer = optimizer;
+    this.beamWidth = beamWidth;
+    this.maxPathLen = maxPathLen;
+  }
+
+  /**
+   * Performs the search, returning the first path found or <code>null</code> if no optimal configuration was found
+   * within the maximum path length.
+   *
+   * @see  ClusterOptimizer#getBeamSearchClusterConfiguration(int, int)
+   */
+  ListElement search() {
+    HeuristicFunction heuristicFunction = optimizer.getHeuristicFunction();
+    Dom0EvaluationCache dom0EvaluationCache = optimizer.newDom0EvaluationCache();
+    boolean allowPathThroughCritical = optimizer.allowsPathThroughCritical();
+    // Reused inside loop below when randomizing children
+    List<ClusterConfiguration> children = new ArrayList<>();
+    List<Transition> childTransitions = new ArrayList<>();
+
+    ClusterConfiguration clusterConfiguration = optimizer.getClusterConfiguration();
+    ListElement[] layer = {
+        new ListElement(
+            null,
+            null,
+            clusterConfiguration,
+            Evaluation.evaluate(heuristicFunction, dom0EvaluationCache, clusterConfiguration, 0)
+        )
+    };
+    Map<ClusterConfiguration, ListElement> layerMap = new HashMap<>();
+    layerMap.put(clusterConfiguration, layer[0]);
+    Map<ClusterConfiguration, ListElement> previousLayerMap = new HashMap<>();
+    // Reversed, so the worst element of the next layer is first to be removed
+    TieBreaking tieBreaking = optimizer.getTieBreaking();
+    ListElementHeap nextLayerHeap = new ListElementHeap((e1, e2) -> tieBreaking.compare(e2, e1), Math.min(beamWidth, 1024));
+    for (int pathLen = 0; ; pathLen++) {
+      // The layer is ordered best first, so the first goal has the lowest heuristic of the layer
+      for (ListElement current : layer) {
+        if (current.evaluation.isOptimal()) {
+          return current;
+        }
+      }
+      if (pathLen >= maxPathLen) {
+        return null;
+      }
+      // Select the best children of the entire layer
+      Map<ClusterConfiguration, ListElement> nextLayerMap = new HashMap<>();
+      long sequence = 0;
+      for (ListElement current : layer) {
+        Evaluation evaluation = current.evaluation;
+        SuccessorIterator successors = optimizer.getSuccessors(current.clusterConfiguration, children, childTransitions);
+        boolean endsCritical = allowPathThroughCritical ? true : evaluation.hasCritical();
+        while (successors.hasNext()) {
+          Transition transition = successors.next();
+          ClusterConfiguration child = successors.getChild();
+          if (
+              nextLayerMap.containsKey(child)
+                  || layerMap.containsKey(child)
+                  || previousLayerMap.containsKey(child)
+          ) {
+            continue;
+          }
+          Evaluation childEvaluation = evaluation.evaluateChild(heuristicFunction, dom0EvaluationCache, transition, child, pathLen + 1);
+          // Don't keep any path that has a transition from not having any critical to have at least one critical
+          if (!endsCritical && childEvaluation.hasCritical()) {
+            continue;
+          }
+          ListElement childListElement = new ListElement(current, transition, child, childEvaluation);
+          childListElement.sequence = sequence++;
+          if (nextLayerHeap.size() == beamWidth) {
+            ListElement worst = nextLayerHeap.peek();
+            if (tieBreaking.compare(childListElement, worst) >= 0) {
+              continue;
+            }
+            nextLayerHeap.remove();
+            nextLayerMap.remove(worst.clusterConfiguration);
+          }
+          nextLayerHeap.add(childListElement);
+          nextLayerMap.put(child, childListElement);
+        }
+      }
+      // The expanded layer no longer needs its evaluations
+      for (ListElement current : layer) {
+        current.evaluation = null;
+      }
+      // The layer before is no longer needed for duplicate detection
+      for (ListElement previous : previousLayerMap.values()) {
+        previous.releaseClusterConfiguration();
+      }
+      previousLayerMap = layerMap;
+      layerMap = nextLayerMap;
+      // Order the next layer best first
+      layer = new ListElement[nextLayerHeap.size()];
+      for (int i = layer.length - 1; i >= 0; i--) {
+        layer[i] = nextLayerHeap.remove();
+      }
+      if (layer.length == 0) {
+        return null;
+      }
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+/**
+ * The limits of a {@link SearchBudget} that may stop a search.
+ *
+ * @see  ClusterOptimizer#getExceededLimit()
+ *
+ * @author  AO Industries, Inc.
+ */
+public enum BudgetLimit {
+
+  /**
+   * The search was cancelled through its {@link CancellationToken}.
+   */
+  CANCELLED,
+
+  /**
+   * The search ran longer than {@link SearchBudget#getMaxMillis()}.
+   */
+  TIME,
+
+  /**
+   * The search expanded {@link SearchBudget#getMaxExpanded()} configurations.
+   */
+  EXPANDED,
+
+  /**
+   * The open and closed lists held more than {@link SearchBudget#getMaxListSize()} configurations.
+   */
+  LIST_SIZE,
+
+  /**
+   * The heap in use exceeded {@link SearchBudget#getMaxHeapBytes()}.
+   */
+  HEAP
+}
@@ -0,0 +1,79 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+
+/**
+ * The closed list of a best-first search, holding the length of the shortest path found to each
+ * configuration already explored.
+ *
+ * <p>This is not thread safe.</p>
+ *
+ * @see  ClosedListType
+ *
+ * @author  AO Industries, Inc.
+ */
+abstract class ClosedList {
+
+  static ClosedList newInstance(ClosedListType type) {
+    switch (type) {
+      case EXACT:
+        return new ExactClosedList();
+      case FINGERPRINT_64:
+      case FINGERPRINT_128:
+        return new FingerprintClosedList(type);
+      default:
+        throw new AssertionError("Unexpected value for type: " + type);
+    }
+  }
+
+  ClosedList() {
+    // Do nothing
+  }
+
+  abstract int size();
+
+  /**
+   * Gets the path length the configuration was closed with.
+   *
+   * @return  the path length or <code>-1</code> when not closed
+   */
+  abstract int getPathLen(ClusterConfiguration clusterConfiguration);
+
+  /**
+   * Adds an element to the closed list.  The configuration of the element may be released.
+   */
+  abstract void add(ListElement listElement);
+
+  /**
+   * Removes a configuration from the closed list.
+   */
+  abstract void remove(ClusterConfiguration clusterConfiguration);
+
+  /**
+   * Removes all configurations with a path length &gt;= the given length.
+   */
+  abstract void trim(int shortestPathLen);
+}
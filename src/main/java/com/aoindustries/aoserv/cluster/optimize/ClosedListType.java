@@ -0,0 +1,83 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+/**
+ * The different implementations of the closed list used by the {@link ClusterOptimizer}.
+ *
+ * <p>The closed list holds every configuration already explored, and is the main consumer of heap
+ * during the search.  The fingerprint implementations store only a fixed-width fingerprint and path length
+ * per configuration in a primitive table, and release the configuration itself from the closed
+ * {@link ListElement}; it is reconstructed on demand by replaying transitions.  In exchange,
+ * two different configurations with the same fingerprint are considered the same, which may cause
+ * the search to miss paths through the second configuration.</p>
+ *
+ * @see  #getCollisionProbability(long)
+ *
+ * @author  AO Industries, Inc.
+ */
+public enum ClosedListType {
+
+  /**
+   * Stores the full configurations in a hash map.  Never has a collision, but retains every explored configuration.
+   */
+  EXACT(0),
+
+  /**
+   * Stores a 64-bit fingerprint of each configuration.
+   */
+  FINGERPRINT_64(64),
+
+  /**
+   * Stores a 128-bit fingerprint of each configuration.
+   */
+  FINGERPRINT_128(128);
+
+  private final int bits;
+
+  ClosedListType(int bits) {
+    this.bits = bits;
+  }
+
+  /**
+   * Gets the number of bits of fingerprint stored per configuration or <code>0</code> when the full configuration is stored.
+   */
+  public int getBits() {
+    return bits;
+  }
+
+  /**
+   * Gets the approximate probability that any two of the given number of distinct configurations have the same fingerprint.
+   * This is the birthday bound <code>1 - e<sup>-n(n-1)/2<sup>bits+1</sup></sup></code>.
+   *
+   * @return  the probability, which is always <code>0</code> for {@link #EXACT}
+   */
+  public double getCollisionProbability(long configurations) {
+    if (bits == 0 || configurations < 2) {
+      return 0;
+    }
+    double n = configurations;
+    return -Math.expm1(-n * (n - 1) / Math.scalb(1.0, bits + 1));
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2019, 2020, 2021, 2022, 2024, 2025  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2019, 2020, 2021, 2022, 2024, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -25,18 +25,13 @@ package com.aoindustries.aoserv.cluster.optimize;
 
 import com.aoapps.lang.io.IoUtils;
 import com.aoindustries.aoserv.cluster.ClusterConfiguration;
-import com.aoindustries.aoserv.cluster.Dom0;
-import com.aoindustries.aoserv.cluster.DomU;
-import com.aoindustries.aoserv.cluster.DomUConfiguration;
-import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import com.aoindustries.aoserv.cluster.MoveSecondaryMetrics;
+import com.aoindustries.aoserv.cluster.SecondaryMappingStrategy;
 import java.security.SecureRandom;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Optimizes the cluster using a best-first heuristic search.
@@ -63,9 +58,11 @@ import java.util.Random;
  * <p>To reduce the number of non-live-migrate swaps, this search could try to move
  * between same architectures in preference to different architectures.</p>
  *
- * <p>TODO: To manage heap consumption, allow two optional parameters:
- *           maxPathLen
- *           something to make it a "Beam Search" (http://pages.cs.wisc.edu/~dyer/cs540/notes/search2.html)</p>
+ * <p>To manage heap consumption on very large clusters, a beam search is available through
+ * {@link #getBeamSearchClusterConfiguration(int, int)}, and an iterative-deepening search through
+ * {@link #getIterativeDeepeningClusterConfiguration(int, int)}.  To rebalance a cluster already close to optimal,
+ * a local search within a fixed budget is available through
+ * {@link #getLocalSearchClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.LocalSearchStrategy, long, long)}.</p>
  *
  * @author  AO Industries, Inc.
  */
@@ -77,15 +74,70 @@ public class ClusterOptimizer {
   private final HeuristicFunction heuristicFunction;
   private final boolean allowPathThroughCritical;
   private final boolean randomizeChildren;
+  private final ClusterOptimizerOptions options;
+  private final int parallelism;
+  private final ClosedListType closedListType;
+  private final SecondaryMappingStrategy secondaryMappingStrategy;
+  private final TieBreaking tieBreaking;
+  private final double[] weights;
+
+  private final LongAdder generateChildrenCount = new LongAdder();
+  private final LongAdder childrenCount = new LongAdder();
+  private final LongAdder moveSecondaryCount = new LongAdder();
+  private final LongAdder moveSecondaryChildrenCount = new LongAdder();
+  private final LongAdder moveSecondaryDuplicateCount = new LongAdder();
+  private final LongAdder dom0CacheHitCount = new LongAdder();
+  private final LongAdder dom0CacheMissCount = new LongAdder();
+  private final LongAdder dom0CacheEvictionCount = new LongAdder();
+  private final LongAdder transpositionHitCount = new LongAdder();
+  private final MoveSecondaryMetrics moveSecondaryMetrics = (int mapped, int duplicates) -> {
+    moveSecondaryCount.increment();
+    moveSecondaryChildrenCount.add(mapped);
+    moveSecondaryDuplicateCount.add(duplicates);
+  };
 
   /**
-   * Creates a new cluster optimizer for the given configuration and heuristic.
+   * The limit that stopped the most recent search, or <code>null</code> when it completed.
    */
-  public ClusterOptimizer(ClusterConfiguration clusterConfiguration, HeuristicFunction heuristicFunction, boolean allowPathThroughCritical, boolean randomizeChildren) {
+  private volatile BudgetLimit exceededLimit;
+
+  /**
+   * Creates a new cluster optimizer for the given configuration, heuristic, and options.
+   *
+   * @param  options  the settings of the search, {@link ClusterOptimizerOptions#DEFAULT} for a single-threaded search.
+   *                  When the parallelism is greater than one, the heuristic function must be thread safe.
+   *
+   * @see  #getOptions()
+   */
+  public ClusterOptimizer(
+      ClusterConfiguration clusterConfiguration,
+      HeuristicFunction heuristicFunction,
+      boolean allowPathThroughCritical,
+      boolean randomizeChildren,
+      ClusterOptimizerOptions options
+  ) {
+    if (options == null) {
+      throw new IllegalArgumentException("options is null");
+    }
     this.clusterConfiguration = clusterConfiguration;
     this.heuristicFunction = heuristicFunction;
     this.allowPathThroughCritical = allowPathThroughCritical;
     this.randomizeChildren = randomizeChildren;
+    this.options = options;
+    this.parallelism = options.getParallelism();
+    this.closedListType = options.getClosedListType();
+    this.secondaryMappingStrategy = options.getSecondaryMappingStrategy();
+    this.tieBreaking = options.getTieBreaking();
+    this.weights = options.getWeights();
+  }
+
+  /**
+   * Creates a new, single-threaded cluster optimizer for the given configuration and heuristic.
+   *
+   * @see  ClusterOptimizerOptions#DEFAULT
+   */
+  public ClusterOptimizer(ClusterConfiguration clusterConfiguration, HeuristicFunction heuristicFunction, boolean allowPathThroughCritical, boolean randomizeChildren) {
+    this(clusterConfiguration, heuristicFunction, allowPathThroughCritical, randomizeChildren, ClusterOptimizerOptions.DEFAULT);
   }
 
   /**
@@ -96,6 +148,18 @@ public class ClusterOptimizer {
     return getOptimizedClusterConfiguration(null);
   }
 
+  /**
+   * Optimizes the cluster and returns the best path (possibly limited by an OptimizedResultHandler)
+   * or <code>null</code> if no optimal configuration was found, without limits.
+   *
+   * @param  handler  if null, returns the first path found, not necessarily the shortest
+   *
+   * @see  #getOptimizedClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.OptimizedClusterConfigurationHandler, com.aoindustries.aoserv.cluster.optimize.SearchBudget)
+   */
+  public ListElement getOptimizedClusterConfiguration(OptimizedClusterConfigurationHandler handler) {
+    return getOptimizedClusterConfiguration(handler, SearchBudget.UNLIMITED);
+  }
+
   /**
    * Optimizes the cluster and returns the best path (possibly limited by an OptimizedResultHandler)
    * or <code>null</code> if no optimal configuration was found.
@@ -114,109 +178,110 @@ public class ClusterOptimizer {
    * <p>TODO: If something MUST take a path through a CRITICAL state, try to use path with shortest time in CRITICAL
    * TODO: based on time estimates above.</p>
    *
+   * <p>The search stops early once any limit of the budget is exceeded, which is then available from
+   * {@link #getExceededLimit()}.  The best path found is still returned when there is one.  Otherwise the path to
+   * the configuration with the lowest heuristic expanded so far, or the starting configuration when none has been
+   * expanded, is returned as a partial result, which is not optimal.
+   * When running in parallel, the limit on the size of the lists is divided evenly among the workers.</p>
+   *
    * @param  handler  if null, returns the first path found, not necessarily the shortest
+   * @param  budget   the limits on the search, {@link SearchBudget#UNLIMITED} to search until completion
    */
   @SuppressWarnings("UseOfSystemOutOrSystemErr")
-  public ListElement getOptimizedClusterConfiguration(OptimizedClusterConfigurationHandler handler) {
+  public ListElement getOptimizedClusterConfiguration(OptimizedClusterConfigurationHandler handler, SearchBudget budget) {
+    if (budget == null) {
+      throw new IllegalArgumentException("budget is null");
+    }
+    exceededLimit = null;
+    if (parallelism > 1) {
+      HashDistributedSearch search = new HashDistributedSearch(this, handler, budget);
+      ListElement result = search.search();
+      exceededLimit = search.getExceededLimit();
+      return result;
+    }
+    long startNanos = System.nanoTime();
 
-    // Reused inside loop below
+    // Reused inside loop below when randomizing children
     List<ClusterConfiguration> children = new ArrayList<>();
     List<Transition> childTransitions = new ArrayList<>();
 
     // Return value is stored here upon success or remains null on failure
     ListElement shortestPath = null;
 
-    // Initialize the open list
-    PriorityQueue<ListElement> openQueue = new PriorityQueue<>();
-    Map<ClusterConfiguration, ListElement> openMap = new HashMap<>();
-    {
-      ListElement openListElement = new ListElement(
-          null,
-          null,
-          clusterConfiguration,
-          heuristicFunction.getHeuristic(clusterConfiguration, 0)
-      );
-      openQueue.add(openListElement);
-      openMap.put(clusterConfiguration, openListElement);
-    }
+    // Initialize the open and closed lists
+    OpenClosedLists lists = newOpenClosedLists();
+    int weightIndex = 0;
+    ListElement start = new ListElement(
+        null,
+        null,
+        clusterConfiguration,
+        lists.evaluate(clusterConfiguration)
+    );
+    lists.addOpen(start);
 
-    // Initialize the closed list
-    Map<ClusterConfiguration, ListElement> closedMap = new HashMap<>();
+    // The lowest heuristic expanded, returned when a limit is exceeded before any path is found
+    ListElement partialPath = start;
 
     long loopCounter = 0;
-    long existingOpenCount = 0;
-    long existingClosedCount = 0;
-    long openQueueRemoveCount = 0;
     long skipCriticalPathCount = 0;
     long lastDisplayTime = System.currentTimeMillis();
     double lastHeurisic = Double.NaN;
-    while (!openQueue.isEmpty()) {
+    while (!lists.isOpenEmpty()) {
+      BudgetLimit limit = budget.getExceededLimit(startNanos, loopCounter, lists.getOpenSize() + (long) lists.getClosedSize());
+      if (limit != null) {
+        exceededLimit = limit;
+        return shortestPath != null ? shortestPath : partialPath;
+      }
       loopCounter++;
-      assert openQueue.size() == openMap.size() : "openQueue and openMap have different sizes";
-      ListElement current = openQueue.remove();
-      openMap.remove(current.clusterConfiguration);
+      ListElement current = lists.removeOpen();
+      if (SearchBudget.isBetterPartial(current, partialPath)) {
+        partialPath = current;
+      }
       assert shortestPath == null || current.pathLen < shortestPath.pathLen : "Should only explore paths shorter than shortestPath";
       long currentTime = System.currentTimeMillis();
       long timeSince = currentTime - lastDisplayTime;
       if (timeSince < 0 || timeSince >= 60000) {
         System.out.println(
-            "        open:" + openMap.size()
-                + " closed:" + closedMap.size()
+            "        open:" + lists.getOpenSize()
+                + " closed:" + lists.getClosedSize()
                 + " transitions:" + current.pathLen
                 + " heuristic:" + current.heuristic
-                + " existingOpen:" + existingOpenCount
-                + " existingClosed:" + existingClosedCount
-                + " openQueueRemove:" + openQueueRemoveCount
+                + " weight:" + lists.getWeight()
+                + " existingOpen:" + lists.getExistingOpenCount()
+                + " existingClosed:" + lists.getExistingClosedCount()
+                + " openQueueRemove:" + lists.getOpenQueueRemoveCount()
                 + " skipCriticalPath:" + skipCriticalPathCount
+                + " childrenPerCall:" + getChildrenPerCall()
+                + " moveSecondaryDuplicates:" + getMoveSecondaryDuplicateCount()
+                + " dom0CacheHitRate:" + getDom0CacheHitRate()
         );
         lastDisplayTime = currentTime;
       }
       // Is this the goal?
-      AnalyzedClusterConfiguration analyzed = new AnalyzedClusterConfiguration(current.clusterConfiguration);
-      if (analyzed.isOptimal()) {
+      Evaluation evaluation = current.evaluation;
+      if (evaluation.isOptimal()) {
         shortestPath = current;
 
         // Give handler a chance to cancel before trimming
         if (
             handler == null
-                || !handler.handleOptimizedClusterConfiguration(current, loopCounter)
+                || !handler.handleOptimizedClusterConfiguration(
+                    current,
+                    loopCounter,
+                    lists.getWeight(),
+                    getSuboptimalityBound(lists.getWeight(), current.pathLen, lists.getMinimumOpenHeuristic())
+                )
         ) {
           break;
         }
 
         // Trim anything out of open/closed that has transitions.length >= this path
-        // System.out.println(
-        //     "        Before trim: openQueue: "+openQueue.size()
-        //     + " openMap: "+openMap.size()
-        //     + " closedMap:"+closedMap.size()
-        // );
-        // openQueue and openMap
-        int shortestPathLen = shortestPath.pathLen;
-        Iterator<Map.Entry<ClusterConfiguration, ListElement>> openIter = openMap.entrySet().iterator();
-        while (openIter.hasNext()) {
-          Map.Entry<ClusterConfiguration, ListElement> entry = openIter.next();
-          ListElement listElement = entry.getValue();
-          int lePathLen = listElement.pathLen;
-          if (lePathLen >= shortestPathLen) {
-            openIter.remove();
-            if (!openQueue.remove(listElement)) {
-              throw new AssertionError("listElement not found in openQueue");
-            }
-          }
-        }
-        // closedMap
-        Iterator<Map.Entry<ClusterConfiguration, ListElement>> closedIter = closedMap.entrySet().iterator();
-        while (closedIter.hasNext()) {
-          Map.Entry<ClusterConfiguration, ListElement> entry = closedIter.next();
-          if (entry.getValue().pathLen >= shortestPathLen) {
-            closedIter.remove();
-          }
+        lists.trim(shortestPath.pathLen);
+
+        // Continue with the next weight, reusing the open and closed lists
+        if (weightIndex + 1 < weights.length) {
+          lists.setWeight(weights[++weightIndex]);
         }
-        // System.out.println(
-        //     "        After trim: openQueue: "+openQueue.size()
-        //     + " openMap: "+openMap.size()
-        //     + " closedMap:"+closedMap.size()
-        // );
       } else {
         if (!USE_SKIP_SAME_HEURISTIC_HACK || lastHeurisic != current.heuristic) {
           if (USE_SKIP_SAME_HEURISTIC_HACK) {
@@ -228,147 +293,232 @@ public class ClusterOptimizer {
               // + 1 to match size of newTransitions below
               shortestPath == null || (current.pathLen + 1) < shortestPath.pathLen
           ) {
-            generateChildren(current.clusterConfiguration, children, childTransitions, randomizeChildren);
-            // System.out.println("        children: "+children.size());
-            boolean endsCritical = allowPathThroughCritical ? true : analyzed.hasCritical();
+            SuccessorIterator successors = getSuccessors(current.clusterConfiguration, children, childTransitions);
+            boolean endsCritical = allowPathThroughCritical ? true : evaluation.hasCritical();
             // for each child of X do
-            for (int i = 0, size = children.size(); i < size; i++) {
-              ClusterConfiguration child = children.get(i);
+            while (successors.hasNext()) {
+              Transition transition = successors.next();
+              ClusterConfiguration child = successors.getChild();
               // Don't keep any path that has a transition from not having any critical to have at least one critical
-              boolean childHasCritical = allowPathThroughCritical ? false : new AnalyzedClusterConfiguration(child).hasCritical();
-              if (endsCritical || !childHasCritical) {
-                ListElement existingOpen = openMap.get(child);
-                if (existingOpen != null) {
-                  existingOpenCount++;
-                  // if the child was reached by a shorter path
-                  if (
-                      // + 1 to match size of newTransitions below
-                      (current.pathLen + 1) < existingOpen.pathLen
-                  ) {
-                    // then give the state of open the shorter path
-
-                    // removing and adding back to open because a short path affects the heuristic and therefore
-                    // the position within the queue.
-                    openQueue.remove(existingOpen); // This runs in O(n)
-                    openQueueRemoveCount++;
-
-                    ListElement openListElement = new ListElement(
-                        current,
-                        childTransitions.get(i),
-                        child,
-                        heuristicFunction.getHeuristic(child, current.pathLen + 1)
-                    );
-                    openQueue.add(openListElement);
-                    openMap.put(child, openListElement);
-                  }
+              if (endsCritical) {
+                // Only evaluated when added
+                lists.offer(current, evaluation, transition, child, null);
+              } else {
+                Evaluation childEvaluation = lists.evaluate(current, evaluation, transition, child);
+                if (!childEvaluation.hasCritical()) {
+                  lists.offer(current, evaluation, transition, child, childEvaluation);
                 } else {
-                  ListElement existingClosed = closedMap.get(child);
-                  if (existingClosed != null) {
-                    existingClosedCount++;
-                    // If the child was reached by a shorter path then
-                    if ((current.pathLen + 1) < existingClosed.pathLen) {
-                      // remove the state from closed
-                      closedMap.remove(child);
-                      // add the child to open
-                      ListElement openListElement = new ListElement(
-                          current,
-                          childTransitions.get(i),
-                          child,
-                          heuristicFunction.getHeuristic(child, current.pathLen + 1)
-                      );
-                      openQueue.add(openListElement);
-                      openMap.put(child, openListElement);
-                    }
-                  } else {
-                    // the child is not on open or closed
-                    // add the child to open
-                    ListElement openListElement = new ListElement(
-                        current,
-                        childTransitions.get(i),
-                        child,
-                        heuristicFunction.getHeuristic(child, current.pathLen + 1)
-                    );
-                    openQueue.add(openListElement);
-                    openMap.put(child, openListElement);
-                  }
+                  skipCriticalPathCount++;
                 }
-              } else {
-                skipCriticalPathCount++;
               }
             }
           }
         }
       }
       // put X on closed
-      closedMap.put(current.clusterConfiguration, current);
+      lists.close(current);
     }
     return shortestPath;
   }
 
+  /**
+   * Optimizes the cluster with a beam search, keeping only the <code>beamWidth</code> best configurations of each
+   * path length.  This bounds both memory and run time, for clusters too large for the open and closed lists of
+   * {@link #getOptimizedClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.OptimizedClusterConfigurationHandler)},
+   * but the path found is not necessarily the shortest, and no path may be found even when one exists.
+   *
+   * <p>The search is single-threaded regardless of {@link #getParallelism()}, and does not use the
+   * {@link #getClosedListType() closed list}.</p>
+   *
+   * @param  beamWidth   the number of configurations kept for each path length
+   * @param  maxPathLen  the longest path searched
+   *
+   * @return  the first path found or <code>null</code> if no optimal configuration was found
+   */
+  public ListElement getBeamSearchClusterConfiguration(int beamWidth, int maxPathLen) {
+    if (beamWidth < 1) {
+      throw new IllegalArgumentException("beamWidth < 1: " + beamWidth);
+    }
+    if (maxPathLen < 0) {
+      throw new IllegalArgumentException("maxPathLen < 0: " + maxPathLen);
+    }
+    return new BeamSearch(this, beamWidth, maxPathLen).search();
+  }
+
+  /**
+   * Optimizes the cluster with an iterative-deepening A* search (IDA*), a series of depth-first searches bounded by
+   * an increasing heuristic threshold.  Memory is proportional to the path length plus the fixed-size table of
+   * configurations already reached, instead of the open and closed lists of
+   * {@link #getOptimizedClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.OptimizedClusterConfigurationHandler)},
+   * so this is best suited to short paths through very large clusters.  The path found is the first within the
+   * threshold, which is the shortest when the heuristic never overestimates.
+   *
+   * <p>The search is single-threaded regardless of {@link #getParallelism()}, and does not use the
+   * {@link #getClosedListType() closed list}.  The number of iterations grows with the number of distinct heuristic
+   * values, so an {@link IntegralHeuristicFunction} is recommended.</p>
+   *
+   * @param  transpositionTableCapacity  the number of configurations remembered during each iteration,
+   *                                     rounded up to a power of two, each using 16 bytes
+   * @param  maxPathLen                  the longest path searched
+   *
+   * @return  the first path found or <code>null</code> if no optimal configuration was found
+   *
+   * @see  #getTranspositionHitCount()
+   */
+  public ListElement getIterativeDeepeningClusterConfiguration(int transpositionTableCapacity, int maxPathLen) {
+    if (transpositionTableCapacity < 1) {
+      throw new IllegalArgumentException("transpositionTableCapacity < 1: " + transpositionTableCapacity);
+    }
+    if (maxPathLen < 0) {
+      throw new IllegalArgumentException("maxPathLen < 0: " + maxPathLen);
+    }
+    return new IterativeDeepeningSearch(
+        this,
+        new TranspositionTable(transpositionTableCapacity, transpositionHitCount),
+        maxPathLen
+    ).search();
+  }
+
+  /**
+   * Optimizes the cluster with an iterative-deepening A* search (IDA*), remembering up to about one million
+   * configurations during each iteration.
+   *
+   * @see  #getIterativeDeepeningClusterConfiguration(int, int)
+   */
+  public ListElement getIterativeDeepeningClusterConfiguration(int maxPathLen) {
+    return getIterativeDeepeningClusterConfiguration(TranspositionTable.DEFAULT_CAPACITY, maxPathLen);
+  }
+
+  /**
+   * Improves the cluster with a local search, walking through the same transitions as
+   * {@link #getOptimizedClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.OptimizedClusterConfigurationHandler)}
+   * but choosing each move by the given strategy, until an optimal configuration is found or either budget is
+   * exhausted.  Memory is proportional to the length of the walk.  The configuration found is the one with the
+   * lowest heuristic, not necessarily optimal, and its path is not necessarily the shortest, but contains no moves
+   * that were later undone.
+   *
+   * <p>The search is single-threaded regardless of {@link #getParallelism()}, and does not use the
+   * {@link #getClosedListType() closed list}.</p>
+   *
+   * @param  maxIterations  the number of moves tried by {@link LocalSearchStrategy#SIMULATED_ANNEALING} or
+   *                        made by {@link LocalSearchStrategy#TABU}, or {@link Long#MAX_VALUE} for no limit
+   * @param  maxMillis      the time limit in milliseconds, or {@link Long#MAX_VALUE} for no limit
+   *
+   * @return  the path to the best configuration found, which has a path length of zero when nothing better than the
+   *          starting configuration was found
+   */
+  public ListElement getLocalSearchClusterConfiguration(LocalSearchStrategy strategy, long maxIterations, long maxMillis) {
+    if (strategy == null) {
+      throw new IllegalArgumentException("strategy is null");
+    }
+    if (maxIterations < 0) {
+      throw new IllegalArgumentException("maxIterations < 0: " + maxIterations);
+    }
+    if (maxMillis < 0) {
+      throw new IllegalArgumentException("maxMillis < 0: " + maxMillis);
+    }
+    return new LocalSearch(this, strategy, maxIterations, maxMillis, fastRandom).search();
+  }
+
   /**
    * A fast pseudo-random number generator for non-cryptographic purposes.
    */
   private static final Random fastRandom = new Random(IoUtils.bufferToLong(new SecureRandom().generateSeed(Long.BYTES)));
 
-  private void generateChildren(ClusterConfiguration clusterConfiguration, List<ClusterConfiguration> children, List<Transition> childTransitions, boolean randomizeChildren) {
+  void generateChildren(ClusterConfiguration clusterConfiguration, List<ClusterConfiguration> children, List<Transition> childTransitions, boolean randomizeChildren) {
     children.clear();
     childTransitions.clear();
+    SuccessorIterator successors = getSuccessors(clusterConfiguration);
+    while (successors.hasNext()) {
+      Transition transition = successors.next();
+      ClusterConfiguration child = successors.getChild();
+      int size = children.size();
+      if (randomizeChildren && size != 0) {
+        // It may be faster to build the list and randomize at the end instead of incuring the overhead of inserting into an ArrayList
+        // However, since the two lists children and childrenTransitions need to be kept in sync, a simple call to
+        // Collections.shuffle will not work
+        int index = fastRandom.nextInt(size + 1);
+        children.add(index, child);
+        childTransitions.add(index, transition);
+      } else {
+        children.add(child);
+        childTransitions.add(transition);
+      }
+    }
+  }
 
-    // Try swapping each of the primary/secondary pairs
-    for (DomUConfiguration domUConfiguration : clusterConfiguration.getDomUConfigurations()) {
-      DomU domU = domUConfiguration.getDomU();
-      if (!domU.isSecondaryDom0Locked()) {
-        Dom0 primaryDom0 = domUConfiguration.getPrimaryDom0();
-        Dom0 secondaryDom0 = domUConfiguration.getSecondaryDom0();
-        if (
-            !domU.isPrimaryDom0Locked()
-                // TODO: Don't hard-code these
-                && !"gw1.fc.aoindustries.com".equals(secondaryDom0.getHostname())
-                && !"gw2.fc.aoindustries.com".equals(secondaryDom0.getHostname())
-        ) {
-          // Can't swap if either primary or secondary is locked
-          ClusterConfiguration swappedClusterConfiguration = clusterConfiguration.liveMigrate(domU);
-          Transition transition = new MigrateTransition(domU, primaryDom0, secondaryDom0);
-          int size = children.size();
-          if (randomizeChildren && size != 0) {
-            // It may be faster to build the list and randomize at the end instead of incuring the overhead of inserting into an ArrayList
-            // However, since the two lists children and childrenTransitions need to be kept in sync, a simple call to
-            // Collections.shuffle will not work
-            int index = fastRandom.nextInt(size + 1);
-            children.add(index, swappedClusterConfiguration);
-            childTransitions.add(index, transition);
-          } else {
-            children.add(swappedClusterConfiguration);
-            childTransitions.add(transition);
-          }
-        }
+  /**
+   * Creates new open and closed lists for one search or worker, starting with the first weight.
+   */
+  OpenClosedLists newOpenClosedLists() {
+    return new OpenClosedLists(
+        heuristicFunction,
+        newDom0EvaluationCache(),
+        closedListType,
+        OpenQueue.newInstance(heuristicFunction, tieBreaking, weights),
+        weights[0]
+    );
+  }
 
-        for (Map.Entry<String, Dom0> entry : clusterConfiguration.getCluster().getDom0s().entrySet()) {
-          String dom0Hostname = entry.getKey();
-          Dom0 dom0 = entry.getValue();
-          // Can't move to current primary or secondary
-          if (
-              !dom0.equals(primaryDom0)
-                  && !dom0.equals(secondaryDom0)
-                  // TODO: Don't hard-code these
-                  && !"gw1.fc.aoindustries.com".equals(dom0Hostname)
-                  && !"gw2.fc.aoindustries.com".equals(dom0Hostname)
-          ) {
-            for (ClusterConfiguration movedClusterConfiguration : clusterConfiguration.moveSecondary(domU, dom0)) {
-              Transition transition = new MoveSecondaryTransition(domU, secondaryDom0, dom0);
-              int size = children.size();
-              if (randomizeChildren && size != 0) {
-                int index = fastRandom.nextInt(size + 1);
-                children.add(index, movedClusterConfiguration);
-                childTransitions.add(index, transition);
-              } else {
-                children.add(movedClusterConfiguration);
-                childTransitions.add(transition);
-              }
-            }
-          }
-        }
-      }
+  /**
+   * Gets the bound on how much longer a path may be than the shortest path.  Every open configuration has a heuristic
+   * of at least <code>minOpenHeuristic</code>, so when the heuristic never overestimates, no path shorter than it
+   * exists through the open list.  Weighted search also guarantees a path no longer than <code>weight</code> times
+   * the shortest.
+   *
+   * @param  minOpenHeuristic  the lowest heuristic, without weight, of the open list,
+   *                           or {@link Double#POSITIVE_INFINITY} when empty
+   */
+  static double getSuboptimalityBound(double weight, int pathLen, double minOpenHeuristic) {
+    if (minOpenHeuristic >= pathLen) {
+      return 1;
+    }
+    if (minOpenHeuristic <= 0) {
+      return weight;
+    }
+    return Math.min(weight, pathLen / minOpenHeuristic);
+  }
+
+  /**
+   * Creates a new cache of Dom0 evaluations for one search or worker, or <code>null</code> when the heuristic is not
+   * incremental.
+   */
+  Dom0EvaluationCache newDom0EvaluationCache() {
+    if (heuristicFunction instanceof IncrementalHeuristicFunction) {
+      return new Dom0EvaluationCache(Dom0EvaluationCache.DEFAULT_CAPACITY, dom0CacheHitCount, dom0CacheMissCount, dom0CacheEvictionCount);
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Gets the transitions from a configuration, only constructing each child when requested.
+   */
+  SuccessorIterator getSuccessors(ClusterConfiguration clusterConfiguration) {
+    generateChildrenCount.increment();
+    return new SuccessorIterator(clusterConfiguration, secondaryMappingStrategy, moveSecondaryMetrics, childrenCount);
+  }
+
+  /**
+   * Gets the transitions of one DomU from a configuration, only constructing each child when requested.
+   *
+   * @param  domUConfigurationsIndex  the index of the DomU in {@link ClusterConfiguration#getDomUConfigurations()}
+   */
+  SuccessorIterator getSuccessors(ClusterConfiguration clusterConfiguration, int domUConfigurationsIndex) {
+    generateChildrenCount.increment();
+    return new SuccessorIterator(clusterConfiguration, secondaryMappingStrategy, moveSecondaryMetrics, childrenCount, domUConfigurationsIndex);
+  }
+
+  /**
+   * Gets the transitions from a configuration, in random order when {@link #getRandomizeChildren()}.  Without
+   * randomization, each child is only constructed when requested.
+   */
+  SuccessorIterator getSuccessors(ClusterConfiguration clusterConfiguration, List<ClusterConfiguration> children, List<Transition> childTransitions) {
+    if (randomizeChildren) {
+      generateChildren(clusterConfiguration, children, childTransitions, true);
+      return new SuccessorIterator(childTransitions, children);
+    } else {
+      return getSuccessors(clusterConfiguration);
     }
   }
 
@@ -404,4 +554,174 @@ public class ClusterOptimizer {
   public boolean getRandomizeChildren() {
     return randomizeChildren;
   }
+
+  /**
+   * Gets the settings of the search.
+   */
+  public ClusterOptimizerOptions getOptions() {
+    return options;
+  }
+
+  /**
+   * Gets the number of threads used by the search.
+   *
+   * <p>When greater than one, a hash-distributed best-first search (HDA*) is performed: each configuration
+   * is owned by one worker thread selected by its hash code.  Each worker has its own open and closed lists,
+   * and passes the children it generates to their owners through lock-free mailboxes.  The search
+   * terminates once no worker has any open or in-flight configuration, giving the same shortest path
+   * guarantee as the single-threaded search.  The order in which configurations are explored differs,
+   * however, so the first path found without a handler may be different.</p>
+   *
+   * <p>The handler, when provided, is called by the worker threads, but never concurrently.</p>
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Gets the implementation of the closed list used during the search.
+   *
+   * <p>When storing fingerprints, the configurations of the elements of the resulting path are
+   * reconstructed on demand by {@link ListElement#getClusterConfiguration()}.</p>
+   */
+  public ClosedListType getClosedListType() {
+    return closedListType;
+  }
+
+  /**
+   * Gets the free space considered when moving secondaries.
+   *
+   * @see  ClusterConfiguration#moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0, com.aoindustries.aoserv.cluster.SecondaryMappingStrategy)
+   */
+  public SecondaryMappingStrategy getSecondaryMappingStrategy() {
+    return secondaryMappingStrategy;
+  }
+
+  /**
+   * Gets the weights applied to the heuristic.  The search starts with the first weight, and moves to the next weight
+   * after each optimal configuration found while continuing with the same open and closed lists.  Since the heuristic
+   * includes <code>g</code>, the weight is applied to only the remaining <code>h = heuristic - g</code>.
+   *
+   * <p>This is an anytime search, similar to Anytime Repairing A* (ARA*): a heavily weighted heuristic quickly
+   * finds some path, then the lower weights find progressively shorter paths, each reported to the
+   * {@link OptimizedClusterConfigurationHandler} with its
+   * {@linkplain OptimizedClusterConfigurationHandler#handleOptimizedClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.ListElement, long, double, double) suboptimality bound}.
+   * Unlike ARA*, a closed configuration reached by a shorter path is reopened immediately, as in an unweighted search,
+   * instead of waiting for the next weight.  The parallel search cannot inspect the open lists of all its workers
+   * together, so reports a bound of <code>NaN</code>.</p>
+   *
+   * <p>A single weight of <code>1</code> is the unweighted search.</p>
+   *
+   * @return  a copy of the weights
+   */
+  public double[] getWeights() {
+    return weights.clone();
+  }
+
+  /**
+   * Gets the order of open configurations with the same heuristic.
+   */
+  public TieBreaking getTieBreaking() {
+    return tieBreaking;
+  }
+
+  /**
+   * Gets the number of configurations whose children have been generated.
+   */
+  public long getGenerateChildrenCount() {
+    return generateChildrenCount.sum();
+  }
+
+  /**
+   * Gets the total number of children generated.
+   */
+  public long getChildrenCount() {
+    return childrenCount.sum();
+  }
+
+  /**
+   * Gets the average number of children generated per configuration, which is the effective branch factor
+   * of the search, or <code>NaN</code> when no children have been generated.
+   */
+  public double getChildrenPerCall() {
+    return (double) getChildrenCount() / getGenerateChildrenCount();
+  }
+
+  /**
+   * Gets the number of calls to
+   * {@link ClusterConfiguration#moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0, com.aoindustries.aoserv.cluster.SecondaryMappingStrategy, com.aoindustries.aoserv.cluster.MoveSecondaryMetrics)}.
+   */
+  public long getMoveSecondaryCount() {
+    return moveSecondaryCount.sum();
+  }
+
+  /**
+   * Gets the total number of children generated by moving secondaries.
+   */
+  public long getMoveSecondaryChildrenCount() {
+    return moveSecondaryChildrenCount.sum();
+  }
+
+  /**
+   * Gets the total number of mappings not generated by moving secondaries because an equivalent mapping
+   * was already generated.
+   */
+  public long getMoveSecondaryDuplicateCount() {
+    return moveSecondaryDuplicateCount.sum();
+  }
+
+  /**
+   * Gets the number of Dom0 evaluations found in the cache.  The cache is only used with an
+   * {@link IncrementalHeuristicFunction}.
+   */
+  public long getDom0CacheHitCount() {
+    return dom0CacheHitCount.sum();
+  }
+
+  /**
+   * Gets the number of Dom0 evaluations not found in the cache, each of which was analyzed.
+   */
+  public long getDom0CacheMissCount() {
+    return dom0CacheMissCount.sum();
+  }
+
+  /**
+   * Gets the number of Dom0 evaluations evicted from the cache by another Dom0 evaluation.
+   */
+  public long getDom0CacheEvictionCount() {
+    return dom0CacheEvictionCount.sum();
+  }
+
+  /**
+   * Gets the fraction of Dom0 evaluations found in the cache, or <code>NaN</code> when nothing has been evaluated.
+   */
+  public double getDom0CacheHitRate() {
+    long hits = getDom0CacheHitCount();
+    return (double) hits / (hits + getDom0CacheMissCount());
+  }
+
+  /**
+   * Gets the number of configurations not searched again by
+   * {@link #getIterativeDeepeningClusterConfiguration(int, int)} because already reached by a path no longer.
+   */
+  public long getTranspositionHitCount() {
+    return transpositionHitCount.sum();
+  }
+
+  /**
+   * Gets the limit that stopped the most recent call to
+   * {@link #getOptimizedClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.OptimizedClusterConfigurationHandler, com.aoindustries.aoserv.cluster.optimize.SearchBudget)},
+   * or <code>null</code> when it completed within its budget.
+   */
+  public BudgetLimit getExceededLimit() {
+    return exceededLimit;
+  }
+
+  /**
+   * Gets the average number of children generated per move of a secondary, or <code>NaN</code> when
+   * no secondaries have been moved.
+   */
+  public double getMoveSecondaryChildrenPerCall() {
+    return (double) getMoveSecondaryChildrenCount() / getMoveSecondaryCount();
+  }
 }
@@ -0,0 +1,188 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.SecondaryMappingStrategy;
+
+/**
+ * The settings of a {@link ClusterOptimizer} beyond its configuration and heuristic.
+ * Options are immutable, each <code>with…</code> method returning a copy with one setting changed, starting from
+ * {@link #DEFAULT}.
+ *
+ * @see  ClusterOptimizer#ClusterOptimizer(com.aoindustries.aoserv.cluster.ClusterConfiguration, com.aoindustries.aoserv.cluster.optimize.HeuristicFunction, boolean, boolean, com.aoindustries.aoserv.cluster.optimize.ClusterOptimizerOptions)
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class ClusterOptimizerOptions {
+
+  /**
+   * The options of a single-threaded search storing the full configurations in the closed list, moving secondaries
+   * onto unallocated physical volumes only, breaking ties toward the longest path then the configuration first added
+   * to the open list, and using the heuristic without any weight.
+   *
+   * @see  ClosedListType#EXACT
+   * @see  SecondaryMappingStrategy#WHOLE_VOLUMES
+   * @see  TieBreaking#DEEPEST_FIFO
+   */
+  public static final ClusterOptimizerOptions DEFAULT = new ClusterOptimizerOptions(
+      1,
+      ClosedListType.EXACT,
+      SecondaryMappingStrategy.WHOLE_VOLUMES,
+      TieBreaking.DEEPEST_FIFO,
+      new double[] {1}
+  );
+
+  private final int parallelism;
+  private final ClosedListType closedListType;
+  private final SecondaryMappingStrategy secondaryMappingStrategy;
+  private final TieBreaking tieBreaking;
+  private final double[] weights;
+
+  private ClusterOptimizerOptions(
+      int parallelism,
+      ClosedListType closedListType,
+      SecondaryMappingStrategy secondaryMappingStrategy,
+      TieBreaking tieBreaking,
+      double[] weights
+  ) {
+    this.parallelism = parallelism;
+    this.closedListType = closedListType;
+    this.secondaryMappingStrategy = secondaryMappingStrategy;
+    this.tieBreaking = tieBreaking;
+    this.weights = weights;
+  }
+
+  /**
+   * @see  ClusterOptimizer#getParallelism()
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Gets a copy of these options with the given number of threads used by the search.  When greater than one,
+   * a parallel hash-distributed search is performed, and the heuristic function must be thread safe.
+   *
+   * @see  ClusterOptimizer#getParallelism()
+   */
+  public ClusterOptimizerOptions withParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism < 1: " + parallelism);
+    }
+    return new ClusterOptimizerOptions(parallelism, closedListType, secondaryMappingStrategy, tieBreaking, weights);
+  }
+
+  /**
+   * @see  ClusterOptimizer#getClosedListType()
+   */
+  public ClosedListType getClosedListType() {
+    return closedListType;
+  }
+
+  /**
+   * Gets a copy of these options with the given implementation of the closed list, trading heap for the probability
+   * of collisions.
+   *
+   * @see  ClusterOptimizer#getClosedListType()
+   */
+  public ClusterOptimizerOptions withClosedListType(ClosedListType closedListType) {
+    if (closedListType == null) {
+      throw new IllegalArgumentException("closedListType is null");
+    }
+    return new ClusterOptimizerOptions(parallelism, closedListType, secondaryMappingStrategy, tieBreaking, weights);
+  }
+
+  /**
+   * @see  ClusterOptimizer#getSecondaryMappingStrategy()
+   */
+  public SecondaryMappingStrategy getSecondaryMappingStrategy() {
+    return secondaryMappingStrategy;
+  }
+
+  /**
+   * Gets a copy of these options with the given free space considered when moving secondaries.
+   *
+   * @see  ClusterOptimizer#getSecondaryMappingStrategy()
+   */
+  public ClusterOptimizerOptions withSecondaryMappingStrategy(SecondaryMappingStrategy secondaryMappingStrategy) {
+    if (secondaryMappingStrategy == null) {
+      throw new IllegalArgumentException("secondaryMappingStrategy is null");
+    }
+    return new ClusterOptimizerOptions(parallelism, closedListType, secondaryMappingStrategy, tieBreaking, weights);
+  }
+
+  /**
+   * @see  ClusterOptimizer#getTieBreaking()
+   */
+  public TieBreaking getTieBreaking() {
+    return tieBreaking;
+  }
+
+  /**
+   * Gets a copy of these options with the given order of open configurations with the same heuristic.
+   *
+   * @see  ClusterOptimizer#getTieBreaking()
+   */
+  public ClusterOptimizerOptions withTieBreaking(TieBreaking tieBreaking) {
+    if (tieBreaking == null) {
+      throw new IllegalArgumentException("tieBreaking is null");
+    }
+    return new ClusterOptimizerOptions(parallelism, closedListType, secondaryMappingStrategy, tieBreaking, weights);
+  }
+
+  /**
+   * @return  a copy of the weights
+   *
+   * @see  ClusterOptimizer#getWeights()
+   */
+  public double[] getWeights() {
+    return weights.clone();
+  }
+
+  /**
+   * Gets a copy of these options with the given weights applied to the heuristic, moving to the next after each
+   * optimal configuration found.  Each must be at least one and no greater than the previous.
+   *
+   * @see  ClusterOptimizer#getWeights()
+   */
+  public ClusterOptimizerOptions withWeights(double ... weights) {
+    if (weights == null) {
+      throw new IllegalArgumentException("weights is null");
+    }
+    if (weights.length == 0) {
+      throw new IllegalArgumentException("weights is empty");
+    }
+    weights = weights.clone();
+    for (int i = 0; i < weights.length; i++) {
+      double weight = weights[i];
+      if (!(weight >= 1) || Double.isInfinite(weight)) {
+        throw new IllegalArgumentException("weights[" + i + "] is not a finite number >= 1: " + weight);
+      }
+      if (i > 0 && weight > weights[i - 1]) {
+        throw new IllegalArgumentException("weights[" + i + "] > weights[" + (i - 1) + "]: " + weight + " > " + weights[i - 1]);
+      }
+    }
+    return new ClusterOptimizerOptions(parallelism, closedListType, secondaryMappingStrategy, tieBreaking, weights);
+  }
+}
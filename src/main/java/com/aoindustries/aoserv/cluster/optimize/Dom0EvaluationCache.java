@@ -0,0 +1,136 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedDom0Configuration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the evaluation of each Dom0: its contribution to the heuristic and its highest alert level.
+ * Across a search most Dom0s host exactly the same DomUs in many configurations, so the entries are keyed by
+ * the Dom0 and {@link AnalyzedDom0Configuration#getHash64() the hash of the DomUs it hosts}.  The same entry serves
+ * both the heuristic and the goal and critical tests.
+ *
+ * <p>The cache is direct-mapped: each key has a single slot, and a new entry evicts whatever was there.
+ * Like {@link ClosedListType#FINGERPRINT_64}, two different sets of DomUs with the same 64-bit hash would
+ * share an entry, which is vanishingly unlikely.</p>
+ *
+ * <p>The entries depend on the heuristic function, so each search has its own cache.</p>
+ *
+ * <p>This is not thread safe.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class Dom0EvaluationCache {
+
+  /**
+   * The default number of entries.  Each entry is 17 bytes.
+   */
+  static final int DEFAULT_CAPACITY = 1 << 16;
+
+  /**
+   * Marks an empty slot in {@link #alertLevels}.
+   */
+  private static final byte EMPTY = -1;
+
+  private final int shift;
+  private final long[] keys;
+  private final double[] heuristics;
+  private final byte[] alertLevels;
+
+  private final LongAdder hitCount;
+  private final LongAdder missCount;
+  private final LongAdder evictionCount;
+
+  /**
+   * @param  capacity  the number of entries, rounded up to a power of two
+   */
+  Dom0EvaluationCache(int capacity, LongAdder hitCount, LongAdder missCount, LongAdder evictionCount) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity < 1: " + capacity);
+    }
+    int bits = 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    this.shift = 64 - bits;
+    int size = 1 << bits;
+    this.keys = new long[size];
+    this.heuristics = new double[size];
+    this.alertLevels = new byte[size];
+    Arrays.fill(alertLevels, EMPTY);
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+  }
+
+  /**
+   * Gets the number of entries the cache can hold.
+   */
+  int getCapacity() {
+    return keys.length;
+  }
+
+  private static long getKey(int dom0Ordinal, long hash64) {
+    // A Dom0 without any DomUs has a hash of zero
+    return hash64 ^ ((dom0Ordinal + 1L) * 0xC2B2AE3D27D4EB4FL);
+  }
+
+  private int getSlot(long key) {
+    // Fibonacci hashing, using the high bits
+    return shift == 64 ? 0 : (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+  }
+
+  /**
+   * Looks up the evaluation of a Dom0, storing it at the ordinal of the Dom0 when found.
+   *
+   * @return  <code>true</code> when found
+   */
+  boolean get(int dom0Ordinal, long hash64, double[] dom0Heuristics, byte[] dom0AlertLevels) {
+    long key = getKey(dom0Ordinal, hash64);
+    int slot = getSlot(key);
+    byte alertLevel = alertLevels[slot];
+    if (alertLevel != EMPTY && keys[slot] == key) {
+      hitCount.increment();
+      dom0Heuristics[dom0Ordinal] = heuristics[slot];
+      dom0AlertLevels[dom0Ordinal] = alertLevel;
+      return true;
+    }
+    missCount.increment();
+    return false;
+  }
+
+  /**
+   * Adds the evaluation of a Dom0, evicting any entry in the same slot.
+   */
+  void put(int dom0Ordinal, long hash64, double dom0Heuristic, byte dom0AlertLevel) {
+    assert dom0AlertLevel != EMPTY;
+    long key = getKey(dom0Ordinal, hash64);
+    int slot = getSlot(key);
+    if (alertLevels[slot] != EMPTY && keys[slot] != key) {
+      evictionCount.increment();
+    }
+    keys[slot] = key;
+    heuristics[slot] = dom0Heuristic;
+    alertLevels[slot] = dom0AlertLevel;
+  }
+}
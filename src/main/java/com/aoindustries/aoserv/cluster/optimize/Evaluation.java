@@ -0,0 +1,288 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.Dom0;
+import com.aoindustries.aoserv.cluster.analyze.AlertLevel;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedDom0Configuration;
+import com.aoindustries.aoserv.cluster.analyze.Check;
+import java.util.List;
+
+/**
+ * The analysis of one configuration: its heuristic along with the highest alert level of any result, which
+ * answers both the goal test and the critical test.  Each configuration is evaluated once, when it is generated.
+ *
+ * <p>With an {@link IncrementalHeuristicFunction} the heuristic and the alert levels come from the same pass
+ * over the results, and only the Dom0s affected by a transition are analyzed.  Each Dom0 is first looked up in
+ * the optional {@link Dom0EvaluationCache}.  A child then keeps only the
+ * contributions of those Dom0s, building the contributions of every Dom0 from its parent when it is itself
+ * expanded.  This keeps the open list small, since most children are never expanded.</p>
+ *
+ * <p>The heuristic and alert level are immutable.  The per-Dom0 contributions are only accessed by the thread
+ * that expands the configuration.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class Evaluation {
+
+  private static final AlertLevel[] alertLevels = AlertLevel.values();
+
+  /**
+   * Evaluates a configuration with a full analysis.
+   *
+   * @param  dom0EvaluationCache  the optional cache, only used with an {@link IncrementalHeuristicFunction}
+   */
+  static Evaluation evaluate(
+      HeuristicFunction heuristicFunction,
+      Dom0EvaluationCache dom0EvaluationCache,
+      ClusterConfiguration clusterConfiguration,
+      int g
+  ) {
+    if (heuristicFunction instanceof IncrementalHeuristicFunction) {
+      IncrementalHeuristicFunction incrementalHeuristicFunction = (IncrementalHeuristicFunction) heuristicFunction;
+      int dom0Count = clusterConfiguration.getCluster().getDom0Count();
+      double[] dom0Heuristics = new double[dom0Count];
+      byte[] dom0AlertLevels = new byte[dom0Count];
+      for (AnalyzedDom0Configuration analyzedDom0Configuration : new AnalyzedClusterConfiguration(clusterConfiguration).getAnalyzedDom0Configurations()) {
+        evaluateDom0(incrementalHeuristicFunction, dom0EvaluationCache, analyzedDom0Configuration, dom0Heuristics, dom0AlertLevels);
+      }
+      return new Evaluation(
+          incrementalHeuristicFunction.getHeuristic(dom0Heuristics, g),
+          getMaxAlertLevel(dom0AlertLevels),
+          dom0Heuristics,
+          dom0AlertLevels
+      );
+    } else {
+      return new Evaluation(
+          heuristicFunction.getHeuristic(clusterConfiguration, g),
+          getMaxAlertLevel(new AnalyzedClusterConfiguration(clusterConfiguration))
+      );
+    }
+  }
+
+  /**
+   * Analyzes one Dom0 in a single pass, storing both its contribution to the heuristic and its highest alert level.
+   */
+  private static void evaluateDom0(
+      IncrementalHeuristicFunction incrementalHeuristicFunction,
+      Dom0EvaluationCache dom0EvaluationCache,
+      AnalyzedDom0Configuration analyzedDom0Configuration,
+      double[] dom0Heuristics,
+      byte[] dom0AlertLevels
+  ) {
+    int ordinal = analyzedDom0Configuration.getDom0().getOrdinal();
+    long hash64;
+    if (dom0EvaluationCache != null) {
+      hash64 = analyzedDom0Configuration.getHash64();
+      if (dom0EvaluationCache.get(ordinal, hash64, dom0Heuristics, dom0AlertLevels)) {
+        return;
+      }
+    } else {
+      hash64 = 0;
+    }
+    AlertLevel minimumAlertLevel = incrementalHeuristicFunction.getMinimumAlertLevel();
+    double[] total = {0};
+    AlertLevel[] maxAlertLevel = {AlertLevel.NONE};
+    analyzedDom0Configuration.getAllResults(
+        (Check check, int subject, AlertLevel alertLevel, double deviation) -> {
+          if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
+            total[0] += incrementalHeuristicFunction.getResultHeuristic(check, alertLevel, deviation);
+          }
+          if (alertLevel.compareTo(maxAlertLevel[0]) > 0) {
+            maxAlertLevel[0] = alertLevel;
+          }
+          return true;
+        },
+        // Any result above NONE is needed for the alert level
+        minimumAlertLevel.compareTo(AlertLevel.LOW) < 0 ? minimumAlertLevel : AlertLevel.LOW
+    );
+    dom0Heuristics[ordinal] = total[0];
+    dom0AlertLevels[ordinal] = (byte) maxAlertLevel[0].ordinal();
+    if (dom0EvaluationCache != null) {
+      dom0EvaluationCache.put(ordinal, hash64, dom0Heuristics[ordinal], dom0AlertLevels[ordinal]);
+    }
+  }
+
+  private static AlertLevel getMaxAlertLevel(byte[] dom0AlertLevels) {
+    int max = 0;
+    for (byte dom0AlertLevel : dom0AlertLevels) {
+      if (dom0AlertLevel > max) {
+        max = dom0AlertLevel;
+      }
+    }
+    return alertLevels[max];
+  }
+
+  private static AlertLevel getMaxAlertLevel(AnalyzedClusterConfiguration analysis) {
+    AlertLevel[] maxAlertLevel = {AlertLevel.NONE};
+    analysis.getAllResults(
+        (Check check, int subject, AlertLevel alertLevel, double deviation) -> {
+          if (alertLevel.compareTo(maxAlertLevel[0]) > 0) {
+            maxAlertLevel[0] = alertLevel;
+          }
+          // Nothing is higher than critical
+          return alertLevel != AlertLevel.CRITICAL;
+        },
+        AlertLevel.LOW
+    );
+    return maxAlertLevel[0];
+  }
+
+  final double heuristic;
+
+  final AlertLevel maxAlertLevel;
+
+  /**
+   * The evaluation this was derived from until the per-Dom0 contributions are built.
+   */
+  private Evaluation parent;
+
+  /**
+   * The ordinals of the Dom0s that differ from {@link #parent}.
+   */
+  private int[] changedOrdinals;
+  private double[] changedHeuristics;
+  private byte[] changedAlertLevels;
+
+  /**
+   * The contribution of each Dom0, indexed by {@linkplain Dom0#getOrdinal() ordinal}, or <code>null</code>
+   * when not yet built from the parent or when the heuristic is not incremental.
+   */
+  private double[] dom0Heuristics;
+  private byte[] dom0AlertLevels;
+
+  private Evaluation(double heuristic, AlertLevel maxAlertLevel) {
+    this.heuristic = heuristic;
+    this.maxAlertLevel = maxAlertLevel;
+  }
+
+  private Evaluation(double heuristic, AlertLevel maxAlertLevel, double[] dom0Heuristics, byte[] dom0AlertLevels) {
+    this(heuristic, maxAlertLevel);
+    this.dom0Heuristics = dom0Heuristics;
+    this.dom0AlertLevels = dom0AlertLevels;
+  }
+
+  private Evaluation(
+      double heuristic,
+      AlertLevel maxAlertLevel,
+      Evaluation parent,
+      int[] changedOrdinals,
+      double[] changedHeuristics,
+      byte[] changedAlertLevels
+  ) {
+    this(heuristic, maxAlertLevel);
+    this.parent = parent;
+    this.changedOrdinals = changedOrdinals;
+    this.changedHeuristics = changedHeuristics;
+    this.changedAlertLevels = changedAlertLevels;
+  }
+
+  /**
+   * Is this a goal, meaning all results have AlertLevel of NONE.
+   */
+  boolean isOptimal() {
+    return maxAlertLevel == AlertLevel.NONE;
+  }
+
+  /**
+   * Is there at least one result with AlertLevel of CRITICAL.
+   */
+  boolean hasCritical() {
+    return maxAlertLevel == AlertLevel.CRITICAL;
+  }
+
+  /**
+   * Builds the per-Dom0 contributions from the parent, if not already built.  The parent is then released.
+   */
+  private void buildDom0s() {
+    if (dom0Heuristics == null && parent != null) {
+      assert parent.dom0Heuristics != null : "parent must have been expanded";
+      double[] newDom0Heuristics = parent.dom0Heuristics.clone();
+      byte[] newDom0AlertLevels = parent.dom0AlertLevels.clone();
+      for (int i = 0; i < changedOrdinals.length; i++) {
+        int ordinal = changedOrdinals[i];
+        newDom0Heuristics[ordinal] = changedHeuristics[i];
+        newDom0AlertLevels[ordinal] = changedAlertLevels[i];
+      }
+      dom0Heuristics = newDom0Heuristics;
+      dom0AlertLevels = newDom0AlertLevels;
+      parent = null;
+      changedOrdinals = null;
+      changedHeuristics = null;
+      changedAlertLevels = null;
+    }
+  }
+
+  /**
+   * Evaluates a child of this configuration.  When the heuristic is incremental, only the Dom0s affected by the
+   * transition are analyzed.
+   *
+   * @param  dom0EvaluationCache  the optional cache, only used with an {@link IncrementalHeuristicFunction}
+   * @param  g                    the number of moves already made to reach the child
+   */
+  Evaluation evaluateChild(
+      HeuristicFunction heuristicFunction,
+      Dom0EvaluationCache dom0EvaluationCache,
+      Transition transition,
+      ClusterConfiguration child,
+      int g
+  ) {
+    buildDom0s();
+    if (dom0Heuristics == null) {
+      return evaluate(heuristicFunction, dom0EvaluationCache, child, g);
+    }
+    IncrementalHeuristicFunction incrementalHeuristicFunction = (IncrementalHeuristicFunction) heuristicFunction;
+    double[] childDom0Heuristics = dom0Heuristics.clone();
+    byte[] childDom0AlertLevels = dom0AlertLevels.clone();
+    List<Dom0> affectedDom0s = transition.getAffectedDom0s();
+    int size = affectedDom0s.size();
+    int[] childChangedOrdinals = new int[size];
+    double[] childChangedHeuristics = new double[size];
+    byte[] childChangedAlertLevels = new byte[size];
+    for (int i = 0; i < size; i++) {
+      Dom0 dom0 = affectedDom0s.get(i);
+      int ordinal = dom0.getOrdinal();
+      evaluateDom0(
+          incrementalHeuristicFunction,
+          dom0EvaluationCache,
+          new AnalyzedDom0Configuration(child, dom0),
+          childDom0Heuristics,
+          childDom0AlertLevels
+      );
+      childChangedOrdinals[i] = ordinal;
+      childChangedHeuristics[i] = childDom0Heuristics[ordinal];
+      childChangedAlertLevels[i] = childDom0AlertLevels[ordinal];
+    }
+    return new Evaluation(
+        incrementalHeuristicFunction.getHeuristic(childDom0Heuristics, g),
+        getMaxAlertLevel(childDom0AlertLevels),
+        this,
+        childChangedOrdinals,
+        childChangedHeuristics,
+        childChangedAlertLevels
+    );
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A closed list storing the full configurations.
+ *
+ * @see  ClosedListType#EXACT
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ExactClosedList extends ClosedList {
+
+  private final Map<ClusterConfiguration, ListElement> closedMap = new HashMap<>();
+
+  @Override
+  int size() {
+    return closedMap.size();
+  }
+
+  @Override
+  int getPathLen(ClusterConfiguration clusterConfiguration) {
+    ListElement existingClosed = closedMap.get(clusterConfiguration);
+    return existingClosed == null ? -1 : existingClosed.pathLen;
+  }
+
+  @Override
+  void add(ListElement listElement) {
+    closedMap.put(listElement.clusterConfiguration, listElement);
+  }
+
+  @Override
+  void remove(ClusterConfiguration clusterConfiguration) {
+    closedMap.remove(clusterConfiguration);
+  }
+
+  @Override
+  void trim(int shortestPathLen) {
+    Iterator<ListElement> closedIter = closedMap.values().iterator();
+    while (closedIter.hasNext()) {
+      if (closedIter.next().pathLen >= shortestPathLen) {
+        closedIter.remove();
+      }
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,18 +23,15 @@
 
 package com.aoindustries.aoserv.cluster.optimize;
 
-import com.aoindustries.aoserv.cluster.ClusterConfiguration;
 import com.aoindustries.aoserv.cluster.analyze.AlertLevel;
-import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
-import com.aoindustries.aoserv.cluster.analyze.Result;
-import com.aoindustries.aoserv.cluster.analyze.ResultHandler;
+import com.aoindustries.aoserv.cluster.analyze.Check;
 
 /**
  * Adds up all the non-optimal states of the analyzed cluster giving more weight
  * to higher level problems.  Adds in <code>g*.00001</code> to prefer shorter paths.  Each
  * type of problem is scaled by how far off the state is when possible.
  *
- * <p>This is not thread safe.</p>
+ * <p>This is thread safe.</p>
  *
  * <p>The values are:</p>
  *
@@ -48,47 +45,36 @@ import com.aoindustries.aoserv.cluster.analyze.ResultHandler;
  *
  * @author  AO Industries, Inc.
  */
-public class ExponentialDeviationHeuristicFunction implements HeuristicFunction, ResultHandler<Object> {
+public class ExponentialDeviationHeuristicFunction implements IncrementalHeuristicFunction {
 
   private static final double BASE = 1.5;
 
-  private double total;
-
   @Override
-  public double getHeuristic(ClusterConfiguration clusterConfiguration, int g) {
-    AnalyzedClusterConfiguration analysis = new AnalyzedClusterConfiguration(clusterConfiguration);
-
-    // Include g to prefer shorter paths - this is meant to be just a tie breaker and to minimally
-    // affect the path otherwise
-    total = g * .00001;
-
-    // Add each result
-    analysis.getAllResults(this, AlertLevel.LOW);
-
-    return total;
-  }
-
-  @Override
-  public boolean handleResult(Result<?> result) {
-    AlertLevel alertLevel = result.getAlertLevel();
+  public double getResultHeuristic(Check check, AlertLevel alertLevel, double deviation) {
     switch (alertLevel) {
       case NONE:
         throw new AssertionError("Should only get non-optimal results");
       case LOW:
-        total += result.getDeviation();
-        break;
+        return deviation;
       case MEDIUM:
-        total += BASE * result.getDeviation();
-        break;
+        return BASE * deviation;
       case HIGH:
-        total += BASE * BASE * result.getDeviation();
-        break;
+        return BASE * BASE * deviation;
       case CRITICAL:
-        total += 1024 + BASE * BASE * BASE * result.getDeviation(); // Try to avoid this at all costs
-        break;
+        return 1024 + BASE * BASE * BASE * deviation; // Try to avoid this at all costs
       default:
         throw new AssertionError("Unexpected value for alertLevel: " + alertLevel);
     }
-    return true;
+  }
+
+  @Override
+  public double getHeuristic(double[] dom0Heuristics, int g) {
+    // Include g to prefer shorter paths - this is meant to be just a tie breaker and to minimally
+    // affect the path otherwise
+    double total = g * .00001;
+    for (double dom0Heuristic : dom0Heuristics) {
+      total += dom0Heuristic;
+    }
+    return total;
   }
 }
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,11 +23,8 @@
 
 package com.aoindustries.aoserv.cluster.optimize;
 
-import com.aoindustries.aoserv.cluster.ClusterConfiguration;
 import com.aoindustries.aoserv.cluster.analyze.AlertLevel;
-import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
-import com.aoindustries.aoserv.cluster.analyze.Result;
-import com.aoindustries.aoserv.cluster.analyze.ResultHandler;
+import com.aoindustries.aoserv.cluster.analyze.Check;
 
 /**
  * Adds up all the non-optimal states of the analyzed cluster giving more weight
@@ -36,7 +33,7 @@ import com.aoindustries.aoserv.cluster.analyze.ResultHandler;
  *
  * <p>The heuristics for "NONE" are also added (in negative form) with a coefficient of .001 (as a tie breaker with more weight than number of moves).</p>
  *
- * <p>This is not thread safe.</p>
+ * <p>This is thread safe.</p>
  *
  * <p>The values are:</p>
  *
@@ -50,48 +47,41 @@ import com.aoindustries.aoserv.cluster.analyze.ResultHandler;
  *
  * @author  AO Industries, Inc.
  */
-public class ExponentialDeviationWithNoneHeuristicFunction implements HeuristicFunction, ResultHandler<Object> {
+public class ExponentialDeviationWithNoneHeuristicFunction implements IncrementalHeuristicFunction {
 
   private static final double BASE = 1.5;
 
-  private double total;
-
   @Override
-  public double getHeuristic(ClusterConfiguration clusterConfiguration, int g) {
-    AnalyzedClusterConfiguration analysis = new AnalyzedClusterConfiguration(clusterConfiguration);
-
-    // Include g to prefer shorter paths - this is meant to be just a tie breaker and to minimally
-    // affect the path otherwise
-    total = g * .00001;
-
-    // Add each result
-    analysis.getAllResults(this, AlertLevel.NONE);
-
-    return total;
+  public AlertLevel getMinimumAlertLevel() {
+    return AlertLevel.NONE;
   }
 
   @Override
-  public boolean handleResult(Result<?> result) {
-    AlertLevel alertLevel = result.getAlertLevel();
+  public double getResultHeuristic(Check check, AlertLevel alertLevel, double deviation) {
     switch (alertLevel) {
       case NONE:
-        total += 0.001 * result.getDeviation();
-        break;
+        return 0.001 * deviation;
       case LOW:
-        total += result.getDeviation();
-        break;
+        return deviation;
       case MEDIUM:
-        total += BASE * result.getDeviation();
-        break;
+        return BASE * deviation;
       case HIGH:
-        total += BASE * BASE * result.getDeviation();
-        break;
+        return BASE * BASE * deviation;
       case CRITICAL:
-        total += 1024 + BASE * BASE * BASE * result.getDeviation(); // Try to avoid this at all costs
-        break;
+        return 1024 + BASE * BASE * BASE * deviation; // Try to avoid this at all costs
       default:
         throw new AssertionError("Unexpected value for alertLevel: " + alertLevel);
     }
-    return true;
+  }
+
+  @Override
+  public double getHeuristic(double[] dom0Heuristics, int g) {
+    // Include g to prefer shorter paths - this is meant to be just a tie breaker and to minimally
+    // affect the path otherwise
+    double total = g * .00001;
+    for (double dom0Heuristic : dom0Heuristics) {
+      total += dom0Heuristic;
+    }
+    return total;
   }
 }
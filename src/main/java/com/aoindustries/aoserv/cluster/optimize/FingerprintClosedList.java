@@ -0,0 +1,255 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.DomUConfiguration;
+import com.aoindustries.aoserv.cluster.DomUDiskConfiguration;
+import com.aoindustries.aoserv.cluster.PhysicalVolume;
+import com.aoindustries.aoserv.cluster.PhysicalVolumeConfiguration;
+import java.util.List;
+
+/**
+ * A closed list storing only a 64-bit or 128-bit fingerprint and the path length of each configuration,
+ * in an open-addressing table of primitives.  The configurations of closed elements are released.
+ *
+ * @see  ClosedListType#FINGERPRINT_64
+ * @see  ClosedListType#FINGERPRINT_128
+ *
+ * @author  AO Industries, Inc.
+ */
+final class FingerprintClosedList extends ClosedList {
+
+  private static final int INITIAL_CAPACITY = 1 << 10;
+
+  /**
+   * The seed for the second 64-bit lane of the fingerprint.
+   */
+  private static final long SEED = 0xC2B2AE3D27D4EB4FL;
+
+  /**
+   * The number of longs per fingerprint.
+   */
+  private final int width;
+
+  /**
+   * The fingerprints, <code>width</code> longs per slot.
+   */
+  private long[] fingerprints;
+
+  /**
+   * The path length + 1 per slot, where <code>0</code> is an empty slot.
+   */
+  private int[] pathLens;
+
+  private int mask;
+
+  private int size;
+
+  /**
+   * The fingerprint of the configuration being looked up.
+   */
+  private final long[] fingerprint;
+
+  FingerprintClosedList(ClosedListType type) {
+    width = type.getBits() / Long.SIZE;
+    assert width == 1 || width == 2 : "Unexpected width: " + width;
+    fingerprint = new long[width];
+    allocate(INITIAL_CAPACITY);
+  }
+
+  private void allocate(int capacity) {
+    fingerprints = new long[capacity * width];
+    pathLens = new int[capacity];
+    mask = capacity - 1;
+    size = 0;
+  }
+
+  /**
+   * The murmur3 64-bit finalizer.
+   */
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static long combine(long h, long value) {
+    return Long.rotateLeft(h ^ mix(value), 27) * 5 + 0x52DCE729;
+  }
+
+  private static long combine(long h, List<PhysicalVolumeConfiguration> physicalVolumeConfigurations) {
+    h = combine(h, physicalVolumeConfigurations.size());
+    for (PhysicalVolumeConfiguration pvc : physicalVolumeConfigurations) {
+      PhysicalVolume physicalVolume = pvc.getPhysicalVolume();
+      h = combine(h, ((long) physicalVolume.getDevice().hashCode() << 16) ^ physicalVolume.getPartition());
+      h = combine(h, pvc.getFirstLogicalExtent());
+      h = combine(h, pvc.getFirstPhysicalExtent());
+      h = combine(h, pvc.getExtents());
+    }
+    return h;
+  }
+
+  /**
+   * Computes a 64-bit hash of a configuration independent of its {@linkplain ClusterConfiguration#getHash64() Zobrist hash}.
+   */
+  static long getFingerprint(ClusterConfiguration clusterConfiguration, long seed) {
+    long h = seed;
+    List<DomUConfiguration> domUConfigurations = clusterConfiguration.getDomUConfigurations();
+    for (int i = 0, size = domUConfigurations.size(); i < size; i++) {
+      DomUConfiguration domUConfiguration = domUConfigurations.get(i);
+      h = combine(h, domUConfiguration.getDomU().getHostname().hashCode());
+      h = combine(h, ((long) domUConfiguration.getPrimaryDom0().getHostname().hashCode() << 32) ^ domUConfiguration.getSecondaryDom0().getHostname().hashCode());
+      List<DomUDiskConfiguration> domUDiskConfigurations = domUConfiguration.getDomUDiskConfigurations();
+      for (int j = 0, jSize = domUDiskConfigurations.size(); j < jSize; j++) {
+        DomUDiskConfiguration domUDiskConfiguration = domUDiskConfigurations.get(j);
+        h = combine(h, domUDiskConfiguration.getDomUDisk().getDevice().hashCode());
+        h = combine(h, domUDiskConfiguration.getPrimaryPhysicalVolumeConfigurations());
+        h = combine(h, domUDiskConfiguration.getSecondaryPhysicalVolumeConfigurations());
+      }
+    }
+    return mix(h);
+  }
+
+  /**
+   * The first lane is the precomputed Zobrist hash, while the second lane, when used, is computed from the
+   * full configuration.
+   */
+  private void setFingerprint(ClusterConfiguration clusterConfiguration) {
+    fingerprint[0] = clusterConfiguration.getHash64();
+    if (width == 2) {
+      fingerprint[1] = getFingerprint(clusterConfiguration, SEED);
+    }
+  }
+
+  private int getHome(long fingerprint0) {
+    return (int) (fingerprint0 ^ (fingerprint0 >>> 32)) & mask;
+  }
+
+  private boolean matches(int slot) {
+    int offset = slot * width;
+    for (int i = 0; i < width; i++) {
+      if (fingerprints[offset + i] != fingerprint[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds the slot of the current fingerprint.
+   *
+   * @return  the slot when found or <code>-(emptySlot + 1)</code> when not found
+   */
+  private int find() {
+    int slot = getHome(fingerprint[0]);
+    while (pathLens[slot] != 0) {
+      if (matches(slot)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -(slot + 1);
+  }
+
+  private void put(int slot, int pathLenPlusOne) {
+    System.arraycopy(fingerprint, 0, fingerprints, slot * width, width);
+    pathLens[slot] = pathLenPlusOne;
+    size++;
+  }
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  int getPathLen(ClusterConfiguration clusterConfiguration) {
+    setFingerprint(clusterConfiguration);
+    int slot = find();
+    return slot < 0 ? -1 : (pathLens[slot] - 1);
+  }
+
+  @Override
+  void add(ListElement listElement) {
+    setFingerprint(listElement.clusterConfiguration);
+    int slot = find();
+    if (slot >= 0) {
+      pathLens[slot] = listElement.pathLen + 1;
+    } else {
+      put(-(slot + 1), listElement.pathLen + 1);
+      // Keep load factor at or below 0.5
+      if (size > (pathLens.length >> 1)) {
+        rehash(pathLens.length << 1, Integer.MAX_VALUE);
+      }
+    }
+    listElement.releaseClusterConfiguration();
+  }
+
+  @Override
+  void remove(ClusterConfiguration clusterConfiguration) {
+    setFingerprint(clusterConfiguration);
+    int slot = find();
+    if (slot >= 0) {
+      // Backward shift deletion, moving any following entries that would no longer be found
+      int next = (slot + 1) & mask;
+      while (pathLens[next] != 0) {
+        int home = getHome(fingerprints[next * width]);
+        // Move when home is cyclically outside (slot, next]
+        if (((next - home) & mask) >= ((next - slot) & mask)) {
+          System.arraycopy(fingerprints, next * width, fingerprints, slot * width, width);
+          pathLens[slot] = pathLens[next];
+          slot = next;
+        }
+        next = (next + 1) & mask;
+      }
+      pathLens[slot] = 0;
+      size--;
+    }
+  }
+
+  @Override
+  void trim(int shortestPathLen) {
+    rehash(pathLens.length, shortestPathLen);
+  }
+
+  /**
+   * Rebuilds the table with the given capacity, keeping only entries with path length &lt; <code>maxPathLen</code>.
+   */
+  private void rehash(int capacity, int maxPathLen) {
+    long[] oldFingerprints = fingerprints;
+    int[] oldPathLens = pathLens;
+    allocate(capacity);
+    for (int oldSlot = 0; oldSlot < oldPathLens.length; oldSlot++) {
+      int pathLenPlusOne = oldPathLens[oldSlot];
+      if (pathLenPlusOne != 0 && (pathLenPlusOne - 1) < maxPathLen) {
+        System.arraycopy(oldFingerprints, oldSlot * width, fingerprint, 0, width);
+        put(-(find() + 1), pathLenPlusOne);
+      }
+    }
+  }
+}
@@ -0,0 +1,392 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A parallel, hash-distributed best-first search (HDA*).  Each configuration is owned by exactly one worker,
+ * selected by its hash code, so duplicate detection remains local to the worker's own open and closed lists.
+ * Children are sent to their owners through lock-free mailboxes.
+ *
+ * <p>Termination is detected by counting every configuration that is open, being expanded, or in-flight in
+ * a mailbox.  The count is incremented before a child is sent and decremented only once the configuration
+ * has been discarded or completely expanded, so it can only reach zero when the search space has been exhausted.</p>
+ *
+ * @see  ClusterOptimizer#getParallelism()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class HashDistributedSearch {
+
+  /**
+   * The amount of time an idle worker waits before checking its mailbox again.
+   */
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /**
+   * A child sent to the worker that owns it.
+   */
+  private static final class Message {
+
+    private final ListElement parent;
+    private final Transition transition;
+    private final ClusterConfiguration child;
+    private final Evaluation childEvaluation;
+
+    private Message(ListElement parent, Transition transition, ClusterConfiguration child, Evaluation childEvaluation) {
+      this.parent = parent;
+      this.transition = transition;
+      this.child = child;
+      this.childEvaluation = childEvaluation;
+    }
+  }
+
+  private final ClusterOptimizer optimizer;
+  private final OptimizedClusterConfigurationHandler handler;
+
+  /**
+   * The budget checked by each worker, with the limit on the size of the lists divided evenly among the workers.
+   */
+  private final SearchBudget workerBudget;
+  private final double[] weights;
+  private final Worker[] workers;
+
+  /**
+   * The number of configurations that are open, being expanded, or in-flight.
+   */
+  private final AtomicLong pending = new AtomicLong();
+
+  /**
+   * The number of configurations expanded by all workers, passed to the handler.
+   */
+  private final AtomicLong loopCounter = new AtomicLong();
+
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  /**
+   * The first limit of the budget exceeded by any worker.
+   */
+  private final AtomicReference<BudgetLimit> exceededLimit = new AtomicReference<>();
+
+  private long startNanos;
+
+  private volatile boolean done;
+
+  private final Object shortestPathLock = new Object();
+
+  /**
+   * The best path found so far.
+   */
+  private ListElement shortestPath;
+
+  /**
+   * The length of the best path found so far, or {@link Integer#MAX_VALUE} when none found.
+   */
+  private volatile int shortestPathLen = Integer.MAX_VALUE;
+
+  /**
+   * The index of the weight all workers are moving to, advanced after each shorter path found.
+   */
+  private volatile int weightIndex;
+
+  HashDistributedSearch(ClusterOptimizer optimizer, OptimizedClusterConfigurationHandler handler, SearchBudget budget) {
+    this.optimizer = optimizer;
+    this.handler = handler;
+    this.weights = optimizer.getWeights();
+    int parallelism = optimizer.getParallelism();
+    long maxListSize = budget.getMaxListSize();
+    this.workerBudget = new SearchBudget(
+        budget.getMaxMillis(),
+        budget.getMaxExpanded(),
+        maxListSize == Long.MAX_VALUE ? Long.MAX_VALUE : (maxListSize / parallelism),
+        budget.getMaxHeapBytes(),
+        budget.getCancellationToken()
+    );
+    workers = new Worker[parallelism];
+    for (int i = 0; i < parallelism; i++) {
+      workers[i] = new Worker(i);
+    }
+  }
+
+  /**
+   * Selects the worker that owns the given configuration.  The hash is mixed before being reduced, since the
+   * low bits of a configuration hash code are not evenly distributed.
+   */
+  private Worker getOwner(ClusterConfiguration clusterConfiguration) {
+    int hash = clusterConfiguration.hashCode() * 0x9E3779B9;
+    return workers[(int) (((hash & 0xFFFFFFFFL) * workers.length) >>> 32)];
+  }
+
+  /**
+   * Performs the search, returning the best path found or <code>null</code> if no optimal configuration was found.
+   * When a limit of the budget is exceeded before any path is found, returns the lowest heuristic expanded by any
+   * worker, or the starting configuration, instead.
+   *
+   * @see  ClusterOptimizer#getOptimizedClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.OptimizedClusterConfigurationHandler, com.aoindustries.aoserv.cluster.optimize.SearchBudget)
+   */
+  ListElement search() {
+    startNanos = System.nanoTime();
+    ClusterConfiguration clusterConfiguration = optimizer.getClusterConfiguration();
+    pending.set(1);
+    OpenClosedLists lists = getOwner(clusterConfiguration).lists;
+    ListElement start = new ListElement(
+        null,
+        null,
+        clusterConfiguration,
+        lists.evaluate(clusterConfiguration)
+    );
+    lists.addOpen(start);
+    for (Worker worker : workers) {
+      worker.start();
+    }
+    boolean interrupted = false;
+    for (Worker worker : workers) {
+      while (true) {
+        try {
+          worker.join();
+          break;
+        } catch (InterruptedException e) {
+          // Stop the search, returning the best path found so far
+          interrupted = true;
+          stopSearch();
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    Throwable t = failure.get();
+    if (t != null) {
+      if (t instanceof Error) {
+        throw (Error) t;
+      }
+      if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      }
+      throw new RuntimeException(t);
+    }
+    synchronized (shortestPathLock) {
+      if (shortestPath == null && exceededLimit.get() != null) {
+        // The workers have been joined, so their partial paths are visible
+        ListElement partialPath = start;
+        for (Worker worker : workers) {
+          if (worker.partialPath != null && SearchBudget.isBetterPartial(worker.partialPath, partialPath)) {
+            partialPath = worker.partialPath;
+          }
+        }
+        return partialPath;
+      }
+      return shortestPath;
+    }
+  }
+
+  /**
+   * Gets the first limit of the budget exceeded, or <code>null</code> when the search completed within its budget.
+   */
+  BudgetLimit getExceededLimit() {
+    return exceededLimit.get();
+  }
+
+  /**
+   * Stops all workers.
+   */
+  private void stopSearch() {
+    done = true;
+    for (Worker worker : workers) {
+      LockSupport.unpark(worker);
+    }
+  }
+
+  /**
+   * Decrements the pending count, stopping the search when it reaches zero.
+   */
+  private void release(long count) {
+    if (count != 0 && pending.addAndGet(-count) == 0) {
+      stopSearch();
+    }
+  }
+
+  /**
+   * Records an optimal configuration, when shorter than the best path found so far.
+   *
+   * @param  weight  the weight used by the worker that found the configuration
+   *
+   * @return  <code>true</code> to continue the search or <code>false</code> to stop
+   */
+  private boolean foundOptimal(ListElement current, double weight) {
+    synchronized (shortestPathLock) {
+      if (current.pathLen < shortestPathLen) {
+        shortestPath = current;
+        shortestPathLen = current.pathLen;
+        // Give handler a chance to cancel
+        if (handler == null || !handler.handleOptimizedClusterConfiguration(current, loopCounter.get(), weight, Double.NaN)) {
+          return false;
+        }
+        // All workers continue with the next weight
+        int currentWeightIndex = weightIndex;
+        if (currentWeightIndex + 1 < weights.length) {
+          weightIndex = currentWeightIndex + 1;
+        }
+      }
+      return true;
+    }
+  }
+
+  private final class Worker extends Thread {
+
+    private final OpenClosedLists lists = optimizer.newOpenClosedLists();
+    private final Queue<Message> mailbox = new ConcurrentLinkedQueue<>();
+    private volatile boolean idle;
+
+    /**
+     * The shortest path length this worker has trimmed its lists to.
+     */
+    private int trimmedPathLen = Integer.MAX_VALUE;
+
+    /**
+     * The index of the weight this worker has re-ordered its open list to.
+     */
+    private int listsWeightIndex;
+
+    /**
+     * The lowest heuristic expanded by this worker.
+     */
+    private ListElement partialPath;
+
+    private Worker(int index) {
+      super(HashDistributedSearch.class.getSimpleName() + "-" + index);
+    }
+
+    /**
+     * Sends a child to this worker.
+     */
+    private void send(ListElement parent, Transition transition, ClusterConfiguration child, Evaluation childEvaluation) {
+      mailbox.add(new Message(parent, transition, child, childEvaluation));
+      if (idle) {
+        LockSupport.unpark(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        boolean allowPathThroughCritical = optimizer.allowsPathThroughCritical();
+        // Reused inside loop below when randomizing children
+        List<ClusterConfiguration> children = new ArrayList<>();
+        List<Transition> childTransitions = new ArrayList<>();
+        while (!done) {
+          // Trim anything out of open/closed that has transitions.length >= the best path found by any worker
+          int currentShortestPathLen = shortestPathLen;
+          if (currentShortestPathLen < trimmedPathLen) {
+            release(lists.trim(currentShortestPathLen));
+            trimmedPathLen = currentShortestPathLen;
+          }
+          // Continue with the next weight, reusing the open and closed lists
+          int currentWeightIndex = weightIndex;
+          if (currentWeightIndex != listsWeightIndex) {
+            lists.setWeight(weights[currentWeightIndex]);
+            listsWeightIndex = currentWeightIndex;
+          }
+          // Receive children from all workers
+          Message message;
+          while ((message = mailbox.poll()) != null) {
+            if (
+                // + 1 to match size of newTransitions below
+                (message.parent.pathLen + 1) >= trimmedPathLen
+                    || !lists.offer(message.parent, null, message.transition, message.child, message.childEvaluation)
+            ) {
+              release(1);
+            }
+          }
+          if (lists.isOpenEmpty()) {
+            idle = true;
+            if (mailbox.isEmpty() && !done) {
+              LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+            continue;
+          }
+          BudgetLimit limit = workerBudget.getExceededLimit(startNanos, loopCounter.get(), lists.getOpenSize() + (long) lists.getClosedSize());
+          if (limit != null) {
+            exceededLimit.compareAndSet(null, limit);
+            stopSearch();
+            break;
+          }
+          ListElement current = lists.removeOpen();
+          loopCounter.incrementAndGet();
+          if (SearchBudget.isBetterPartial(current, partialPath)) {
+            partialPath = current;
+          }
+          // Is this the goal?
+          Evaluation evaluation = current.evaluation;
+          if (evaluation.isOptimal()) {
+            if (!foundOptimal(current, lists.getWeight())) {
+              stopSearch();
+            }
+          } else if (
+              // + 1 to match size of newTransitions below
+              (current.pathLen + 1) < shortestPathLen
+          ) {
+            SuccessorIterator successors = optimizer.getSuccessors(current.clusterConfiguration, children, childTransitions);
+            boolean endsCritical = allowPathThroughCritical ? true : evaluation.hasCritical();
+            while (successors.hasNext()) {
+              Transition transition = successors.next();
+              ClusterConfiguration child = successors.getChild();
+              Worker owner = getOwner(child);
+              // Children sent to other workers are evaluated here, so only this worker uses the evaluation of current
+              Evaluation childEvaluation = (endsCritical && owner == this) ? null : lists.evaluate(current, evaluation, transition, child);
+              // Don't keep any path that has a transition from not having any critical to have at least one critical
+              if (endsCritical || !childEvaluation.hasCritical()) {
+                if (owner == this) {
+                  if (lists.offer(current, evaluation, transition, child, childEvaluation)) {
+                    pending.incrementAndGet();
+                  }
+                } else {
+                  // Incremented before sending so the count cannot reach zero while in-flight
+                  pending.incrementAndGet();
+                  owner.send(current, transition, child, childEvaluation);
+                }
+              }
+            }
+          }
+          // put X on closed
+          lists.close(current);
+          release(1);
+        }
+      } catch (RuntimeException | Error t) {
+        failure.compareAndSet(null, t);
+        stopSearch();
+      }
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -29,6 +29,9 @@ import com.aoindustries.aoserv.cluster.ClusterConfiguration;
  * A <code>HeuristicAlgorithm</code> generates a heuristic value for a provided
  * <code>AnalyzedCluster</code>.
  *
+ * <p>When used by a {@link ClusterOptimizer} with a parallelism greater than one, the
+ * heuristic will be called concurrently from multiple threads and must be thread safe.</p>
+ *
  * @author  AO Industries, Inc.
  */
 public interface HeuristicFunction {
@@ -0,0 +1,117 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.Cluster;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.Dom0;
+import com.aoindustries.aoserv.cluster.analyze.AlertLevel;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedDom0Configuration;
+import com.aoindustries.aoserv.cluster.analyze.Check;
+
+/**
+ * A heuristic that is the combination of independent contributions from each Dom0, each being the sum of
+ * the contributions of its results.  Because a transition only changes the analysis of the Dom0s it
+ * {@linkplain Transition#getAffectedDom0s() affects}, the heuristic of a child is found from the contributions of
+ * its parent by analyzing only those Dom0s.
+ *
+ * <p>The incremental and full computations must give identical results, so implementations should combine the
+ * contributions in order by {@linkplain Dom0#getOrdinal() ordinal}.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public interface IncrementalHeuristicFunction extends HeuristicFunction {
+
+  /**
+   * Gets the lowest alert level of the results that contribute to the heuristic.
+   */
+  default AlertLevel getMinimumAlertLevel() {
+    return AlertLevel.LOW;
+  }
+
+  /**
+   * Gets the contribution of a single result, not including <code>g</code>.
+   *
+   * @param  alertLevel  at least {@link #getMinimumAlertLevel()}
+   */
+  double getResultHeuristic(Check check, AlertLevel alertLevel, double deviation);
+
+  /**
+   * Gets the contribution of one Dom0, not including <code>g</code>.
+   */
+  default double getDom0Heuristic(AnalyzedDom0Configuration analyzedDom0Configuration) {
+    double[] total = {0};
+    analyzedDom0Configuration.getAllResults(
+        (Check check, int subject, AlertLevel alertLevel, double deviation) -> {
+          total[0] += getResultHeuristic(check, alertLevel, deviation);
+          return true;
+        },
+        getMinimumAlertLevel()
+    );
+    return total[0];
+  }
+
+  /**
+   * Combines the contributions of all the Dom0s with the number of moves already made.
+   *
+   * @param  dom0Heuristics  the contribution of each Dom0, indexed by {@linkplain Dom0#getOrdinal() ordinal}
+   * @param  g               the number of moves already made
+   */
+  double getHeuristic(double[] dom0Heuristics, int g);
+
+  /**
+   * Gets the contribution of each Dom0, indexed by {@linkplain Dom0#getOrdinal() ordinal}.
+   */
+  default double[] getDom0Heuristics(ClusterConfiguration clusterConfiguration) {
+    Cluster cluster = clusterConfiguration.getCluster();
+    double[] dom0Heuristics = new double[cluster.getDom0Count()];
+    for (Dom0 dom0 : cluster.getDom0s().values()) {
+      dom0Heuristics[dom0.getOrdinal()] = getDom0Heuristic(new AnalyzedDom0Configuration(clusterConfiguration, dom0));
+    }
+    return dom0Heuristics;
+  }
+
+  @Override
+  default double getHeuristic(ClusterConfiguration clusterConfiguration, int g) {
+    return getHeuristic(getDom0Heuristics(clusterConfiguration), g);
+  }
+
+  /**
+   * Gets the heuristic of a child, analyzing only the Dom0s affected by the transition from its parent.
+   *
+   * @param  parentDom0Heuristics  the contributions of the parent, which are not modified
+   * @param  transition            the transition from the parent to the child
+   * @param  child                 the configuration resulting from the transition
+   * @param  g                     the number of moves already made to reach the child
+   *
+   * @see  #getDom0Heuristics(com.aoindustries.aoserv.cluster.ClusterConfiguration)
+   */
+  default double getHeuristic(double[] parentDom0Heuristics, Transition transition, ClusterConfiguration child, int g) {
+    double[] childDom0Heuristics = parentDom0Heuristics.clone();
+    for (Dom0 dom0 : transition.getAffectedDom0s()) {
+      childDom0Heuristics[dom0.getOrdinal()] = getDom0Heuristic(new AnalyzedDom0Configuration(child, dom0));
+    }
+    return getHeuristic(childDom0Heuristics, g);
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+/**
+ * A heuristic that always returns a non-negative integer no greater than {@link Integer#MAX_VALUE}.  Its values are
+ * bounded by the number of moves and the number of results of the cluster, so the open list is kept in a
+ * {@linkplain ListElementBucketQueue bucket queue} indexed by heuristic instead of a binary heap.
+ *
+ * @author  AO Industries, Inc.
+ */
+public interface IntegralHeuristicFunction extends HeuristicFunction {
+  // Marker interface only
+}
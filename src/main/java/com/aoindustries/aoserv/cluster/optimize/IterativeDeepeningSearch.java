@@ -0,0 +1,164 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An iterative-deepening A* search (IDA*).  Each iteration is a depth-first search of the configurations whose
+ * heuristic does not exceed a threshold, starting with the heuristic of the initial configuration, then raised to
+ * the lowest heuristic that exceeded it in the previous iteration.  Since the heuristic includes <code>g</code>,
+ * it is used directly as the f-cost.
+ *
+ * <p>Without open and closed lists, memory is proportional to the path length times the number of children
+ * per configuration, plus the fixed size of the {@link TranspositionTable}, which avoids searching the same
+ * configuration again within an iteration.  In exchange, each iteration repeats the work of the previous ones.
+ * The number of iterations is the number of distinct heuristic values up to the length of the path, so an
+ * {@link IntegralHeuristicFunction} is recommended.</p>
+ *
+ * <p>The children of each configuration are searched best first, ordered by heuristic then by the
+ * {@linkplain ClusterOptimizer#getTieBreaking() tie-breaking}.  The {@linkplain ClusterOptimizer#getWeights() weights}
+ * are not used.</p>
+ *
+ * @see  ClusterOptimizer#getIterativeDeepeningClusterConfiguration(int, int)
+ *
+ * @author  AO Industries, Inc.
+ */
+final class IterativeDeepeningSearch {
+
+  private final ClusterOptimizer optimizer;
+  private final HeuristicFunction heuristicFunction;
+  private final Dom0EvaluationCache dom0EvaluationCache;
+  private final boolean allowPathThroughCritical;
+  private final TieBreaking tieBreaking;
+  private final TranspositionTable transpositionTable;
+  private final int maxPathLen;
+
+  // Reused for each configuration when randomizing children, which are all generated before searching any
+  private final List<ClusterConfiguration> children = new ArrayList<>();
+  private final List<Transition> childTransitions = new ArrayList<>();
+
+  /**
+   * The highest heuristic searched in the current iteration.
+   */
+  private double threshold;
+
+  /**
+   * The lowest heuristic that exceeded the threshold in the current iteration.
+   */
+  private double nextThreshold;
+
+  IterativeDeepeningSearch(ClusterOptimizer optimizer, TranspositionTable transpositionTable, int maxPathLen) {
+    this.optimizer = optimizer;
+    this.heuristicFunction = optimizer.getHeuristicFunction();
+    this.dom0EvaluationCache = optimizer.newDom0EvaluationCache();
+    this.allowPathThroughCritical = optimizer.allowsPathThroughCritical();
+    this.tieBreaking = optimizer.getTieBreaking();
+    this.transpositionTable = transpositionTable;
+    this.maxPathLen = maxPathLen;
+  }
+
+  /**
+   * Performs the search, returning the first path found or <code>null</code> if no optimal configuration was found
+   * within the maximum path length.
+   *
+   * @see  ClusterOptimizer#getIterativeDeepeningClusterConfiguration(int, int)
+   */
+  ListElement search() {
+    ClusterConfiguration clusterConfiguration = optimizer.getClusterConfiguration();
+    Evaluation evaluation = Evaluation.evaluate(heuristicFunction, dom0EvaluationCache, clusterConfiguration, 0);
+    threshold = evaluation.heuristic;
+    while (true) {
+      nextThreshold = Double.POSITIVE_INFINITY;
+      transpositionTable.visit(clusterConfiguration, 0);
+      // A new element each iteration, since the evaluation is released once expanded
+      ListElement found = search(new ListElement(null, null, clusterConfiguration, evaluation));
+      if (found != null) {
+        return found;
+      }
+      if (nextThreshold == Double.POSITIVE_INFINITY) {
+        // Nothing exceeded the threshold, so every configuration within the maximum path length has been searched
+        return null;
+      }
+      threshold = nextThreshold;
+      transpositionTable.nextIteration();
+    }
+  }
+
+  /**
+   * Searches depth-first from a configuration that does not exceed the threshold.
+   */
+  private ListElement search(ListElement current) {
+    Evaluation evaluation = current.evaluation;
+    // Is this the goal?
+    if (evaluation.isOptimal()) {
+      return current;
+    }
+    if (current.pathLen >= maxPathLen) {
+      return null;
+    }
+    // Generate and evaluate all children before searching any, so they may be searched best first
+    // + 1 to match size of newTransitions below
+    int childPathLen = current.pathLen + 1;
+    List<ListElement> childListElements = new ArrayList<>();
+    long sequence = 0;
+    SuccessorIterator successors = optimizer.getSuccessors(current.clusterConfiguration, children, childTransitions);
+    boolean endsCritical = allowPathThroughCritical ? true : evaluation.hasCritical();
+    while (successors.hasNext()) {
+      Transition transition = successors.next();
+      ClusterConfiguration child = successors.getChild();
+      Evaluation childEvaluation = evaluation.evaluateChild(heuristicFunction, dom0EvaluationCache, transition, child, childPathLen);
+      // Don't keep any path that has a transition from not having any critical to have at least one critical
+      if (!endsCritical && childEvaluation.hasCritical()) {
+        continue;
+      }
+      double childHeuristic = childEvaluation.heuristic;
+      if (childHeuristic > threshold) {
+        if (childHeuristic < nextThreshold) {
+          nextThreshold = childHeuristic;
+        }
+        continue;
+      }
+      if (!transpositionTable.visit(child, childPathLen)) {
+        continue;
+      }
+      ListElement childListElement = new ListElement(current, transition, child, childEvaluation);
+      childListElement.sequence = sequence++;
+      childListElements.add(childListElement);
+    }
+    // The children have their own evaluations
+    current.evaluation = null;
+    childListElements.sort(tieBreaking::compare);
+    for (int i = 0, size = childListElements.size(); i < size; i++) {
+      ListElement found = search(childListElements.get(i));
+      if (found != null) {
+        return found;
+      }
+      // Release the searched child
+      childListElements.set(i, null);
+    }
+    return null;
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,20 +23,28 @@
 
 package com.aoindustries.aoserv.cluster.optimize;
 
-import com.aoindustries.aoserv.cluster.ClusterConfiguration;
-import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import com.aoindustries.aoserv.cluster.analyze.AlertLevel;
+import com.aoindustries.aoserv.cluster.analyze.Check;
 
 /**
  * This simply returns g if the cluster is optimal or g+1 if it is optimal.
  *
  * @author  AO Industries, Inc.
  */
-public class LeastInformedHeuristicFunction implements HeuristicFunction {
+public class LeastInformedHeuristicFunction implements IncrementalHeuristicFunction, IntegralHeuristicFunction {
 
   @Override
-  public double getHeuristic(ClusterConfiguration clusterConfiguration, int g) {
-    AnalyzedClusterConfiguration analysis = new AnalyzedClusterConfiguration(clusterConfiguration);
+  public double getResultHeuristic(Check check, AlertLevel alertLevel, double deviation) {
+    return 1;
+  }
 
-    return analysis.isOptimal() ? g : (g + 1);
+  @Override
+  public double getHeuristic(double[] dom0Heuristics, int g) {
+    for (double dom0Heuristic : dom0Heuristics) {
+      if (dom0Heuristic != 0) {
+        return g + 1;
+      }
+    }
+    return g;
   }
 }
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,17 +23,14 @@
 
 package com.aoindustries.aoserv.cluster.optimize;
 
-import com.aoindustries.aoserv.cluster.ClusterConfiguration;
 import com.aoindustries.aoserv.cluster.analyze.AlertLevel;
-import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
-import com.aoindustries.aoserv.cluster.analyze.Result;
-import com.aoindustries.aoserv.cluster.analyze.ResultHandler;
+import com.aoindustries.aoserv.cluster.analyze.Check;
 
 /**
  * Adds up all the non-optimal states of the analyzed cluster giving more weight
  * to higher level problems.  Adds in <code>g</code> to prefer shorter paths.
  *
- * <p>This is not thread safe.</p>
+ * <p>This is thread safe.</p>
  *
  * <p>The values are:</p>
  *
@@ -45,44 +42,33 @@ import com.aoindustries.aoserv.cluster.analyze.ResultHandler;
  *
  * @author  AO Industries, Inc.
  */
-public class LinearHeuristicFunction implements HeuristicFunction, ResultHandler<Object> {
-
-  private int total;
+public class LinearHeuristicFunction implements IncrementalHeuristicFunction, IntegralHeuristicFunction {
 
   @Override
-  public double getHeuristic(ClusterConfiguration clusterConfiguration, int g) {
-    AnalyzedClusterConfiguration analysis = new AnalyzedClusterConfiguration(clusterConfiguration);
-
-    // Include g to prefer shorter paths
-    total = g;
-
-    // Add each result
-    analysis.getAllResults(this, AlertLevel.LOW);
-
-    return total;
-  }
-
-  @Override
-  public boolean handleResult(Result<?> result) {
-    AlertLevel alertLevel = result.getAlertLevel();
+  public double getResultHeuristic(Check check, AlertLevel alertLevel, double deviation) {
     switch (alertLevel) {
       case NONE:
         throw new AssertionError("Should only get non-optimal results");
       case LOW:
-        total++;
-        break;
+        return 1;
       case MEDIUM:
-        total += 2;
-        break;
+        return 2;
       case HIGH:
-        total += 3;
-        break;
+        return 3;
       case CRITICAL:
-        total += 4;
-        break;
+        return 4;
       default:
         throw new AssertionError("Unexpected value for alertLevel: " + alertLevel);
     }
-    return true;
+  }
+
+  @Override
+  public double getHeuristic(double[] dom0Heuristics, int g) {
+    // Include g to prefer shorter paths
+    double total = g;
+    for (double dom0Heuristic : dom0Heuristics) {
+      total += dom0Heuristic;
+    }
+    return total;
   }
 }
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -24,6 +24,8 @@
 package com.aoindustries.aoserv.cluster.optimize;
 
 import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A list element.
@@ -43,12 +45,36 @@ public class ListElement implements Comparable<ListElement> {
   final int pathLen;
 
   /**
-   * The configuration after the transition.
+   * The configuration after the transition.  This is released once closed when the closed list
+   * is only storing fingerprints, and is then reconstructed on demand by {@link #getClusterConfiguration()}.
+   * It is never released for the first element in the list.
    */
-  final ClusterConfiguration clusterConfiguration;
+  ClusterConfiguration clusterConfiguration;
 
   final double heuristic;
 
+  /**
+   * The priority of this element in its {@link OpenQueue}, which is the heuristic unless
+   * {@linkplain ClusterOptimizer#getWeights() weighted}.
+   */
+  double key;
+
+  /**
+   * The evaluation of the configuration, released once closed.  This is <code>null</code> for elements
+   * created directly with a heuristic.
+   */
+  Evaluation evaluation;
+
+  /**
+   * The order in which this element was added to the open list, used for {@linkplain TieBreaking tie-breaking}.
+   */
+  long sequence;
+
+  /**
+   * The index of this element within its {@link OpenQueue} or <code>-1</code> when not in a queue.
+   */
+  int queueIndex = -1;
+
   ListElement(
       ListElement previous,
       Transition transition,
@@ -61,6 +87,17 @@ public class ListElement implements Comparable<ListElement> {
     assert clusterConfiguration != null : "clusterConfiguration is null";
     this.clusterConfiguration = clusterConfiguration;
     this.heuristic = heuristic;
+    this.key = heuristic;
+  }
+
+  ListElement(
+      ListElement previous,
+      Transition transition,
+      ClusterConfiguration clusterConfiguration,
+      Evaluation evaluation
+  ) {
+    this(previous, transition, clusterConfiguration, evaluation.heuristic);
+    this.evaluation = evaluation;
   }
 
   /**
@@ -94,8 +131,37 @@ public class ListElement implements Comparable<ListElement> {
     return pathLen;
   }
 
+  /**
+   * Gets the configuration after the transition, reconstructing it by replaying the transitions from the
+   * nearest previous element when it has been released.
+   */
   public ClusterConfiguration getClusterConfiguration() {
-    return clusterConfiguration;
+    ClusterConfiguration cc = clusterConfiguration;
+    if (cc != null) {
+      return cc;
+    }
+    // Find the nearest element that still has its configuration
+    List<ListElement> replay = new ArrayList<>();
+    ListElement element = this;
+    while ((cc = element.clusterConfiguration) == null) {
+      replay.add(element);
+      element = element.previous;
+    }
+    for (int i = replay.size() - 1; i >= 0; i--) {
+      cc = replay.get(i).transition.apply(cc);
+    }
+    return cc;
+  }
+
+  /**
+   * Releases the configuration to reduce heap consumption.
+   *
+   * @see  #getClusterConfiguration()
+   */
+  void releaseClusterConfiguration() {
+    if (previous != null) {
+      clusterConfiguration = null;
+    }
   }
 
   public double getHeuristic() {
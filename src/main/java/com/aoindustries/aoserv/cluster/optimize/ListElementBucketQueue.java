@@ -0,0 +1,206 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * A bucket queue of {@link ListElement} with one bucket per integral key, used when the heuristic is an
+ * {@link IntegralHeuristicFunction} and any {@linkplain ClusterOptimizer#getWeights() weights} are integers.  Each bucket is a {@link ListElementHeap} ordered only by the {@link TieBreaking}.
+ *
+ * <p>Without tie-breaking, adding, removing an arbitrary element, and replacing an element with a better path all
+ * run in O(1).  With tie-breaking, they run in O(log k), where k is the number of elements with the same key.
+ * Removing the lowest element additionally scans upward over empty buckets, which is amortized O(1).</p>
+ *
+ * <p>An element may only be in one queue at a time.</p>
+ *
+ * <p>This is not thread safe.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ListElementBucketQueue implements OpenQueue {
+
+  private static final int DEFAULT_INITIAL_BUCKETS = 1024;
+
+  private static final int DEFAULT_INITIAL_BUCKET_CAPACITY = 16;
+
+  private final Comparator<ListElement> tieComparator;
+
+  /**
+   * The buckets, each <code>null</code> until first used.
+   */
+  private ListElementHeap[] buckets;
+  private int size;
+
+  /**
+   * All buckets below this one are empty.
+   */
+  private int minBucket = Integer.MAX_VALUE;
+
+  ListElementBucketQueue(TieBreaking tieBreaking) {
+    tieComparator = tieBreaking::compareTies;
+    buckets = new ListElementHeap[DEFAULT_INITIAL_BUCKETS];
+  }
+
+  ListElementBucketQueue() {
+    this(TieBreaking.NONE);
+  }
+
+  /**
+   * Gets the bucket for the key of the provided element.
+   *
+   * @throws  IllegalArgumentException  when the key is not a non-negative integer
+   */
+  private static int getBucket(ListElement element) throws IllegalArgumentException {
+    double key = element.key;
+    int bucket = (int) key;
+    if (bucket != key || bucket < 0 || bucket == Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("key is not a non-negative integer: " + key);
+    }
+    return bucket;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Gets the bucket containing the element or <code>null</code> when not in this queue.
+   */
+  private ListElementHeap getContainingBucket(ListElement element) {
+    if (element.queueIndex < 0) {
+      return null;
+    }
+    double key = element.key;
+    int bucket = (int) key;
+    if (bucket != key || bucket < 0 || bucket >= buckets.length) {
+      return null;
+    }
+    ListElementHeap heap = buckets[bucket];
+    return heap != null && heap.contains(element) ? heap : null;
+  }
+
+  /**
+   * {@inheritDoc}  Runs in O(1).
+   */
+  @Override
+  public boolean contains(ListElement element) {
+    return getContainingBucket(element) != null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws  IllegalArgumentException  when the key is not a non-negative integer
+   */
+  @Override
+  public void add(ListElement element) throws IllegalArgumentException {
+    int bucket = getBucket(element);
+    if (bucket >= buckets.length) {
+      buckets = Arrays.copyOf(buckets, Math.max(bucket + 1, (int) Math.min(Integer.MAX_VALUE, (long) buckets.length << 1)));
+    }
+    ListElementHeap heap = buckets[bucket];
+    if (heap == null) {
+      heap = buckets[bucket] = new ListElementHeap(tieComparator, DEFAULT_INITIAL_BUCKET_CAPACITY);
+    }
+    heap.add(element);
+    size++;
+    if (bucket < minBucket) {
+      minBucket = bucket;
+    }
+  }
+
+  /**
+   * Finds the lowest non-empty bucket.
+   */
+  private ListElementHeap findMinBucket() {
+    assert size > 0;
+    int bucket = minBucket;
+    ListElementHeap heap;
+    while ((heap = buckets[bucket]) == null || heap.isEmpty()) {
+      bucket++;
+    }
+    minBucket = bucket;
+    return heap;
+  }
+
+  @Override
+  public ListElement peek() {
+    if (size == 0) {
+      return null;
+    }
+    return findMinBucket().peek();
+  }
+
+  /**
+   * {@inheritDoc}  Runs in amortized O(1) plus the removal from the bucket.
+   */
+  @Override
+  public ListElement remove() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    ListElement result = findMinBucket().remove();
+    size--;
+    return result;
+  }
+
+  @Override
+  public boolean remove(ListElement element) {
+    ListElementHeap heap = getContainingBucket(element);
+    if (heap == null) {
+      return false;
+    }
+    heap.remove(element);
+    size--;
+    return true;
+  }
+
+  @Override
+  public void replace(ListElement existing, ListElement replacement) {
+    getBucket(replacement);
+    if (!remove(existing)) {
+      throw new IllegalArgumentException("existing element not in queue");
+    }
+    add(replacement);
+  }
+
+  @Override
+  public void clear() {
+    for (ListElementHeap heap : buckets) {
+      if (heap != null) {
+        heap.clear();
+      }
+    }
+    size = 0;
+    minBucket = Integer.MAX_VALUE;
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of {@link ListElement}, ordered by key then its {@link TieBreaking}, or by any provided comparator.
+ * The key is the heuristic unless {@linkplain ClusterOptimizer#getWeights() weighted}.
+ *
+ * <p>Each element keeps track of its own slot in the heap, so removing an arbitrary element or
+ * replacing it with a better path runs in O(log n).  This is in contrast to
+ * {@link java.util.PriorityQueue#remove(java.lang.Object)}, which must first search the queue in O(n).</p>
+ *
+ * <p>An element may only be in one heap at a time.</p>
+ *
+ * <p>This is not thread safe.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ListElementHeap implements OpenQueue {
+
+  private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+  private final Comparator<ListElement> comparator;
+  private ListElement[] heap;
+  private int size;
+
+  ListElementHeap(Comparator<ListElement> comparator, int initialCapacity) {
+    this.comparator = comparator;
+    heap = new ListElement[initialCapacity];
+  }
+
+  ListElementHeap(TieBreaking tieBreaking) {
+    this(tieBreaking::compare, DEFAULT_INITIAL_CAPACITY);
+  }
+
+  ListElementHeap() {
+    this(TieBreaking.NONE);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Checks if the element is currently in this heap.  Runs in O(1).
+   */
+  @Override
+  public boolean contains(ListElement element) {
+    int index = element.queueIndex;
+    return index >= 0 && index < size && heap[index] == element;
+  }
+
+  /**
+   * Adds an element to the heap.  Runs in O(log n).
+   */
+  @Override
+  public void add(ListElement element) {
+    assert element.queueIndex == -1 : "element already in a heap";
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size << 1);
+    }
+    siftUp(size++, element);
+  }
+
+  /**
+   * Gets the lowest element without removing it or <code>null</code> when empty.
+   */
+  @Override
+  public ListElement peek() {
+    return size == 0 ? null : heap[0];
+  }
+
+  /**
+   * Removes the lowest element.  Runs in O(log n).
+   *
+   * @throws  NoSuchElementException  when empty
+   */
+  @Override
+  public ListElement remove() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    ListElement result = heap[0];
+    removeAt(0);
+    return result;
+  }
+
+  /**
+   * Removes the provided element.  Runs in O(log n).
+   *
+   * @return  true when the element was found in this heap
+   */
+  @Override
+  public boolean remove(ListElement element) {
+    if (!contains(element)) {
+      return false;
+    }
+    removeAt(element.queueIndex);
+    return true;
+  }
+
+  /**
+   * Replaces an existing element with a new one, taking its slot and then restoring the heap order.
+   * This is the decrease-key operation used when a shorter path is found to an open configuration.
+   * Runs in O(log n).
+   */
+  @Override
+  public void replace(ListElement existing, ListElement replacement) {
+    if (!contains(existing)) {
+      throw new IllegalArgumentException("existing element not in heap");
+    }
+    assert replacement.queueIndex == -1 : "replacement already in a heap";
+    int index = existing.queueIndex;
+    existing.queueIndex = -1;
+    heap[index] = replacement;
+    replacement.queueIndex = index;
+    update(replacement);
+  }
+
+  /**
+   * Restores the heap order after the ordering of an element has changed.  Runs in O(log n).
+   */
+  void update(ListElement element) {
+    if (!contains(element)) {
+      throw new IllegalArgumentException("element not in heap");
+    }
+    int index = element.queueIndex;
+    if (index > 0 && comparator.compare(element, heap[(index - 1) >>> 1]) < 0) {
+      siftUp(index, element);
+    } else {
+      siftDown(index, element);
+    }
+  }
+
+  /**
+   * Removes all elements.
+   */
+  @Override
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      heap[i].queueIndex = -1;
+      heap[i] = null;
+    }
+    size = 0;
+  }
+
+  private void removeAt(int index) {
+    ListElement removed = heap[index];
+    removed.queueIndex = -1;
+    int last = --size;
+    if (index == last) {
+      heap[last] = null;
+    } else {
+      ListElement moved = heap[last];
+      heap[last] = null;
+      heap[index] = moved;
+      moved.queueIndex = index;
+      update(moved);
+    }
+  }
+
+  private void siftUp(int index, ListElement element) {
+    while (index > 0) {
+      int parentIndex = (index - 1) >>> 1;
+      ListElement parent = heap[parentIndex];
+      if (comparator.compare(element, parent) >= 0) {
+        break;
+      }
+      heap[index] = parent;
+      parent.queueIndex = index;
+      index = parentIndex;
+    }
+    heap[index] = element;
+    element.queueIndex = index;
+  }
+
+  private void siftDown(int index, ListElement element) {
+    int half = size >>> 1;
+    while (index < half) {
+      int childIndex = (index << 1) + 1;
+      ListElement child = heap[childIndex];
+      int rightIndex = childIndex + 1;
+      if (rightIndex < size && comparator.compare(heap[rightIndex], child) < 0) {
+        childIndex = rightIndex;
+        child = heap[rightIndex];
+      }
+      if (comparator.compare(element, child) <= 0) {
+        break;
+      }
+      heap[index] = child;
+      child.queueIndex = index;
+      index = childIndex;
+    }
+    heap[index] = element;
+    element.queueIndex = index;
+  }
+}
@@ -0,0 +1,343 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A local search, walking from one configuration to one of its children within a fixed budget of iterations and
+ * time, and keeping the best configuration found.  This only remembers the configurations along the current walk,
+ * and is suited to rebalancing a cluster already close to optimal, where even a short path is too expensive for
+ * the other searches to prove shortest.
+ *
+ * <p>Configurations are scored by the heuristic with no moves made, so the heuristic alone decides which are better,
+ * except that an optimal configuration is better than any other.  The walk stops once an optimal configuration
+ * is found.</p>
+ *
+ * <p>Whenever the walk returns to a configuration already on it, the moves since are dropped, so the path returned
+ * contains no moves that were later undone.  Configurations along the walk are compared by their 64-bit hash, so
+ * two different configurations with the same hash are considered the same, as with
+ * {@link ClosedListType#FINGERPRINT_64}.</p>
+ *
+ * @see  ClusterOptimizer#getLocalSearchClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.LocalSearchStrategy, long, long)
+ *
+ * @author  AO Industries, Inc.
+ */
+final class LocalSearch {
+
+  /**
+   * The number of random moves from the starting configuration used to choose the initial temperature.
+   */
+  private static final int TEMPERATURE_SAMPLES = 100;
+
+  private final ClusterOptimizer optimizer;
+  private final LocalSearchStrategy strategy;
+  private final long maxIterations;
+  private final long maxMillis;
+  private final Random random;
+
+  private final HeuristicFunction heuristicFunction;
+  private final Dom0EvaluationCache dom0EvaluationCache;
+  private final boolean allowPathThroughCritical;
+
+  // The moves of the walk, along with the hash of each configuration and its index along the walk
+  private final List<Transition> path = new ArrayList<>();
+  private final List<Long> pathHashes = new ArrayList<>();
+  private final Map<Long, Integer> pathIndexes = new HashMap<>();
+
+  // The end of the walk
+  private ClusterConfiguration current;
+  private Evaluation currentEvaluation;
+
+  // The best configuration found and the moves to it
+  private ClusterConfiguration best;
+  private Evaluation bestEvaluation;
+  private List<Transition> bestPath;
+
+  private long iteration;
+  private long startMillis;
+
+  // The child of the move returned by randomMove
+  private ClusterConfiguration randomChild;
+
+  LocalSearch(ClusterOptimizer optimizer, LocalSearchStrategy strategy, long maxIterations, long maxMillis, Random random) {
+    this.optimizer = optimizer;
+    this.strategy = strategy;
+    this.maxIterations = maxIterations;
+    this.maxMillis = maxMillis;
+    this.random = random;
+    this.heuristicFunction = optimizer.getHeuristicFunction();
+    this.dom0EvaluationCache = optimizer.newDom0EvaluationCache();
+    this.allowPathThroughCritical = optimizer.allowsPathThroughCritical();
+  }
+
+  /**
+   * Performs the search, returning the path to the best configuration found.  This is the starting configuration,
+   * with a path length of zero, when nothing better was found.
+   *
+   * @see  ClusterOptimizer#getLocalSearchClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.LocalSearchStrategy, long, long)
+   */
+  ListElement search() {
+    ClusterConfiguration start = optimizer.getClusterConfiguration();
+    current = start;
+    currentEvaluation = Evaluation.evaluate(heuristicFunction, dom0EvaluationCache, start, 0);
+    long hash = start.getHash64();
+    pathHashes.add(hash);
+    pathIndexes.put(hash, 0);
+    best = start;
+    bestEvaluation = currentEvaluation;
+    bestPath = Collections.emptyList();
+    startMillis = System.currentTimeMillis();
+    if (!start.getDomUConfigurations().isEmpty()) {
+      switch (strategy) {
+        case SIMULATED_ANNEALING:
+          anneal();
+          break;
+        case TABU:
+          tabu();
+          break;
+        default:
+          throw new AssertionError("Unexpected strategy: " + strategy);
+      }
+    }
+    return getListElement(start);
+  }
+
+  /**
+   * Is there budget remaining for another iteration, stopping once optimal.
+   */
+  private boolean hasBudget() {
+    return
+        !bestEvaluation.isOptimal()
+            && iteration < maxIterations
+            && (System.currentTimeMillis() - startMillis) < maxMillis;
+  }
+
+  /**
+   * Gets the fraction of the budget used, from <code>0</code> to <code>1</code>.
+   */
+  private double getProgress() {
+    return Math.min(
+        1,
+        Math.max(
+            (double) iteration / maxIterations,
+            (double) (System.currentTimeMillis() - startMillis) / maxMillis
+        )
+    );
+  }
+
+  /**
+   * Is the first evaluation better than the second.
+   */
+  private static boolean isBetter(Evaluation evaluation, Evaluation other) {
+    boolean optimal = evaluation.isOptimal();
+    if (optimal != other.isOptimal()) {
+      return optimal;
+    }
+    return evaluation.heuristic < other.heuristic;
+  }
+
+  /**
+   * Don't allow any move from not having any critical to have at least one critical.
+   */
+  private boolean isAllowed(Evaluation childEvaluation) {
+    return allowPathThroughCritical || currentEvaluation.hasCritical() || !childEvaluation.hasCritical();
+  }
+
+  /**
+   * Chooses a move of a random DomU, uniformly among the moves of that DomU, only constructing the child chosen.
+   *
+   * @return  the move, with its child in {@link #randomChild}, or <code>null</code> when the DomU may not be moved
+   */
+  private Transition randomMove() {
+    SuccessorIterator successors = optimizer.getSuccessors(current, random.nextInt(current.getDomUConfigurations().size()));
+    Transition chosen = null;
+    int count = 0;
+    while (successors.hasNext()) {
+      Transition transition = successors.next();
+      if (random.nextInt(++count) == 0) {
+        chosen = transition;
+        randomChild = successors.getChild();
+      }
+    }
+    return chosen;
+  }
+
+  /**
+   * Makes a move, dropping the moves since when it returns to a configuration already on the walk.
+   */
+  private void move(Transition transition, ClusterConfiguration child, Evaluation childEvaluation) {
+    long hash = child.getHash64();
+    Integer index = pathIndexes.get(hash);
+    if (index != null) {
+      for (int i = pathHashes.size() - 1; i > index; i--) {
+        pathIndexes.remove(pathHashes.remove(i));
+        path.remove(i - 1);
+      }
+    } else {
+      path.add(transition);
+      pathHashes.add(hash);
+      pathIndexes.put(hash, path.size());
+    }
+    current = child;
+    currentEvaluation = childEvaluation;
+    if (isBetter(childEvaluation, bestEvaluation)) {
+      best = child;
+      bestEvaluation = childEvaluation;
+      bestPath = new ArrayList<>(path);
+    }
+  }
+
+  /**
+   * Chooses the initial temperature where the average change in heuristic of a random move from the starting
+   * configuration is accepted half of the time.
+   */
+  private double getInitialTemperature() {
+    double sum = 0;
+    int count = 0;
+    for (int i = 0; i < TEMPERATURE_SAMPLES; i++) {
+      Transition transition = randomMove();
+      if (transition != null) {
+        Evaluation childEvaluation = currentEvaluation.evaluateChild(heuristicFunction, dom0EvaluationCache, transition, randomChild, 0);
+        double delta = Math.abs(childEvaluation.heuristic - currentEvaluation.heuristic);
+        if (delta > 0) {
+          sum += delta;
+          count++;
+        }
+      }
+    }
+    return count == 0 ? 1 : (sum / count / Math.log(2));
+  }
+
+  /**
+   * @see  LocalSearchStrategy#SIMULATED_ANNEALING
+   */
+  private void anneal() {
+    if (!hasBudget()) {
+      return;
+    }
+    double initialTemperature = getInitialTemperature();
+    while (hasBudget()) {
+      iteration++;
+      Transition transition = randomMove();
+      if (transition == null) {
+        continue;
+      }
+      ClusterConfiguration child = randomChild;
+      Evaluation childEvaluation = currentEvaluation.evaluateChild(heuristicFunction, dom0EvaluationCache, transition, child, 0);
+      if (!isAllowed(childEvaluation)) {
+        continue;
+      }
+      double delta = childEvaluation.heuristic - currentEvaluation.heuristic;
+      if (delta > 0) {
+        double temperature = initialTemperature * (1 - getProgress());
+        if (!(temperature > 0) || random.nextDouble() >= Math.exp(-delta / temperature)) {
+          continue;
+        }
+      }
+      move(transition, child, childEvaluation);
+    }
+  }
+
+  /**
+   * @see  LocalSearchStrategy#TABU
+   */
+  private void tabu() {
+    int domUCount = current.getCluster().getDomUCount();
+    long tenure = Math.max(1, Math.round(Math.sqrt(domUCount)));
+    // The last iteration each DomU is tabu, by ordinal
+    long[] tabuUntil = new long[domUCount];
+    while (hasBudget()) {
+      iteration++;
+      // The best move that is not tabu, or that finds a new best
+      Transition allowedTransition = null;
+      ClusterConfiguration allowedChild = null;
+      Evaluation allowedEvaluation = null;
+      // The best move, used when all moves are tabu
+      Transition anyTransition = null;
+      ClusterConfiguration anyChild = null;
+      Evaluation anyEvaluation = null;
+      SuccessorIterator successors = optimizer.getSuccessors(current);
+      while (successors.hasNext()) {
+        Transition transition = successors.next();
+        ClusterConfiguration child = successors.getChild();
+        Evaluation childEvaluation = currentEvaluation.evaluateChild(heuristicFunction, dom0EvaluationCache, transition, child, 0);
+        if (!isAllowed(childEvaluation)) {
+          continue;
+        }
+        if (
+            (allowedEvaluation == null || isBetter(childEvaluation, allowedEvaluation))
+                && (
+                  tabuUntil[transition.getDomU().getOrdinal()] < iteration
+                      || isBetter(childEvaluation, bestEvaluation)
+                )
+        ) {
+          allowedTransition = transition;
+          allowedChild = child;
+          allowedEvaluation = childEvaluation;
+        }
+        if (anyEvaluation == null || isBetter(childEvaluation, anyEvaluation)) {
+          anyTransition = transition;
+          anyChild = child;
+          anyEvaluation = childEvaluation;
+        }
+      }
+      if (allowedTransition != null) {
+        tabuUntil[allowedTransition.getDomU().getOrdinal()] = iteration + tenure;
+        move(allowedTransition, allowedChild, allowedEvaluation);
+      } else if (anyTransition != null) {
+        tabuUntil[anyTransition.getDomU().getOrdinal()] = iteration + tenure;
+        move(anyTransition, anyChild, anyEvaluation);
+      } else {
+        // No moves possible
+        break;
+      }
+    }
+  }
+
+  /**
+   * Builds the path to the best configuration by replaying its moves from the starting configuration.  The
+   * configurations along the path are released and reconstructed on demand by
+   * {@link ListElement#getClusterConfiguration()}.
+   */
+  private ListElement getListElement(ClusterConfiguration start) {
+    Evaluation evaluation = Evaluation.evaluate(heuristicFunction, dom0EvaluationCache, start, 0);
+    ListElement element = new ListElement(null, null, start, evaluation.heuristic);
+    ClusterConfiguration clusterConfiguration = start;
+    for (Transition transition : bestPath) {
+      clusterConfiguration = transition.apply(clusterConfiguration);
+      evaluation = evaluation.evaluateChild(heuristicFunction, dom0EvaluationCache, transition, clusterConfiguration, element.pathLen + 1);
+      element.releaseClusterConfiguration();
+      element = new ListElement(element, transition, clusterConfiguration, evaluation.heuristic);
+    }
+    assert clusterConfiguration.equals(best) : "Path does not reach the best configuration";
+    return element;
+  }
+}
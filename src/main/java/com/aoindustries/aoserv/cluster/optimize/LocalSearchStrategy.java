@@ -0,0 +1,49 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+/**
+ * The ways a local search chooses its next move.
+ *
+ * @see  ClusterOptimizer#getLocalSearchClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.LocalSearchStrategy, long, long)
+ *
+ * @author  AO Industries, Inc.
+ */
+public enum LocalSearchStrategy {
+
+  /**
+   * Tries one random move per iteration, always accepting a move that does not increase the heuristic and accepting
+   * a move that increases it by <code>d</code> with probability <code>e<sup>-d/T</sup></code>.  The temperature
+   * <code>T</code> starts where an average increase is accepted half of the time, and cools linearly to zero by the
+   * end of the iteration or time budget, whichever is nearer.
+   */
+  SIMULATED_ANNEALING,
+
+  /**
+   * Tries every move per iteration, making the one with the lowest heuristic even when it increases the heuristic.
+   * The DomU moved may not be moved again for the following iterations, about the square root of the number of
+   * DomUs, unless the move would find a lower heuristic than any yet found.
+   */
+  TABU
+}
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,8 +23,10 @@
 
 package com.aoindustries.aoserv.cluster.optimize;
 
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
 import com.aoindustries.aoserv.cluster.Dom0;
 import com.aoindustries.aoserv.cluster.DomU;
+import java.util.List;
 
 /**
  * A swap between primary and secondary.
@@ -47,6 +49,7 @@ public class MigrateTransition extends Transition {
     this.oldSecondaryDom0 = oldSecondaryDom0;
   }
 
+  @Override
   public DomU getDomU() {
     return domU;
   }
@@ -59,6 +62,19 @@ public class MigrateTransition extends Transition {
     return oldSecondaryDom0;
   }
 
+  /**
+   * Both the old primary and old secondary Dom0s are affected.
+   */
+  @Override
+  public List<Dom0> getAffectedDom0s() {
+    return List.of(oldPrimaryDom0, oldSecondaryDom0);
+  }
+
+  @Override
+  ClusterConfiguration apply(ClusterConfiguration clusterConfiguration) {
+    return clusterConfiguration.liveMigrate(domU);
+  }
+
   @Override
   public String toString() {
     return "Migrate " + domU.getHostname() + " from " + oldPrimaryDom0.getHostname() + " to " + oldSecondaryDom0.getHostname();
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,8 +23,11 @@
 
 package com.aoindustries.aoserv.cluster.optimize;
 
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
 import com.aoindustries.aoserv.cluster.Dom0;
 import com.aoindustries.aoserv.cluster.DomU;
+import com.aoindustries.aoserv.cluster.SecondaryMappingStrategy;
+import java.util.List;
 
 /**
  * A swap between primary and secondary.
@@ -36,17 +39,28 @@ public class MoveSecondaryTransition extends Transition {
   private final DomU domU;
   private final Dom0 oldSecondaryDom0;
   private final Dom0 newSecondaryDom0;
+  private final SecondaryMappingStrategy secondaryMappingStrategy;
+  private final int mappingIndex;
 
+  /**
+   * @param  mappingIndex  the index of the resulting configuration within the results of
+   *                       {@link ClusterConfiguration#moveSecondary(com.aoindustries.aoserv.cluster.DomU, com.aoindustries.aoserv.cluster.Dom0, com.aoindustries.aoserv.cluster.SecondaryMappingStrategy)}
+   */
   MoveSecondaryTransition(
       DomU domU,
       Dom0 oldSecondaryDom0,
-      Dom0 newSecondaryDom0
+      Dom0 newSecondaryDom0,
+      SecondaryMappingStrategy secondaryMappingStrategy,
+      int mappingIndex
   ) {
     this.domU = domU;
     this.oldSecondaryDom0 = oldSecondaryDom0;
     this.newSecondaryDom0 = newSecondaryDom0;
+    this.secondaryMappingStrategy = secondaryMappingStrategy;
+    this.mappingIndex = mappingIndex;
   }
 
+  @Override
   public DomU getDomU() {
     return domU;
   }
@@ -59,6 +73,38 @@ public class MoveSecondaryTransition extends Transition {
     return newSecondaryDom0;
   }
 
+  /**
+   * Gets the strategy used to find the mappings onto the new secondary.
+   */
+  public SecondaryMappingStrategy getSecondaryMappingStrategy() {
+    return secondaryMappingStrategy;
+  }
+
+  /**
+   * Gets the index of the physical volume mapping selected from the possible mappings onto the new secondary.
+   */
+  public int getMappingIndex() {
+    return mappingIndex;
+  }
+
+  /**
+   * Both the old and new secondary Dom0s are affected.  The primary Dom0 is not affected, since the secondary
+   * RAM of the DomU is analyzed on the secondary.
+   */
+  @Override
+  public List<Dom0> getAffectedDom0s() {
+    return List.of(oldSecondaryDom0, newSecondaryDom0);
+  }
+
+  @Override
+  ClusterConfiguration apply(ClusterConfiguration clusterConfiguration) {
+    List<ClusterConfiguration> movedClusterConfigurations = clusterConfiguration.moveSecondary(domU, newSecondaryDom0, secondaryMappingStrategy);
+    if (mappingIndex >= movedClusterConfigurations.size()) {
+      throw new AssertionError("Mapping not found: " + this + ", mappingIndex = " + mappingIndex);
+    }
+    return movedClusterConfigurations.get(mappingIndex);
+  }
+
   @Override
   public String toString() {
     return "Move " + domU.getHostname() + " secondary from " + oldSecondaryDom0.getHostname() + " to " + newSecondaryDom0.getHostname();
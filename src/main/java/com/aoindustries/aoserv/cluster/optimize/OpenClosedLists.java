@@ -0,0 +1,291 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The open and closed lists of one best-first search.  The sequential search uses a single
+ * instance, while each worker of the parallel search owns the instance for its partition of
+ * the configurations.
+ *
+ * <p>This is not thread safe.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class OpenClosedLists {
+
+  private final HeuristicFunction heuristicFunction;
+  private final Dom0EvaluationCache dom0EvaluationCache;
+
+  private final OpenQueue openQueue;
+  private final Map<ClusterConfiguration, ListElement> openMap = new HashMap<>();
+  private final ClosedList closedList;
+
+  private long existingOpenCount;
+  private long existingClosedCount;
+  private long openQueueRemoveCount;
+
+  /**
+   * The sequence of the next element added to the open list.
+   */
+  private long nextSequence;
+
+  /**
+   * The weight applied to the heuristic in the keys of the open queue.
+   */
+  private double weight;
+
+  /**
+   * @param  dom0EvaluationCache  the optional cache of Dom0 evaluations
+   * @param  openQueue            the empty queue that orders the open list
+   * @param  weight               the initial weight applied to the heuristic
+   */
+  OpenClosedLists(
+      HeuristicFunction heuristicFunction,
+      Dom0EvaluationCache dom0EvaluationCache,
+      ClosedListType closedListType,
+      OpenQueue openQueue,
+      double weight
+  ) {
+    assert openQueue.isEmpty();
+    this.heuristicFunction = heuristicFunction;
+    this.dom0EvaluationCache = dom0EvaluationCache;
+    this.openQueue = openQueue;
+    this.closedList = ClosedList.newInstance(closedListType);
+    this.weight = weight;
+  }
+
+  boolean isOpenEmpty() {
+    return openQueue.isEmpty();
+  }
+
+  int getOpenSize() {
+    return openMap.size();
+  }
+
+  int getClosedSize() {
+    return closedList.size();
+  }
+
+  long getExistingOpenCount() {
+    return existingOpenCount;
+  }
+
+  long getExistingClosedCount() {
+    return existingClosedCount;
+  }
+
+  long getOpenQueueRemoveCount() {
+    return openQueueRemoveCount;
+  }
+
+  double getWeight() {
+    return weight;
+  }
+
+  /**
+   * Gets the key of an element in the open queue.  The heuristic includes <code>g</code>, so the weight is applied
+   * to only the remaining <code>h = heuristic - g</code>, giving <code>g + weight * h</code>.
+   */
+  private double getKey(ListElement element) {
+    double heuristic = element.heuristic;
+    if (weight == 1) {
+      return heuristic;
+    }
+    int g = element.pathLen;
+    return g + weight * (heuristic - g);
+  }
+
+  /**
+   * Changes the weight applied to the heuristic, re-ordering the open list.  The closed list is kept.
+   * Runs in O(n) when changed.
+   */
+  void setWeight(double weight) {
+    if (weight != this.weight) {
+      this.weight = weight;
+      openQueue.clear();
+      for (ListElement openListElement : openMap.values()) {
+        openListElement.key = getKey(openListElement);
+        openQueue.add(openListElement);
+      }
+    }
+  }
+
+  /**
+   * Gets the lowest heuristic, without any weight, of the open list or {@link Double#POSITIVE_INFINITY} when empty.
+   * Runs in O(n).
+   */
+  double getMinimumOpenHeuristic() {
+    double min = Double.POSITIVE_INFINITY;
+    for (ListElement openListElement : openMap.values()) {
+      double heuristic = openListElement.heuristic;
+      if (heuristic < min) {
+        min = heuristic;
+      }
+    }
+    return min;
+  }
+
+  /**
+   * Adds an element directly to the open list.
+   */
+  void addOpen(ListElement openListElement) {
+    assert !openMap.containsKey(openListElement.clusterConfiguration) : "already in openMap";
+    openListElement.sequence = nextSequence++;
+    openListElement.key = getKey(openListElement);
+    openQueue.add(openListElement);
+    openMap.put(openListElement.clusterConfiguration, openListElement);
+  }
+
+  /**
+   * Removes the best element from the open list.
+   */
+  ListElement removeOpen() {
+    assert openQueue.size() == openMap.size() : "openQueue and openMap have different sizes";
+    ListElement current = openQueue.remove();
+    openMap.remove(current.clusterConfiguration);
+    return current;
+  }
+
+  /**
+   * Puts an element on the closed list.  The configuration of the element may be released.
+   * Its evaluation is no longer needed and is released.
+   *
+   * @see  ClosedListType
+   */
+  void close(ListElement current) {
+    current.evaluation = null;
+    closedList.add(current);
+  }
+
+  /**
+   * Evaluates the initial configuration.
+   */
+  Evaluation evaluate(ClusterConfiguration clusterConfiguration) {
+    return Evaluation.evaluate(heuristicFunction, dom0EvaluationCache, clusterConfiguration, 0);
+  }
+
+  /**
+   * Evaluates a child of <code>parent</code>.
+   *
+   * @param  parentEvaluation  the evaluation of the parent, which may already be released from <code>parent</code>
+   */
+  Evaluation evaluate(ListElement parent, Evaluation parentEvaluation, Transition transition, ClusterConfiguration child) {
+    // + 1 to match size of newTransitions below
+    return parentEvaluation.evaluateChild(heuristicFunction, dom0EvaluationCache, transition, child, parent.pathLen + 1);
+  }
+
+  /**
+   * Offers a child of <code>parent</code> to the open list.  The child is added when not already open or closed,
+   * or when it replaces an open or closed configuration that was reached by a longer path.
+   *
+   * @return  <code>true</code> when the open list grew by one element or <code>false</code> when one element was
+   *          discarded, either the child itself or the longer path it replaced
+   *
+   * @param  parentEvaluation  the evaluation of the parent, which may already be released from <code>parent</code>
+   * @param  childEvaluation   the evaluation of the child or <code>null</code> to evaluate only when added
+   */
+  boolean offer(ListElement parent, Evaluation parentEvaluation, Transition transition, ClusterConfiguration child, Evaluation childEvaluation) {
+    // + 1 to match size of newTransitions below
+    int childPathLen = parent.pathLen + 1;
+    ListElement existingOpen = openMap.get(child);
+    if (existingOpen != null) {
+      existingOpenCount++;
+      // if the child was reached by a shorter path
+      if (childPathLen < existingOpen.pathLen) {
+        // then give the state of open the shorter path
+
+        // replacing in place because a short path affects the heuristic and therefore
+        // the position within the queue.
+        ListElement openListElement = new ListElement(
+            parent,
+            transition,
+            child,
+            childEvaluation != null ? childEvaluation : evaluate(parent, parentEvaluation, transition, child)
+        );
+        openListElement.sequence = nextSequence++;
+        openListElement.key = getKey(openListElement);
+        openQueue.replace(existingOpen, openListElement); // This runs in O(log n) or better
+        openQueueRemoveCount++;
+        openMap.put(child, openListElement);
+      }
+      return false;
+    }
+    int existingClosedPathLen = closedList.getPathLen(child);
+    if (existingClosedPathLen != -1) {
+      existingClosedCount++;
+      // If the child was reached by a shorter path then
+      if (childPathLen < existingClosedPathLen) {
+        // remove the state from closed
+        closedList.remove(child);
+        // add the child to open
+        addOpen(new ListElement(
+            parent,
+            transition,
+            child,
+            childEvaluation != null ? childEvaluation : evaluate(parent, parentEvaluation, transition, child)
+        ));
+        return true;
+      }
+      return false;
+    }
+    // the child is not on open or closed
+    // add the child to open
+    addOpen(new ListElement(
+        parent,
+        transition,
+        child,
+        childEvaluation != null ? childEvaluation : evaluate(parent, parentEvaluation, transition, child)
+    ));
+    return true;
+  }
+
+  /**
+   * Trims anything out of open/closed that has transitions.length &gt;= the shortest path found.
+   *
+   * @return  the number of elements removed from the open list
+   */
+  int trim(int shortestPathLen) {
+    int removed = 0;
+    // openQueue and openMap
+    Iterator<ListElement> openIter = openMap.values().iterator();
+    while (openIter.hasNext()) {
+      ListElement listElement = openIter.next();
+      if (listElement.pathLen >= shortestPathLen) {
+        openIter.remove();
+        if (!openQueue.remove(listElement)) {
+          throw new AssertionError("listElement not found in openQueue");
+        }
+        removed++;
+      }
+    }
+    // closedList
+    closedList.trim(shortestPathLen);
+    return removed;
+  }
+}
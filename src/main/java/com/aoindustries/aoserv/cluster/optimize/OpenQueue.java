@@ -0,0 +1,106 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The priority queue of the open list, lowest key first, then ordered by its {@link TieBreaking}.
+ * The key is the {@link ListElement#getHeuristic() heuristic} unless {@linkplain ClusterOptimizer#getWeights() weighted}.
+ *
+ * <p>Each element keeps track of its own position in the queue, so removing an arbitrary element or
+ * replacing it with a better path does not search the queue.</p>
+ *
+ * <p>An element may only be in one queue at a time.</p>
+ *
+ * <p>This is not thread safe.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+interface OpenQueue {
+
+  /**
+   * Creates the queue best suited to the provided heuristic.  The keys are integral when the heuristic
+   * is integral and every weight is an integer.
+   *
+   * @param  weights  the weights applied to the heuristic over the search
+   *
+   * @see  IntegralHeuristicFunction
+   */
+  static OpenQueue newInstance(HeuristicFunction heuristicFunction, TieBreaking tieBreaking, double... weights) {
+    boolean integral = heuristicFunction instanceof IntegralHeuristicFunction;
+    for (int i = 0; integral && i < weights.length; i++) {
+      double weight = weights[i];
+      integral = weight == Math.rint(weight);
+    }
+    if (integral) {
+      return new ListElementBucketQueue(tieBreaking);
+    } else {
+      return new ListElementHeap(tieBreaking);
+    }
+  }
+
+  int size();
+
+  boolean isEmpty();
+
+  /**
+   * Checks if the element is currently in this queue.
+   */
+  boolean contains(ListElement element);
+
+  /**
+   * Adds an element to the queue.
+   */
+  void add(ListElement element);
+
+  /**
+   * Gets the lowest element without removing it or <code>null</code> when empty.
+   */
+  ListElement peek();
+
+  /**
+   * Removes the lowest element.
+   *
+   * @throws  NoSuchElementException  when empty
+   */
+  ListElement remove();
+
+  /**
+   * Removes the provided element.
+   *
+   * @return  true when the element was found in this queue
+   */
+  boolean remove(ListElement element);
+
+  /**
+   * Replaces an existing element with a new one.
+   * This is the decrease-key operation used when a shorter path is found to an open configuration.
+   */
+  void replace(ListElement existing, ListElement replacement);
+
+  /**
+   * Removes all elements.
+   */
+  void clear();
+}
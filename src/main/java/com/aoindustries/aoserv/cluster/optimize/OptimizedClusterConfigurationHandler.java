@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2009-2011, 2020, 2022  AO Industries, Inc.
+ * Copyright (C) 2009-2011, 2020, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -32,4 +32,20 @@ public interface OptimizedClusterConfigurationHandler {
    * Handles one result.  Returns true if the optimization should continue.
    */
   boolean handleOptimizedClusterConfiguration(ListElement path, long loopCount);
+
+  /**
+   * Handles one result of a {@linkplain ClusterOptimizer#getWeights() weighted} search, where each result is
+   * shorter than the previous.  Returns true if the optimization should continue.
+   *
+   * <p>This default implementation ignores the weight and bound.</p>
+   *
+   * @param  weight              the weight applied to the heuristic when the result was found
+   * @param  suboptimalityBound  the factor by which the result may be longer than the shortest path, which is only a
+   *                             true bound when the heuristic never overestimates the number of moves.
+   *                             This is <code>1</code> when the result is known to be the shortest
+   *                             or <code>NaN</code> when unknown.
+   */
+  default boolean handleOptimizedClusterConfiguration(ListElement path, long loopCount, double weight, double suboptimalityBound) {
+    return handleOptimizedClusterConfiguration(path, loopCount);
+  }
 }
@@ -0,0 +1,155 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The limits on one search by
+ * {@link ClusterOptimizer#getOptimizedClusterConfiguration(com.aoindustries.aoserv.cluster.optimize.OptimizedClusterConfigurationHandler, com.aoindustries.aoserv.cluster.optimize.SearchBudget)}.
+ * The limits are checked before each configuration is expanded, and the search stops once any limit is exceeded.
+ * Each limit is {@link Long#MAX_VALUE} when unlimited.
+ *
+ * <p>The heap in use is measured through {@link Runtime}, including garbage not yet collected, so it is only
+ * approximate and may stop a search that a garbage collection would have allowed to continue.  It should be
+ * set well below the maximum heap so the search stops before running out of memory.</p>
+ *
+ * @see  BudgetLimit
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class SearchBudget {
+
+  /**
+   * A budget without limits, which searches until completion.
+   */
+  public static final SearchBudget UNLIMITED = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, null);
+
+  private final long maxMillis;
+  private final long maxExpanded;
+  private final long maxListSize;
+  private final long maxHeapBytes;
+  private final CancellationToken cancellationToken;
+
+  /**
+   * Creates a new budget.
+   *
+   * @param  maxMillis          the longest time the search may run, in milliseconds
+   * @param  maxExpanded        the number of configurations that may be expanded
+   * @param  maxListSize        the number of configurations that may be in the open and closed lists together
+   * @param  maxHeapBytes       the approximate heap that may be in use
+   * @param  cancellationToken  the optional token to stop the search from another thread, may be <code>null</code>
+   */
+  public SearchBudget(long maxMillis, long maxExpanded, long maxListSize, long maxHeapBytes, CancellationToken cancellationToken) {
+    if (maxMillis < 0) {
+      throw new IllegalArgumentException("maxMillis < 0: " + maxMillis);
+    }
+    if (maxExpanded < 0) {
+      throw new IllegalArgumentException("maxExpanded < 0: " + maxExpanded);
+    }
+    if (maxListSize < 0) {
+      throw new IllegalArgumentException("maxListSize < 0: " + maxListSize);
+    }
+    if (maxHeapBytes < 0) {
+      throw new IllegalArgumentException("maxHeapBytes < 0: " + maxHeapBytes);
+    }
+    this.maxMillis = maxMillis;
+    this.maxExpanded = maxExpanded;
+    this.maxListSize = maxListSize;
+    this.maxHeapBytes = maxHeapBytes;
+    this.cancellationToken = cancellationToken;
+  }
+
+  /**
+   * Creates a new budget limited only by the given token.
+   */
+  public SearchBudget(CancellationToken cancellationToken) {
+    this(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, cancellationToken);
+  }
+
+  public long getMaxMillis() {
+    return maxMillis;
+  }
+
+  public long getMaxExpanded() {
+    return maxExpanded;
+  }
+
+  public long getMaxListSize() {
+    return maxListSize;
+  }
+
+  public long getMaxHeapBytes() {
+    return maxHeapBytes;
+  }
+
+  /**
+   * Gets the token to stop the search, or <code>null</code> when none.
+   */
+  public CancellationToken getCancellationToken() {
+    return cancellationToken;
+  }
+
+  /**
+   * Gets the first limit exceeded before expanding another configuration, or <code>null</code> when within budget.
+   *
+   * @param  startNanos   the {@link System#nanoTime()} the search started
+   * @param  expanded     the number of configurations already expanded
+   * @param  listSize     the number of configurations in the open and closed lists
+   */
+  BudgetLimit getExceededLimit(long startNanos, long expanded, long listSize) {
+    if (cancellationToken != null && cancellationToken.isCancelled()) {
+      return BudgetLimit.CANCELLED;
+    }
+    if (expanded >= maxExpanded) {
+      return BudgetLimit.EXPANDED;
+    }
+    if (listSize > maxListSize) {
+      return BudgetLimit.LIST_SIZE;
+    }
+    if (
+        maxMillis != Long.MAX_VALUE
+            && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) >= maxMillis
+    ) {
+      return BudgetLimit.TIME;
+    }
+    if (maxHeapBytes != Long.MAX_VALUE) {
+      Runtime runtime = Runtime.getRuntime();
+      if ((runtime.totalMemory() - runtime.freeMemory()) > maxHeapBytes) {
+        return BudgetLimit.HEAP;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Is the first element a better partial result than the second, by lowest heuristic then shortest path.
+   */
+  static boolean isBetterPartial(ListElement element, ListElement other) {
+    return
+        other == null
+            || element.heuristic < other.heuristic
+            || (element.heuristic == other.heuristic && element.pathLen < other.pathLen);
+  }
+}
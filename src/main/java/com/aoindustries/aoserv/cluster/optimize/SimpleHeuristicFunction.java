@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,39 +23,30 @@
 
 package com.aoindustries.aoserv.cluster.optimize;
 
-import com.aoindustries.aoserv.cluster.ClusterConfiguration;
 import com.aoindustries.aoserv.cluster.analyze.AlertLevel;
-import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
-import com.aoindustries.aoserv.cluster.analyze.Result;
-import com.aoindustries.aoserv.cluster.analyze.ResultHandler;
+import com.aoindustries.aoserv.cluster.analyze.Check;
 
 /**
  * Simply counts the non-optimal nodes, adds <code>g</code> to prefer shorter paths.
  *
- * <p>This is not thread safe.</p>
+ * <p>This is thread safe.</p>
  *
  * @author  AO Industries, Inc.
  */
-public class SimpleHeuristicFunction implements HeuristicFunction, ResultHandler<Object> {
-
-  private int count;
+public class SimpleHeuristicFunction implements IncrementalHeuristicFunction, IntegralHeuristicFunction {
 
   @Override
-  public double getHeuristic(ClusterConfiguration clusterConfiguration, int g) {
-    AnalyzedClusterConfiguration analysis = new AnalyzedClusterConfiguration(clusterConfiguration);
-
-    count = g;
-
-    // Add each result
-    analysis.getAllResults(this, AlertLevel.LOW);
-
-    return count;
+  public double getResultHeuristic(Check check, AlertLevel alertLevel, double deviation) {
+    assert alertLevel.compareTo(AlertLevel.NONE) > 0 : "Should only get non-optimal results, got " + alertLevel;
+    return 1;
   }
 
   @Override
-  public boolean handleResult(Result<?> result) {
-    assert result.getAlertLevel().compareTo(AlertLevel.NONE) > 0 : "Should only get non-optimal results, got " + result.getAlertLevel();
-    count++;
-    return true;
+  public double getHeuristic(double[] dom0Heuristics, int g) {
+    double total = g;
+    for (double dom0Heuristic : dom0Heuristics) {
+      total += dom0Heuristic;
+    }
+    return total;
   }
 }
@@ -0,0 +1,264 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.Dom0;
+import com.aoindustries.aoserv.cluster.DomU;
+import com.aoindustries.aoserv.cluster.DomUConfiguration;
+import com.aoindustries.aoserv.cluster.MoveSecondaryMetrics;
+import com.aoindustries.aoserv.cluster.SecondaryMappingStrategy;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Iterates the transitions from a configuration in the same order as
+ * {@link ClusterOptimizer#generateChildren(com.aoindustries.aoserv.cluster.ClusterConfiguration, java.util.List, java.util.List, boolean)}
+ * without randomization, but only constructs the resulting configuration of a transition when
+ * {@link #getChild()} is called.  Pruning checks that only need the transition may be performed before
+ * the child is allocated, and the iteration may be stopped at any point.
+ *
+ * <p>The mappings of a secondary onto a Dom0 are found when the first transition onto that Dom0 is reached,
+ * but each of their configurations is still only constructed when requested.</p>
+ *
+ * <p>When the children are randomized, they must all be generated first, and this iterates the resulting lists.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class SuccessorIterator implements Iterator<Transition> {
+
+  private final ClusterConfiguration clusterConfiguration;
+  private final SecondaryMappingStrategy secondaryMappingStrategy;
+  private final MoveSecondaryMetrics moveSecondaryMetrics;
+  private final List<DomUConfiguration> domUConfigurations;
+  private final LongAdder childrenCount;
+  private final int endDomUConfigurationsIndex;
+
+  // The already generated children, when iterating lists
+  private final List<Transition> childTransitions;
+  private final List<ClusterConfiguration> children;
+  private int childrenIndex;
+
+  // The position of the iteration
+  private int domUConfigurationsIndex;
+  private DomU domU;
+  private Dom0 primaryDom0;
+  private Dom0 secondaryDom0;
+  private Iterator<Map.Entry<String, Dom0>> dom0Iter;
+  private Dom0 newSecondaryDom0;
+  private List<ClusterConfiguration> movedClusterConfigurations;
+  private int mappingIndex;
+
+  // The transition found by hasNext
+  private Transition nextTransition;
+  private List<ClusterConfiguration> nextMovedClusterConfigurations;
+  private int nextMappingIndex;
+
+  // The transition returned by next
+  private Transition transition;
+  private List<ClusterConfiguration> transitionMovedClusterConfigurations;
+  private int transitionMappingIndex;
+  private ClusterConfiguration child;
+
+  /**
+   * Iterates the transitions from the given configuration.
+   *
+   * @param  childrenCount  incremented for each transition, may be <code>null</code>
+   */
+  SuccessorIterator(
+      ClusterConfiguration clusterConfiguration,
+      SecondaryMappingStrategy secondaryMappingStrategy,
+      MoveSecondaryMetrics moveSecondaryMetrics,
+      LongAdder childrenCount
+  ) {
+    this(clusterConfiguration, secondaryMappingStrategy, moveSecondaryMetrics, childrenCount, 0, clusterConfiguration.getDomUConfigurations().size());
+  }
+
+  /**
+   * Iterates only the transitions of one DomU from the given configuration.
+   *
+   * @param  domUConfigurationsIndex  the index of the DomU in {@link ClusterConfiguration#getDomUConfigurations()}
+   * @param  childrenCount            incremented for each transition, may be <code>null</code>
+   */
+  SuccessorIterator(
+      ClusterConfiguration clusterConfiguration,
+      SecondaryMappingStrategy secondaryMappingStrategy,
+      MoveSecondaryMetrics moveSecondaryMetrics,
+      LongAdder childrenCount,
+      int domUConfigurationsIndex
+  ) {
+    this(clusterConfiguration, secondaryMappingStrategy, moveSecondaryMetrics, childrenCount, domUConfigurationsIndex, domUConfigurationsIndex + 1);
+  }
+
+  private SuccessorIterator(
+      ClusterConfiguration clusterConfiguration,
+      SecondaryMappingStrategy secondaryMappingStrategy,
+      MoveSecondaryMetrics moveSecondaryMetrics,
+      LongAdder childrenCount,
+      int startDomUConfigurationsIndex,
+      int endDomUConfigurationsIndex
+  ) {
+    this.clusterConfiguration = clusterConfiguration;
+    this.secondaryMappingStrategy = secondaryMappingStrategy;
+    this.moveSecondaryMetrics = moveSecondaryMetrics;
+    this.domUConfigurations = clusterConfiguration.getDomUConfigurations();
+    this.childrenCount = childrenCount;
+    this.endDomUConfigurationsIndex = endDomUConfigurationsIndex;
+    this.childTransitions = null;
+    this.children = null;
+    this.domUConfigurationsIndex = startDomUConfigurationsIndex - 1;
+  }
+
+  /**
+   * Iterates already generated children.
+   */
+  SuccessorIterator(List<Transition> childTransitions, List<ClusterConfiguration> children) {
+    assert childTransitions.size() == children.size();
+    this.clusterConfiguration = null;
+    this.secondaryMappingStrategy = null;
+    this.moveSecondaryMetrics = null;
+    this.domUConfigurations = null;
+    this.childrenCount = null;
+    this.endDomUConfigurationsIndex = 0;
+    this.childTransitions = childTransitions;
+    this.children = children;
+  }
+
+  /**
+   * Finds the next transition, setting the fields for {@link #nextTransition}.
+   */
+  private Transition findNext() {
+    while (true) {
+      // Continue through the mappings onto the current Dom0
+      if (movedClusterConfigurations != null) {
+        if (mappingIndex < movedClusterConfigurations.size()) {
+          nextMovedClusterConfigurations = movedClusterConfigurations;
+          nextMappingIndex = mappingIndex;
+          return new MoveSecondaryTransition(domU, secondaryDom0, newSecondaryDom0, secondaryMappingStrategy, mappingIndex++);
+        }
+        movedClusterConfigurations = null;
+      }
+      // Continue through the Dom0s for the current DomU
+      if (dom0Iter != null) {
+        while (dom0Iter.hasNext()) {
+          Map.Entry<String, Dom0> entry = dom0Iter.next();
+          String dom0Hostname = entry.getKey();
+          Dom0 dom0 = entry.getValue();
+          // Can't move to current primary or secondary
+          if (
+              !dom0.equals(primaryDom0)
+                  && !dom0.equals(secondaryDom0)
+                  // TODO: Don't hard-code these
+                  && !"gw1.fc.aoindustries.com".equals(dom0Hostname)
+                  && !"gw2.fc.aoindustries.com".equals(dom0Hostname)
+          ) {
+            newSecondaryDom0 = dom0;
+            movedClusterConfigurations = clusterConfiguration.moveSecondary(domU, dom0, secondaryMappingStrategy, moveSecondaryMetrics);
+            mappingIndex = 0;
+            break;
+          }
+        }
+        if (movedClusterConfigurations != null) {
+          continue;
+        }
+        dom0Iter = null;
+      }
+      // Continue to the next DomU
+      if (++domUConfigurationsIndex >= endDomUConfigurationsIndex) {
+        return null;
+      }
+      DomUConfiguration domUConfiguration = domUConfigurations.get(domUConfigurationsIndex);
+      domU = domUConfiguration.getDomU();
+      if (!domU.isSecondaryDom0Locked()) {
+        primaryDom0 = domUConfiguration.getPrimaryDom0();
+        secondaryDom0 = domUConfiguration.getSecondaryDom0();
+        dom0Iter = clusterConfiguration.getCluster().getDom0s().entrySet().iterator();
+        if (
+            !domU.isPrimaryDom0Locked()
+                // TODO: Don't hard-code these
+                && !"gw1.fc.aoindustries.com".equals(secondaryDom0.getHostname())
+                && !"gw2.fc.aoindustries.com".equals(secondaryDom0.getHostname())
+        ) {
+          // Can't swap if either primary or secondary is locked
+          nextMovedClusterConfigurations = null;
+          return new MigrateTransition(domU, primaryDom0, secondaryDom0);
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (childTransitions != null) {
+      return childrenIndex < childTransitions.size();
+    }
+    if (nextTransition == null) {
+      nextTransition = findNext();
+    }
+    return nextTransition != null;
+  }
+
+  @Override
+  public Transition next() throws NoSuchElementException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    if (childTransitions != null) {
+      child = children.get(childrenIndex);
+      return transition = childTransitions.get(childrenIndex++);
+    }
+    if (childrenCount != null) {
+      childrenCount.increment();
+    }
+    transition = nextTransition;
+    transitionMovedClusterConfigurations = nextMovedClusterConfigurations;
+    transitionMappingIndex = nextMappingIndex;
+    child = null;
+    nextTransition = null;
+    return transition;
+  }
+
+  /**
+   * Gets the configuration resulting from the transition most recently returned by {@link #next()},
+   * constructing it on the first call.
+   *
+   * @throws  IllegalStateException  if {@link #next()} has not been called
+   */
+  ClusterConfiguration getChild() throws IllegalStateException {
+    if (child == null) {
+      if (transition == null) {
+        throw new IllegalStateException("next() not called");
+      }
+      if (transitionMovedClusterConfigurations == null) {
+        child = transition.apply(clusterConfiguration);
+      } else {
+        child = transitionMovedClusterConfigurations.get(transitionMappingIndex);
+      }
+    }
+    return child;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+/**
+ * The order of elements of the open list that have the same heuristic.
+ *
+ * <p>The integral heuristics produce large plateaus of equal heuristic, so without tie-breaking the order the
+ * plateau is explored in depends on the internal layout of the queue, and the number of configurations
+ * explored before the first optimal configuration varies widely.  Preferring the deepest element crosses a
+ * plateau depth-first, and the insertion sequence makes the single-threaded search reproducible.</p>
+ *
+ * <p>The parallel search orders each worker's open list independently, so is not reproducible regardless.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public enum TieBreaking {
+
+  /**
+   * Compares the heuristic only, leaving ties in any order.
+   */
+  NONE {
+    @Override
+    int compareTies(ListElement e1, ListElement e2) {
+      return 0;
+    }
+  },
+
+  /**
+   * Prefers the longest path, then the element added to the open list first.
+   */
+  DEEPEST_FIFO {
+    @Override
+    int compareTies(ListElement e1, ListElement e2) {
+      int diff = Integer.compare(e2.pathLen, e1.pathLen);
+      if (diff != 0) {
+        return diff;
+      }
+      return Long.compare(e1.sequence, e2.sequence);
+    }
+  },
+
+  /**
+   * Prefers the longest path, then the element added to the open list last.
+   */
+  DEEPEST_LIFO {
+    @Override
+    int compareTies(ListElement e1, ListElement e2) {
+      int diff = Integer.compare(e2.pathLen, e1.pathLen);
+      if (diff != 0) {
+        return diff;
+      }
+      return Long.compare(e2.sequence, e1.sequence);
+    }
+  };
+
+  /**
+   * Compares two elements of the same key.
+   */
+  abstract int compareTies(ListElement e1, ListElement e2);
+
+  /**
+   * Compares two elements by key, which is the heuristic unless weighted, then breaking ties.
+   */
+  int compare(ListElement e1, ListElement e2) {
+    double k1 = e1.key;
+    double k2 = e2.key;
+    if (k1 < k2) {
+      return -1;
+    }
+    if (k2 < k1) {
+      return 1;
+    }
+    return compareTies(e1, e2);
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * aoserv-cluster - Cluster optimizer for the AOServ Platform.
- * Copyright (C) 2008-2011, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2011, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,6 +23,11 @@
 
 package com.aoindustries.aoserv.cluster.optimize;
 
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.Dom0;
+import com.aoindustries.aoserv.cluster.DomU;
+import java.util.List;
+
 /**
  * A transition is one of the possible conversions of clusterConfiguration state.
  * Other transitions could include:
@@ -41,4 +46,22 @@ public abstract class Transition {
   Transition() {
     // Do nothing
   }
+
+  /**
+   * Applies this transition to the configuration it was generated from, reconstructing the resulting configuration.
+   */
+  abstract ClusterConfiguration apply(ClusterConfiguration clusterConfiguration);
+
+  /**
+   * Gets the DomU that is moved by this transition.
+   */
+  public abstract DomU getDomU();
+
+  /**
+   * Gets the Dom0s whose analysis may be changed by this transition.  The analysis of all other Dom0s is
+   * the same before and after the transition.
+   *
+   * @see  IncrementalHeuristicFunction
+   */
+  public abstract List<Dom0> getAffectedDom0s();
 }
@@ -0,0 +1,119 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded table of the configurations reached during one iteration of {@link IterativeDeepeningSearch}, with the
+ * shortest path length each was reached by.  A configuration reached again by a path no shorter has already been, or
+ * is being, searched with at least as much of the threshold remaining, so is not searched again.
+ *
+ * <p>The table is direct-mapped on {@link ClusterConfiguration#getHash64()}: each configuration has a single slot,
+ * and a new entry evicts whatever was there, so memory is fixed regardless of the size of the search.  An evicted
+ * configuration is only searched again, never missed.  Like {@link ClosedListType#FINGERPRINT_64}, two different
+ * configurations with the same 64-bit hash would share an entry, which is vanishingly unlikely.</p>
+ *
+ * <p>Each entry is stamped with its iteration, so starting a new iteration clears the table in O(1).</p>
+ *
+ * <p>This is not thread safe.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class TranspositionTable {
+
+  /**
+   * The default number of entries.  Each entry is 16 bytes.
+   */
+  static final int DEFAULT_CAPACITY = 1 << 20;
+
+  private final int shift;
+  private final long[] keys;
+  private final int[] pathLens;
+  private final int[] iterations;
+
+  private final LongAdder hitCount;
+
+  /**
+   * The current iteration, starting at one so that the zero-filled entries are empty.
+   */
+  private int iteration = 1;
+
+  /**
+   * @param  capacity  the number of entries, rounded up to a power of two
+   */
+  TranspositionTable(int capacity, LongAdder hitCount) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity < 1: " + capacity);
+    }
+    int bits = 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    this.shift = 64 - bits;
+    int size = 1 << bits;
+    this.keys = new long[size];
+    this.pathLens = new int[size];
+    this.iterations = new int[size];
+    this.hitCount = hitCount;
+  }
+
+  /**
+   * Gets the number of entries the table can hold.
+   */
+  int getCapacity() {
+    return keys.length;
+  }
+
+  private int getSlot(long key) {
+    // Fibonacci hashing, using the high bits
+    return shift == 64 ? 0 : (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+  }
+
+  /**
+   * Removes all entries.
+   */
+  void nextIteration() {
+    iteration++;
+  }
+
+  /**
+   * Records a configuration reached by the given path length.
+   *
+   * @return  <code>true</code> when the configuration should be searched or <code>false</code> when it has already
+   *          been reached by a path no longer during this iteration
+   */
+  boolean visit(ClusterConfiguration clusterConfiguration, int pathLen) {
+    long key = clusterConfiguration.getHash64();
+    int slot = getSlot(key);
+    if (iterations[slot] == iteration && keys[slot] == key) {
+      if (pathLens[slot] <= pathLen) {
+        hitCount.increment();
+        return false;
+      }
+    } else {
+      keys[slot] = key;
+      iterations[slot] = iteration;
+    }
+    pathLens[slot] = pathLen;
+    return true;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+import org.junit.Assume;
+
+/**
+ * Keeps benchmarks out of the normal test output.  Benchmarks are run only when the {@value #PROPERTY} system
+ * property is <code>true</code>, such as by <code>mvn test -Dcom.aoindustries.aoserv.cluster.benchmark=true</code>.
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class Benchmarks {
+
+  /** Make no instances. */
+  private Benchmarks() {
+    throw new AssertionError();
+  }
+
+  /**
+   * The system property that enables benchmarks.
+   */
+  public static final String PROPERTY = "com.aoindustries.aoserv.cluster.benchmark";
+
+  /**
+   * Determines if benchmarks are enabled.
+   */
+  public static boolean isEnabled() {
+    return Boolean.getBoolean(PROPERTY);
+  }
+
+  /**
+   * Skips the calling test unless benchmarks are enabled.  Used by tests that only measure time or heap.
+   */
+  public static void assumeEnabled() {
+    Assume.assumeTrue(PROPERTY + " is not true", isEnabled());
+  }
+
+  /**
+   * Prints a measurement when benchmarks are enabled.  Tests that assert while they count may always run, only
+   * reporting their counts when enabled.
+   */
+  @SuppressWarnings("UseOfSystemOutOrSystemErr")
+  public static void report(Object message) {
+    if (isEnabled()) {
+      System.out.println(message);
+    }
+  }
+}
@@ -0,0 +1,632 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.aoindustries.aoserv.cluster.optimize.TestClusterConfigurations;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests {@link ClusterConfiguration}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ClusterConfigurationTest {
+
+  private static final String DEVICE = "/dev/sda";
+  private static final short PARTITION = 1;
+
+  /**
+   * Creates a configuration with four Dom0s and two DomUs, each with a primary on dom0-0.
+   */
+  private static ClusterConfiguration newClusterConfiguration() {
+    Cluster cluster = new Cluster("test");
+    for (int i = 0; i < 4; i++) {
+      String hostname = "dom0-" + i;
+      cluster = cluster
+          .addDom0(hostname, 4096, ProcessorType.CORE2, ProcessorArchitecture.X86_64, 2000, 8, true)
+          .addDom0Disk(hostname, DEVICE, 7200)
+          .addPhysicalVolume(hostname, DEVICE, PARTITION, 10000);
+    }
+    for (int i = 0; i < 2; i++) {
+      String hostname = "domU-" + i;
+      cluster = cluster
+          .addDomU(hostname, 1024, 1024, ProcessorType.PIII, ProcessorArchitecture.X86_64, 1000, (short) 1, (short) 1, false, false, false)
+          .addDomUDisk(hostname, DEVICE, 7200, 100, (short) 16);
+    }
+    ClusterConfiguration clusterConfiguration = new ClusterConfiguration(cluster);
+    Dom0 primaryDom0 = cluster.getDom0("dom0-0");
+    PhysicalVolume primaryPv = primaryDom0.getDom0Disk(DEVICE).getPhysicalVolume(PARTITION);
+    for (int i = 0; i < 2; i++) {
+      DomU domU = cluster.getDomU("domU-" + i);
+      Dom0 secondaryDom0 = cluster.getDom0("dom0-" + (i + 1));
+      PhysicalVolume secondaryPv = secondaryDom0.getDom0Disk(DEVICE).getPhysicalVolume(PARTITION);
+      clusterConfiguration = clusterConfiguration
+          .addDomUConfiguration(domU, primaryDom0, secondaryDom0)
+          .addDomUDiskConfiguration(
+              domU,
+              domU.getDomUDisk(DEVICE),
+              Collections.singletonList(PhysicalVolumeConfiguration.newInstance(primaryPv, 0, i * 100, 100)),
+              Collections.singletonList(PhysicalVolumeConfiguration.newInstance(secondaryPv, 0, 0, 100))
+          );
+    }
+    return clusterConfiguration;
+  }
+
+  private static List<ClusterConfiguration> moveSecondary(ClusterConfiguration clusterConfiguration, DomU domU, Dom0 dom0, SecondaryMappingStrategy strategy) {
+    List<ClusterConfiguration> moved = new ArrayList<>();
+    for (ClusterConfiguration movedClusterConfiguration : clusterConfiguration.moveSecondary(domU, dom0, strategy)) {
+      moved.add(movedClusterConfiguration);
+    }
+    return moved;
+  }
+
+  private static List<ClusterConfiguration> moveSecondary(ClusterConfiguration clusterConfiguration, DomU domU, Dom0 dom0) {
+    return moveSecondary(clusterConfiguration, domU, dom0, SecondaryMappingStrategy.WHOLE_VOLUMES);
+  }
+
+  @Test
+  public void testHash64() {
+    ClusterConfiguration original = newClusterConfiguration();
+    Cluster cluster = original.getCluster();
+    DomU domU0 = cluster.getDomU("domU-0");
+    DomU domU1 = cluster.getDomU("domU-1");
+
+    // Swapping twice returns to the same configuration and hash
+    ClusterConfiguration migrated = original.liveMigrate(domU0);
+    assertNotEquals(original.getHash64(), migrated.getHash64());
+    assertEquals(original, migrated.liveMigrate(domU0));
+    assertEquals(original.getHash64(), migrated.liveMigrate(domU0).getHash64());
+
+    // The same configuration reached in a different order has the same hash
+    ClusterConfiguration both1 = original.liveMigrate(domU0).liveMigrate(domU1);
+    ClusterConfiguration both2 = original.liveMigrate(domU1).liveMigrate(domU0);
+    assertEquals(both1, both2);
+    assertEquals(both1.getHash64(), both2.getHash64());
+    assertEquals(both1.hashCode(), both2.hashCode());
+
+    // Moving the secondary away and back
+    List<ClusterConfiguration> moved = moveSecondary(original, domU0, cluster.getDom0("dom0-3"));
+    assertEquals(1, moved.size());
+    assertNotEquals(original.getHash64(), moved.get(0).getHash64());
+    List<ClusterConfiguration> movedBack = moveSecondary(moved.get(0), domU0, cluster.getDom0("dom0-1"));
+    assertEquals(1, movedBack.size());
+    assertEquals(original, movedBack.get(0));
+    assertEquals(original.getHash64(), movedBack.get(0).getHash64());
+  }
+
+  @Test
+  public void testMoveSecondaryFreeExtents() {
+    ClusterConfiguration original = newClusterConfiguration();
+    Cluster cluster = original.getCluster();
+    DomU domU0 = cluster.getDomU("domU-0");
+    DomU domU1 = cluster.getDomU("domU-1");
+    Dom0 dom0 = cluster.getDom0("dom0-1");
+    PhysicalVolume pv = dom0.getDom0Disk(DEVICE).getPhysicalVolume(PARTITION);
+
+    // The only physical volume on dom0-1 is partially used by the secondary of domU-0
+    assertTrue(moveSecondary(original, domU1, dom0).isEmpty());
+    List<ClusterConfiguration> moved = moveSecondary(original, domU1, dom0, SecondaryMappingStrategy.FREE_EXTENTS);
+    assertEquals(1, moved.size());
+    List<PhysicalVolumeConfiguration> secondary = moved.get(0).getDomUConfiguration(domU1)
+        .getDomUDiskConfigurations().get(0).getSecondaryPhysicalVolumeConfigurations();
+    assertEquals(1, secondary.size());
+    PhysicalVolumeConfiguration pvc = secondary.get(0);
+    assertSame(pv, pvc.getPhysicalVolume());
+    assertEquals(0, pvc.getFirstLogicalExtent());
+    assertEquals(100, pvc.getFirstPhysicalExtent());
+    assertEquals(100, pvc.getExtents());
+
+    // Moving domU-0 away frees the start of the volume, which is used first
+    ClusterConfiguration freed = moveSecondary(moved.get(0), domU0, cluster.getDom0("dom0-3")).get(0);
+    List<ClusterConfiguration> movedAgain = moveSecondary(freed, domU0, dom0, SecondaryMappingStrategy.FREE_EXTENTS);
+    assertEquals(1, movedAgain.size());
+    assertEquals(
+        0,
+        movedAgain.get(0).getDomUConfiguration(domU0).getDomUDiskConfigurations().get(0)
+            .getSecondaryPhysicalVolumeConfigurations().get(0).getFirstPhysicalExtent()
+    );
+
+    // The whole volume strategy is unchanged when volumes are entirely free
+    assertEquals(
+        moveSecondary(original, domU0, cluster.getDom0("dom0-3")),
+        moveSecondary(original, domU0, cluster.getDom0("dom0-3"), SecondaryMappingStrategy.FREE_EXTENTS)
+    );
+  }
+
+  /**
+   * Creates a configuration with one DomU of 20 extents, its primary on dom0-0 and its secondary on dom0-2, and
+   * the given disks on dom0-1, each with the given number of 10-extent physical volumes.
+   */
+  private static ClusterConfiguration newSplitClusterConfiguration(String[] devices, int[] physicalVolumeCounts) {
+    Cluster cluster = new Cluster("test");
+    for (int i = 0; i < 3; i++) {
+      String hostname = "dom0-" + i;
+      cluster = cluster.addDom0(hostname, 4096, ProcessorType.CORE2, ProcessorArchitecture.X86_64, 2000, 8, true);
+      if (i == 1) {
+        for (int d = 0; d < devices.length; d++) {
+          cluster = cluster.addDom0Disk(hostname, devices[d], 7200);
+          for (int p = 1; p <= physicalVolumeCounts[d]; p++) {
+            cluster = cluster.addPhysicalVolume(hostname, devices[d], (short) p, 10);
+          }
+        }
+      } else {
+        cluster = cluster
+            .addDom0Disk(hostname, DEVICE, 7200)
+            .addPhysicalVolume(hostname, DEVICE, PARTITION, 20);
+      }
+    }
+    cluster = cluster
+        .addDomU("domU-0", 1024, 1024, ProcessorType.PIII, ProcessorArchitecture.X86_64, 1000, (short) 1, (short) 1, false, false, false)
+        .addDomUDisk("domU-0", DEVICE, 7200, 20, (short) 16);
+    DomU domU = cluster.getDomU("domU-0");
+    Dom0 primaryDom0 = cluster.getDom0("dom0-0");
+    Dom0 secondaryDom0 = cluster.getDom0("dom0-2");
+    return new ClusterConfiguration(cluster)
+        .addDomUConfiguration(domU, primaryDom0, secondaryDom0)
+        .addDomUDiskConfiguration(
+            domU,
+            domU.getDomUDisk(DEVICE),
+            Collections.singletonList(PhysicalVolumeConfiguration.newInstance(primaryDom0.getDom0Disk(DEVICE).getPhysicalVolume(PARTITION), 0, 0, 20)),
+            Collections.singletonList(PhysicalVolumeConfiguration.newInstance(secondaryDom0.getDom0Disk(DEVICE).getPhysicalVolume(PARTITION), 0, 0, 20))
+        );
+  }
+
+  /**
+   * A mapping onto two physical volumes of one disk is distinct from a mapping split across two disks, even though
+   * each uses the same sizes and extents.
+   */
+  @Test
+  public void testMoveSecondarySplitAcrossDisks() {
+    ClusterConfiguration original = newSplitClusterConfiguration(new String[] {"/dev/sda", "/dev/sdb", "/dev/sdc"}, new int[] {2, 1, 1});
+    Cluster cluster = original.getCluster();
+    DomU domU = cluster.getDomU("domU-0");
+    Dom0 dom0 = cluster.getDom0("dom0-1");
+    for (SecondaryMappingStrategy strategy : SecondaryMappingStrategy.values()) {
+      int[] duplicateCount = new int[1];
+      List<ClusterConfiguration> moved = original.moveSecondary(domU, dom0, strategy, (int mapped, int duplicates) -> duplicateCount[0] += duplicates);
+      assertEquals(strategy.toString(), 2, moved.size());
+      assertEquals(strategy.toString(), 0, duplicateCount[0]);
+      assertNotEquals(moved.get(0), moved.get(1));
+      assertEquals(2, moved.get(0).getDomUConfiguration(domU).getDomUDiskConfigurations().get(0).getSecondaryPhysicalVolumeConfigurations().size());
+    }
+  }
+
+  /**
+   * Mappings split across indistinguishable disks in the same way are only returned once.
+   */
+  @Test
+  public void testMoveSecondaryExchangedDisks() {
+    ClusterConfiguration original = newSplitClusterConfiguration(new String[] {"/dev/sdb", "/dev/sdc", "/dev/sdd"}, new int[] {1, 1, 1});
+    Cluster cluster = original.getCluster();
+    DomU domU = cluster.getDomU("domU-0");
+    Dom0 dom0 = cluster.getDom0("dom0-1");
+    for (SecondaryMappingStrategy strategy : SecondaryMappingStrategy.values()) {
+      int[] duplicateCount = new int[1];
+      List<ClusterConfiguration> moved = original.moveSecondary(domU, dom0, strategy, (int mapped, int duplicates) -> duplicateCount[0] += duplicates);
+      assertEquals(strategy.toString(), 1, moved.size());
+      assertEquals(strategy.toString(), 1, duplicateCount[0]);
+    }
+  }
+
+  /**
+   * Gets the disk of a physical volume.
+   */
+  private static Dom0Disk getDom0Disk(Cluster cluster, PhysicalVolume physicalVolume) {
+    return cluster.getDom0(physicalVolume.getDom0Hostname()).getDom0Disk(physicalVolume.getDevice());
+  }
+
+  /**
+   * Determines if two disks are indistinguishable before the move: the same speed and allocated weight, with physical
+   * volumes of the same partitions, sizes, and allocation.
+   */
+  private static boolean isEquivalent(PhysicalVolumeAllocations allocations, Dom0Disk dom0Disk1, Dom0Disk dom0Disk2) {
+    if (
+        dom0Disk1.getDiskSpeed() != dom0Disk2.getDiskSpeed()
+            || allocations.getAllocatedWeight(dom0Disk1) != allocations.getAllocatedWeight(dom0Disk2)
+            || dom0Disk1.getPhysicalVolumes().size() != dom0Disk2.getPhysicalVolumes().size()
+    ) {
+      return false;
+    }
+    for (PhysicalVolume physicalVolume1 : dom0Disk1.getPhysicalVolumes().values()) {
+      PhysicalVolume physicalVolume2 = dom0Disk2.getPhysicalVolume(physicalVolume1.getPartition());
+      if (
+          physicalVolume2 == null
+              || physicalVolume1.getExtents() != physicalVolume2.getExtents()
+              || allocations.isAllocated(physicalVolume1) != allocations.isAllocated(physicalVolume2)
+      ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Determines if two secondary mappings of a DomU differ only by the exchange of disks that were indistinguishable
+   * before the move.
+   */
+  private static boolean isExchangedDisks(PhysicalVolumeAllocations allocations, DomU domU, ClusterConfiguration mapping1, ClusterConfiguration mapping2) {
+    Cluster cluster = mapping1.getCluster();
+    List<DomUDiskConfiguration> domUDiskConfigurations1 = mapping1.getDomUConfiguration(domU).getDomUDiskConfigurations();
+    List<DomUDiskConfiguration> domUDiskConfigurations2 = mapping2.getDomUConfiguration(domU).getDomUDiskConfigurations();
+    Map<Dom0Disk, Dom0Disk> exchange = new HashMap<>();
+    Map<Dom0Disk, Dom0Disk> reverse = new HashMap<>();
+    for (int i = 0; i < domUDiskConfigurations1.size(); i++) {
+      List<PhysicalVolumeConfiguration> pvcs1 = domUDiskConfigurations1.get(i).getSecondaryPhysicalVolumeConfigurations();
+      List<PhysicalVolumeConfiguration> pvcs2 = domUDiskConfigurations2.get(i).getSecondaryPhysicalVolumeConfigurations();
+      if (pvcs1.size() != pvcs2.size()) {
+        return false;
+      }
+      for (int j = 0; j < pvcs1.size(); j++) {
+        PhysicalVolumeConfiguration pvc1 = pvcs1.get(j);
+        PhysicalVolumeConfiguration pvc2 = pvcs2.get(j);
+        PhysicalVolume physicalVolume1 = pvc1.getPhysicalVolume();
+        PhysicalVolume physicalVolume2 = pvc2.getPhysicalVolume();
+        if (
+            physicalVolume1.getPartition() != physicalVolume2.getPartition()
+                || pvc1.getFirstLogicalExtent() != pvc2.getFirstLogicalExtent()
+                || pvc1.getFirstPhysicalExtent() != pvc2.getFirstPhysicalExtent()
+                || pvc1.getExtents() != pvc2.getExtents()
+        ) {
+          return false;
+        }
+        Dom0Disk dom0Disk1 = getDom0Disk(cluster, physicalVolume1);
+        Dom0Disk dom0Disk2 = getDom0Disk(cluster, physicalVolume2);
+        Dom0Disk exchanged = exchange.get(dom0Disk1);
+        if (exchanged == null) {
+          if (reverse.containsKey(dom0Disk2) || !isEquivalent(allocations, dom0Disk1, dom0Disk2)) {
+            return false;
+          }
+          exchange.put(dom0Disk1, dom0Disk2);
+          reverse.put(dom0Disk2, dom0Disk1);
+        } else if (!exchanged.equals(dom0Disk2)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The canonical mappings are a subset of every mapping enumerated, and each mapping dropped is the exchange of
+   * indistinguishable disks of a canonical mapping.  Once mappings of the same shape are removed, both return the same
+   * configurations.
+   */
+  @Test
+  public void testMoveSecondaryCanonicalSymmetricVariants() {
+    List<ClusterConfiguration> originals = new ArrayList<>();
+    originals.add(newSplitClusterConfiguration(new String[] {"/dev/sdb", "/dev/sdc", "/dev/sdd"}, new int[] {1, 1, 1}));
+    for (long seed = 0; seed < 4; seed++) {
+      originals.add(TestClusterConfigurations.newMultiDiskClusterConfiguration(4, 6, seed));
+    }
+    int droppedCount = 0;
+    for (ClusterConfiguration original : originals) {
+      Cluster cluster = original.getCluster();
+      PhysicalVolumeAllocations allocations = new PhysicalVolumeAllocations(cluster, original.getDomUConfigurations());
+      for (DomU domU : cluster.getDomUs().values()) {
+        DomUConfiguration domUConfiguration = original.getDomUConfiguration(domU);
+        for (Dom0 dom0 : cluster.getDom0s().values()) {
+          if (dom0.equals(domUConfiguration.getPrimaryDom0()) || dom0.equals(domUConfiguration.getSecondaryDom0())) {
+            continue;
+          }
+          List<ClusterConfiguration> full = original.moveSecondary(domU, dom0, SecondaryMappingStrategy.WHOLE_VOLUMES, null, false);
+          List<ClusterConfiguration> canonical = original.moveSecondary(domU, dom0, SecondaryMappingStrategy.CANONICAL, null, false);
+          assertTrue(full.containsAll(canonical));
+          for (ClusterConfiguration mapping : full) {
+            if (!canonical.contains(mapping)) {
+              droppedCount++;
+              boolean symmetric = false;
+              for (ClusterConfiguration kept : canonical) {
+                if (isExchangedDisks(allocations, domU, kept, mapping)) {
+                  symmetric = true;
+                  break;
+                }
+              }
+              assertTrue(symmetric);
+            }
+          }
+          assertEquals(
+              moveSecondary(original, domU, dom0),
+              moveSecondary(original, domU, dom0, SecondaryMappingStrategy.CANONICAL)
+          );
+        }
+      }
+    }
+    assertTrue(droppedCount > 0);
+  }
+
+  @Test
+  public void testHash64Serialization() throws IOException, ClassNotFoundException {
+    ClusterConfiguration initial = newClusterConfiguration();
+    ClusterConfiguration original = initial.liveMigrate(initial.getCluster().getDomU("domU-1"));
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bout)) {
+      out.writeObject(original);
+    }
+    ClusterConfiguration copy;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()))) {
+      copy = (ClusterConfiguration) in.readObject();
+    }
+    // The keys are derived from the names, so the hash is stable across serialization
+    assertEquals(original.getHash64(), copy.getHash64());
+    assertEquals(original.hashCode(), copy.hashCode());
+  }
+
+  @Test
+  public void testCompact() {
+    ClusterConfiguration original = newClusterConfiguration();
+    assertFalse(original.isCompact());
+    ClusterConfiguration compact = original.compact();
+    assertTrue(compact.isCompact());
+    assertSame(compact, compact.compact());
+    assertEquals(original, compact);
+    assertEquals(compact, original);
+    assertEquals(original.getHash64(), compact.getHash64());
+    assertEquals(original.getDomUConfigurations(), compact.getDomUConfigurations());
+
+    // Derived configurations remain compact and match those derived from the original
+    Cluster cluster = original.getCluster();
+    DomU domU0 = cluster.getDomU("domU-0");
+    ClusterConfiguration migrated = compact.liveMigrate(domU0);
+    assertTrue(migrated.isCompact());
+    assertEquals(original.liveMigrate(domU0), migrated);
+    assertEquals(original.liveMigrate(domU0).getHash64(), migrated.getHash64());
+    assertEquals(compact, migrated.liveMigrate(domU0));
+
+    List<ClusterConfiguration> expected = moveSecondary(original, domU0, cluster.getDom0("dom0-3"));
+    List<ClusterConfiguration> moved = moveSecondary(compact, domU0, cluster.getDom0("dom0-3"));
+    assertEquals(expected, moved);
+    assertTrue(moved.get(0).isCompact());
+    assertEquals(expected.get(0).getHash64(), moved.get(0).getHash64());
+    // dom0-2 holds the secondary of domU-1, so its only volume is allocated
+    assertEquals(
+        moveSecondary(original.liveMigrate(domU0), domU0, cluster.getDom0("dom0-2")),
+        moveSecondary(migrated, domU0, cluster.getDom0("dom0-2"))
+    );
+  }
+
+  @Test
+  public void testCompactSerialization() throws IOException, ClassNotFoundException {
+    ClusterConfiguration original = newClusterConfiguration().compact();
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bout)) {
+      out.writeObject(original);
+    }
+    ClusterConfiguration copy;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()))) {
+      copy = (ClusterConfiguration) in.readObject();
+    }
+    assertTrue(copy.isCompact());
+    assertEquals(original.getHash64(), copy.getHash64());
+    assertEquals(original.getDomUConfigurations().size(), copy.getDomUConfigurations().size());
+  }
+
+  /**
+   * Takes one random step from both configurations, either a live migration or a move of the secondary onto any
+   * free extents, checking both forms derive the same configurations.
+   *
+   * @return  the object and compact configurations after the step
+   */
+  private static ClusterConfiguration[] randomStep(ClusterConfiguration object, ClusterConfiguration compact, Random random) {
+    Cluster cluster = object.getCluster();
+    List<DomU> domUs = new ArrayList<>(cluster.getDomUs().values());
+    DomU domU = domUs.get(random.nextInt(domUs.size()));
+    if (random.nextBoolean()) {
+      return new ClusterConfiguration[]{object.liveMigrate(domU), compact.liveMigrate(domU)};
+    }
+    List<Dom0> dom0s = new ArrayList<>(cluster.getDom0s().values());
+    Dom0 dom0 = dom0s.get(random.nextInt(dom0s.size()));
+    DomUConfiguration domUConfiguration = object.getDomUConfiguration(domU);
+    if (dom0.equals(domUConfiguration.getPrimaryDom0()) || dom0.equals(domUConfiguration.getSecondaryDom0())) {
+      return new ClusterConfiguration[]{object, compact};
+    }
+    List<ClusterConfiguration> expected = moveSecondary(object, domU, dom0, SecondaryMappingStrategy.FREE_EXTENTS);
+    List<ClusterConfiguration> moved = moveSecondary(compact, domU, dom0, SecondaryMappingStrategy.FREE_EXTENTS);
+    assertEquals(expected, moved);
+    if (expected.isEmpty()) {
+      return new ClusterConfiguration[]{object, compact};
+    }
+    int index = random.nextInt(expected.size());
+    return new ClusterConfiguration[]{expected.get(index), moved.get(index)};
+  }
+
+  /**
+   * Checks the compact form decodes to, equals, and hashes the same as the object form.
+   */
+  private static void assertSameAsObjectForm(ClusterConfiguration object, ClusterConfiguration compact) {
+    assertFalse(object.isCompact());
+    assertTrue(compact.isCompact());
+    assertEquals(object, compact);
+    assertEquals(compact, object);
+    assertEquals(0, object.compareTo(compact));
+    assertEquals(0, compact.compareTo(object));
+    assertEquals(object.getHash64(), compact.getHash64());
+    assertEquals(object.hashCode(), compact.hashCode());
+    List<DomUConfiguration> objectDomUConfigurations = object.getDomUConfigurations();
+    List<DomUConfiguration> compactDomUConfigurations = compact.getDomUConfigurations();
+    assertEquals(objectDomUConfigurations.size(), compactDomUConfigurations.size());
+    for (int i = 0, size = objectDomUConfigurations.size(); i < size; i++) {
+      DomUConfiguration objectDomUConfiguration = objectDomUConfigurations.get(i);
+      DomUConfiguration compactDomUConfiguration = compactDomUConfigurations.get(i);
+      assertEquals(objectDomUConfiguration, compactDomUConfiguration);
+      assertEquals(objectDomUConfiguration.hashCode(), compactDomUConfiguration.hashCode());
+      assertEquals(objectDomUConfiguration.getDomUDiskConfigurations(), compactDomUConfiguration.getDomUDiskConfigurations());
+      assertEquals(object.getPrimaryDom0Ordinal(i), compact.getPrimaryDom0Ordinal(i));
+      assertEquals(object.getSecondaryDom0Ordinal(i), compact.getSecondaryDom0Ordinal(i));
+    }
+    assertEquals(objectDomUConfigurations.hashCode(), compactDomUConfigurations.hashCode());
+    // Compacting the object form again encodes to the same arrays
+    ClusterConfiguration recompacted = object.compact();
+    assertEquals(compactDomUConfigurations, recompacted.getDomUConfigurations());
+    assertEquals(compact.getHash64(), recompacted.getHash64());
+  }
+
+  /**
+   * Random walks from the object and compact forms, including secondaries split across physical volumes and lists
+   * of several chunks, must remain equal at every step, and the compact form must survive serialization.
+   */
+  @Test
+  public void testCompactRandomWalk() throws IOException, ClassNotFoundException {
+    for (long seed = 0; seed < 8; seed++) {
+      Random random = new Random(seed);
+      ClusterConfiguration object = (seed & 1) == 0
+          ? TestClusterConfigurations.newMultiDiskClusterConfiguration(8, 12, seed)
+          : TestClusterConfigurations.newClusterConfiguration(12, CompactDomUConfigurationList.CHUNK_SIZE * 2 + 5, seed);
+      ClusterConfiguration compact = object.compact();
+      assertSameAsObjectForm(object, compact);
+      for (int step = 0; step < 50; step++) {
+        ClusterConfiguration[] next = randomStep(object, compact, random);
+        object = next[0];
+        compact = next[1];
+        assertSameAsObjectForm(object, compact);
+      }
+      ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bout)) {
+        out.writeObject(compact);
+      }
+      ClusterConfiguration copy;
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()))) {
+        copy = (ClusterConfiguration) in.readObject();
+      }
+      // The copy has its own cluster, so is compared by hash and by the decoded configurations
+      assertTrue(copy.isCompact());
+      assertEquals(object.getHash64(), copy.getHash64());
+      List<DomUConfiguration> objectDomUConfigurations = object.getDomUConfigurations();
+      List<DomUConfiguration> copyDomUConfigurations = copy.getDomUConfigurations();
+      assertEquals(objectDomUConfigurations.size(), copyDomUConfigurations.size());
+      for (int i = 0, size = objectDomUConfigurations.size(); i < size; i++) {
+        assertEquals(objectDomUConfigurations.get(i).hash64, copyDomUConfigurations.get(i).hash64);
+        assertEquals(objectDomUConfigurations.get(i).toString(), copyDomUConfigurations.get(i).toString());
+      }
+    }
+  }
+
+  @Test
+  public void testCompactMultipleChunks() {
+    final int domUCount = CompactDomUConfigurationList.CHUNK_SIZE * 2 + 5;
+    Cluster cluster = new Cluster("test");
+    for (int i = 0; i < 2; i++) {
+      cluster = cluster.addDom0("dom0-" + i, 4096, ProcessorType.CORE2, ProcessorArchitecture.X86_64, 2000, 8, true);
+    }
+    for (int i = 0; i <= domUCount; i++) {
+      cluster = cluster.addDomU("domU-" + i, 1024, 1024, ProcessorType.PIII, ProcessorArchitecture.X86_64, 1000, (short) 1, (short) 1, false, false, false);
+    }
+    Dom0 dom00 = cluster.getDom0("dom0-0");
+    Dom0 dom01 = cluster.getDom0("dom0-1");
+    ClusterConfiguration original = new ClusterConfiguration(cluster);
+    for (int i = 0; i < domUCount; i++) {
+      DomU domU = cluster.getDomU("domU-" + i);
+      original = (i % 3) == 0
+          ? original.addDomUConfiguration(domU, dom01, dom00)
+          : original.addDomUConfiguration(domU, dom00, dom01);
+    }
+    ClusterConfiguration compact = original.compact();
+    assertEquals(original, compact);
+    assertEquals(original.getDomUConfigurations(), compact.getDomUConfigurations());
+    for (int i = 0; i < domUCount; i++) {
+      assertEquals(original.getPrimaryDom0Ordinal(i), compact.getPrimaryDom0Ordinal(i));
+      assertEquals(original.getSecondaryDom0Ordinal(i), compact.getSecondaryDom0Ordinal(i));
+    }
+
+    // Each move only replaces the chunk of the moved DomU
+    for (int i : new int[]{0, CompactDomUConfigurationList.CHUNK_SIZE + 7, domUCount - 1}) {
+      DomU domU = cluster.getDomU("domU-" + i);
+      ClusterConfiguration migrated = compact.liveMigrate(domU);
+      assertTrue(migrated.isCompact());
+      assertEquals(original.liveMigrate(domU), migrated);
+      assertEquals(original.liveMigrate(domU).getHash64(), migrated.getHash64());
+      assertEquals(compact.getSecondaryDom0Ordinal(i), migrated.getPrimaryDom0Ordinal(i));
+      assertEquals(compact, migrated.liveMigrate(domU));
+      CompactDomUConfigurationList list = (CompactDomUConfigurationList) compact.getDomUConfigurations();
+      CompactDomUConfigurationList migratedList = (CompactDomUConfigurationList) migrated.getDomUConfigurations();
+      for (int j = 0; j < domUCount; j += CompactDomUConfigurationList.CHUNK_SIZE) {
+        assertEquals(j / CompactDomUConfigurationList.CHUNK_SIZE != i / CompactDomUConfigurationList.CHUNK_SIZE, list.isChunkShared(migratedList, j));
+      }
+    }
+
+    // Appending to a partial chunk
+    DomU added = cluster.getDomU("domU-" + domUCount);
+    ClusterConfiguration appended = compact.addDomUConfiguration(added, dom01, dom00);
+    assertTrue(appended.isCompact());
+    assertEquals(original.addDomUConfiguration(added, dom01, dom00), appended);
+    assertSame(added, appended.getDomUConfiguration(added).getDomU());
+    assertEquals(domUCount, compact.getDomUConfigurations().size());
+  }
+
+  @Test
+  public void testGetDomUConfiguration() throws IOException, ClassNotFoundException {
+    Cluster cluster = new Cluster("test");
+    for (int i = 0; i < 2; i++) {
+      cluster = cluster.addDom0("dom0-" + i, 4096, ProcessorType.CORE2, ProcessorArchitecture.X86_64, 2000, 8, true);
+    }
+    for (int i = 0; i < 4; i++) {
+      cluster = cluster.addDomU("domU-" + i, 1024, 1024, ProcessorType.PIII, ProcessorArchitecture.X86_64, 1000, (short) 1, (short) 1, false, false, false);
+    }
+    Dom0 dom00 = cluster.getDom0("dom0-0");
+    Dom0 dom01 = cluster.getDom0("dom0-1");
+    // Configured in an order different than the DomU ordinals, leaving domU-1 unconfigured
+    ClusterConfiguration clusterConfiguration = new ClusterConfiguration(cluster)
+        .addDomUConfiguration(cluster.getDomU("domU-3"), dom00, dom01)
+        .addDomUConfiguration(cluster.getDomU("domU-0"), dom01, dom00)
+        .addDomUConfiguration(cluster.getDomU("domU-2"), dom00, dom01);
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bout)) {
+      out.writeObject(clusterConfiguration);
+    }
+    ClusterConfiguration copy;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()))) {
+      copy = (ClusterConfiguration) in.readObject();
+    }
+    for (ClusterConfiguration cc : new ClusterConfiguration[]{
+        clusterConfiguration,
+        clusterConfiguration.compact(),
+        clusterConfiguration.liveMigrate(cluster.getDomU("domU-0")),
+        copy
+    }) {
+      Cluster ccCluster = cc.getCluster();
+      for (int i : new int[]{0, 2, 3}) {
+        DomU domU = ccCluster.getDomU("domU-" + i);
+        assertSame(domU, cc.getDomUConfiguration(domU).getDomU());
+      }
+      assertNull(cc.getDomUConfiguration(ccCluster.getDomU("domU-1")));
+    }
+  }
+}
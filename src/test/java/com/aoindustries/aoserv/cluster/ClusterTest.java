@@ -0,0 +1,90 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link Cluster}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ClusterTest {
+
+  @Test
+  public void testOrdinals() {
+    Cluster cluster = new Cluster("test");
+    for (int i = 0; i < 3; i++) {
+      String hostname = "dom0-" + i;
+      cluster = cluster.addDom0(hostname, 4096, ProcessorType.CORE2, ProcessorArchitecture.X86_64, 2000, 8, true);
+      for (int j = 0; j < 2; j++) {
+        String device = "/dev/sd" + (char) ('a' + j);
+        cluster = cluster.addDom0Disk(hostname, device, 7200);
+        for (short partition = 1; partition <= 2; partition++) {
+          cluster = cluster.addPhysicalVolume(hostname, device, partition, 1000);
+        }
+      }
+    }
+    for (int i = 0; i < 2; i++) {
+      String hostname = "domU-" + i;
+      cluster = cluster
+          .addDomU(hostname, 1024, 1024, ProcessorType.PIII, ProcessorArchitecture.X86_64, 1000, (short) 1, (short) 1, false, false, false)
+          .addDomUDisk(hostname, "/dev/xvda", 7200, 100, (short) 16)
+          .addDomUDisk(hostname, "/dev/xvdb", 7200, 100, (short) 16);
+    }
+    assertEquals(3, cluster.getDom0Count());
+    assertEquals(6, cluster.getDom0DiskCount());
+    assertEquals(12, cluster.getPhysicalVolumeCount());
+    assertEquals(2, cluster.getDomUCount());
+    assertEquals(4, cluster.getDomUDiskCount());
+    // Ordinals are assigned in the order added and survive the copies made by later additions
+    for (int i = 0; i < 3; i++) {
+      Dom0 dom0 = cluster.getDom0("dom0-" + i);
+      assertEquals(i, dom0.getOrdinal());
+      for (int j = 0; j < 2; j++) {
+        Dom0Disk dom0Disk = dom0.getDom0Disk("/dev/sd" + (char) ('a' + j));
+        assertEquals(i, dom0Disk.getDom0Ordinal());
+        assertEquals(i * 2 + j, dom0Disk.getOrdinal());
+        for (short partition = 1; partition <= 2; partition++) {
+          PhysicalVolume physicalVolume = dom0Disk.getPhysicalVolume(partition);
+          assertEquals(i, physicalVolume.getDom0Ordinal());
+          assertEquals(dom0Disk.getOrdinal(), physicalVolume.getDom0DiskOrdinal());
+          assertEquals((i * 2 + j) * 2 + partition - 1, physicalVolume.getOrdinal());
+        }
+      }
+    }
+    for (int i = 0; i < 2; i++) {
+      DomU domU = cluster.getDomU("domU-" + i);
+      assertEquals(i, domU.getOrdinal());
+      DomUDisk xvda = domU.getDomUDisk("/dev/xvda");
+      DomUDisk xvdb = domU.getDomUDisk("/dev/xvdb");
+      assertEquals(i, xvda.getDomUOrdinal());
+      assertEquals(i, xvdb.getDomUOrdinal());
+      assertEquals(i * 2, xvda.getOrdinal());
+      assertEquals(i * 2 + 1, xvdb.getOrdinal());
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.aoapps.lang.io.IoUtils;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests {@link PersistentVector}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class PersistentVectorTest {
+
+  private static final Random fastRandom = new Random(IoUtils.bufferToLong(new SecureRandom().generateSeed(Long.BYTES)));
+
+  @Test
+  public void testMatchesArrayList() {
+    // Crosses the boundaries where the trie gains a level
+    for (int size : new int[]{0, 1, 31, 32, 33, 1023, 1024, 1025, 32769}) {
+      List<Integer> expected = new ArrayList<>(size);
+      PersistentVector<Integer> vector = PersistentVector.empty();
+      for (int i = 0; i < size; i++) {
+        expected.add(i);
+        vector = vector.append(i);
+      }
+      assertEquals(expected, vector);
+      for (int i = 0; i < 1000 && size > 0; i++) {
+        int index = fastRandom.nextInt(size);
+        Integer value = fastRandom.nextInt();
+        PersistentVector<Integer> replaced = vector.replaceAt(index, value);
+        // The original is unchanged
+        assertEquals(expected.get(index), vector.get(index));
+        expected.set(index, value);
+        vector = replaced;
+        assertEquals(value, vector.get(index));
+      }
+      assertEquals(expected, vector);
+      assertEquals(expected, PersistentVector.copyOf(expected));
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    assertSame(PersistentVector.empty(), PersistentVector.copyOf(Collections.emptyList()));
+    assertEquals(Collections.emptyList(), PersistentVector.empty());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() {
+    PersistentVector.empty().append("a").get(1);
+  }
+
+  /**
+   * Compares the time to replace elements in a copied array against a {@link PersistentVector}.
+   * This is a benchmark, run only when {@linkplain Benchmarks#isEnabled() enabled}.
+   */
+  @Test
+  public void testReplaceBenchmark() {
+    Benchmarks.assumeEnabled();
+    final int size = 2000;
+    final int replaces = 200000;
+    Integer[] array = new Integer[size];
+    PersistentVector<Integer> vector = PersistentVector.empty();
+    for (int i = 0; i < size; i++) {
+      array[i] = i;
+      vector = vector.append(i);
+    }
+    long startNanos = System.nanoTime();
+    List<Integer> list = new UnmodifiableArrayList<>(array);
+    for (int i = 0; i < replaces; i++) {
+      Integer[] newArray = list.toArray(new Integer[size]);
+      newArray[i % size] = i;
+      list = new UnmodifiableArrayList<>(newArray);
+    }
+    long arrayNanos = System.nanoTime() - startNanos;
+    startNanos = System.nanoTime();
+    for (int i = 0; i < replaces; i++) {
+      vector = vector.replaceAt(i % size, i);
+    }
+    long vectorNanos = System.nanoTime() - startNanos;
+    assertEquals(list, vector);
+    Benchmarks.report(
+        "PersistentVectorTest: size:" + size
+            + " replaces:" + replaces
+            + " UnmodifiableArrayList:" + (arrayNanos / 1000000) + " ms"
+            + " PersistentVector:" + (vectorNanos / 1000000) + " ms"
+    );
+  }
+}
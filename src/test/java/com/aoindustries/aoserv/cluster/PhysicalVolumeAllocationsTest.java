@@ -0,0 +1,150 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.aoindustries.aoserv.cluster.optimize.TestClusterConfigurations;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests {@link PhysicalVolumeAllocations}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class PhysicalVolumeAllocationsTest {
+
+  /**
+   * Adds up the weights of the DomUDisks on a disk by scanning every DomU, counting each DomUDisk once per disk and a
+   * DomU that is both primary and secondary on the same Dom0 only as primary.
+   */
+  private static int getAllocatedWeight(ClusterConfiguration clusterConfiguration, Dom0Disk dom0Disk) {
+    int allocatedWeight = 0;
+    for (DomUConfiguration domUConfiguration : clusterConfiguration.getDomUConfigurations()) {
+      boolean primary;
+      if (domUConfiguration.getPrimaryDom0().getOrdinal() == dom0Disk.getDom0Ordinal()) {
+        primary = true;
+      } else if (domUConfiguration.getSecondaryDom0().getOrdinal() == dom0Disk.getDom0Ordinal()) {
+        primary = false;
+      } else {
+        continue;
+      }
+      for (DomUDiskConfiguration domUDiskConfiguration : domUConfiguration.getDomUDiskConfigurations()) {
+        List<PhysicalVolumeConfiguration> pvcs = primary
+            ? domUDiskConfiguration.getPrimaryPhysicalVolumeConfigurations()
+            : domUDiskConfiguration.getSecondaryPhysicalVolumeConfigurations();
+        for (PhysicalVolumeConfiguration pvc : pvcs) {
+          if (pvc.getPhysicalVolume().getDom0DiskOrdinal() == dom0Disk.getOrdinal()) {
+            allocatedWeight += domUDiskConfiguration.getDomUDisk().getWeight();
+            break;
+          }
+        }
+      }
+    }
+    return allocatedWeight;
+  }
+
+  /**
+   * Checks the derived allocations match those rebuilt from scratch, for every physical volume of the cluster, and
+   * the allocated weight of every disk matches a full scan.
+   */
+  private static void assertSameAsRebuilt(PhysicalVolumeAllocations derived, ClusterConfiguration clusterConfiguration) {
+    Cluster cluster = clusterConfiguration.getCluster();
+    PhysicalVolumeAllocations rebuilt = new PhysicalVolumeAllocations(cluster, clusterConfiguration.getDomUConfigurations());
+    assertEquals(rebuilt, derived);
+    assertEquals(rebuilt.hashCode(), derived.hashCode());
+    for (Dom0 dom0 : cluster.getDom0s().values()) {
+      for (Dom0Disk dom0Disk : dom0.getDom0Disks().values()) {
+        assertEquals(getAllocatedWeight(clusterConfiguration, dom0Disk), derived.getAllocatedWeight(dom0Disk));
+        for (PhysicalVolume physicalVolume : dom0Disk.getPhysicalVolumes().values()) {
+          assertEquals(rebuilt.isAllocated(physicalVolume), derived.isAllocated(physicalVolume));
+          assertArrayEquals(rebuilt.getFreeExtents(physicalVolume), derived.getFreeExtents(physicalVolume));
+        }
+      }
+    }
+  }
+
+  /**
+   * Adding each DomU configuration in turn must give the same allocations as finding them all at once.
+   */
+  @Test
+  public void testAdd() {
+    for (long seed = 0; seed < 4; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newMultiDiskClusterConfiguration(8, 12, seed);
+      Cluster cluster = clusterConfiguration.getCluster();
+      PhysicalVolumeAllocations derived = new PhysicalVolumeAllocations(cluster, Collections.emptyList());
+      for (DomUConfiguration domUConfiguration : clusterConfiguration.getDomUConfigurations()) {
+        derived = derived.replace(null, domUConfiguration);
+      }
+      assertSameAsRebuilt(derived, clusterConfiguration);
+    }
+  }
+
+  /**
+   * Replacing the configuration of one DomU at each step of a random walk of live migrations and free-extent
+   * secondary moves must give the same allocations as rebuilding them, while the original allocations are left
+   * unchanged.
+   */
+  @Test
+  public void testReplace() {
+    for (long seed = 0; seed < 8; seed++) {
+      Random random = new Random(seed);
+      ClusterConfiguration clusterConfiguration = (seed & 1) == 0
+          ? TestClusterConfigurations.newMultiDiskClusterConfiguration(8, 12, seed)
+          : TestClusterConfigurations.newClusterConfiguration(6, 9, seed);
+      Cluster cluster = clusterConfiguration.getCluster();
+      List<DomU> domUs = new ArrayList<>(cluster.getDomUs().values());
+      List<Dom0> dom0s = new ArrayList<>(cluster.getDom0s().values());
+      PhysicalVolumeAllocations derived = new PhysicalVolumeAllocations(cluster, clusterConfiguration.getDomUConfigurations());
+      for (int step = 0; step < 100; step++) {
+        DomU domU = domUs.get(random.nextInt(domUs.size()));
+        DomUConfiguration oldDomUConfiguration = clusterConfiguration.getDomUConfiguration(domU);
+        ClusterConfiguration next;
+        if (random.nextBoolean()) {
+          next = clusterConfiguration.liveMigrate(domU);
+        } else {
+          Dom0 dom0 = dom0s.get(random.nextInt(dom0s.size()));
+          if (dom0.equals(oldDomUConfiguration.getPrimaryDom0()) || dom0.equals(oldDomUConfiguration.getSecondaryDom0())) {
+            continue;
+          }
+          List<ClusterConfiguration> moved = clusterConfiguration.moveSecondary(domU, dom0, SecondaryMappingStrategy.FREE_EXTENTS);
+          if (moved.isEmpty()) {
+            continue;
+          }
+          next = moved.get(random.nextInt(moved.size()));
+        }
+        PhysicalVolumeAllocations replaced = derived.replace(oldDomUConfiguration, next.getDomUConfiguration(domU));
+        assertSameAsRebuilt(derived, clusterConfiguration);
+        assertSameAsRebuilt(replaced, next);
+        clusterConfiguration = next;
+        derived = replaced;
+      }
+    }
+  }
+}
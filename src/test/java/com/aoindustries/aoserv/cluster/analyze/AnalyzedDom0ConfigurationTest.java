@@ -0,0 +1,150 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.analyze;
+
+import static org.junit.Assert.assertEquals;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.Dom0;
+import com.aoindustries.aoserv.cluster.DomU;
+import com.aoindustries.aoserv.cluster.DomUConfiguration;
+import com.aoindustries.aoserv.cluster.SecondaryMappingStrategy;
+import com.aoindustries.aoserv.cluster.optimize.TestClusterConfigurations;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests {@link AnalyzedDom0Configuration}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class AnalyzedDom0ConfigurationTest {
+
+  /**
+   * The secondary RAM results from a full scan of every DomU, formatted as {@link Result#toString()}.  This totals
+   * each failed Dom0 in the order first found, where the original implementation used the unspecified order of a
+   * {@link java.util.HashMap}.
+   */
+  private static List<String> getSecondaryRamResults(ClusterConfiguration clusterConfiguration, Dom0 dom0, AlertLevel minimumAlertLevel) {
+    List<String> results = new ArrayList<>();
+    if (minimumAlertLevel.compareTo(AlertLevel.HIGH) <= 0) {
+      int allocatedPrimaryRam = 0;
+      Map<String, Integer> allocatedSecondaryRams = new LinkedHashMap<>();
+      for (DomUConfiguration domUConfiguration : clusterConfiguration.getDomUConfigurations()) {
+        if (domUConfiguration.getPrimaryDom0() == dom0) {
+          allocatedPrimaryRam += domUConfiguration.getDomU().getPrimaryRam();
+        } else if (domUConfiguration.getSecondaryDom0() == dom0) {
+          int secondaryRam = domUConfiguration.getDomU().getSecondaryRam();
+          if (secondaryRam != -1) {
+            allocatedSecondaryRams.merge(domUConfiguration.getPrimaryDom0().getHostname(), secondaryRam, Integer::sum);
+          }
+        }
+      }
+      int totalRam = dom0.getRam();
+      int freePrimaryRam = totalRam - allocatedPrimaryRam;
+      for (Map.Entry<String, Integer> entry : allocatedSecondaryRams.entrySet()) {
+        int allocatedSecondary = entry.getValue();
+        AlertLevel alertLevel = allocatedSecondary > freePrimaryRam ? AlertLevel.HIGH : AlertLevel.NONE;
+        if (alertLevel.compareTo(minimumAlertLevel) >= 0) {
+          results.add(
+              alertLevel
+                  + ": " + entry.getKey()
+                  + " " + allocatedSecondary
+                  + "/" + freePrimaryRam
+                  + " " + ((double) (allocatedSecondary - freePrimaryRam) / (double) totalRam)
+          );
+        }
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Gets the results, stopping after the given number of results.
+   */
+  private static List<String> getSecondaryRamResults(AnalyzedDom0Configuration analyzed, AlertLevel minimumAlertLevel, int limit) {
+    List<String> results = new ArrayList<>();
+    analyzed.getSecondaryRamResults(
+        (Result<? extends Integer> result) -> {
+          results.add(result.toString());
+          return results.size() < limit;
+        },
+        minimumAlertLevel
+    );
+    return results;
+  }
+
+  /**
+   * Takes one random step, either a live migration or a move of the secondary onto any free extents.
+   */
+  private static ClusterConfiguration randomStep(ClusterConfiguration clusterConfiguration, Random random) {
+    List<DomU> domUs = new ArrayList<>(clusterConfiguration.getCluster().getDomUs().values());
+    DomU domU = domUs.get(random.nextInt(domUs.size()));
+    if (random.nextBoolean()) {
+      return clusterConfiguration.liveMigrate(domU);
+    }
+    List<Dom0> dom0s = new ArrayList<>(clusterConfiguration.getCluster().getDom0s().values());
+    Dom0 dom0 = dom0s.get(random.nextInt(dom0s.size()));
+    DomUConfiguration domUConfiguration = clusterConfiguration.getDomUConfiguration(domU);
+    if (dom0.equals(domUConfiguration.getPrimaryDom0()) || dom0.equals(domUConfiguration.getSecondaryDom0())) {
+      return clusterConfiguration;
+    }
+    List<ClusterConfiguration> moved = clusterConfiguration.moveSecondary(domU, dom0, SecondaryMappingStrategy.FREE_EXTENTS);
+    return moved.isEmpty() ? clusterConfiguration : moved.get(random.nextInt(moved.size()));
+  }
+
+  /**
+   * The secondary RAM results must match a full scan, in order, at every alert level, whether analyzed alone or
+   * sharing the buckets of the whole cluster, and after stopping early.
+   */
+  @Test
+  public void testSecondaryRamResults() {
+    for (long seed = 0; seed < 8; seed++) {
+      Random random = new Random(seed);
+      ClusterConfiguration clusterConfiguration = (seed & 1) == 0
+          ? TestClusterConfigurations.newMultiDiskClusterConfiguration(5, 9, seed)
+          : TestClusterConfigurations.newClusterConfiguration(6, 18, seed);
+      for (int step = 0; step < 20; step++) {
+        List<AnalyzedDom0Configuration> shared = new AnalyzedClusterConfiguration(clusterConfiguration).getAnalyzedDom0Configurations();
+        for (AlertLevel minimumAlertLevel : AlertLevel.values()) {
+          for (AnalyzedDom0Configuration analyzed : shared) {
+            Dom0 dom0 = analyzed.getDom0();
+            List<String> expected = getSecondaryRamResults(clusterConfiguration, dom0, minimumAlertLevel);
+            assertEquals(expected, getSecondaryRamResults(new AnalyzedDom0Configuration(clusterConfiguration, dom0), minimumAlertLevel, Integer.MAX_VALUE));
+            // Stopping early must leave the shared buckets ready for the next check
+            if (!expected.isEmpty()) {
+              assertEquals(expected.subList(0, 1), getSecondaryRamResults(analyzed, minimumAlertLevel, 1));
+            }
+            assertEquals(expected, getSecondaryRamResults(analyzed, minimumAlertLevel, Integer.MAX_VALUE));
+          }
+        }
+        clusterConfiguration = randomStep(clusterConfiguration, random);
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.aoindustries.aoserv.cluster.Benchmarks;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import org.junit.Test;
+
+/**
+ * Tests {@link BeamSearch}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class BeamSearchTest {
+
+  private static final int MAX_PATH_LEN = 20;
+
+  private static ClusterOptimizer newClusterOptimizer(ClusterConfiguration clusterConfiguration) {
+    return new ClusterOptimizer(
+        clusterConfiguration,
+        new ExponentialDeviationHeuristicFunction(),
+        false,
+        false
+    );
+  }
+
+  /**
+   * Checks the path is optimal and that the released configurations along the path are reconstructed.
+   */
+  private static void assertValidPath(ClusterConfiguration clusterConfiguration, ListElement path) {
+    assertTrue(new AnalyzedClusterConfiguration(path.getClusterConfiguration()).isOptimal());
+    ClusterConfiguration expected = clusterConfiguration;
+    ListElement[] elements = new ListElement[path.pathLen + 1];
+    for (ListElement element = path; element != null; element = element.previous) {
+      elements[element.pathLen] = element;
+    }
+    assertEquals(clusterConfiguration, elements[0].getClusterConfiguration());
+    for (int i = 1; i < elements.length; i++) {
+      expected = elements[i].transition.apply(expected);
+      assertEquals(expected, elements[i].getClusterConfiguration());
+    }
+  }
+
+  /**
+   * Compares the beam search of several widths to the shortest path.  Each path found must be valid and no
+   * shorter than the shortest path.
+   */
+  @Test
+  public void testBeamWidths() {
+    for (long seed = 0; seed < 8; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, seed);
+      ClusterOptimizer shortestOptimizer = newClusterOptimizer(clusterConfiguration);
+      ListElement shortest = shortestOptimizer.getOptimizedClusterConfiguration((ListElement path, long loopCount) -> true);
+      StringBuilder message = new StringBuilder("BeamSearchTest: seed:").append(seed)
+          .append(" shortest:pathLen:").append(shortest == null ? -1 : shortest.pathLen)
+          .append(":expanded:").append(shortestOptimizer.getGenerateChildrenCount());
+      for (int beamWidth : new int[] {1, 4, 16, 64}) {
+        ClusterOptimizer optimizer = newClusterOptimizer(clusterConfiguration);
+        ListElement path = optimizer.getBeamSearchClusterConfiguration(beamWidth, MAX_PATH_LEN);
+        if (path != null) {
+          assertNotNull("Beam search found a path where none exists", shortest);
+          assertTrue(path.pathLen >= shortest.pathLen);
+          assertTrue(path.pathLen <= MAX_PATH_LEN);
+          assertValidPath(clusterConfiguration, path);
+        }
+        // Each layer expands no more than the beam width
+        assertTrue(optimizer.getGenerateChildrenCount() <= 1 + (long) beamWidth * MAX_PATH_LEN);
+        message.append(" beam").append(beamWidth)
+            .append(":pathLen:").append(path == null ? -1 : path.pathLen)
+            .append(":expanded:").append(optimizer.getGenerateChildrenCount());
+      }
+      Benchmarks.report(message);
+    }
+  }
+
+  @Test
+  public void testRepeatable() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, 2);
+    ListElement expected = newClusterOptimizer(clusterConfiguration).getBeamSearchClusterConfiguration(8, MAX_PATH_LEN);
+    ListElement actual = newClusterOptimizer(clusterConfiguration).getBeamSearchClusterConfiguration(8, MAX_PATH_LEN);
+    if (expected == null) {
+      assertNull(actual);
+    } else {
+      assertNotNull(actual);
+      assertEquals(expected.pathLen, actual.pathLen);
+      assertEquals(expected.getClusterConfiguration(), actual.getClusterConfiguration());
+    }
+  }
+
+  @Test
+  public void testAlreadyOptimal() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 6, 3);
+    ListElement path = newClusterOptimizer(clusterConfiguration).getBeamSearchClusterConfiguration(1, 0);
+    if (new AnalyzedClusterConfiguration(clusterConfiguration).isOptimal()) {
+      assertNotNull(path);
+      assertEquals(0, path.pathLen);
+    } else {
+      assertNull(path);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroBeamWidth() {
+    newClusterOptimizer(TestClusterConfigurations.newClusterConfiguration(2, 2, 0)).getBeamSearchClusterConfiguration(0, MAX_PATH_LEN);
+  }
+}
@@ -0,0 +1,311 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.aoindustries.aoserv.cluster.Benchmarks;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.Dom0;
+import com.aoindustries.aoserv.cluster.DomU;
+import com.aoindustries.aoserv.cluster.SecondaryMappingStrategy;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests {@link ClusterOptimizer}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ClusterOptimizerTest {
+
+  private static ListElement getShortestPath(ClusterOptimizer optimizer) {
+    return optimizer.getOptimizedClusterConfiguration((ListElement path, long loopCount) -> true);
+  }
+
+  private static ListElement getShortestPath(ClusterConfiguration clusterConfiguration) {
+    return getShortestPath(
+        new ClusterOptimizer(
+            clusterConfiguration,
+            new ExponentialDeviationHeuristicFunction(),
+            false,
+            false
+        )
+    );
+  }
+
+  private static ClusterOptimizer newClusterOptimizer(ClusterConfiguration clusterConfiguration, SecondaryMappingStrategy secondaryMappingStrategy) {
+    return new ClusterOptimizer(
+        clusterConfiguration,
+        new ExponentialDeviationHeuristicFunction(),
+        false,
+        false,
+        ClusterOptimizerOptions.DEFAULT.withSecondaryMappingStrategy(secondaryMappingStrategy)
+    );
+  }
+
+  @Test
+  public void testCompactSameShortestPath() {
+    for (long seed = 0; seed < 8; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(5, 9, seed);
+      ListElement expected = getShortestPath(clusterConfiguration);
+      ListElement compact = getShortestPath(clusterConfiguration.compact());
+      if (expected == null) {
+        assertNull(compact);
+      } else {
+        assertNotNull(compact);
+        assertEquals(expected.pathLen, compact.pathLen);
+        ClusterConfiguration optimized = compact.getClusterConfiguration();
+        assertTrue(optimized.isCompact());
+        assertTrue(new AnalyzedClusterConfiguration(optimized).isOptimal());
+      }
+    }
+  }
+
+  /**
+   * The canonical mapping finds the same shortest path while generating no more children.
+   */
+  @Test
+  public void testCanonicalSameShortestPath() {
+    for (long seed = 0; seed < 4; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newMultiDiskClusterConfiguration(4, 6, seed);
+      ClusterOptimizer wholeVolumes = newClusterOptimizer(clusterConfiguration, SecondaryMappingStrategy.WHOLE_VOLUMES);
+      ClusterOptimizer canonical = newClusterOptimizer(clusterConfiguration, SecondaryMappingStrategy.CANONICAL);
+      ListElement expected = getShortestPath(wholeVolumes);
+      ListElement actual = getShortestPath(canonical);
+      assertTrue(wholeVolumes.getMoveSecondaryDuplicateCount() > 0);
+      assertTrue(canonical.getMoveSecondaryDuplicateCount() > 0);
+      assertTrue(canonical.getMoveSecondaryChildrenPerCall() <= wholeVolumes.getMoveSecondaryChildrenPerCall());
+      assertTrue(canonical.getChildrenPerCall() <= wholeVolumes.getChildrenPerCall());
+      if (expected == null) {
+        assertNull(actual);
+      } else {
+        assertNotNull(actual);
+        assertEquals(expected.pathLen, actual.pathLen);
+        assertTrue(new AnalyzedClusterConfiguration(actual.getClusterConfiguration()).isOptimal());
+      }
+    }
+  }
+
+  /**
+   * Compares the number of configurations expanded before the first optimal configuration is found between
+   * each {@link TieBreaking}.  Other than {@link TieBreaking#NONE}, repeated searches must expand the same number.
+   * The counts are only reported when benchmarks are {@linkplain Benchmarks#isEnabled() enabled}.
+   */
+  @Test
+  public void testTieBreakingBenchmark() {
+    for (long seed = 0; seed < 8; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, seed);
+      StringBuilder message = new StringBuilder("ClusterOptimizerTest: seed:").append(seed);
+      for (TieBreaking tieBreaking : TieBreaking.values()) {
+        long expanded = -1;
+        int pathLen = -1;
+        for (int pass = 0; pass < 2; pass++) {
+          ClusterOptimizer optimizer = new ClusterOptimizer(
+              clusterConfiguration,
+              new SimpleHeuristicFunction(),
+              false,
+              false,
+              ClusterOptimizerOptions.DEFAULT.withTieBreaking(tieBreaking)
+          );
+          ListElement path = optimizer.getOptimizedClusterConfiguration();
+          if (path != null) {
+            assertTrue(new AnalyzedClusterConfiguration(path.getClusterConfiguration()).isOptimal());
+          }
+          if (pass == 0) {
+            expanded = optimizer.getGenerateChildrenCount();
+            pathLen = path == null ? -1 : path.pathLen;
+          } else if (tieBreaking != TieBreaking.NONE) {
+            assertEquals(expanded, optimizer.getGenerateChildrenCount());
+          }
+        }
+        message.append(' ').append(tieBreaking).append(":expanded:").append(expanded).append(":pathLen:").append(pathLen);
+      }
+      Benchmarks.report(message);
+    }
+  }
+
+  /**
+   * The weighted search must report progressively shorter paths, each within its bound, ending with the same shortest
+   * path as the unweighted search.
+   */
+  @Test
+  public void testWeightedShortestPath() {
+    double[] weights = {5, 3, 2, 1.5, 1};
+    for (HeuristicFunction heuristicFunction : new HeuristicFunction[] {new LinearHeuristicFunction(), new ExponentialDeviationHeuristicFunction()}) {
+      for (long seed = 0; seed < 8; seed++) {
+        ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, seed);
+        long[] firstLoopCount = {-1};
+        ListElement expected = new ClusterOptimizer(
+            clusterConfiguration,
+            heuristicFunction,
+            false,
+            false,
+            ClusterOptimizerOptions.DEFAULT
+        ).getOptimizedClusterConfiguration((ListElement path, long loopCount) -> {
+          if (firstLoopCount[0] == -1) {
+            firstLoopCount[0] = loopCount;
+          }
+          return true;
+        });
+        List<String> reported = new ArrayList<>();
+        double[] lastWeight = {Double.POSITIVE_INFINITY};
+        int[] lastPathLen = {Integer.MAX_VALUE};
+        ListElement actual = new ClusterOptimizer(
+            clusterConfiguration,
+            heuristicFunction,
+            false,
+            false,
+            ClusterOptimizerOptions.DEFAULT.withWeights(weights)
+        ).getOptimizedClusterConfiguration(new OptimizedClusterConfigurationHandler() {
+          @Override
+          public boolean handleOptimizedClusterConfiguration(ListElement path, long loopCount) {
+            throw new AssertionError("Weighted search should report its bound");
+          }
+
+          @Override
+          public boolean handleOptimizedClusterConfiguration(ListElement path, long loopCount, double weight, double suboptimalityBound) {
+            assertTrue(path.pathLen < lastPathLen[0]);
+            assertTrue(weight <= lastWeight[0]);
+            assertTrue(suboptimalityBound >= 1);
+            assertTrue(suboptimalityBound <= weight);
+            assertTrue(new AnalyzedClusterConfiguration(path.getClusterConfiguration()).isOptimal());
+            lastPathLen[0] = path.pathLen;
+            lastWeight[0] = weight;
+            reported.add("loop:" + loopCount + ":pathLen:" + path.pathLen + ":weight:" + weight + ":bound:" + suboptimalityBound);
+            return true;
+          }
+        });
+        if (expected == null) {
+          assertNull(actual);
+        } else {
+          assertNotNull(actual);
+          assertEquals(expected.pathLen, actual.pathLen);
+          Benchmarks.report(
+              "ClusterOptimizerTest: " + heuristicFunction.getClass().getSimpleName()
+                  + " seed:" + seed
+                  + " unweighted:loop:" + firstLoopCount[0] + ":pathLen:" + expected.pathLen
+                  + " weighted:" + reported
+          );
+        }
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIncreasingWeights() {
+    new ClusterOptimizer(
+        TestClusterConfigurations.newClusterConfiguration(2, 2, 0),
+        new SimpleHeuristicFunction(),
+        false,
+        false,
+        ClusterOptimizerOptions.DEFAULT.withWeights(2, 3)
+    );
+  }
+
+  @Test
+  public void testMoveSecondaryDuplicates() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newMultiDiskClusterConfiguration(4, 6, 0);
+    DomU domU = clusterConfiguration.getCluster().getDomU(TestClusterConfigurations.getDomUHostname(0));
+    Dom0 dom0 = clusterConfiguration.getCluster().getDom0(TestClusterConfigurations.getDom0Hostname(2));
+    // The mappings onto either disk of the Dom0 use physical volumes of the same size in the same way
+    int[] counts = new int[2];
+    int mapped = 0;
+    for (ClusterConfiguration moved : clusterConfiguration.moveSecondary(
+        domU,
+        dom0,
+        SecondaryMappingStrategy.WHOLE_VOLUMES,
+        (int m, int duplicates) -> {
+          counts[0] += m;
+          counts[1] += duplicates;
+        }
+    )) {
+      assertEquals(dom0, moved.getDomUConfiguration(domU).getSecondaryDom0());
+      mapped++;
+    }
+    assertEquals(1, mapped);
+    assertEquals(1, counts[0]);
+    assertEquals(1, counts[1]);
+  }
+
+  private static ClusterOptimizer newBudgetClusterOptimizer(ClusterConfiguration clusterConfiguration) {
+    return new ClusterOptimizer(
+        clusterConfiguration,
+        new ExponentialDeviationHeuristicFunction(),
+        false,
+        false
+    );
+  }
+
+  /**
+   * A cluster without any optimal configuration is searched only until the budget, returning the lowest heuristic.
+   */
+  @Test
+  public void testExpandedBudget() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, 0);
+    ClusterOptimizer optimizer = newBudgetClusterOptimizer(clusterConfiguration);
+    ListElement path = optimizer.getOptimizedClusterConfiguration(
+        (ListElement p, long loopCount) -> true,
+        new SearchBudget(Long.MAX_VALUE, 50, Long.MAX_VALUE, Long.MAX_VALUE, null)
+    );
+    assertEquals(BudgetLimit.EXPANDED, optimizer.getExceededLimit());
+    assertNotNull(path);
+    assertFalse(new AnalyzedClusterConfiguration(path.getClusterConfiguration()).isOptimal());
+    assertTrue(path.heuristic <= new ExponentialDeviationHeuristicFunction().getHeuristic(clusterConfiguration, 0));
+    assertTrue(optimizer.getGenerateChildrenCount() <= 50);
+  }
+
+  @Test
+  public void testListSizeBudget() {
+    ClusterOptimizer optimizer = newBudgetClusterOptimizer(TestClusterConfigurations.newClusterConfiguration(6, 9, 0));
+    ListElement path = optimizer.getOptimizedClusterConfiguration(
+        null,
+        new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, 100, Long.MAX_VALUE, null)
+    );
+    assertEquals(BudgetLimit.LIST_SIZE, optimizer.getExceededLimit());
+    assertNotNull(path);
+  }
+
+  @Test
+  public void testCancelledBudget() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, 1);
+    ClusterOptimizer optimizer = newBudgetClusterOptimizer(clusterConfiguration);
+    CancellationToken cancellationToken = new CancellationToken();
+    cancellationToken.cancel();
+    ListElement path = optimizer.getOptimizedClusterConfiguration(null, new SearchBudget(cancellationToken));
+    assertEquals(BudgetLimit.CANCELLED, optimizer.getExceededLimit());
+    assertEquals(0, path.pathLen);
+    assertEquals(clusterConfiguration, path.getClusterConfiguration());
+    // A later search within its budget clears the limit
+    path = optimizer.getOptimizedClusterConfiguration(null, SearchBudget.UNLIMITED);
+    assertNull(optimizer.getExceededLimit());
+    assertTrue(new AnalyzedClusterConfiguration(path.getClusterConfiguration()).isOptimal());
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.SecondaryMappingStrategy;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.Test;
+
+/**
+ * Tests {@link Evaluation}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class EvaluationTest {
+
+  private static final HeuristicFunction[] heuristicFunctions = {
+      new LeastInformedHeuristicFunction(),
+      new SimpleHeuristicFunction(),
+      new LinearHeuristicFunction(),
+      new ExponentialHeuristicFunction(),
+      new ExponentialDeviationHeuristicFunction(),
+      new ExponentialDeviationWithNoneHeuristicFunction(),
+      // Not incremental
+      (ClusterConfiguration clusterConfiguration, int g) -> new ExponentialHeuristicFunction().getHeuristic(clusterConfiguration, g)
+  };
+
+  /**
+   * Follows random paths several moves deep, so each evaluation is derived from a parent that was itself derived.
+   *
+   * @param  cacheCapacity  the capacity of the cache of Dom0 evaluations or <code>0</code> for no cache
+   */
+  private static void testMatchesFullAnalysis(int cacheCapacity, LongAdder hitCount, LongAdder evictionCount) {
+    Random random = new Random(0);
+    List<ClusterConfiguration> children = new ArrayList<>();
+    List<Transition> childTransitions = new ArrayList<>();
+    for (long seed = 0; seed < 4; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newMultiDiskClusterConfiguration(5, 9, seed);
+      ClusterOptimizer optimizer = new ClusterOptimizer(
+          clusterConfiguration,
+          new LeastInformedHeuristicFunction(),
+          true,
+          false,
+          ClusterOptimizerOptions.DEFAULT.withSecondaryMappingStrategy(SecondaryMappingStrategy.FREE_EXTENTS)
+      );
+      for (HeuristicFunction heuristicFunction : heuristicFunctions) {
+        Dom0EvaluationCache cache = cacheCapacity == 0 ? null : new Dom0EvaluationCache(cacheCapacity, hitCount, new LongAdder(), evictionCount);
+        ClusterConfiguration current = clusterConfiguration;
+        Evaluation evaluation = Evaluation.evaluate(heuristicFunction, cache, current, 0);
+        for (int g = 1; g <= 6; g++) {
+          optimizer.generateChildren(current, children, childTransitions, false);
+          List<Evaluation> childEvaluations = new ArrayList<>();
+          for (int i = 0; i < children.size(); i++) {
+            ClusterConfiguration child = children.get(i);
+            Evaluation childEvaluation = evaluation.evaluateChild(heuristicFunction, cache, childTransitions.get(i), child, g);
+            AnalyzedClusterConfiguration analysis = new AnalyzedClusterConfiguration(child);
+            assertEquals(heuristicFunction.getHeuristic(child, g), childEvaluation.heuristic, 0);
+            assertEquals(analysis.isOptimal(), childEvaluation.isOptimal());
+            assertEquals(analysis.hasCritical(), childEvaluation.hasCritical());
+            childEvaluations.add(childEvaluation);
+          }
+          int index = random.nextInt(children.size());
+          current = children.get(index);
+          evaluation = childEvaluations.get(index);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMatchesFullAnalysis() {
+    testMatchesFullAnalysis(0, null, null);
+  }
+
+  @Test
+  public void testMatchesFullAnalysisCached() {
+    LongAdder hitCount = new LongAdder();
+    testMatchesFullAnalysis(Dom0EvaluationCache.DEFAULT_CAPACITY, hitCount, new LongAdder());
+    assertTrue(hitCount.sum() > 0);
+  }
+
+  @Test
+  public void testMatchesFullAnalysisEvicted() {
+    LongAdder evictionCount = new LongAdder();
+    testMatchesFullAnalysis(4, new LongAdder(), evictionCount);
+    assertTrue(evictionCount.sum() > 0);
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.aoindustries.aoserv.cluster.Benchmarks;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests {@link FingerprintClosedList}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class FingerprintClosedListTest {
+
+  /**
+   * Gets the configurations reachable within two transitions, along with the elements that reached them.
+   */
+  private static Map<ClusterConfiguration, ListElement> getReachable(ClusterOptimizer optimizer) {
+    Map<ClusterConfiguration, ListElement> reachable = new LinkedHashMap<>();
+    ListElement root = new ListElement(null, null, optimizer.getClusterConfiguration(), 0);
+    reachable.put(root.clusterConfiguration, root);
+    List<ClusterConfiguration> children = new ArrayList<>();
+    List<Transition> childTransitions = new ArrayList<>();
+    List<ListElement> parents = new ArrayList<>();
+    parents.add(root);
+    for (int depth = 0; depth < 2; depth++) {
+      List<ListElement> nextParents = new ArrayList<>();
+      for (ListElement parent : parents) {
+        optimizer.generateChildren(parent.clusterConfiguration, children, childTransitions, false);
+        for (int i = 0; i < children.size(); i++) {
+          ListElement child = new ListElement(parent, childTransitions.get(i), children.get(i), 0);
+          if (reachable.putIfAbsent(child.clusterConfiguration, child) == null) {
+            nextParents.add(child);
+          }
+        }
+      }
+      parents = nextParents;
+    }
+    return reachable;
+  }
+
+  @Test
+  public void testMatchesExact() {
+    ClusterOptimizer optimizer = new ClusterOptimizer(
+        TestClusterConfigurations.newClusterConfiguration(5, 9, 0),
+        new LeastInformedHeuristicFunction(),
+        true,
+        false
+    );
+    List<ListElement> elements = new ArrayList<>(getReachable(optimizer).values());
+    for (ClosedListType type : new ClosedListType[]{ClosedListType.FINGERPRINT_64, ClosedListType.FINGERPRINT_128}) {
+      ClosedList exact = ClosedList.newInstance(ClosedListType.EXACT);
+      ClosedList fingerprint = ClosedList.newInstance(type);
+      List<ClusterConfiguration> configurations = new ArrayList<>();
+      for (ListElement element : elements) {
+        ListElement copy = new ListElement(element.previous, element.transition, element.clusterConfiguration, 0);
+        configurations.add(element.clusterConfiguration);
+        exact.add(copy);
+        fingerprint.add(copy);
+        if (copy.previous != null) {
+          // The configuration is released and reconstructed from the transitions
+          assertNull(copy.clusterConfiguration);
+          assertEquals(element.clusterConfiguration, copy.getClusterConfiguration());
+        }
+      }
+      assertEquals(exact.size(), fingerprint.size());
+      // Remove every third
+      for (int i = 0; i < configurations.size(); i += 3) {
+        exact.remove(configurations.get(i));
+        fingerprint.remove(configurations.get(i));
+      }
+      assertEquals(exact.size(), fingerprint.size());
+      for (ClusterConfiguration configuration : configurations) {
+        assertEquals(exact.getPathLen(configuration), fingerprint.getPathLen(configuration));
+      }
+      exact.trim(2);
+      fingerprint.trim(2);
+      assertEquals(exact.size(), fingerprint.size());
+      for (ClusterConfiguration configuration : configurations) {
+        assertEquals(exact.getPathLen(configuration), fingerprint.getPathLen(configuration));
+      }
+    }
+  }
+
+  @Test
+  public void testSameShortestPathAsExact() {
+    for (long seed = 0; seed < 8; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(5, 9, seed);
+      ListElement exact = new ClusterOptimizer(
+          clusterConfiguration,
+          new ExponentialDeviationHeuristicFunction(),
+          false,
+          false,
+          ClusterOptimizerOptions.DEFAULT.withClosedListType(ClosedListType.EXACT)
+      ).getOptimizedClusterConfiguration((ListElement path, long loopCount) -> true);
+      ListElement fingerprint = new ClusterOptimizer(
+          clusterConfiguration,
+          new ExponentialDeviationHeuristicFunction(),
+          false,
+          false,
+          ClusterOptimizerOptions.DEFAULT.withClosedListType(ClosedListType.FINGERPRINT_64)
+      ).getOptimizedClusterConfiguration((ListElement path, long loopCount) -> true);
+      if (exact == null) {
+        assertNull(fingerprint);
+      } else {
+        assertNotNull(fingerprint);
+        assertEquals(exact.pathLen, fingerprint.pathLen);
+        assertTrue(new AnalyzedClusterConfiguration(fingerprint.getClusterConfiguration()).isOptimal());
+      }
+    }
+  }
+
+  private static long getUsedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Closes the given number of elements along a random walk.  The last element is returned, which references
+   * every closed element through {@link ListElement#previous}, as the open list does during a search.
+   */
+  private static ListElement walk(ClusterOptimizer optimizer, ClosedList closedList, int steps, long seed) {
+    Random random = new Random(seed);
+    List<ClusterConfiguration> children = new ArrayList<>();
+    List<Transition> childTransitions = new ArrayList<>();
+    ListElement current = new ListElement(null, null, optimizer.getClusterConfiguration(), 0);
+    for (int step = 0; step < steps; step++) {
+      optimizer.generateChildren(current.clusterConfiguration, children, childTransitions, false);
+      int index = random.nextInt(children.size());
+      ListElement child = new ListElement(current, childTransitions.get(index), children.get(index), 0);
+      closedList.add(current);
+      current = child;
+    }
+    return current;
+  }
+
+  /**
+   * Measures the heap retained per closed configuration by each {@link ClosedListType}, including the
+   * {@link ListElement} of each configuration that remains reachable through the path, as in a search.  This is a benchmark, run only when
+   * {@linkplain Benchmarks#isEnabled() enabled}.
+   */
+  @Test
+  public void testHeapPerExpandedNodeBenchmark() {
+    Benchmarks.assumeEnabled();
+    final int steps = 10000;
+    ClusterOptimizer optimizer = new ClusterOptimizer(
+        TestClusterConfigurations.newClusterConfiguration(8, 32, 0),
+        new LeastInformedHeuristicFunction(),
+        true,
+        false
+    );
+    StringBuilder message = new StringBuilder(FingerprintClosedListTest.class.getSimpleName()).append(':');
+    for (ClosedListType type : ClosedListType.values()) {
+      long before = getUsedHeap();
+      ClosedList closedList = ClosedList.newInstance(type);
+      ListElement last = walk(optimizer, closedList, steps, 0);
+      long after = getUsedHeap();
+      message
+          .append(' ').append(type)
+          .append(": closed:").append(closedList.size())
+          .append(" bytes/closed:").append((after - before) / closedList.size())
+          .append(" collision:").append(type.getCollisionProbability(closedList.size()));
+      // Keeps the path, and every element on it, reachable until measured
+      assertEquals(steps, last.pathLen);
+    }
+    Benchmarks.report(message);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import org.junit.Test;
+
+/**
+ * Tests {@link HashDistributedSearch}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class HashDistributedSearchTest {
+
+  private static ListElement getShortestPath(ClusterConfiguration clusterConfiguration, int parallelism) {
+    return new ClusterOptimizer(
+        clusterConfiguration,
+        new ExponentialDeviationHeuristicFunction(),
+        false,
+        false,
+        ClusterOptimizerOptions.DEFAULT.withParallelism(parallelism)
+    ).getOptimizedClusterConfiguration((ListElement path, long loopCount) -> true);
+  }
+
+  @Test
+  public void testSameShortestPathAsSequential() {
+    for (long seed = 0; seed < 8; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(5, 9, seed);
+      ListElement sequential = getShortestPath(clusterConfiguration, 1);
+      for (int parallelism = 2; parallelism <= 4; parallelism++) {
+        ListElement parallel = getShortestPath(clusterConfiguration, parallelism);
+        if (sequential == null) {
+          // Some of the random clusters have no optimal configuration
+          assertNull(parallel);
+        } else {
+          assertNotNull(parallel);
+          assertEquals(sequential.pathLen, parallel.pathLen);
+          assertTrue(new AnalyzedClusterConfiguration(parallel.getClusterConfiguration()).isOptimal());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFirstPathWithoutHandler() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(4, 6, 0);
+    ListElement path = new ClusterOptimizer(
+        clusterConfiguration,
+        new ExponentialDeviationHeuristicFunction(),
+        false,
+        false,
+        ClusterOptimizerOptions.DEFAULT.withParallelism(4)
+    ).getOptimizedClusterConfiguration();
+    assertNotNull(path);
+    assertTrue(new AnalyzedClusterConfiguration(path.getClusterConfiguration()).isOptimal());
+  }
+
+  @Test
+  public void testBudget() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, 0);
+    ClusterOptimizer optimizer = new ClusterOptimizer(
+        clusterConfiguration,
+        new ExponentialDeviationHeuristicFunction(),
+        false,
+        false,
+        ClusterOptimizerOptions.DEFAULT.withParallelism(4)
+    );
+    ListElement path = optimizer.getOptimizedClusterConfiguration(
+        (ListElement p, long loopCount) -> true,
+        new SearchBudget(Long.MAX_VALUE, 50, Long.MAX_VALUE, Long.MAX_VALUE, null)
+    );
+    assertEquals(BudgetLimit.EXPANDED, optimizer.getExceededLimit());
+    assertNotNull(path);
+    // Each worker may expand one more before seeing the limit
+    assertTrue(optimizer.getGenerateChildrenCount() <= 50 + 4);
+    CancellationToken cancellationToken = new CancellationToken();
+    cancellationToken.cancel();
+    path = optimizer.getOptimizedClusterConfiguration(null, new SearchBudget(cancellationToken));
+    assertEquals(BudgetLimit.CANCELLED, optimizer.getExceededLimit());
+    assertEquals(0, path.pathLen);
+  }
+}
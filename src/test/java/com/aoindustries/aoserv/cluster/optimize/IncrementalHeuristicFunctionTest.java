@@ -0,0 +1,127 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.aoindustries.aoserv.cluster.Benchmarks;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.SecondaryMappingStrategy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests {@link IncrementalHeuristicFunction}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class IncrementalHeuristicFunctionTest {
+
+  private static final IncrementalHeuristicFunction[] heuristicFunctions = {
+      new SimpleHeuristicFunction(),
+      new LinearHeuristicFunction(),
+      new ExponentialHeuristicFunction(),
+      new ExponentialDeviationHeuristicFunction(),
+      new ExponentialDeviationWithNoneHeuristicFunction()
+  };
+
+  /**
+   * Gets the children of the configuration, both migrations and moves onto partially allocated volumes.
+   */
+  private static void generateChildren(ClusterConfiguration clusterConfiguration, List<ClusterConfiguration> children, List<Transition> childTransitions) {
+    new ClusterOptimizer(
+        clusterConfiguration,
+        new LeastInformedHeuristicFunction(),
+        true,
+        false,
+        ClusterOptimizerOptions.DEFAULT.withSecondaryMappingStrategy(SecondaryMappingStrategy.FREE_EXTENTS)
+    ).generateChildren(clusterConfiguration, children, childTransitions, false);
+  }
+
+  @Test
+  public void testMatchesFull() {
+    List<ClusterConfiguration> children = new ArrayList<>();
+    List<Transition> childTransitions = new ArrayList<>();
+    for (long seed = 0; seed < 4; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newMultiDiskClusterConfiguration(5, 9, seed);
+      generateChildren(clusterConfiguration, children, childTransitions);
+      assertTrue(children.size() > 0);
+      for (IncrementalHeuristicFunction heuristicFunction : heuristicFunctions) {
+        double[] dom0Heuristics = heuristicFunction.getDom0Heuristics(clusterConfiguration);
+        double[] copy = dom0Heuristics.clone();
+        for (int i = 0; i < children.size(); i++) {
+          ClusterConfiguration child = children.get(i);
+          Transition transition = childTransitions.get(i);
+          assertEquals(
+              heuristicFunction.getClass().getSimpleName() + ": " + transition,
+              heuristicFunction.getHeuristic(child, 1),
+              heuristicFunction.getHeuristic(dom0Heuristics, transition, child, 1),
+              0
+          );
+        }
+        assertTrue(Arrays.equals(copy, dom0Heuristics));
+      }
+    }
+  }
+
+  /**
+   * Compares the time of full and incremental evaluation of the children of a configuration.
+   * This is a benchmark, run only when {@linkplain Benchmarks#isEnabled() enabled}.
+   */
+  @Test
+  public void testIncrementalBenchmark() {
+    Benchmarks.assumeEnabled();
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newMultiDiskClusterConfiguration(12, 20, 0);
+    List<ClusterConfiguration> children = new ArrayList<>();
+    List<Transition> childTransitions = new ArrayList<>();
+    generateChildren(clusterConfiguration, children, childTransitions);
+    IncrementalHeuristicFunction heuristicFunction = new ExponentialDeviationHeuristicFunction();
+    double fullTotal = 0;
+    double incrementalTotal = 0;
+    long fullNanos = 0;
+    long incrementalNanos = 0;
+    for (int pass = 0; pass < 5; pass++) {
+      long startNanos = System.nanoTime();
+      for (ClusterConfiguration child : children) {
+        fullTotal += heuristicFunction.getHeuristic(child, 1);
+      }
+      fullNanos += System.nanoTime() - startNanos;
+      startNanos = System.nanoTime();
+      double[] dom0Heuristics = heuristicFunction.getDom0Heuristics(clusterConfiguration);
+      for (int i = 0; i < children.size(); i++) {
+        incrementalTotal += heuristicFunction.getHeuristic(dom0Heuristics, childTransitions.get(i), children.get(i), 1);
+      }
+      incrementalNanos += System.nanoTime() - startNanos;
+    }
+    assertEquals(fullTotal, incrementalTotal, 0);
+    Benchmarks.report(
+        "IncrementalHeuristicFunctionTest: children:" + children.size()
+            + " full:" + (fullNanos / 1000000) + " ms"
+            + " incremental:" + (incrementalNanos / 1000000) + " ms"
+    );
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.aoindustries.aoserv.cluster.Benchmarks;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import org.junit.Test;
+
+/**
+ * Tests {@link IterativeDeepeningSearch}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class IterativeDeepeningSearchTest {
+
+  private static final int MAX_PATH_LEN = 12;
+
+  private static ClusterOptimizer newClusterOptimizer(ClusterConfiguration clusterConfiguration) {
+    return new ClusterOptimizer(
+        clusterConfiguration,
+        new LinearHeuristicFunction(),
+        false,
+        false
+    );
+  }
+
+  /**
+   * Each path found must be valid and no shorter than the shortest path, and a path must be found whenever
+   * one exists within the maximum path length.
+   */
+  @Test
+  public void testFindsPath() {
+    for (long seed = 0; seed < 8; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, seed);
+      ClusterOptimizer shortestOptimizer = newClusterOptimizer(clusterConfiguration);
+      ListElement shortest = shortestOptimizer.getOptimizedClusterConfiguration((ListElement path, long loopCount) -> true);
+      ClusterOptimizer optimizer = newClusterOptimizer(clusterConfiguration);
+      ListElement path = optimizer.getIterativeDeepeningClusterConfiguration(MAX_PATH_LEN);
+      if (shortest == null || shortest.pathLen > MAX_PATH_LEN) {
+        assertNull(path);
+      } else {
+        assertNotNull(path);
+        assertTrue(path.pathLen >= shortest.pathLen);
+        assertTrue(new AnalyzedClusterConfiguration(path.getClusterConfiguration()).isOptimal());
+        // The same path structure as the best-first search
+        ClusterConfiguration expected = clusterConfiguration;
+        ListElement[] elements = new ListElement[path.pathLen + 1];
+        for (ListElement element = path; element != null; element = element.previous) {
+          elements[element.pathLen] = element;
+        }
+        assertNull(elements[0].transition);
+        for (int i = 1; i < elements.length; i++) {
+          expected = elements[i].transition.apply(expected);
+          assertEquals(expected, elements[i].getClusterConfiguration());
+        }
+      }
+      Benchmarks.report(
+          "IterativeDeepeningSearchTest: seed:" + seed
+              + " shortest:pathLen:" + (shortest == null ? -1 : shortest.pathLen)
+              + ":expanded:" + shortestOptimizer.getGenerateChildrenCount()
+              + " IDA*:pathLen:" + (path == null ? -1 : path.pathLen)
+              + ":expanded:" + optimizer.getGenerateChildrenCount()
+              + ":transpositionHits:" + optimizer.getTranspositionHitCount()
+      );
+    }
+  }
+
+  /**
+   * A table of a single entry evicts constantly, which must only cause configurations to be searched again.
+   */
+  @Test
+  public void testTinyTranspositionTable() {
+    for (long seed = 0; seed < 8; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, seed);
+      ListElement expected = newClusterOptimizer(clusterConfiguration).getIterativeDeepeningClusterConfiguration(4);
+      ListElement actual = newClusterOptimizer(clusterConfiguration).getIterativeDeepeningClusterConfiguration(1, 4);
+      if (expected == null) {
+        assertNull(actual);
+      } else {
+        assertNotNull(actual);
+        assertTrue(new AnalyzedClusterConfiguration(actual.getClusterConfiguration()).isOptimal());
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeMaxPathLen() {
+    newClusterOptimizer(TestClusterConfigurations.newClusterConfiguration(2, 2, 0)).getIterativeDeepeningClusterConfiguration(-1);
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.aoapps.lang.io.IoUtils;
+import com.aoindustries.aoserv.cluster.Benchmarks;
+import com.aoindustries.aoserv.cluster.Cluster;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests {@link ListElementBucketQueue}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ListElementBucketQueueTest {
+
+  /**
+   * A fast pseudo-random number generator for non-cryptographic purposes.
+   */
+  private static final Random fastRandom = new Random(IoUtils.bufferToLong(new SecureRandom().generateSeed(Long.BYTES)));
+
+  private static final ClusterConfiguration clusterConfiguration = new ClusterConfiguration(new Cluster("test"));
+
+  private static ListElement newListElement(double heuristic) {
+    return new ListElement(null, null, clusterConfiguration, heuristic);
+  }
+
+  @Test
+  public void testMatchesPriorityQueue() {
+    PriorityQueue<ListElement> expected = new PriorityQueue<>();
+    ListElementBucketQueue queue = new ListElementBucketQueue();
+    List<ListElement> elements = new ArrayList<>();
+    for (int c = 0; c < 100000; c++) {
+      int op = fastRandom.nextInt(4);
+      if (op == 0 && !queue.isEmpty()) {
+        assertEquals(expected.peek().heuristic, queue.peek().heuristic, 0);
+        ListElement removed = queue.remove();
+        assertEquals(expected.peek().heuristic, removed.heuristic, 0);
+        // Remove the same element, which may differ from the head of expected when tied
+        assertTrue(expected.remove(removed));
+        assertFalse(queue.contains(removed));
+        elements.remove(removed);
+      } else if (op == 1 && !elements.isEmpty()) {
+        // Decrease-key
+        ListElement existing = elements.get(fastRandom.nextInt(elements.size()));
+        ListElement replacement = newListElement(Math.max(0, existing.heuristic - fastRandom.nextInt(100)));
+        assertTrue(expected.remove(existing));
+        expected.add(replacement);
+        queue.replace(existing, replacement);
+        assertFalse(queue.contains(existing));
+        assertTrue(queue.contains(replacement));
+        elements.set(elements.indexOf(existing), replacement);
+      } else if (op == 2 && !elements.isEmpty()) {
+        ListElement removed = elements.remove(fastRandom.nextInt(elements.size()));
+        assertTrue(expected.remove(removed));
+        assertTrue(queue.remove(removed));
+        assertFalse(queue.remove(removed));
+      } else {
+        // Sometimes beyond the initial buckets
+        ListElement added = newListElement(fastRandom.nextInt(fastRandom.nextInt(100) == 0 ? 100000 : 1000));
+        expected.add(added);
+        queue.add(added);
+        elements.add(added);
+      }
+      assertEquals(expected.size(), queue.size());
+    }
+    while (!queue.isEmpty()) {
+      assertEquals(expected.remove().heuristic, queue.remove().heuristic, 0);
+    }
+    assertTrue(expected.isEmpty());
+    assertEquals(null, queue.peek());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonIntegral() {
+    new ListElementBucketQueue().add(newListElement(1.5));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegative() {
+    new ListElementBucketQueue().add(newListElement(-1));
+  }
+
+  @Test
+  public void testSelectedByHeuristic() {
+    assertTrue(OpenQueue.newInstance(new SimpleHeuristicFunction(), TieBreaking.NONE) instanceof ListElementBucketQueue);
+    assertTrue(OpenQueue.newInstance(new LinearHeuristicFunction(), TieBreaking.NONE) instanceof ListElementBucketQueue);
+    assertTrue(OpenQueue.newInstance(new ExponentialHeuristicFunction(), TieBreaking.NONE) instanceof ListElementBucketQueue);
+    assertTrue(OpenQueue.newInstance(new ExponentialDeviationHeuristicFunction(), TieBreaking.NONE) instanceof ListElementHeap);
+  }
+
+  /**
+   * With tie-breaking, the order is fully determined, so must be the same as the heap and a sort.
+   */
+  @Test
+  public void testTieBreakingMatchesHeap() {
+    for (TieBreaking tieBreaking : TieBreaking.values()) {
+      if (tieBreaking == TieBreaking.NONE) {
+        continue;
+      }
+      ListElementHeap heap = new ListElementHeap(tieBreaking);
+      ListElementBucketQueue queue = new ListElementBucketQueue(tieBreaking);
+      List<ListElement> elements = new ArrayList<>();
+      for (int i = 0; i < 10000; i++) {
+        // Vary the path length by building on a random previous element
+        ListElement previous = elements.isEmpty() || fastRandom.nextInt(4) == 0 ? null : elements.get(fastRandom.nextInt(elements.size()));
+        ListElement element = new ListElement(previous, null, clusterConfiguration, fastRandom.nextInt(20));
+        element.sequence = i;
+        elements.add(element);
+      }
+      for (ListElement element : elements) {
+        heap.add(element);
+      }
+      List<ListElement> sorted = new ArrayList<>(elements);
+      sorted.sort(tieBreaking::compare);
+      List<ListElement> heapOrder = new ArrayList<>();
+      while (!heap.isEmpty()) {
+        heapOrder.add(heap.remove());
+      }
+      assertEquals(sorted, heapOrder);
+      for (ListElement element : elements) {
+        queue.add(element);
+      }
+      List<ListElement> queueOrder = new ArrayList<>();
+      while (!queue.isEmpty()) {
+        queueOrder.add(queue.remove());
+      }
+      assertEquals(sorted, queueOrder);
+    }
+  }
+
+  /**
+   * Runs the same sequence of operations as the open list of a search: remove the lowest element, then add its
+   * children with heuristics near its own.
+   *
+   * @return  the sum of the heuristics removed, to be compared between queues
+   */
+  private static double runSearchLike(OpenQueue queue, ListElement[] initial, ListElement[] children, int childrenPerRemove) {
+    for (ListElement element : initial) {
+      queue.add(element);
+    }
+    double total = 0;
+    int childIndex = 0;
+    while (childIndex < children.length) {
+      total += queue.remove().heuristic;
+      for (int i = 0; i < childrenPerRemove && childIndex < children.length; i++) {
+        queue.add(children[childIndex++]);
+      }
+    }
+    while (!queue.isEmpty()) {
+      total += queue.remove().heuristic;
+    }
+    return total;
+  }
+
+  /**
+   * Compares the cost of the open list operations of {@link ClusterOptimizer} between
+   * {@link PriorityQueue}, {@link ListElementHeap}, and {@link ListElementBucketQueue}.
+   * This is a benchmark, run only when {@linkplain Benchmarks#isEnabled() enabled}.
+   */
+  @Test
+  public void testSearchBenchmark() {
+    Benchmarks.assumeEnabled();
+    final int openSize = 100000;
+    final int childCount = 500000;
+    final int childrenPerRemove = 20;
+    final int heuristicRange = 1000;
+    ListElement[] initial = new ListElement[openSize];
+    for (int i = 0; i < openSize; i++) {
+      initial[i] = newListElement(fastRandom.nextInt(heuristicRange));
+    }
+    double[] childHeuristics = new double[childCount];
+    for (int i = 0; i < childCount; i++) {
+      childHeuristics[i] = fastRandom.nextInt(heuristicRange);
+    }
+
+    long priorityQueueNanos = 0;
+    long heapNanos = 0;
+    long bucketNanos = 0;
+    for (int pass = 0; pass < 3; pass++) {
+      // New elements each pass since each element tracks its position in its queue
+      ListElement[] initialElements = new ListElement[openSize];
+      ListElement[] children = new ListElement[childCount];
+
+      for (int i = 0; i < openSize; i++) {
+        initialElements[i] = newListElement(initial[i].heuristic);
+      }
+      for (int i = 0; i < childCount; i++) {
+        children[i] = newListElement(childHeuristics[i]);
+      }
+      PriorityQueue<ListElement> priorityQueue = new PriorityQueue<>();
+      long startNanos = System.nanoTime();
+      for (ListElement element : initialElements) {
+        priorityQueue.add(element);
+      }
+      double priorityQueueTotal = 0;
+      int childIndex = 0;
+      while (childIndex < childCount) {
+        priorityQueueTotal += priorityQueue.remove().heuristic;
+        for (int i = 0; i < childrenPerRemove && childIndex < childCount; i++) {
+          priorityQueue.add(children[childIndex++]);
+        }
+      }
+      while (!priorityQueue.isEmpty()) {
+        priorityQueueTotal += priorityQueue.remove().heuristic;
+      }
+      priorityQueueNanos += System.nanoTime() - startNanos;
+
+      for (int i = 0; i < openSize; i++) {
+        initialElements[i] = newListElement(initial[i].heuristic);
+      }
+      for (int i = 0; i < childCount; i++) {
+        children[i] = newListElement(childHeuristics[i]);
+      }
+      startNanos = System.nanoTime();
+      double heapTotal = runSearchLike(new ListElementHeap(), initialElements, children, childrenPerRemove);
+      heapNanos += System.nanoTime() - startNanos;
+
+      for (int i = 0; i < openSize; i++) {
+        initialElements[i] = newListElement(initial[i].heuristic);
+      }
+      for (int i = 0; i < childCount; i++) {
+        children[i] = newListElement(childHeuristics[i]);
+      }
+      startNanos = System.nanoTime();
+      double bucketTotal = runSearchLike(new ListElementBucketQueue(), initialElements, children, childrenPerRemove);
+      bucketNanos += System.nanoTime() - startNanos;
+
+      assertEquals(priorityQueueTotal, heapTotal, 0);
+      assertEquals(priorityQueueTotal, bucketTotal, 0);
+    }
+    Benchmarks.report(
+        "ListElementBucketQueueTest: open:" + openSize
+            + " children:" + childCount
+            + " PriorityQueue:" + (priorityQueueNanos / 1000000) + " ms"
+            + " ListElementHeap:" + (heapNanos / 1000000) + " ms"
+            + " ListElementBucketQueue:" + (bucketNanos / 1000000) + " ms"
+    );
+  }
+}
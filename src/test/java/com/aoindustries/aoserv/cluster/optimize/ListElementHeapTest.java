@@ -0,0 +1,158 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.aoapps.lang.io.IoUtils;
+import com.aoindustries.aoserv.cluster.Benchmarks;
+import com.aoindustries.aoserv.cluster.Cluster;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests {@link ListElementHeap}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ListElementHeapTest {
+
+  /**
+   * A fast pseudo-random number generator for non-cryptographic purposes.
+   */
+  private static final Random fastRandom = new Random(IoUtils.bufferToLong(new SecureRandom().generateSeed(Long.BYTES)));
+
+  private static final ClusterConfiguration clusterConfiguration = new ClusterConfiguration(new Cluster("test"));
+
+  private static ListElement newListElement(double heuristic) {
+    return new ListElement(null, null, clusterConfiguration, heuristic);
+  }
+
+  @Test
+  public void testMatchesPriorityQueue() {
+    PriorityQueue<ListElement> expected = new PriorityQueue<>();
+    ListElementHeap heap = new ListElementHeap();
+    List<ListElement> elements = new ArrayList<>();
+    for (int c = 0; c < 100000; c++) {
+      int op = fastRandom.nextInt(4);
+      if (op == 0 && !heap.isEmpty()) {
+        ListElement removed = heap.remove();
+        assertEquals(expected.peek().heuristic, removed.heuristic, 0);
+        // Remove the same element, which may differ from the head of expected when tied
+        assertTrue(expected.remove(removed));
+        assertFalse(heap.contains(removed));
+        elements.remove(removed);
+      } else if (op == 1 && !elements.isEmpty()) {
+        // Decrease-key
+        ListElement existing = elements.get(fastRandom.nextInt(elements.size()));
+        ListElement replacement = newListElement(existing.heuristic - fastRandom.nextInt(100));
+        assertTrue(expected.remove(existing));
+        expected.add(replacement);
+        heap.replace(existing, replacement);
+        elements.set(elements.indexOf(existing), replacement);
+      } else if (op == 2 && !elements.isEmpty()) {
+        ListElement removed = elements.remove(fastRandom.nextInt(elements.size()));
+        assertTrue(expected.remove(removed));
+        assertTrue(heap.remove(removed));
+        assertFalse(heap.remove(removed));
+      } else {
+        ListElement added = newListElement(fastRandom.nextInt(1000));
+        expected.add(added);
+        heap.add(added);
+        elements.add(added);
+      }
+      assertEquals(expected.size(), heap.size());
+    }
+    while (!heap.isEmpty()) {
+      assertEquals(expected.remove().heuristic, heap.remove().heuristic, 0);
+    }
+    assertTrue(expected.isEmpty());
+  }
+
+  /**
+   * Compares the cost of the <code>openQueueRemoveCount</code> path in {@link ClusterOptimizer}, where a shorter
+   * path is found to an element already in the open list, between {@link PriorityQueue} and {@link ListElementHeap}.
+   * This is a benchmark, run only when {@linkplain Benchmarks#isEnabled() enabled}.
+   */
+  @Test
+  public void testDecreaseKeyBenchmark() {
+    Benchmarks.assumeEnabled();
+    final int openSize = 100000;
+    final int openQueueRemoveCount = 2000;
+    ListElement[] elements = new ListElement[openSize];
+    for (int i = 0; i < openSize; i++) {
+      elements[i] = newListElement(fastRandom.nextInt(openSize));
+    }
+    int[] replaceIndexes = new int[openQueueRemoveCount];
+    for (int i = 0; i < openQueueRemoveCount; i++) {
+      replaceIndexes[i] = fastRandom.nextInt(openSize);
+    }
+
+    PriorityQueue<ListElement> priorityQueue = new PriorityQueue<>();
+    for (ListElement element : elements) {
+      priorityQueue.add(element);
+    }
+    ListElement[] queueElements = elements.clone();
+    long startNanos = System.nanoTime();
+    for (int index : replaceIndexes) {
+      ListElement existing = queueElements[index];
+      ListElement replacement = newListElement(existing.heuristic - 1);
+      priorityQueue.remove(existing);
+      priorityQueue.add(replacement);
+      queueElements[index] = replacement;
+    }
+    long priorityQueueNanos = System.nanoTime() - startNanos;
+
+    ListElementHeap heap = new ListElementHeap();
+    for (ListElement element : elements) {
+      heap.add(element);
+    }
+    ListElement[] heapElements = elements.clone();
+    startNanos = System.nanoTime();
+    for (int index : replaceIndexes) {
+      ListElement existing = heapElements[index];
+      ListElement replacement = newListElement(existing.heuristic - 1);
+      heap.replace(existing, replacement);
+      heapElements[index] = replacement;
+    }
+    long heapNanos = System.nanoTime() - startNanos;
+
+    Benchmarks.report(
+        "ListElementHeapTest: open:" + openSize
+            + " openQueueRemove:" + openQueueRemoveCount
+            + " PriorityQueue:" + (priorityQueueNanos / 1000000) + " ms"
+            + " ListElementHeap:" + (heapNanos / 1000000) + " ms"
+    );
+    while (!heap.isEmpty()) {
+      assertEquals(priorityQueue.remove().heuristic, heap.remove().heuristic, 0);
+    }
+  }
+}
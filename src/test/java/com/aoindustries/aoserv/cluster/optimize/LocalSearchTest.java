@@ -0,0 +1,135 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.aoindustries.aoserv.cluster.Benchmarks;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Tests {@link LocalSearch}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class LocalSearchTest {
+
+  private static final long MAX_ITERATIONS = 2000;
+
+  private static ClusterOptimizer newClusterOptimizer(ClusterConfiguration clusterConfiguration) {
+    return new ClusterOptimizer(
+        clusterConfiguration,
+        new ExponentialDeviationHeuristicFunction(),
+        false,
+        false
+    );
+  }
+
+  /**
+   * Checks the path replays from the starting configuration, never revisits a configuration, and ends with a
+   * heuristic no higher than the start.
+   */
+  private static void assertValidPath(ClusterConfiguration clusterConfiguration, ListElement path) {
+    ListElement[] elements = new ListElement[path.pathLen + 1];
+    for (ListElement element = path; element != null; element = element.previous) {
+      elements[element.pathLen] = element;
+    }
+    assertEquals(clusterConfiguration, elements[0].getClusterConfiguration());
+    Set<ClusterConfiguration> visited = new HashSet<>();
+    visited.add(clusterConfiguration);
+    ClusterConfiguration expected = clusterConfiguration;
+    for (int i = 1; i < elements.length; i++) {
+      expected = elements[i].transition.apply(expected);
+      assertEquals(expected, elements[i].getClusterConfiguration());
+      assertTrue("Path contains a move that was later undone", visited.add(expected));
+    }
+    HeuristicFunction heuristicFunction = new ExponentialDeviationHeuristicFunction();
+    assertTrue(heuristicFunction.getHeuristic(expected, 0) <= heuristicFunction.getHeuristic(clusterConfiguration, 0));
+  }
+
+  /**
+   * Compares both strategies to the shortest path.  Each path must be valid, and any optimal configuration found
+   * must be no nearer than the shortest path.
+   */
+  @Test
+  public void testStrategies() {
+    for (long seed = 0; seed < 8; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, seed);
+      ListElement shortest = newClusterOptimizer(clusterConfiguration).getOptimizedClusterConfiguration((ListElement path, long loopCount) -> true);
+      StringBuilder message = new StringBuilder("LocalSearchTest: seed:").append(seed)
+          .append(" shortest:pathLen:").append(shortest == null ? -1 : shortest.pathLen);
+      for (LocalSearchStrategy strategy : LocalSearchStrategy.values()) {
+        ClusterOptimizer optimizer = newClusterOptimizer(clusterConfiguration);
+        ListElement path = new LocalSearch(optimizer, strategy, MAX_ITERATIONS, Long.MAX_VALUE, new Random(seed)).search();
+        assertValidPath(clusterConfiguration, path);
+        boolean optimal = new AnalyzedClusterConfiguration(path.getClusterConfiguration()).isOptimal();
+        if (optimal) {
+          assertTrue("Local search found an optimal configuration where none exists", shortest != null);
+          assertTrue(path.pathLen >= shortest.pathLen);
+        }
+        message.append(' ').append(strategy)
+            .append(":pathLen:").append(path.pathLen)
+            .append(":optimal:").append(optimal)
+            .append(":heuristic:").append(path.heuristic);
+      }
+      Benchmarks.report(message);
+    }
+  }
+
+  @Test
+  public void testRepeatable() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, 2);
+    for (LocalSearchStrategy strategy : LocalSearchStrategy.values()) {
+      ListElement expected = new LocalSearch(newClusterOptimizer(clusterConfiguration), strategy, MAX_ITERATIONS, Long.MAX_VALUE, new Random(1)).search();
+      ListElement actual = new LocalSearch(newClusterOptimizer(clusterConfiguration), strategy, MAX_ITERATIONS, Long.MAX_VALUE, new Random(1)).search();
+      assertEquals(expected.pathLen, actual.pathLen);
+      assertEquals(expected.getClusterConfiguration(), actual.getClusterConfiguration());
+    }
+  }
+
+  @Test
+  public void testNoBudget() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newClusterConfiguration(6, 9, 1);
+    ClusterOptimizer optimizer = newClusterOptimizer(clusterConfiguration);
+    for (LocalSearchStrategy strategy : LocalSearchStrategy.values()) {
+      ListElement path = optimizer.getLocalSearchClusterConfiguration(strategy, 0, Long.MAX_VALUE);
+      assertEquals(0, path.pathLen);
+      assertEquals(clusterConfiguration, path.getClusterConfiguration());
+      path = optimizer.getLocalSearchClusterConfiguration(strategy, Long.MAX_VALUE, 0);
+      assertEquals(0, path.pathLen);
+    }
+    assertFalse(optimizer.getGenerateChildrenCount() > 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeIterations() {
+    newClusterOptimizer(TestClusterConfigurations.newClusterConfiguration(2, 2, 0)).getLocalSearchClusterConfiguration(LocalSearchStrategy.TABU, -1, 1000);
+  }
+}
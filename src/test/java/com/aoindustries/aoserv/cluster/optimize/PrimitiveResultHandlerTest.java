@@ -0,0 +1,80 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.SecondaryMappingStrategy;
+import com.aoindustries.aoserv.cluster.analyze.AlertLevel;
+import com.aoindustries.aoserv.cluster.analyze.AnalyzedClusterConfiguration;
+import com.aoindustries.aoserv.cluster.analyze.Check;
+import com.aoindustries.aoserv.cluster.analyze.Result;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests that {@link com.aoindustries.aoserv.cluster.analyze.PrimitiveResultHandler} receives the same
+ * results as {@link com.aoindustries.aoserv.cluster.analyze.ResultHandler}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class PrimitiveResultHandlerTest {
+
+  @Test
+  public void testMatchesResultHandler() {
+    List<ClusterConfiguration> children = new ArrayList<>();
+    List<Transition> childTransitions = new ArrayList<>();
+    List<String> expected = new ArrayList<>();
+    List<String> actual = new ArrayList<>();
+    for (long seed = 0; seed < 4; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newMultiDiskClusterConfiguration(5, 9, seed);
+      new ClusterOptimizer(
+          clusterConfiguration,
+          new LeastInformedHeuristicFunction(),
+          true,
+          false,
+          ClusterOptimizerOptions.DEFAULT.withSecondaryMappingStrategy(SecondaryMappingStrategy.FREE_EXTENTS)
+      ).generateChildren(clusterConfiguration, children, childTransitions, false);
+      children.add(clusterConfiguration);
+      for (ClusterConfiguration child : children) {
+        AnalyzedClusterConfiguration analysis = new AnalyzedClusterConfiguration(child);
+        for (AlertLevel minimumAlertLevel : AlertLevel.values()) {
+          expected.clear();
+          actual.clear();
+          analysis.getAllResults(
+              (Result<?> result) -> expected.add(result.getAlertLevel() + " " + result.getDeviation()),
+              minimumAlertLevel
+          );
+          analysis.getAllResults(
+              (Check check, int subject, AlertLevel alertLevel, double deviation) -> actual.add(alertLevel + " " + deviation),
+              minimumAlertLevel
+          );
+          assertEquals(expected, actual);
+        }
+      }
+    }
+  }
+}
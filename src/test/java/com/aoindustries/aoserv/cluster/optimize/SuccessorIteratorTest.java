@@ -0,0 +1,104 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.SecondaryMappingStrategy;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests {@link SuccessorIterator}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class SuccessorIteratorTest {
+
+  private static ClusterOptimizer newClusterOptimizer(ClusterConfiguration clusterConfiguration) {
+    return new ClusterOptimizer(
+        clusterConfiguration,
+        new LeastInformedHeuristicFunction(),
+        true,
+        false,
+        ClusterOptimizerOptions.DEFAULT.withSecondaryMappingStrategy(SecondaryMappingStrategy.FREE_EXTENTS)
+    );
+  }
+
+  @Test
+  public void testMatchesGenerateChildren() {
+    for (long seed = 0; seed < 4; seed++) {
+      ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newMultiDiskClusterConfiguration(4, 6, seed);
+      ClusterOptimizer optimizer = newClusterOptimizer(clusterConfiguration);
+      List<ClusterConfiguration> children = new ArrayList<>();
+      List<Transition> childTransitions = new ArrayList<>();
+      optimizer.generateChildren(clusterConfiguration, children, childTransitions, false);
+      assertTrue(children.size() > 0);
+
+      SuccessorIterator successors = optimizer.getSuccessors(clusterConfiguration);
+      for (int i = 0; i < children.size(); i++) {
+        assertTrue(successors.hasNext());
+        Transition transition = successors.next();
+        assertEquals(childTransitions.get(i).toString(), transition.toString());
+        ClusterConfiguration child = successors.getChild();
+        assertSame(child, successors.getChild());
+        assertEquals(children.get(i), child);
+        assertEquals(children.get(i), transition.apply(clusterConfiguration));
+      }
+      assertFalse(successors.hasNext());
+    }
+  }
+
+  @Test
+  public void testSkipChildren() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newMultiDiskClusterConfiguration(4, 6, 0);
+    ClusterOptimizer optimizer = newClusterOptimizer(clusterConfiguration);
+    List<ClusterConfiguration> children = new ArrayList<>();
+    List<Transition> childTransitions = new ArrayList<>();
+    optimizer.generateChildren(clusterConfiguration, children, childTransitions, false);
+
+    // Only constructing every other child gives the same children
+    SuccessorIterator successors = optimizer.getSuccessors(clusterConfiguration);
+    int index = 0;
+    while (successors.hasNext()) {
+      successors.next();
+      if ((index & 1) == 0) {
+        assertEquals(children.get(index), successors.getChild());
+      }
+      index++;
+    }
+    assertEquals(children.size(), index);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGetChildBeforeNext() {
+    ClusterConfiguration clusterConfiguration = TestClusterConfigurations.newMultiDiskClusterConfiguration(4, 6, 0);
+    newClusterOptimizer(clusterConfiguration).getSuccessors(clusterConfiguration).getChild();
+  }
+}
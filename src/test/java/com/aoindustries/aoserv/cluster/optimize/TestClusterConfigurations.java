@@ -0,0 +1,174 @@
+/*
+ * aoserv-cluster - Cluster optimizer for the AOServ Platform.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of aoserv-cluster.
+ *
+ * aoserv-cluster is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * aoserv-cluster is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with aoserv-cluster.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.aoserv.cluster.optimize;
+
+import com.aoindustries.aoserv.cluster.Cluster;
+import com.aoindustries.aoserv.cluster.ClusterConfiguration;
+import com.aoindustries.aoserv.cluster.Dom0;
+import com.aoindustries.aoserv.cluster.DomU;
+import com.aoindustries.aoserv.cluster.PhysicalVolume;
+import com.aoindustries.aoserv.cluster.PhysicalVolumeConfiguration;
+import com.aoindustries.aoserv.cluster.ProcessorArchitecture;
+import com.aoindustries.aoserv.cluster.ProcessorType;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Builds synthetic cluster configurations for tests and benchmarks.
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class TestClusterConfigurations {
+
+  /** Make no instances. */
+  private TestClusterConfigurations() {
+    throw new AssertionError();
+  }
+
+  private static final String DEVICE = "/dev/sda";
+  private static final short PARTITION = 1;
+  private static final int DISK_SPEED = 7200;
+  private static final int DOM0_RAM = 4096;
+  private static final long PHYSICAL_VOLUME_EXTENTS = 100000;
+
+  public static String getDom0Hostname(int index) {
+    return "dom0-" + index + ".example.com";
+  }
+
+  public static String getDomUHostname(int index) {
+    return "domU-" + index + ".example.com";
+  }
+
+  /**
+   * Creates a cluster with identical Dom0s, each with one disk and physical volume, and DomUs of
+   * random RAM and disk sizes.  The primaries are packed onto the first Dom0s, overcommitting their RAM,
+   * while the secondaries are spread evenly.
+   */
+  public static ClusterConfiguration newClusterConfiguration(int dom0Count, int domUCount, long seed) {
+    Random random = new Random(seed);
+    Cluster cluster = new Cluster("test");
+    for (int i = 0; i < dom0Count; i++) {
+      String hostname = getDom0Hostname(i);
+      cluster = cluster
+          .addDom0(hostname, DOM0_RAM, ProcessorType.CORE2, ProcessorArchitecture.X86_64, 2000, 8, true)
+          .addDom0Disk(hostname, DEVICE, DISK_SPEED)
+          .addPhysicalVolume(hostname, DEVICE, PARTITION, PHYSICAL_VOLUME_EXTENTS);
+    }
+    int[] extents = new int[domUCount];
+    for (int i = 0; i < domUCount; i++) {
+      String hostname = getDomUHostname(i);
+      int ram = 512 * (1 + random.nextInt(4));
+      extents[i] = 100 * (1 + random.nextInt(10));
+      cluster = cluster
+          .addDomU(hostname, ram, ram, ProcessorType.PIII, ProcessorArchitecture.X86_64, 1000, (short) 1, (short) 1, false, false, false)
+          .addDomUDisk(hostname, DEVICE, DISK_SPEED, extents[i], (short) 16);
+    }
+    ClusterConfiguration clusterConfiguration = new ClusterConfiguration(cluster);
+    long[] nextExtent = new long[dom0Count];
+    for (int i = 0; i < domUCount; i++) {
+      DomU domU = cluster.getDomU(getDomUHostname(i));
+      int primaryIndex = i * dom0Count / (domUCount * 2);
+      int secondaryIndex = (i + 1) % dom0Count;
+      if (secondaryIndex == primaryIndex) {
+        secondaryIndex = (secondaryIndex + 1) % dom0Count;
+      }
+      Dom0 primaryDom0 = cluster.getDom0(getDom0Hostname(primaryIndex));
+      Dom0 secondaryDom0 = cluster.getDom0(getDom0Hostname(secondaryIndex));
+      PhysicalVolume primaryPv = primaryDom0.getDom0Disk(DEVICE).getPhysicalVolume(PARTITION);
+      PhysicalVolume secondaryPv = secondaryDom0.getDom0Disk(DEVICE).getPhysicalVolume(PARTITION);
+      clusterConfiguration = clusterConfiguration
+          .addDomUConfiguration(domU, primaryDom0, secondaryDom0)
+          .addDomUDiskConfiguration(
+              domU,
+              domU.getDomUDisk(DEVICE),
+              Collections.singletonList(PhysicalVolumeConfiguration.newInstance(primaryPv, 0, nextExtent[primaryIndex], extents[i])),
+              Collections.singletonList(PhysicalVolumeConfiguration.newInstance(secondaryPv, 0, nextExtent[secondaryIndex], extents[i]))
+          );
+      nextExtent[primaryIndex] += extents[i];
+      nextExtent[secondaryIndex] += extents[i];
+    }
+    return clusterConfiguration;
+  }
+
+  private static final String[] DEVICES = {"/dev/sda", "/dev/sdb"};
+  private static final short PARTITIONS = 4;
+  private static final long PARTITION_EXTENTS = 1000;
+
+  /**
+   * Creates a cluster with identical Dom0s, each with identical disks of several physical volumes, and DomUs of
+   * random RAM and disk sizes, each disk mapped onto a single whole physical volume, alternating between the disks
+   * of each Dom0 so that the disks are often indistinguishable.  The primaries and
+   * secondaries are placed as in {@link #newClusterConfiguration(int, int, long)}.
+   */
+  public static ClusterConfiguration newMultiDiskClusterConfiguration(int dom0Count, int domUCount, long seed) {
+    Random random = new Random(seed);
+    Cluster cluster = new Cluster("test");
+    for (int i = 0; i < dom0Count; i++) {
+      String hostname = getDom0Hostname(i);
+      cluster = cluster.addDom0(hostname, DOM0_RAM, ProcessorType.CORE2, ProcessorArchitecture.X86_64, 2000, 8, true);
+      for (String device : DEVICES) {
+        cluster = cluster.addDom0Disk(hostname, device, DISK_SPEED);
+        for (short partition = 1; partition <= PARTITIONS; partition++) {
+          cluster = cluster.addPhysicalVolume(hostname, device, partition, PARTITION_EXTENTS);
+        }
+      }
+    }
+    int[] extents = new int[domUCount];
+    for (int i = 0; i < domUCount; i++) {
+      String hostname = getDomUHostname(i);
+      int ram = 512 * (1 + random.nextInt(4));
+      extents[i] = 100 * (1 + random.nextInt(10));
+      cluster = cluster
+          .addDomU(hostname, ram, ram, ProcessorType.PIII, ProcessorArchitecture.X86_64, 1000, (short) 1, (short) 1, false, false, false)
+          .addDomUDisk(hostname, DEVICE, DISK_SPEED, extents[i], (short) 16);
+    }
+    ClusterConfiguration clusterConfiguration = new ClusterConfiguration(cluster);
+    int[] nextPhysicalVolume = new int[dom0Count];
+    for (int i = 0; i < domUCount; i++) {
+      DomU domU = cluster.getDomU(getDomUHostname(i));
+      int primaryIndex = i * dom0Count / (domUCount * 2);
+      int secondaryIndex = (i + 1) % dom0Count;
+      if (secondaryIndex == primaryIndex) {
+        secondaryIndex = (secondaryIndex + 1) % dom0Count;
+      }
+      Dom0 primaryDom0 = cluster.getDom0(getDom0Hostname(primaryIndex));
+      Dom0 secondaryDom0 = cluster.getDom0(getDom0Hostname(secondaryIndex));
+      PhysicalVolume primaryPv = getPhysicalVolume(primaryDom0, nextPhysicalVolume[primaryIndex]++);
+      PhysicalVolume secondaryPv = getPhysicalVolume(secondaryDom0, nextPhysicalVolume[secondaryIndex]++);
+      clusterConfiguration = clusterConfiguration
+          .addDomUConfiguration(domU, primaryDom0, secondaryDom0)
+          .addDomUDiskConfiguration(
+              domU,
+              domU.getDomUDisk(DEVICE),
+              Collections.singletonList(PhysicalVolumeConfiguration.newInstance(primaryPv, 0, 0, extents[i])),
+              Collections.singletonList(PhysicalVolumeConfiguration.newInstance(secondaryPv, 0, 0, extents[i]))
+          );
+    }
+    return clusterConfiguration;
+  }
+
+  private static PhysicalVolume getPhysicalVolume(Dom0 dom0, int index) {
+    return dom0.getDom0Disk(DEVICES[index % DEVICES.length]).getPhysicalVolume((short) (1 + index / DEVICES.length));
+  }
+}